@@ -57,6 +57,8 @@ public abstract class AbstractContourDataSetRendererParameter<R extends Abstract
         }
     };
 
+    private final BooleanProperty tiledHeatMap = new SimpleBooleanProperty(this, "tiledHeatMap", false);
+
     public AbstractContourDataSetRendererParameter() {
         super();
         setMinRequiredReductionSize(3);
@@ -153,6 +155,15 @@ public abstract class AbstractContourDataSetRendererParameter<R extends Abstract
         return reductionTypeProperty().get();
     }
 
+    /**
+     * Returns the value of the {@link #tiledHeatMapProperty()}.
+     *
+     * @return {@code true} if the heat-map is drawn using the tile-based multi-resolution cache
+     */
+    public boolean isTiledHeatMap() {
+        return tiledHeatMapProperty().get();
+    }
+
     /**
      * This is used to compare different implementation and to potentially fall-back to an older reference
      * implementation
@@ -265,6 +276,15 @@ public abstract class AbstractContourDataSetRendererParameter<R extends Abstract
         reductionTypeProperty().set(value);
     }
 
+    /**
+     * Sets the value of the {@link #tiledHeatMapProperty()}.
+     *
+     * @param state {@code true} to draw the heat-map using the tile-based multi-resolution cache
+     */
+    public void setTiledHeatMap(final boolean state) {
+        tiledHeatMapProperty().set(state);
+    }
+
     /**
      * Sets the value of the {@link #smoothProperty()}.
      *
@@ -289,4 +309,18 @@ public abstract class AbstractContourDataSetRendererParameter<R extends Abstract
     public BooleanProperty smoothProperty() {
         return smooth;
     }
+
+    /**
+     * Draws the {@link de.gsi.chart.renderer.ContourType#HEATMAP HEATMAP} via a tile-based, mip-mapped cache: only tiles
+     * that are not yet cached (e.g. that come into view while panning) or whose data changed are recomputed. This is
+     * recommended for large, rarely updated data sets (e.g. spectrograms).
+     * <p>
+     * By default the tile cache is disabled.
+     * </p>
+     *
+     * @return tiledHeatMap property
+     */
+    public BooleanProperty tiledHeatMapProperty() {
+        return tiledHeatMap;
+    }
 }
@@ -18,9 +18,11 @@ import de.gsi.dataset.DataSet;
 import de.gsi.dataset.DataSet2D;
 import de.gsi.dataset.DataSetError;
 import de.gsi.dataset.DataSetError.ErrorType;
+import de.gsi.dataset.spi.TimeSeriesDataSet;
 import de.gsi.dataset.utils.ArrayCache;
 import de.gsi.dataset.utils.CachedDaemonThreadFactory;
 import de.gsi.dataset.utils.ProcessingProfiler;
+import de.gsi.dataset.utils.TimeStampUtils;
 import de.gsi.math.ArrayUtils;
 
 /**
@@ -380,8 +382,39 @@ class CachedDataPoints {
         });
     }
 
+    /**
+     * bulk screen transform of native nanosecond time-stamps: the axis offset is subtracted in exact long arithmetic
+     * so that sub-microsecond differences survive also for present-day absolute UTC time-stamps
+     *
+     * @return {@code false} if not applicable (other DataSet types or non-linear axis transforms)
+     */
+    private boolean computeTimeStamps(final Axis axis, final DataSet dataSet, final int min, final int max) {
+        if (!(dataSet instanceof TimeSeriesDataSet) || axis.isLogAxis()) {
+            return false;
+        }
+        final double axisMin = axis.getMin();
+        final double axisMax = axis.getMax();
+        final double p0 = axis.getDisplayPosition(axisMin);
+        final double p1 = axis.getDisplayPosition(axisMax);
+        final double pMid = axis.getDisplayPosition(0.5 * (axisMin + axisMax));
+        if (!(axisMax > axisMin) || !Double.isFinite(p0) || !Double.isFinite(p1)
+                || Math.abs(pMid - 0.5 * (p0 + p1)) > 1e-3) {
+            // fall back to the generic per-point axis transform
+            return false;
+        }
+        final TimeSeriesDataSet timeSeries = (TimeSeriesDataSet) dataSet;
+        final long originNanos = TimeStampUtils.toNanos(axisMin);
+        final double pixelsPerNano = (p1 - p0) / ((axisMax - axisMin) * TimeStampUtils.NANOS_PER_SECOND);
+        timeSeries.lock().readLockGuardOptimistic(() -> TimeStampUtils.toScreen(timeSeries.getTimeStamps(), min, max,
+                originNanos, p0, pixelsPerNano, xValues, min));
+        return true;
+    }
+
     private void computeWithNoError(final Axis axis, final DataSet dataSet, final int dimIndex, final int min,
             final int max) {
+        if (dimIndex == DIM_X && computeTimeStamps(axis, dataSet, min, max)) {
+            return;
+        }
         // no error attached
         dataSet.lock().readLockGuardOptimistic(() -> {
             final double[] values = dimIndex == DIM_X ? xValues : yValues;
@@ -406,6 +439,9 @@ class CachedDataPoints {
 
     private void computeWithNoErrorAllowingNaNs(final Axis axis, final DataSet dataSet, final int dimIndex,
             final int min, final int max) {
+        if (dimIndex == DIM_X && computeTimeStamps(axis, dataSet, min, max)) {
+            return;
+        }
         // no error attached
         dataSet.lock().readLockGuardOptimistic(() -> {
             final double[] values = dimIndex == DIM_X ? xValues : yValues;
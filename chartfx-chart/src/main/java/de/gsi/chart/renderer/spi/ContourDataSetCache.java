@@ -41,8 +41,7 @@ class ContourDataSetCache {
     private static final String CLASS_NAME = ContourDataSetCache.class.getSimpleName() + System.currentTimeMillis();
     private static final String DATA_COPY_BUFFER_NAME = CLASS_NAME + ":dataBuffer";
     private static final String TEMP_DATA_COPY_BUFFER_NAME = CLASS_NAME + ":tempDataBuffer";
-    private static final String BGRA_BYTE_BUFFER_NAME = CLASS_NAME + ":bgraByteBuffer";
-    private static final int BGRA_BYTE_SIZE = 4;
+    private static final String ARGB_BUFFER_NAME = CLASS_NAME + ":argbBuffer";
     private static final int REF_WIDTH_PARALLEL = 1024;
     private static final int REF_HEIGHT_PARALLEL = 1000;
 
@@ -351,8 +350,6 @@ class ContourDataSetCache {
             final ColorGradient colorGradient) {
         final int length = dataWidth * dataHeight;
 
-        final byte[] byteBuffer = ArrayCache.getCachedByteArray(BGRA_BYTE_BUFFER_NAME, length * BGRA_BYTE_SIZE);
-        final int rowSizeInBytes = BGRA_BYTE_SIZE * dataWidth;
         final WritableImage image = new WritableImage(dataWidth, dataHeight);
         final PixelWriter pixelWriter = image.getPixelWriter();
         if (pixelWriter == null) {
@@ -362,25 +359,17 @@ class ContourDataSetCache {
             return image;
         }
 
+        // input data are already normalised (and quantised) to [0, 1]
+        final int[] argbBuffer = ArrayCache.getCachedIntArray(ARGB_BUFFER_NAME, length);
+        colorGradient.mapToArgb(inputData, 0, length, 0.0, 1.0, argbBuffer);
+
+        // N.B. image row '0' is the top-most row, ie. the highest y index
         final int hMinus1 = dataHeight - 1;
         for (int yIndex = 0; yIndex < dataHeight; yIndex++) {
-            final int rowIndex = dataWidth * yIndex;
-            final int rowPixelIndex = rowSizeInBytes * (hMinus1 - yIndex);
-            for (int xIndex = 0; xIndex < dataWidth; xIndex++) {
-                final int x = xIndex;
-                final int[] color = colorGradient.getColorBytes(inputData[rowIndex + xIndex]);
-
-                final int pixelIndex = rowPixelIndex + x * BGRA_BYTE_SIZE;
-                byteBuffer[pixelIndex] = (byte) (color[3]);
-                byteBuffer[pixelIndex + 1] = (byte) (color[2]);
-                byteBuffer[pixelIndex + 2] = (byte) (color[1]);
-                byteBuffer[pixelIndex + 3] = (byte) (color[0]);
-            }
+            pixelWriter.setPixels(0, hMinus1 - yIndex, dataWidth, 1, PixelFormat.getIntArgbPreInstance(), argbBuffer,
+                    yIndex * dataWidth, dataWidth);
         }
-
-        pixelWriter.setPixels(0, 0, dataWidth, dataHeight, PixelFormat.getByteBgraPreInstance(), byteBuffer, 0,
-                rowSizeInBytes);
-        ArrayCache.release(BGRA_BYTE_BUFFER_NAME, byteBuffer);
+        ArrayCache.release(ARGB_BUFFER_NAME, argbBuffer);
         return image;
     }
 
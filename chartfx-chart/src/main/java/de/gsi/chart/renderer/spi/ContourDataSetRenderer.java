@@ -8,8 +8,10 @@ import static de.gsi.dataset.DataSet.DIM_Y;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
@@ -36,16 +38,18 @@ import de.gsi.chart.axes.Axis;
 import de.gsi.chart.axes.AxisTransform;
 import de.gsi.chart.axes.spi.DefaultNumericAxis;
 import de.gsi.chart.plugins.Zoomer;
+import de.gsi.chart.renderer.ContourType;
 import de.gsi.chart.renderer.Renderer;
 import de.gsi.chart.renderer.spi.hexagon.Hexagon;
 import de.gsi.chart.renderer.spi.hexagon.HexagonMap;
 import de.gsi.chart.renderer.spi.hexagon.HexagonMap.Direction;
-import de.gsi.chart.renderer.spi.marchingsquares.GeneralPath;
-import de.gsi.chart.renderer.spi.marchingsquares.MarchingSquares;
+import de.gsi.chart.renderer.spi.marchingsquares.IsoLines;
+import de.gsi.chart.renderer.spi.marchingsquares.MarchingSquaresEngine;
 import de.gsi.chart.renderer.spi.utils.ColorGradient;
 import de.gsi.chart.ui.geometry.Side;
 import de.gsi.dataset.DataSet;
 import de.gsi.dataset.DataSet3D;
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
 import de.gsi.dataset.utils.ProcessingProfiler;
 
 /**
@@ -68,6 +72,9 @@ import de.gsi.dataset.utils.ProcessingProfiler;
  * DOWN_SAMPLE) via {@link #setReductionType}, and the {@link #setReductionFactorX(int)} and
  * {@link #setReductionFactorY(int)} functions.
  * 
+ * Ring-buffered {@link CircularDoubleDataSet3D} (waterfall/spectrogram) data sets are drawn as heat-map incrementally,
+ * ie. only newly pushed rows are colour-mapped while the existing image rows are re-used.
+ * 
  * N.B. Regarding implementation of user-level DataSet interfaces: While the DataSet3D::getZ(int) and
  * DataSet::get(DIM_Z, int) routines should match, the DataSet3D is considered a convenience interface primarily to be
  * used for external user-level code.
@@ -83,61 +90,81 @@ public class ContourDataSetRenderer extends AbstractContourDataSetRendererParame
     private static final Logger LOGGER = LoggerFactory.getLogger(ContourDataSetRenderer.class);
 
     private ContourDataSetCache localCache;
+    private final Map<DataSet, ContourDataSetTileCache> tileCaches = new WeakHashMap<>();
+    private final Map<CircularDoubleDataSet3D, ContourDataSetWaterfallCache> waterfallCaches = new WeakHashMap<>();
     private Axis zAxis;
     protected final Rectangle gradientRect = new Rectangle();
 
+    public ContourDataSetRenderer() {
+        super();
+        getDatasets().addListener(this::datasetsChanged);
+    }
+
     private int clamp(int value, int range) {
         return Math.max(Math.min(value, range), 0);
     }
 
+    /**
+     * detaches the tile and waterfall caches of removed data sets, ie. their listeners and cached images
+     *
+     * @param change data set list change
+     */
+    private void datasetsChanged(final ListChangeListener.Change<? extends DataSet> change) {
+        while (change.next()) {
+            for (final DataSet dataSet : change.getRemoved()) {
+                if (getDatasets().contains(dataSet)) {
+                    // still (or again) rendered, e.g. after a permutation or setAll(...)
+                    continue;
+                }
+                final ContourDataSetTileCache tileCache = tileCaches.remove(dataSet);
+                if (tileCache != null) {
+                    tileCache.dispose(dataSet);
+                }
+                final ContourDataSetWaterfallCache waterfallCache = waterfallCaches.remove(dataSet);
+                if (waterfallCache != null) {
+                    waterfallCache.dispose((CircularDoubleDataSet3D) dataSet);
+                }
+            }
+        }
+    }
+
     private void drawContour(final GraphicsContext gc, final ContourDataSetCache lCache) {
         final double[] levels = new double[getNumberQuantisationLevels()];
         for (int i = 0; i < levels.length; i++) {
             levels[i] = (i + 1) / (double) levels.length;
         }
 
-        final int xSize = lCache.xSize;
-        final int ySize = lCache.ySize;
-        final double[][] data = new double[ySize][xSize];
-        for (int yIndex = 0; yIndex < ySize; yIndex++) {
-            for (int xIndex = 0; xIndex < xSize; xIndex++) {
-                final double offset = lCache.reduced[yIndex * xSize + xIndex];
-                data[ySize - 1 - yIndex][xIndex] = offset;
-            }
-        }
-
         // abort if min/max == 0 -> cannot compute contours
         final double zRange = Math.abs(lCache.zMax - lCache.zMin);
         if (zRange <= 0) {
             return;
         }
 
+        final int xSize = lCache.xSize;
+        final int ySize = lCache.ySize;
         final ColorGradient colorGradient = getColorGradient();
-        final MarchingSquares marchingSquares = new MarchingSquares();
         final double scaleX = lCache.xDataPixelRange / xSize;
         final double scaleY = lCache.yDataPixelRange / ySize;
         gc.save();
-        gc.translate(lCache.xDataPixelMin, lCache.yDataPixelMin);
-        gc.scale(scaleX, scaleY);
-        final GeneralPath[] isolines;
+        // N.B. contour coordinates are in data index units at the cell centres, rows of 'reduced' are drawn bottom-up
+        gc.translate(lCache.xDataPixelMin + 0.5 * scaleX, lCache.yDataPixelMin + (ySize - 0.5) * scaleY);
+        gc.scale(scaleX, -scaleY);
         try {
-            isolines = marchingSquares.buildContours(data, levels);
-            int levelCount = 0;
-            for (final GeneralPath path : isolines) {
-                if (path.size() > getMaxContourSegments()) {
-                    levelCount++;
+            final IsoLines[] isolines = new MarchingSquaresEngine().buildIsoLines(lCache.reduced, xSize, ySize, levels);
+            for (final IsoLines lines : isolines) {
+                if (lines.getPointCount() > getMaxContourSegments()) {
                     continue;
                 }
-                final Color color = lCache.zInverted ? colorGradient.getColor(1 - levels[levelCount++])
-                                                     : colorGradient.getColor(levels[levelCount++]);
+                final Color color = lCache.zInverted ? colorGradient.getColor(1 - lines.getLevel())
+                                                     : colorGradient.getColor(lines.getLevel());
                 gc.setStroke(color);
                 gc.setLineDashes(1.0);
                 gc.setMiterLimit(10);
                 gc.setFill(color);
                 gc.setLineWidth(0.5);
-                path.draw(gc);
+                lines.draw(gc);
             }
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (IllegalArgumentException | IllegalStateException e) {
             if (LOGGER.isErrorEnabled()) {
                 LOGGER.atError().setCause(e).log("marchingSquares algorithm");
             }
@@ -226,6 +253,43 @@ public class ContourDataSetRenderer extends AbstractContourDataSetRendererParame
         ProcessingProfiler.getTimeDiff(start, "drawHeatMap");
     }
 
+    private void drawTiledHeatMap(final GraphicsContext gc, final XYChart chart, final DataSet dataSet) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        final ContourDataSetTileCache tileCache = tileCaches.computeIfAbsent(dataSet, ContourDataSetTileCache::new);
+        final List<ContourDataSetTileCache.Tile> visibleTiles = dataSet.lock().readLockGuard(() -> {
+            if (dataSet.getDataCount(DIM_X) == 0 || dataSet.getDataCount(DIM_Y) == 0) {
+                return new ArrayList<>();
+            }
+            return tileCache.update(chart, this, dataSet);
+        });
+        if (visibleTiles.isEmpty()) {
+            return;
+        }
+        layoutZAxis(getZAxis());
+        tileCache.draw(gc, chart.getXAxis(), chart.getYAxis(), visibleTiles, isSmooth());
+        ProcessingProfiler.getTimeDiff(start, "drawTiledHeatMap");
+    }
+
+    private void drawWaterfallHeatMap(final GraphicsContext gc, final XYChart chart,
+            final CircularDoubleDataSet3D dataSet) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        final ContourDataSetWaterfallCache waterfallCache = waterfallCaches.computeIfAbsent(dataSet,
+                ContourDataSetWaterfallCache::new);
+        final boolean result = dataSet.lock().readLockGuard(() -> {
+            if (dataSet.getDataCount(DIM_X) == 0 || dataSet.getDataCount(DIM_Y) == 0) {
+                return false;
+            }
+            waterfallCache.update(this, dataSet);
+            return true;
+        });
+        if (!result) {
+            return;
+        }
+        layoutZAxis(getZAxis());
+        waterfallCache.draw(gc, chart.getXAxis(), chart.getYAxis(), isSmooth());
+        ProcessingProfiler.getTimeDiff(start, "drawWaterfallHeatMap");
+    }
+
     private void drawHeatMapOld(final GraphicsContext gc, final AxisTransform axisTransform,
             final ContourDataSetCache lCache) {
         if (!(lCache.dataSet instanceof DataSet3D)) {
@@ -613,6 +677,18 @@ public class ContourDataSetRenderer extends AbstractContourDataSetRendererParame
                 // minimum dimension criteria not met
                 continue;
             }
+            if (dataSet instanceof CircularDoubleDataSet3D && getContourType() == ContourType.HEATMAP
+                    && !isAltImplementation()) {
+                drawWaterfallHeatMap(gc, xyChart, (CircularDoubleDataSet3D) dataSet);
+                ProcessingProfiler.getTimeDiff(mid, "finished drawing");
+                continue;
+            }
+            if (isTiledHeatMap() && getContourType() == ContourType.HEATMAP && !isAltImplementation()) {
+                drawTiledHeatMap(gc, xyChart, dataSet);
+                ProcessingProfiler.getTimeDiff(mid, "finished drawing");
+                continue;
+            }
+
             final boolean result = dataSet.lock().readLockGuard(() -> {
                 long stop = ProcessingProfiler.getTimeDiff(mid, "dataSet.lock()");
 
@@ -0,0 +1,509 @@
+package de.gsi.chart.renderer.spi;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+import static de.gsi.dataset.DataSet.DIM_Z;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import de.gsi.chart.XYChart;
+import de.gsi.chart.axes.Axis;
+import de.gsi.chart.axes.AxisTransform;
+import de.gsi.chart.renderer.datareduction.ReductionType;
+import de.gsi.chart.renderer.spi.utils.ColorGradient;
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.event.EventListener;
+import de.gsi.dataset.event.IndexRange;
+import de.gsi.dataset.event.UpdateEvent;
+import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+import de.gsi.dataset.utils.ProcessingProfiler;
+
+/**
+ * Tile-based, multi-resolution (mip-mapped) heat-map cache for {@link ContourDataSetRenderer}.
+ * <p>
+ * The data grid is split into tiles of {@link #TILE_SIZE}x{@link #TILE_SIZE} pixels. On mip-level 'L' each tile pixel
+ * represents a block of 2^L x 2^L data cells reduced according to the renderer's {@link ReductionType}. Tiles keep
+ * their reduced z values and colour image and are only recomputed if they are not yet cached (e.g. come into view
+ * while panning), if their rows have been modified, or -- for the colour image only -- if the z colour mapping has
+ * changed. Data events carrying the modified rows as {@link IndexRange} pay-load (e.g. appended rows) drop only the
+ * overlapping tiles, other data events drop all tiles. The number of cached tiles is bounded (least-recently-used
+ * tiles are dropped first).
+ * <p>
+ * N.B. the source DataSet must be a row-major grid (see {@link ContourDataSetRenderer}) and should be read-locked while
+ * calling {@link #update}.
+ */
+class ContourDataSetTileCache {
+    protected static final int TILE_SIZE = 256;
+    protected static final int DEFAULT_MAX_TILES = 256;
+    private static final String PARALLEL_WORKER_ERROR = "one parallel worker thread finished execution with error";
+
+    private final int maxTiles;
+    private final Map<Long, Tile> tiles;
+    private final EventListener dataSetListener = this::handleDataSetEvent;
+
+    // colour mapping the cached tile images are based on
+    private double zMin = Double.NaN;
+    private double zMax = Double.NaN;
+    private boolean zInverted;
+    private int nQuant;
+    private ColorGradient colorGradient;
+    private AxisTransform axisTransform;
+    private ReductionType reductionType;
+    private long colourStamp;
+
+    /**
+     * @param dataSet source DataSet
+     */
+    public ContourDataSetTileCache(final DataSet dataSet) {
+        this(dataSet, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * @param dataSet source DataSet
+     * @param maxTiles maximum number of cached tiles (all mip-levels)
+     */
+    public ContourDataSetTileCache(final DataSet dataSet, final int maxTiles) {
+        if (maxTiles <= 0) {
+            throw new IllegalArgumentException("maxTiles must be positive: " + maxTiles);
+        }
+        this.maxTiles = maxTiles;
+        this.tiles = new LinkedHashMap<>(2 * maxTiles, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Tile> eldest) {
+                return size() > ContourDataSetTileCache.this.maxTiles;
+            }
+        };
+        dataSet.addListener(dataSetListener);
+    }
+
+    /**
+     * Detaches this cache from its source DataSet.
+     *
+     * @param dataSet source DataSet
+     */
+    public void dispose(final DataSet dataSet) {
+        dataSet.removeListener(dataSetListener);
+        invalidate();
+    }
+
+    /**
+     * Draws the given tiles onto the canvas.
+     *
+     * @param gc the canvas graphics context
+     * @param xAxis horizontal axis
+     * @param yAxis vertical axis
+     * @param visibleTiles tiles as returned by {@link #update}
+     * @param smooth {@code true}: apply image smoothing
+     */
+    public void draw(final GraphicsContext gc, final Axis xAxis, final Axis yAxis, final List<Tile> visibleTiles,
+            final boolean smooth) {
+        gc.setImageSmoothing(smooth);
+        for (final Tile tile : visibleTiles) {
+            final double xLeft = xAxis.getDisplayPosition(tile.xEdgeMin);
+            final double xRight = xAxis.getDisplayPosition(tile.xEdgeMax);
+            final double yBottom = yAxis.getDisplayPosition(tile.yEdgeMin);
+            final double yTop = yAxis.getDisplayPosition(tile.yEdgeMax);
+            // N.B. image row '0' corresponds to the lowest y index, negative scales take care of inverted axes
+            gc.save();
+            gc.translate(xLeft, yBottom);
+            gc.scale((xRight - xLeft) / tile.width, (yTop - yBottom) / tile.height);
+            gc.drawImage(tile.image, 0, 0);
+            gc.restore();
+        }
+    }
+
+    /**
+     * @return number of currently cached tiles
+     */
+    public synchronized int getCachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Returns the tiles covering the given data index range, computing the reduced z values of missing tiles. The
+     * returned tiles do not yet have a (valid) colour image, see {@link #colourise}.
+     *
+     * @param dataSet source DataSet (N.B. should be read-locked)
+     * @param level mip-level (each tile pixel covers 2^level x 2^level data cells)
+     * @param xIndexMin minimum x data index (inclusive)
+     * @param xIndexMax maximum x data index (inclusive)
+     * @param yIndexMin minimum y data index (inclusive)
+     * @param yIndexMax maximum y data index (inclusive)
+     * @param type reduction type used to combine data cells of a tile pixel
+     * @param parallel {@code true}: compute missing tiles concurrently
+     * @return tiles covering the given index range
+     */
+    public synchronized List<Tile> getTiles(final DataSet dataSet, final int level, final int xIndexMin,
+            final int xIndexMax, final int yIndexMin, final int yIndexMax, final ReductionType type,
+            final boolean parallel) {
+        if (type != reductionType) {
+            // reduced tile values are no longer valid
+            tiles.clear();
+            reductionType = type;
+        }
+        final int blockSize = 1 << level;
+        final int tileCells = TILE_SIZE * blockSize;
+        final int nx = dataSet.getDataCount(DIM_X);
+        final int ny = dataSet.getDataCount(DIM_Y);
+        final List<Tile> visibleTiles = new ArrayList<>();
+        if (nx == 0 || ny == 0) {
+            return visibleTiles;
+        }
+        final List<Tile> missingTiles = new ArrayList<>();
+        for (int ty = Math.max(0, yIndexMin) / tileCells; ty <= Math.min(yIndexMax, ny - 1) / tileCells; ty++) {
+            for (int tx = Math.max(0, xIndexMin) / tileCells; tx <= Math.min(xIndexMax, nx - 1) / tileCells; tx++) {
+                final long key = getKey(level, tx, ty);
+                Tile tile = tiles.get(key);
+                if (tile == null || !tile.isValid(nx, ny)) {
+                    tile = new Tile(level, tx, ty, nx, ny);
+                    tiles.put(key, tile);
+                    missingTiles.add(tile);
+                }
+                visibleTiles.add(tile);
+            }
+        }
+
+        if (!parallel || missingTiles.size() <= 1) {
+            for (final Tile tile : missingTiles) {
+                tile.compute(dataSet, type);
+            }
+            return visibleTiles;
+        }
+
+        final List<Callable<Boolean>> workers = new ArrayList<>(missingTiles.size());
+        for (final Tile tile : missingTiles) {
+            workers.add(() -> {
+                tile.compute(dataSet, type);
+                return Boolean.TRUE;
+            });
+        }
+        try {
+            final List<Future<Boolean>> jobs = CachedDaemonThreadFactory.getCommonPool().invokeAll(workers);
+            for (final Future<Boolean> future : jobs) {
+                final Boolean r = future.get();
+                if (Boolean.FALSE.equals(r)) {
+                    throw new IllegalStateException(PARALLEL_WORKER_ERROR);
+                }
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(PARALLEL_WORKER_ERROR, e);
+        }
+        return visibleTiles;
+    }
+
+    /**
+     * Updates the colour images of the given tiles. Images are only recomputed if the colour mapping changed since
+     * they have been generated.
+     *
+     * @param visibleTiles tiles to be coloured
+     * @param min minimum z value
+     * @param max maximum z value
+     * @param inverted {@code true}: inverted z axis
+     * @param transform z axis transform
+     * @param nQuantisation number of colour quantisation levels
+     * @param gradient colour gradient
+     */
+    public synchronized void colourise(final List<Tile> visibleTiles, final double min, final double max,
+            final boolean inverted, final AxisTransform transform, final int nQuantisation,
+            final ColorGradient gradient) {
+        if (Double.compare(min, zMin) != 0 || Double.compare(max, zMax) != 0 || inverted != zInverted
+                || transform != axisTransform || nQuantisation != nQuant || gradient != colorGradient) {
+            zMin = min;
+            zMax = max;
+            zInverted = inverted;
+            axisTransform = transform;
+            nQuant = nQuantisation;
+            colorGradient = gradient;
+            colourStamp++;
+        }
+        for (final Tile tile : visibleTiles) {
+            if (tile.image == null || tile.colourStamp != colourStamp) {
+                tile.colourise(this);
+                tile.colourStamp = colourStamp;
+            }
+        }
+    }
+
+    /**
+     * invalidates all cached tiles
+     */
+    public synchronized void invalidate() {
+        tiles.clear();
+    }
+
+    /**
+     * Invalidates the tiles (all mip-levels) that overlap the given range of data rows.
+     *
+     * @param yIndexMin minimum y data index (inclusive)
+     * @param yIndexMax maximum y data index (inclusive)
+     */
+    public synchronized void invalidateRows(final int yIndexMin, final int yIndexMax) {
+        tiles.values().removeIf(tile -> tile.yIndexMin <= yIndexMax && tile.yIndexMax >= yIndexMin);
+    }
+
+    /**
+     * Updates the tiles for the visible range of the given chart and renderer.
+     *
+     * @param chart the chart providing the x and y axes
+     * @param renderer the renderer providing the z axis and drawing parameters
+     * @param dataSet source DataSet (N.B. should be read-locked)
+     * @return visible tiles, ready to be drawn
+     */
+    public List<Tile> update(final XYChart chart, final ContourDataSetRenderer renderer, final DataSet dataSet) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        final Axis xAxis = chart.getXAxis();
+        final Axis yAxis = chart.getYAxis();
+        final Axis zAxis = renderer.getZAxis();
+        final AxisTransform transform = zAxis.getAxisTransform();
+        if (transform == null) {
+            throw new IllegalArgumentException("zAxis of renderer needs to have an axis transform for its z-Axis");
+        }
+
+        final double xAxisWidth = xAxis.getWidth();
+        final double yAxisHeight = yAxis.getHeight();
+        final double xMin = xAxis.getValueForDisplay(0);
+        final double xMax = xAxis.getValueForDisplay(xAxisWidth);
+        final double yMin = yAxis.getValueForDisplay(yAxisHeight);
+        final double yMax = yAxis.getValueForDisplay(0);
+        final int indexX1 = dataSet.getIndex(DIM_X, xMin);
+        final int indexX2 = dataSet.getIndex(DIM_X, xMax);
+        final int indexY1 = dataSet.getIndex(DIM_Y, yMin);
+        final int indexY2 = dataSet.getIndex(DIM_Y, yMax);
+        final int xIndexMin = Math.min(indexX1, indexX2);
+        final int xIndexMax = Math.max(indexX1, indexX2);
+        final int yIndexMin = Math.min(indexY1, indexY2);
+        final int yIndexMax = Math.max(indexY1, indexY2);
+
+        // choose mip-level w.r.t. the number of data cells per screen pixel
+        final int level;
+        if (renderer.isActualReducePoints()) {
+            final double cellsPerPixelX = Math.max(renderer.getReductionFactorX(), 1) * (xIndexMax - xIndexMin + 1)
+                                          / Math.max(xAxisWidth, 1.0);
+            final double cellsPerPixelY = Math.max(renderer.getReductionFactorY(), 1) * (yIndexMax - yIndexMin + 1)
+                                          / Math.max(yAxisHeight, 1.0);
+            level = getLevel(Math.min(cellsPerPixelX, cellsPerPixelY));
+        } else {
+            level = 0;
+        }
+
+        final List<Tile> visibleTiles = getTiles(dataSet, level, xIndexMin, xIndexMax, yIndexMin, yIndexMax,
+                renderer.getReductionType(), renderer.isParallelImplementation());
+        ProcessingProfiler.getTimeDiff(start, "update tiles");
+
+        double min = zAxis.getMin();
+        double max = zAxis.getMax();
+        if (renderer.computeLocalRange() && (zAxis.isAutoRanging() || zAxis.isAutoGrowRanging())) {
+            // N.B. local range is computed on tile granularity
+            double localMin = Double.MAX_VALUE;
+            double localMax = -Double.MAX_VALUE;
+            for (final Tile tile : visibleTiles) {
+                localMin = Math.min(localMin, tile.zMin);
+                localMax = Math.max(localMax, tile.zMax);
+            }
+            if (localMin <= localMax) {
+                min = localMin;
+                max = localMax;
+            }
+        }
+        colourise(visibleTiles, min, max, zAxis.isInvertedAxis(), transform, renderer.getNumberQuantisationLevels(),
+                renderer.getColorGradient());
+        ProcessingProfiler.getTimeDiff(start, "colourise tiles");
+        return visibleTiles;
+    }
+
+    /**
+     * @param cellsPerPixel number of data cells per screen pixel
+     * @return the coarsest mip-level that still has at least one tile pixel per screen pixel
+     */
+    protected static int getLevel(final double cellsPerPixel) {
+        if (!(cellsPerPixel >= 2.0)) {
+            return 0;
+        }
+        return Math.min(30, 31 - Integer.numberOfLeadingZeros((int) Math.min(cellsPerPixel, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * @param dataSet source data set
+     * @param dimIndex dimension (x or y)
+     * @param index cell index ('n' yields the upper edge of the last cell)
+     * @return lower edge of the given data cell, ie. the mid-point to its preceding cell
+     */
+    protected static double getEdge(final DataSet dataSet, final int dimIndex, final int index) {
+        final int n = dataSet.getDataCount(dimIndex);
+        if (n == 1) {
+            final double value = dataSet.get(dimIndex, 0);
+            return index == 0 ? value - 0.5 : value + 0.5;
+        }
+        if (index <= 0) {
+            final double first = dataSet.get(dimIndex, 0);
+            return first - 0.5 * (dataSet.get(dimIndex, 1) - first);
+        }
+        if (index >= n) {
+            final double last = dataSet.get(dimIndex, n - 1);
+            return last + 0.5 * (last - dataSet.get(dimIndex, n - 2));
+        }
+        return 0.5 * (dataSet.get(dimIndex, index - 1) + dataSet.get(dimIndex, index));
+    }
+
+    /**
+     * Drops the tiles affected by the data event: only those overlapping the modified rows if the event carries a row
+     * range, all tiles otherwise.
+     *
+     * @param evt the data set event
+     */
+    protected void handleDataSetEvent(final UpdateEvent evt) {
+        final Object payload = evt.getPayLoad();
+        if (evt instanceof UpdatedDataEvent && payload instanceof IndexRange
+                && ((IndexRange) payload).getDimIndex() == DIM_Y) {
+            final IndexRange rows = (IndexRange) payload;
+            invalidateRows(rows.getMin(), rows.getMax());
+            return;
+        }
+        invalidate();
+    }
+
+    private static long getKey(final int level, final int tx, final int ty) {
+        return ((long) level << 58) | ((long) ty << 29) | tx;
+    }
+
+    /**
+     * A cached tile, ie. a rectangular block of reduced z values and its colour image.
+     */
+    protected static class Tile {
+        protected final int level;
+        protected final int nx;
+        protected final int ny;
+        protected final int xIndexMin;
+        protected final int xIndexMax;
+        protected final int yIndexMin;
+        protected final int yIndexMax;
+        protected final int width;
+        protected final int height;
+        protected final float[] values;
+        protected double xEdgeMin;
+        protected double xEdgeMax;
+        protected double yEdgeMin;
+        protected double yEdgeMax;
+        protected double zMin = Double.MAX_VALUE;
+        protected double zMax = -Double.MAX_VALUE;
+        protected WritableImage image;
+        protected long colourStamp;
+
+        protected Tile(final int level, final int tx, final int ty, final int nx, final int ny) {
+            this.level = level;
+            this.nx = nx;
+            this.ny = ny;
+            final int blockSize = 1 << level;
+            final int tileCells = TILE_SIZE * blockSize;
+            xIndexMin = tx * tileCells;
+            xIndexMax = Math.min(xIndexMin + tileCells, nx) - 1;
+            yIndexMin = ty * tileCells;
+            yIndexMax = Math.min(yIndexMin + tileCells, ny) - 1;
+            width = (xIndexMax - xIndexMin + blockSize) / blockSize;
+            height = (yIndexMax - yIndexMin + blockSize) / blockSize;
+            values = new float[width * height];
+        }
+
+        /**
+         * @param nx present number of columns
+         * @param ny present number of rows
+         * @return {@code true}: the tile extent and cell edges are unaffected by the present grid size
+         */
+        protected boolean isValid(final int nx, final int ny) {
+            if (nx != this.nx) {
+                return false;
+            }
+            // rows appended to or removed from the grid only affect the tile if it covers(ed) the last row
+            return ny == this.ny || (yIndexMax + 1 < this.ny && yIndexMax + 1 < ny);
+        }
+
+        /**
+         * @param dataSet source data set
+         * @param type reduction type
+         */
+        protected void compute(final DataSet dataSet, final ReductionType type) {
+            xEdgeMin = getEdge(dataSet, DIM_X, xIndexMin);
+            xEdgeMax = getEdge(dataSet, DIM_X, xIndexMax + 1);
+            yEdgeMin = getEdge(dataSet, DIM_Y, yIndexMin);
+            yEdgeMax = getEdge(dataSet, DIM_Y, yIndexMax + 1);
+
+            final int blockSize = 1 << level;
+            for (int py = 0; py < height; py++) {
+                final int y0 = yIndexMin + py * blockSize;
+                final int y1 = Math.min(y0 + blockSize, yIndexMax + 1);
+                for (int px = 0; px < width; px++) {
+                    final int x0 = xIndexMin + px * blockSize;
+                    final int x1 = Math.min(x0 + blockSize, xIndexMax + 1);
+                    final double value = reduce(dataSet, type, x0, x1, y0, y1);
+                    values[py * width + px] = (float) value;
+                    if (value < zMin) {
+                        zMin = value;
+                    }
+                    if (value > zMax) {
+                        zMax = value;
+                    }
+                }
+            }
+        }
+
+        protected void colourise(final ContourDataSetTileCache cache) {
+            if (image == null) {
+                image = new WritableImage(width, height);
+            }
+            final PixelWriter pixelWriter = image.getPixelWriter();
+            final int[] argbBuffer = new int[width * height];
+            final double zMinPixel = cache.axisTransform.forward(cache.zMin);
+            final double zRangeInv = 1.0 / Math.abs(cache.axisTransform.forward(cache.zMax) - zMinPixel);
+            for (int index = 0; index < values.length; index++) {
+                final double offset = (cache.axisTransform.forward(values[index]) - zMinPixel) * zRangeInv;
+                final double quant = cache.zInverted ? ContourDataSetCache.quantize(1 - offset, cache.nQuant)
+                                                     : ContourDataSetCache.quantize(offset, cache.nQuant);
+                argbBuffer[index] = cache.colorGradient.getArgb(quant);
+            }
+            pixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), argbBuffer, 0, width);
+        }
+
+        private double reduce(final DataSet dataSet, final ReductionType type, final int x0, final int x1,
+                final int y0, final int y1) {
+            if (type == ReductionType.DOWN_SAMPLE || (x1 - x0 == 1 && y1 - y0 == 1)) {
+                return dataSet.get(DIM_Z, y0 * nx + x0);
+            }
+            double retVal = type == ReductionType.MIN ? Double.MAX_VALUE
+                                                      : type == ReductionType.MAX ? -Double.MAX_VALUE : 0.0;
+            for (int y = y0; y < y1; y++) {
+                final int rowIndex = y * nx;
+                for (int x = x0; x < x1; x++) {
+                    final double z = dataSet.get(DIM_Z, rowIndex + x);
+                    switch (type) {
+                    case MIN:
+                        retVal = Math.min(retVal, z);
+                        break;
+                    case MAX:
+                        retVal = Math.max(retVal, z);
+                        break;
+                    case AVERAGE:
+                    default:
+                        retVal += z;
+                        break;
+                    }
+                }
+            }
+            return type == ReductionType.MIN || type == ReductionType.MAX ? retVal
+                                                                          : retVal / ((x1 - x0) * (y1 - y0));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package de.gsi.chart.renderer.spi;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import de.gsi.chart.axes.Axis;
+import de.gsi.chart.axes.AxisTransform;
+import de.gsi.chart.renderer.spi.utils.ColorGradient;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.EventListener;
+import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
+import de.gsi.dataset.utils.ProcessingProfiler;
+
+/**
+ * Incremental heat-map image cache for {@link CircularDoubleDataSet3D} (waterfall/spectrogram) data sets.
+ * <p>
+ * The colour image mirrors the ring buffer of the data set: pushed row number 'n' is stored in image row
+ * {@code n % capacity}. Thus, on newly pushed rows, only these rows need to be colour-mapped while the existing image
+ * rows are shifted implicitly by drawing the image in (at most) two row segments starting with the oldest row. The
+ * full image is recomputed only if the colour mapping (z range, gradient, ...) changed or the data set was modified
+ * other than by {@link CircularDoubleDataSet3D#pushRow}.
+ * <p>
+ * N.B. the image assumes equidistant rows and columns (cf. {@link ContourDataSetRenderer} heat-map) and the data set
+ * should be read-locked while calling {@link #update}.
+ */
+class ContourDataSetWaterfallCache {
+    private final EventListener dataSetListener = evt -> {
+        if (evt instanceof UpdatedDataEvent && !(evt instanceof AddedDataEvent)) {
+            invalidate();
+        }
+    };
+    private volatile boolean invalid = true;
+    private WritableImage image;
+    private int[] rowBuffer;
+    private long lastPushCount;
+
+    // colour mapping the image is based on
+    private double zMin = Double.NaN;
+    private double zMax = Double.NaN;
+    private boolean zInverted;
+    private int nQuant;
+    private ColorGradient colorGradient;
+    private AxisTransform axisTransform;
+
+    // drawing geometry (in data coordinates) as of the last update
+    private int nRows;
+    private int firstSlot;
+    private double xEdgeMin;
+    private double xEdgeMax;
+    private double yEdgeMin;
+    private double yEdgeMax;
+    private double yEdgeWrap;
+
+    /**
+     * @param dataSet source DataSet
+     */
+    public ContourDataSetWaterfallCache(final CircularDoubleDataSet3D dataSet) {
+        dataSet.addListener(dataSetListener);
+    }
+
+    /**
+     * Updates the image rows that changed since the last call.
+     *
+     * @param dataSet source DataSet (N.B. should be read-locked)
+     * @param min minimum z value
+     * @param max maximum z value
+     * @param inverted {@code true}: inverted z axis
+     * @param transform z axis transform
+     * @param nQuantisation number of colour quantisation levels
+     * @param gradient colour gradient
+     * @return number of colour-mapped rows
+     */
+    public int colourise(final CircularDoubleDataSet3D dataSet, final double min, final double max,
+            final boolean inverted, final AxisTransform transform, final int nQuantisation,
+            final ColorGradient gradient) {
+        final int nx = dataSet.getDataCount(DIM_X);
+        final int capacity = dataSet.getCapacity();
+        if (nx == 0) {
+            nRows = 0;
+            return 0;
+        }
+        if (image == null || (int) image.getWidth() != nx || (int) image.getHeight() != capacity) {
+            image = new WritableImage(nx, capacity);
+            rowBuffer = new int[nx];
+            invalid = true;
+        }
+        if (Double.compare(min, zMin) != 0 || Double.compare(max, zMax) != 0 || inverted != zInverted
+                || transform != axisTransform || nQuantisation != nQuant || gradient != colorGradient) {
+            zMin = min;
+            zMax = max;
+            zInverted = inverted;
+            axisTransform = transform;
+            nQuant = nQuantisation;
+            colorGradient = gradient;
+            invalid = true;
+        }
+
+        final long pushCount = dataSet.getPushCount();
+        nRows = dataSet.getDataCount(DIM_Y);
+        final long firstRow = pushCount - nRows;
+        firstSlot = (int) (firstRow % capacity);
+        final long firstChangedRow = invalid ? firstRow : Math.max(firstRow, lastPushCount);
+        invalid = false;
+        lastPushCount = pushCount;
+
+        final PixelWriter pixelWriter = image.getPixelWriter();
+        final double zMinPixel = transform.forward(min);
+        final double zRangeInv = 1.0 / Math.abs(transform.forward(max) - zMinPixel);
+        for (long row = firstChangedRow; row < pushCount; row++) {
+            final int yIndex = (int) (row - firstRow);
+            for (int x = 0; x < nx; x++) {
+                final double offset = (transform.forward(dataSet.getZ(x, yIndex)) - zMinPixel) * zRangeInv;
+                final double quant = inverted ? ContourDataSetCache.quantize(1 - offset, nQuantisation)
+                                              : ContourDataSetCache.quantize(offset, nQuantisation);
+                rowBuffer[x] = gradient.getArgb(quant);
+            }
+            pixelWriter.setPixels(0, (int) (row % capacity), nx, 1, PixelFormat.getIntArgbPreInstance(), rowBuffer, 0,
+                    nx);
+        }
+
+        if (nRows > 0 && nx > 0) {
+            xEdgeMin = ContourDataSetTileCache.getEdge(dataSet, DIM_X, 0);
+            xEdgeMax = ContourDataSetTileCache.getEdge(dataSet, DIM_X, nx);
+            yEdgeMin = ContourDataSetTileCache.getEdge(dataSet, DIM_Y, 0);
+            yEdgeMax = ContourDataSetTileCache.getEdge(dataSet, DIM_Y, nRows);
+            yEdgeWrap = ContourDataSetTileCache.getEdge(dataSet, DIM_Y, Math.min(capacity - firstSlot, nRows));
+        }
+        return (int) (pushCount - firstChangedRow);
+    }
+
+    /**
+     * Detaches this cache from its source DataSet.
+     *
+     * @param dataSet source DataSet
+     */
+    public void dispose(final CircularDoubleDataSet3D dataSet) {
+        dataSet.removeListener(dataSetListener);
+        invalidate();
+    }
+
+    /**
+     * Draws the image onto the canvas, starting with the oldest row.
+     *
+     * @param gc the canvas graphics context
+     * @param xAxis horizontal axis
+     * @param yAxis vertical axis
+     * @param smooth {@code true}: apply image smoothing
+     */
+    public void draw(final GraphicsContext gc, final Axis xAxis, final Axis yAxis, final boolean smooth) {
+        if (image == null || nRows == 0) {
+            return;
+        }
+        gc.setImageSmoothing(smooth);
+        final int capacity = (int) image.getHeight();
+        final int nRowsFirst = Math.min(capacity - firstSlot, nRows);
+        drawSegment(gc, xAxis, yAxis, firstSlot, nRowsFirst, yEdgeMin, yEdgeWrap);
+        if (nRowsFirst < nRows) {
+            // wrapped part of the ring buffer
+            drawSegment(gc, xAxis, yAxis, 0, nRows - nRowsFirst, yEdgeWrap, yEdgeMax);
+        }
+    }
+
+    /**
+     * @return the ring-buffered colour image (N.B. image row 'n % capacity' corresponds to pushed row 'n')
+     */
+    public WritableImage getImage() {
+        return image;
+    }
+
+    /**
+     * invalidates the image, ie. all rows are colour-mapped on the next update
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Updates the image w.r.t. the z axis and drawing parameters of the given renderer.
+     *
+     * @param renderer the renderer providing the z axis and drawing parameters
+     * @param dataSet source DataSet (N.B. should be read-locked)
+     * @return number of colour-mapped rows
+     */
+    public int update(final ContourDataSetRenderer renderer, final CircularDoubleDataSet3D dataSet) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        final Axis zAxis = renderer.getZAxis();
+        final AxisTransform transform = zAxis.getAxisTransform();
+        if (transform == null) {
+            throw new IllegalArgumentException("zAxis of renderer needs to have an axis transform for its z-Axis");
+        }
+        final int nUpdated = colourise(dataSet, zAxis.getMin(), zAxis.getMax(), zAxis.isInvertedAxis(), transform,
+                renderer.getNumberQuantisationLevels(), renderer.getColorGradient());
+        ProcessingProfiler.getTimeDiff(start, "colourise waterfall rows");
+        return nUpdated;
+    }
+
+    private void drawSegment(final GraphicsContext gc, final Axis xAxis, final Axis yAxis, final int slot,
+            final int length, final double yEdgeLow, final double yEdgeHigh) {
+        final int width = (int) image.getWidth();
+        final double xLeft = xAxis.getDisplayPosition(xEdgeMin);
+        final double xRight = xAxis.getDisplayPosition(xEdgeMax);
+        final double yBottom = yAxis.getDisplayPosition(yEdgeLow);
+        final double yTop = yAxis.getDisplayPosition(yEdgeHigh);
+        // N.B. image rows are ordered with increasing y, negative scales take care of inverted axes
+        gc.save();
+        gc.translate(xLeft, yBottom);
+        gc.scale((xRight - xLeft) / width, (yTop - yBottom) / length);
+        gc.drawImage(image, 0, slot, width, length, 0, 0, width, length);
+        gc.restore();
+    }
+}
@@ -0,0 +1,97 @@
+package de.gsi.chart.renderer.spi.marchingsquares;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Contour lines of a single iso-level stored in primitive arrays (see {@link MarchingSquaresEngine}).
+ * <p>
+ * The coordinates of all poly-lines are stored interleaved ({@code x0, y0, x1, y1, ...}) in data index units, ie.
+ * {@code (0, 0)} corresponds to the first and {@code (width - 1, height - 1)} to the last data sample. Poly-line 'i'
+ * consists of the points {@code getLineOffsets()[i]} (inclusive) to {@code getLineOffsets()[i + 1]} (exclusive). For
+ * closed lines the last point is implicitly connected to the first.
+ */
+public class IsoLines {
+    private final double level;
+    private final float[] coordinates;
+    private final int[] lineOffsets;
+    private final boolean[] closed;
+
+    IsoLines(final double level, final float[] coordinates, final int[] lineOffsets, final boolean[] closed) {
+        this.level = level;
+        this.coordinates = coordinates;
+        this.lineOffsets = lineOffsets;
+        this.closed = closed;
+    }
+
+    /**
+     * Strokes all poly-lines of this level as a single path with the present stroke settings of the graphics context.
+     *
+     * @param gc the graphics context
+     * @return number of drawn points
+     */
+    public int draw(final GraphicsContext gc) {
+        gc.beginPath();
+        for (int line = 0; line < getLineCount(); line++) {
+            final int start = lineOffsets[line];
+            final int stop = lineOffsets[line + 1];
+            gc.moveTo(coordinates[2 * start], coordinates[2 * start + 1]);
+            for (int point = start + 1; point < stop; point++) {
+                gc.lineTo(coordinates[2 * point], coordinates[2 * point + 1]);
+            }
+            if (closed[line]) {
+                gc.closePath();
+            }
+        }
+        gc.stroke();
+        return getPointCount();
+    }
+
+    /**
+     * @return interleaved x/y coordinates of all poly-lines (N.B. internal array, not to be modified)
+     */
+    public float[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * @return iso-level of these contour lines
+     */
+    public double getLevel() {
+        return level;
+    }
+
+    /**
+     * @return number of poly-lines
+     */
+    public int getLineCount() {
+        return closed.length;
+    }
+
+    /**
+     * @return start point index of each poly-line followed by the total number of points (N.B. internal array, not to
+     *         be modified)
+     */
+    public int[] getLineOffsets() {
+        return lineOffsets;
+    }
+
+    /**
+     * @return total number of points of all poly-lines
+     */
+    public int getPointCount() {
+        return lineOffsets[closed.length];
+    }
+
+    /**
+     * @param line poly-line index
+     * @return {@code true} if the poly-line is closed
+     */
+    public boolean isClosed(final int line) {
+        return closed[line];
+    }
+
+    @Override
+    public String toString() {
+        return "IsoLines{level=" + level + ", lines=" + getLineCount() + ", points=" + getPointCount() + '}';
+    }
+}
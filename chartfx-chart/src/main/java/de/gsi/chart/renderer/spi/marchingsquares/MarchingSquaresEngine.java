@@ -0,0 +1,466 @@
+package de.gsi.chart.renderer.spi.marchingsquares;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+import de.gsi.dataset.utils.ProcessingProfiler;
+
+/**
+ * <p>
+ * Single-pass, multi-level implementation of the Marching Squares algorithm described in:
+ * {@code https://en.wikipedia.org/wiki/Marching_squares}
+ * </p>
+ * <p>
+ * In contrast to {@link MarchingSquares}, which re-scans the full grid for each level, each cell is classified only
+ * once against all (sorted) levels: only levels within the cell's [min, max) value range are processed further. The
+ * grid is split into horizontal bands of cell rows that are processed concurrently. Within a band, line segments are
+ * linked to their neighbours while scanning (via the shared cell edges), segments ending on the band seams are stitched
+ * afterwards. The resulting poly-lines are stored in primitive arrays (see {@link IsoLines}) rather than
+ * {@link GeneralPath} objects.
+ * </p>
+ * <p>
+ * The data is padded with a guard value below its minimum, so that all contours are closed. NaN cells are skipped
+ * (contours touching them remain open).
+ * </p>
+ */
+public class MarchingSquaresEngine {
+    private static final String PARALLEL_WORKER_ERROR = "one parallel worker thread finished execution with error";
+    private static final int MIN_BAND_ROWS = 16;
+    private static final int NONE = -1;
+    // cell edges
+    private static final int BOTTOM = 0;
+    private static final int RIGHT = 1;
+    private static final int TOP = 2;
+    private static final int LEFT = 3;
+    // edge pairs of the line segment for the non-trivial, non-saddle cell indices
+    private static final int[][] CELL_EDGES = new int[16][];
+    static {
+        CELL_EDGES[1] = CELL_EDGES[14] = new int[] { LEFT, BOTTOM };
+        CELL_EDGES[2] = CELL_EDGES[13] = new int[] { BOTTOM, RIGHT };
+        CELL_EDGES[3] = CELL_EDGES[12] = new int[] { LEFT, RIGHT };
+        CELL_EDGES[4] = CELL_EDGES[11] = new int[] { TOP, RIGHT };
+        CELL_EDGES[6] = CELL_EDGES[9] = new int[] { BOTTOM, TOP };
+        CELL_EDGES[7] = CELL_EDGES[8] = new int[] { LEFT, TOP };
+    }
+    private final int maxBands;
+
+    /**
+     * Creates an engine using up to one row band per available thread.
+     */
+    public MarchingSquaresEngine() {
+        this(CachedDaemonThreadFactory.getNumbersOfThreads());
+    }
+
+    /**
+     * @param maxBands maximum number of concurrently processed row bands
+     */
+    public MarchingSquaresEngine(final int maxBands) {
+        if (maxBands <= 0) {
+            throw new IllegalArgumentException("maxBands must be positive: " + maxBands);
+        }
+        this.maxBands = maxBands;
+    }
+
+    /**
+     * @param data row-major matrix {@code data[row][column]}, all rows need to have the same length
+     * @param levels iso-levels
+     * @return contour lines for each level (same order as levels)
+     */
+    public IsoLines[] buildIsoLines(final double[][] data, final double[] levels) {
+        final int height = data.length;
+        final int width = height == 0 ? 0 : data[0].length;
+        final double[] padded = new double[(width + 2) * (height + 2)];
+        for (int row = 0; row < height; row++) {
+            if (data[row].length != width) {
+                throw new IllegalArgumentException("row " + row + " length " + data[row].length + " != " + width);
+            }
+            System.arraycopy(data[row], 0, padded, (row + 1) * (width + 2) + 1, width);
+        }
+        return build(padded, width, height, levels);
+    }
+
+    /**
+     * @param data row-major matrix, ie. {@code data[row * width + column]}
+     * @param width number of columns
+     * @param height number of rows
+     * @param levels iso-levels
+     * @return contour lines for each level (same order as levels)
+     */
+    public IsoLines[] buildIsoLines(final double[] data, final int width, final int height, final double[] levels) {
+        if (data.length < width * height) {
+            throw new IllegalArgumentException("data length " + data.length + " < " + width + " x " + height);
+        }
+        final double[] padded = new double[(width + 2) * (height + 2)];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(data, row * width, padded, (row + 1) * (width + 2) + 1, width);
+        }
+        return build(padded, width, height, levels);
+    }
+
+    private IsoLines[] build(final double[] padded, final int width, final int height, final double[] levels) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        final int nLevels = levels.length;
+        final Integer[] order = new Integer[nLevels];
+        for (int i = 0; i < nLevels; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> levels[i]));
+        final double[] sortedLevels = new double[nLevels];
+        for (int i = 0; i < nLevels; i++) {
+            sortedLevels[i] = levels[order[i]];
+        }
+
+        // find min, max, and guard
+        final int w = width + 2;
+        final int h = height + 2;
+        double min = +Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int r = 1; r < h - 1; r++) {
+            for (int c = r * w + 1; c < r * w + w - 1; c++) {
+                // N.B. NaN values are ignored
+                if (padded[c] < min) {
+                    min = padded[c];
+                }
+                if (padded[c] > max) {
+                    max = padded[c];
+                }
+            }
+        }
+        if (min == max) {
+            throw new IllegalArgumentException("All values are equal. Cannot build contours for a constant field");
+        }
+
+        // IMPORTANT: pad data to ensure resulting lines are closed
+        final double guard = min - 1;
+        for (int c = 0; c < w; c++) {
+            padded[c] = guard;
+            padded[(h - 1) * w + c] = guard;
+        }
+        for (int r = 1; r < h - 1; r++) {
+            padded[r * w] = guard;
+            padded[r * w + w - 1] = guard;
+        }
+
+        // classify cells and link segments within row bands
+        final int cellRows = h - 1;
+        final int nBands = Math.max(1, Math.min(maxBands, cellRows / MIN_BAND_ROWS));
+        final int bandRows = (cellRows + nBands - 1) / nBands;
+        final List<Callable<Band>> bandWorkers = new ArrayList<>(nBands);
+        for (int rowMin = 0; rowMin < cellRows; rowMin += bandRows) {
+            final Band band = new Band(rowMin, Math.min(rowMin + bandRows, cellRows), w, nLevels);
+            bandWorkers.add(() -> band.process(padded, sortedLevels));
+        }
+        final List<Band> bands = invokeAll(bandWorkers);
+        ProcessingProfiler.getTimeDiff(start, "classified cells");
+
+        // stitch band seams and assemble poly-lines for each level
+        final List<Callable<IsoLines>> levelWorkers = new ArrayList<>(nLevels);
+        for (int k = 0; k < nLevels; k++) {
+            final int level = k;
+            levelWorkers.add(() -> assemble(bands, level, sortedLevels[level]));
+        }
+        final List<IsoLines> sortedResult = invokeAll(levelWorkers);
+        final IsoLines[] result = new IsoLines[nLevels];
+        for (int i = 0; i < nLevels; i++) {
+            result[order[i]] = sortedResult.get(i);
+        }
+        ProcessingProfiler.getTimeDiff(start, "built " + nLevels + " contours");
+        return result;
+    }
+
+    private static IsoLines assemble(final List<Band> bands, final int level, final double isoValue) {
+        // concatenate band segments, converting band-local to global segment end-point codes
+        final int[] offsets = new int[bands.size()];
+        int nSegments = 0;
+        for (int b = 0; b < bands.size(); b++) {
+            offsets[b] = nSegments;
+            nSegments += bands.get(b).segments[level].size;
+        }
+        final float[] xy = new float[4 * nSegments];
+        final int[] link = new int[2 * nSegments];
+        for (int b = 0; b < bands.size(); b++) {
+            final SegmentBuffer buffer = bands.get(b).segments[level];
+            System.arraycopy(buffer.xy, 0, xy, 4 * offsets[b], 4 * buffer.size);
+            final int codeOffset = 2 * offsets[b];
+            for (int i = 0; i < 2 * buffer.size; i++) {
+                final int code = buffer.link[i];
+                link[codeOffset + i] = code == NONE ? NONE : code + codeOffset;
+            }
+        }
+        for (int b = 0; b + 1 < bands.size(); b++) {
+            final int[] seamTop = bands.get(b).seamTop[level];
+            final int[] seamBottom = bands.get(b + 1).seamBottom[level];
+            for (int c = 0; c < seamTop.length; c++) {
+                if (seamTop[c] != NONE && seamBottom[c] != NONE) {
+                    final int codeA = seamTop[c] + 2 * offsets[b];
+                    final int codeB = seamBottom[c] + 2 * offsets[b + 1];
+                    link[codeA] = codeB;
+                    link[codeB] = codeA;
+                }
+            }
+        }
+
+        // trace poly-lines: first open chains (starting at a free end), then closed loops
+        final boolean[] visited = new boolean[nSegments];
+        final float[] coordinates = new float[4 * nSegments];
+        final List<Integer> lineOffsets = new ArrayList<>();
+        final List<Boolean> closed = new ArrayList<>();
+        int nPoints = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int s = 0; s < nSegments; s++) {
+                for (int end = 0; end < 2 && !visited[s]; end++) {
+                    if (pass == 0 && link[2 * s + end] != NONE) {
+                        continue;
+                    }
+                    lineOffsets.add(nPoints);
+                    final int first = s;
+                    int segment = s;
+                    int entry = end;
+                    nPoints = addPoint(xy, segment, entry, coordinates, nPoints);
+                    boolean isClosed = false;
+                    while (true) {
+                        visited[segment] = true;
+                        final int next = link[2 * segment + 1 - entry];
+                        if (next != NONE && next >> 1 == first) {
+                            isClosed = true;
+                            break;
+                        }
+                        nPoints = addPoint(xy, segment, 1 - entry, coordinates, nPoints);
+                        if (next == NONE || visited[next >> 1]) {
+                            break;
+                        }
+                        segment = next >> 1;
+                        entry = next & 1;
+                    }
+                    closed.add(isClosed);
+                }
+            }
+        }
+        final int[] offsets2 = new int[lineOffsets.size() + 1];
+        final boolean[] closed2 = new boolean[closed.size()];
+        for (int i = 0; i < closed2.length; i++) {
+            offsets2[i] = lineOffsets.get(i);
+            closed2[i] = closed.get(i);
+        }
+        offsets2[closed2.length] = nPoints;
+        return new IsoLines(isoValue, Arrays.copyOf(coordinates, 2 * nPoints), offsets2, closed2);
+    }
+
+    private static int addPoint(final float[] xy, final int segment, final int end, final float[] coordinates,
+            final int nPoints) {
+        coordinates[2 * nPoints] = xy[4 * segment + 2 * end];
+        coordinates[2 * nPoints + 1] = xy[4 * segment + 2 * end + 1];
+        return nPoints + 1;
+    }
+
+    private static <T> List<T> invokeAll(final List<Callable<T>> workers) {
+        final List<T> results = new ArrayList<>(workers.size());
+        try {
+            if (workers.size() == 1) {
+                results.add(workers.get(0).call());
+                return results;
+            }
+            final List<Future<T>> jobs = CachedDaemonThreadFactory.getCommonPool().invokeAll(workers);
+            for (final Future<T> future : jobs) {
+                results.add(future.get());
+            }
+        } catch (final Exception e) { // NOPMD - also the worker's checked exceptions
+            throw new IllegalStateException(PARALLEL_WORKER_ERROR, e);
+        }
+        return results;
+    }
+
+    private static int lowerBound(final double[] sorted, final double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A band of cell rows [rowMin, rowMax) with its line segments and the segment end-points on its seams.
+     */
+    private static final class Band {
+        private final int rowMin;
+        private final int rowMax;
+        private final int w;
+        private final SegmentBuffer[] segments;
+        // [level][column] band-local end-point codes on the lower and upper seam
+        private final int[][] seamBottom;
+        private final int[][] seamTop;
+        private final int[] pendingLeft;
+
+        Band(final int rowMin, final int rowMax, final int w, final int nLevels) {
+            this.rowMin = rowMin;
+            this.rowMax = rowMax;
+            this.w = w;
+            segments = new SegmentBuffer[nLevels];
+            seamBottom = new int[nLevels][w];
+            seamTop = new int[nLevels][w];
+            pendingLeft = new int[nLevels];
+            for (int k = 0; k < nLevels; k++) {
+                segments[k] = new SegmentBuffer();
+                Arrays.fill(seamBottom[k], NONE);
+                Arrays.fill(seamTop[k], NONE);
+            }
+        }
+
+        private int addSegment(final int k, final int r, final int c, final int edgeA, final int edgeB,
+                final double[] v, final double iso) {
+            final SegmentBuffer buffer = segments[k];
+            final int s = buffer.add();
+            setPoint(buffer.xy, 4 * s, r, c, edgeA, v, iso);
+            setPoint(buffer.xy, 4 * s + 2, r, c, edgeB, v, iso);
+            return s;
+        }
+
+        private void connect(final SegmentBuffer buffer, final int k, final int r, final int c, final int edge,
+                final int code) {
+            // N.B. 'seamTop' holds the pending end-points on the upper edges of the previous cell row
+            switch (edge) {
+            case BOTTOM:
+                if (seamTop[k][c] != NONE) {
+                    buffer.link(code, seamTop[k][c]);
+                    seamTop[k][c] = NONE;
+                } else if (r == rowMin) {
+                    seamBottom[k][c] = code;
+                }
+                break;
+            case LEFT:
+                if (pendingLeft[k] != NONE) {
+                    buffer.link(code, pendingLeft[k]);
+                    pendingLeft[k] = NONE;
+                }
+                break;
+            case TOP:
+                seamTop[k][c] = code;
+                break;
+            case RIGHT:
+            default:
+                pendingLeft[k] = code;
+                break;
+            }
+        }
+
+        private Band process(final double[] v, final double[] levels) {
+            final int nLevels = levels.length;
+            for (int r = rowMin; r < rowMax; r++) {
+                Arrays.fill(pendingLeft, NONE);
+                final int rowOffset = r * w;
+                for (int c = 0; c < w - 1; c++) {
+                    final double bl = v[rowOffset + c];
+                    final double br = v[rowOffset + c + 1];
+                    final double tl = v[rowOffset + w + c];
+                    final double tr = v[rowOffset + w + c + 1];
+                    final double min = Math.min(Math.min(bl, br), Math.min(tl, tr));
+                    final double max = Math.max(Math.max(bl, br), Math.max(tl, tr));
+                    if (Double.isNaN(min)) {
+                        // skip cell and drop its pending neighbour links
+                        for (int k = 0; k < nLevels; k++) {
+                            seamTop[k][c] = NONE;
+                            pendingLeft[k] = NONE;
+                        }
+                        continue;
+                    }
+                    // only levels with min <= level < max cross this cell
+                    for (int k = lowerBound(levels, min); k < nLevels && levels[k] < max; k++) {
+                        final double iso = levels[k];
+                        final int ndx = (tl <= iso ? 8 : 0) | (tr <= iso ? 4 : 0) | (br <= iso ? 2 : 0)
+                                        | (bl <= iso ? 1 : 0);
+                        if (ndx == 5 || ndx == 10) {
+                            // saddle: resolve the ambiguity by using the average value of the cell centre
+                            // N.B. the pending lower/left end-points need to be linked before new upper/right ones
+                            final boolean centreAbove = (tl + tr + br + bl) / 4 > iso;
+                            final SegmentBuffer buffer = segments[k];
+                            if ((ndx == 5) == centreAbove) {
+                                final int s1 = addSegment(k, r, c, LEFT, BOTTOM, v, iso);
+                                final int s2 = addSegment(k, r, c, TOP, RIGHT, v, iso);
+                                connect(buffer, k, r, c, LEFT, 2 * s1);
+                                connect(buffer, k, r, c, BOTTOM, 2 * s1 + 1);
+                                connect(buffer, k, r, c, TOP, 2 * s2);
+                                connect(buffer, k, r, c, RIGHT, 2 * s2 + 1);
+                            } else {
+                                final int s1 = addSegment(k, r, c, LEFT, TOP, v, iso);
+                                final int s2 = addSegment(k, r, c, BOTTOM, RIGHT, v, iso);
+                                connect(buffer, k, r, c, LEFT, 2 * s1);
+                                connect(buffer, k, r, c, BOTTOM, 2 * s2);
+                                connect(buffer, k, r, c, TOP, 2 * s1 + 1);
+                                connect(buffer, k, r, c, RIGHT, 2 * s2 + 1);
+                            }
+                        } else {
+                            final int edgeA = CELL_EDGES[ndx][0];
+                            final int edgeB = CELL_EDGES[ndx][1];
+                            final int s = addSegment(k, r, c, edgeA, edgeB, v, iso);
+                            connect(segments[k], k, r, c, edgeA, 2 * s);
+                            connect(segments[k], k, r, c, edgeB, 2 * s + 1);
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void setPoint(final float[] xy, final int index, final int r, final int c, final int edge,
+                final double[] v, final double iso) {
+            // N.B. interpolation always from the lower/left corner so that shared edges yield identical points;
+            // coordinates are shifted by the one sample padding
+            final int bl = r * w + c;
+            switch (edge) {
+            case BOTTOM:
+                xy[index] = (float) (c - 1 + (iso - v[bl]) / (v[bl + 1] - v[bl]));
+                xy[index + 1] = r - 1;
+                break;
+            case TOP:
+                xy[index] = (float) (c - 1 + (iso - v[bl + w]) / (v[bl + w + 1] - v[bl + w]));
+                xy[index + 1] = r;
+                break;
+            case LEFT:
+                xy[index] = c - 1;
+                xy[index + 1] = (float) (r - 1 + (iso - v[bl]) / (v[bl + w] - v[bl]));
+                break;
+            case RIGHT:
+            default:
+                xy[index] = c;
+                xy[index + 1] = (float) (r - 1 + (iso - v[bl + 1]) / (v[bl + w + 1] - v[bl + 1]));
+                break;
+            }
+        }
+    }
+
+    /**
+     * Growable primitive storage of line segments: two end-points (x, y) and the code '2 * segment + end' of the
+     * linked neighbour end-point.
+     */
+    private static final class SegmentBuffer {
+        private float[] xy = new float[64];
+        private int[] link = new int[32];
+        private int size;
+
+        private int add() {
+            if (2 * size == link.length) {
+                xy = Arrays.copyOf(xy, 2 * xy.length);
+                link = Arrays.copyOf(link, 2 * link.length);
+            }
+            link[2 * size] = NONE;
+            link[2 * size + 1] = NONE;
+            return size++;
+        }
+
+        private void link(final int codeA, final int codeB) {
+            link[codeA] = codeB;
+            link[codeB] = codeA;
+        }
+    }
+}
@@ -8,12 +8,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javafx.scene.paint.Color;
 import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Stop;
 
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+
 /**
  * @author braeun
  */
@@ -100,10 +105,18 @@ public class ColorGradient {
     public static final ColorGradient RAINBOW_EQ = ColorGradient.cetR2();
 
     public static final ColorGradient DEFAULT = RAINBOW;
+
+    /**
+     * number of entries of the pre-computed ARGB colour look-up table (N.B. offset resolution: 1/(LUT_SIZE - 1))
+     */
+    public static final int LUT_SIZE = 4096;
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 1 << 16;
+    private static final String PARALLEL_WORKER_ERROR = "one parallel worker thread finished execution with error";
     private final List<Stop> stops;
     private final String name;
     private transient final WeakHashMap<Double, Color> colorMap = new WeakHashMap<>();
     private transient final WeakHashMap<Double, int[]> colorMapBytes = new WeakHashMap<>();
+    private transient volatile int[] argbLookupTable;
 
     /**
      * Creates a new instance of ColorGradient.**
@@ -161,29 +174,7 @@ public class ColorGradient {
      * @return corresponding interpolated colour
      */
     public Color getColor(final double offset) {
-        return colorMap.computeIfAbsent(offset, value -> {
-            double lowerOffset = 0.0;
-            double upperOffset = 1.0;
-            Color lowerColor = Color.TRANSPARENT;
-            Color upperColor = Color.TRANSPARENT;
-
-            for (final Stop stop : getStops()) {
-                final double currentOffset = stop.getOffset();
-                if (currentOffset == offset) {
-                    return stop.getColor();
-                } else if (currentOffset < offset) {
-                    lowerOffset = currentOffset;
-                    lowerColor = stop.getColor();
-                } else {
-                    upperOffset = currentOffset;
-                    upperColor = stop.getColor();
-                    break;
-                }
-            }
-
-            final double interpolationOffset = (offset - lowerOffset) / (upperOffset - lowerOffset);
-            return lowerColor.interpolate(upperColor, interpolationOffset);
-        });
+        return colorMap.computeIfAbsent(offset, this::interpolate);
     }
 
     /**
@@ -191,39 +182,18 @@ public class ColorGradient {
      * @return corresponding interpolated colour as ARGB bytes (N.B. stored for performance reasons as integers)
      */
     public int[] getColorBytes(final double offset) {
-        return colorMapBytes.computeIfAbsent(offset, value -> {
-            double lowerOffset = 0.0;
-            double upperOffset = 1.0;
-            Color lowerColor = Color.TRANSPARENT;
-            Color upperColor = Color.TRANSPARENT;
-            final int[] color = new int[4];
-
-            for (final Stop stop : getStops()) {
-                final double currentOffset = stop.getOffset();
-                if (currentOffset == offset) {
-                    color[0] = (int) Math.round(255 * stop.getColor().getOpacity());
-                    color[1] = (int) Math.round(255 * stop.getColor().getRed());
-                    color[2] = (int) Math.round(255 * stop.getColor().getGreen());
-                    color[3] = (int) Math.round(255 * stop.getColor().getBlue());
-                    return color;
-                } else if (currentOffset < offset) {
-                    lowerOffset = currentOffset;
-                    lowerColor = stop.getColor();
-                } else {
-                    upperOffset = currentOffset;
-                    upperColor = stop.getColor();
-                    break;
-                }
-            }
+        return colorMapBytes.computeIfAbsent(offset, value -> toBytes(interpolate(value)));
+    }
 
-            final double interpolationOffset = (offset - lowerOffset) / (upperOffset - lowerOffset);
-            final Color interpolatedColor = lowerColor.interpolate(upperColor, interpolationOffset);
-            color[0] = (int) Math.round(255 * interpolatedColor.getOpacity());
-            color[1] = (int) Math.round(255 * interpolatedColor.getRed());
-            color[2] = (int) Math.round(255 * interpolatedColor.getGreen());
-            color[3] = (int) Math.round(255 * interpolatedColor.getBlue());
-            return color;
-        });
+    /**
+     * @param offset within ranges [0, 1], N.B. outside ranges and NaN are transparent
+     * @return corresponding colour as packed ARGB integer taken from the pre-computed look-up table
+     */
+    public int getArgb(final double offset) {
+        if (!(offset >= 0.0 && offset <= 1.0)) {
+            return 0;
+        }
+        return getArgbLookupTable()[(int) (offset * (LUT_SIZE - 1) + 0.5)];
     }
 
     /**
@@ -236,17 +206,147 @@ public class ColorGradient {
         return stops;
     }
 
+    /**
+     * Maps z values to packed ARGB colours using the pre-computed look-up table. Large arrays are split into blocks
+     * that are mapped concurrently.
+     *
+     * @param z input values
+     * @param zMin z value corresponding to the lower end of the gradient
+     * @param zMax z value corresponding to the upper end of the gradient
+     * @param argbOut output colours (needs to be at least as long as z), values outside [zMin, zMax] are transparent
+     */
+    public void mapToArgb(final double[] z, final double zMin, final double zMax, final int[] argbOut) {
+        mapToArgb(z, 0, z.length, zMin, zMax, argbOut);
+    }
+
+    /**
+     * Maps the z values of the given index range to packed ARGB colours using the pre-computed look-up table. Large
+     * ranges are split into blocks that are mapped concurrently.
+     *
+     * @param z input values
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param zMin z value corresponding to the lower end of the gradient
+     * @param zMax z value corresponding to the upper end of the gradient
+     * @param argbOut output colours, values outside [zMin, zMax] are transparent
+     */
+    public void mapToArgb(final double[] z, final int from, final int to, final double zMin, final double zMax,
+            final int[] argbOut) {
+        final int length = to - from;
+        final int nThreads = Math.min(CachedDaemonThreadFactory.getNumbersOfThreads(),
+                length / MIN_PARALLEL_CHUNK_SIZE);
+        if (nThreads <= 1) {
+            mapToArgb(z, from, to, zMin, zMax, false, 0, argbOut);
+            return;
+        }
+
+        final int chunkSize = (length + nThreads - 1) / nThreads;
+        final List<Callable<Boolean>> workers = new ArrayList<>(nThreads);
+        for (int i = from; i < to; i += chunkSize) {
+            final int chunkStart = i;
+            final int chunkStop = Math.min(i + chunkSize, to);
+            workers.add(() -> {
+                mapToArgb(z, chunkStart, chunkStop, zMin, zMax, false, 0, argbOut);
+                return Boolean.TRUE;
+            });
+        }
+        try {
+            final List<Future<Boolean>> jobs = CachedDaemonThreadFactory.getCommonPool().invokeAll(workers);
+            for (final Future<Boolean> future : jobs) {
+                final Boolean r = future.get();
+                if (Boolean.FALSE.equals(r)) {
+                    throw new IllegalStateException(PARALLEL_WORKER_ERROR);
+                }
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(PARALLEL_WORKER_ERROR, e);
+        }
+    }
+
+    /**
+     * Maps the z values of the given index range to packed ARGB colours using the pre-computed look-up table
+     * (single-threaded kernel).
+     *
+     * @param z input values
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param zMin z value corresponding to the lower end of the gradient
+     * @param zMax z value corresponding to the upper end of the gradient
+     * @param inverted {@code true}: zMax corresponds to the lower end of the gradient
+     * @param nQuantisation number of colour quantisation levels ({@code <= 0}: no quantisation)
+     * @param argbOut output colours, values outside [zMin, zMax] are transparent
+     */
+    public void mapToArgb(final double[] z, final int from, final int to, final double zMin, final double zMax,
+            final boolean inverted, final int nQuantisation, final int[] argbOut) {
+        final int[] lut = getArgbLookupTable();
+        final double zRangeInv = 1.0 / Math.abs(zMax - zMin);
+        final double lutScale = LUT_SIZE - 1.0;
+        for (int i = from; i < to; i++) {
+            double offset = (z[i] - zMin) * zRangeInv;
+            if (inverted) {
+                offset = 1.0 - offset;
+            }
+            if (nQuantisation > 0) {
+                offset = ((int) (offset * nQuantisation)) / (double) nQuantisation;
+            }
+            argbOut[i] = offset >= 0.0 && offset <= 1.0 ? lut[(int) (offset * lutScale + 0.5)] : 0;
+        }
+    }
+
     @Override
     public String toString() {
         return name;
     }
 
+    private int[] getArgbLookupTable() {
+        int[] lut = argbLookupTable;
+        if (lut == null) {
+            // N.B. benign race: concurrent initialisations yield identical tables
+            lut = new int[LUT_SIZE];
+            for (int i = 0; i < LUT_SIZE; i++) {
+                final int[] color = toBytes(interpolate((double) i / (LUT_SIZE - 1)));
+                lut[i] = (color[0] << 24) | (color[1] << 16) | (color[2] << 8) | color[3];
+            }
+            argbLookupTable = lut;
+        }
+        return lut;
+    }
+
+    private Color interpolate(final double offset) {
+        double lowerOffset = 0.0;
+        double upperOffset = 1.0;
+        Color lowerColor = Color.TRANSPARENT;
+        Color upperColor = Color.TRANSPARENT;
+
+        for (final Stop stop : getStops()) {
+            final double currentOffset = stop.getOffset();
+            if (currentOffset == offset) {
+                return stop.getColor();
+            } else if (currentOffset < offset) {
+                lowerOffset = currentOffset;
+                lowerColor = stop.getColor();
+            } else {
+                upperOffset = currentOffset;
+                upperColor = stop.getColor();
+                break;
+            }
+        }
+
+        final double interpolationOffset = (offset - lowerOffset) / (upperOffset - lowerOffset);
+        return lowerColor.interpolate(upperColor, interpolationOffset);
+    }
+
     public static List<ColorGradient> colorGradients() {
         return Arrays.asList(ColorGradient.RAINBOW, ColorGradient.JET, ColorGradient.TOPO, ColorGradient.TOPO_EXT,
                 ColorGradient.WHITE_BLACK, ColorGradient.BLACK_WHITE, ColorGradient.HOT, ColorGradient.SUNRISE,
                 ColorGradient.VIRIDIS, ColorGradient.BLUERED, ColorGradient.PINK, ColorGradient.RAINBOW_EQ);
     }
 
+    private static int[] toBytes(final Color color) {
+        return new int[] { (int) Math.round(255 * color.getOpacity()), (int) Math.round(255 * color.getRed()),
+            (int) Math.round(255 * color.getGreen()), (int) Math.round(255 * color.getBlue()) };
+    }
+
     private static final ColorGradient viridis() {
         // From MatPlotLib
         final float[][] vals = new float[][] { { 0.267004f, 0.004874f, 0.329415f }, { 0.268510f, 0.009605f, 0.335427f },
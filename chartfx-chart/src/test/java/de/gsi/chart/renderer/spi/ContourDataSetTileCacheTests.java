@@ -0,0 +1,161 @@
+package de.gsi.chart.renderer.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.chart.renderer.datareduction.ReductionType;
+import de.gsi.chart.renderer.spi.ContourDataSetTileCache.Tile;
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.IndexRange;
+import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
+import de.gsi.dataset.spi.DoubleDataSet3D;
+
+/**
+ * Checks for the tile-based heat-map cache {@link ContourDataSetTileCache}.
+ */
+public class ContourDataSetTileCacheTests {
+    private static final int N_X = 600;
+    private static final int N_Y = 300;
+
+    private static DoubleDataSet3D getTestDataSet() {
+        final double[][] z = new double[N_Y][N_X];
+        for (int y = 0; y < N_Y; y++) {
+            for (int x = 0; x < N_X; x++) {
+                z[y][x] = x + 1000.0 * y;
+            }
+        }
+        return new DoubleDataSet3D("tileTest", z);
+    }
+
+    @Test
+    public void testLevels() {
+        assertEquals(0, ContourDataSetTileCache.getLevel(Double.NaN));
+        assertEquals(0, ContourDataSetTileCache.getLevel(0.5));
+        assertEquals(0, ContourDataSetTileCache.getLevel(1.9));
+        assertEquals(1, ContourDataSetTileCache.getLevel(2.0));
+        assertEquals(1, ContourDataSetTileCache.getLevel(3.9));
+        assertEquals(3, ContourDataSetTileCache.getLevel(8.5));
+        assertThrows(IllegalArgumentException.class, () -> new ContourDataSetTileCache(getTestDataSet(), 0));
+    }
+
+    @Test
+    public void testTileValues() {
+        final DoubleDataSet3D dataSet = getTestDataSet();
+        final ContourDataSetTileCache cache = new ContourDataSetTileCache(dataSet);
+
+        // level 0: one tile pixel per data cell
+        final List<Tile> tiles0 = cache.getTiles(dataSet, 0, 0, N_X - 1, 0, N_Y - 1, ReductionType.AVERAGE, false);
+        assertEquals(3 * 2, tiles0.size());
+        for (final Tile tile : tiles0) {
+            for (int py = 0; py < tile.height; py++) {
+                for (int px = 0; px < tile.width; px++) {
+                    final double expected = (tile.xIndexMin + px) + 1000.0 * (tile.yIndexMin + py);
+                    assertEquals(expected, tile.values[py * tile.width + px], 1e-3);
+                }
+            }
+        }
+        final Tile lastTile = tiles0.get(tiles0.size() - 1);
+        assertEquals(N_X - 2 * ContourDataSetTileCache.TILE_SIZE, lastTile.width);
+        assertEquals(N_Y - ContourDataSetTileCache.TILE_SIZE, lastTile.height);
+        assertEquals(N_X - 0.5, lastTile.xEdgeMax);
+        assertEquals(N_Y - 0.5, lastTile.yEdgeMax);
+
+        // level 1: 2x2 data cells per tile pixel
+        final List<Tile> tiles1 = cache.getTiles(dataSet, 1, 0, N_X - 1, 0, N_Y - 1, ReductionType.MAX, true);
+        assertEquals(2, tiles1.size());
+        final Tile tile = tiles1.get(0);
+        assertEquals(ContourDataSetTileCache.TILE_SIZE, tile.width);
+        assertEquals(N_Y / 2, tile.height);
+        assertEquals(1 + 1000.0, tile.values[0], 1e-3);
+        assertEquals(1001.0, tile.zMin, 1e-3);
+    }
+
+    @Test
+    public void testTileReuse() {
+        final DoubleDataSet3D dataSet = getTestDataSet();
+        final ContourDataSetTileCache cache = new ContourDataSetTileCache(dataSet, 4);
+
+        final List<Tile> tiles = cache.getTiles(dataSet, 0, 0, 100, 0, 100, ReductionType.AVERAGE, false);
+        assertEquals(1, tiles.size());
+        // panning within the same tile re-uses the cached tile
+        assertSame(tiles.get(0), cache.getTiles(dataSet, 0, 50, 200, 10, 200, ReductionType.AVERAGE, false).get(0));
+
+        // panning to the right adds only the newly visible tile column
+        final List<Tile> panned = cache.getTiles(dataSet, 0, 200, 300, 0, 100, ReductionType.AVERAGE, false);
+        assertEquals(2, panned.size());
+        assertSame(tiles.get(0), panned.get(0));
+        assertEquals(2, cache.getCachedTileCount());
+
+        // row invalidation drops only the affected tiles
+        cache.getTiles(dataSet, 0, 0, 300, 0, N_Y - 1, ReductionType.AVERAGE, false);
+        assertEquals(4, cache.getCachedTileCount());
+        cache.invalidateRows(N_Y - 1, N_Y - 1);
+        assertEquals(2, cache.getCachedTileCount());
+
+        // LRU bound
+        cache.getTiles(dataSet, 0, 0, N_X - 1, 0, N_Y - 1, ReductionType.AVERAGE, false);
+        assertEquals(4, cache.getCachedTileCount());
+
+        // data updates invalidate the cache
+        final Tile cached = cache.getTiles(dataSet, 0, 0, 10, 0, 10, ReductionType.AVERAGE, false).get(0);
+        dataSet.fireInvalidated(new UpdatedDataEvent(dataSet, "test"));
+        assertEquals(0, cache.getCachedTileCount());
+        assertNotSame(cached, cache.getTiles(dataSet, 0, 0, 10, 0, 10, ReductionType.AVERAGE, false).get(0));
+
+        // as do changes of the reduction type
+        final Tile averaged = cache.getTiles(dataSet, 0, 0, 10, 0, 10, ReductionType.AVERAGE, false).get(0);
+        assertNotSame(averaged, cache.getTiles(dataSet, 0, 0, 10, 0, 10, ReductionType.MIN, false).get(0));
+
+        cache.dispose(dataSet);
+        assertEquals(0, cache.getCachedTileCount());
+    }
+
+    @Test
+    public void testRowRangeEvents() {
+        final DoubleDataSet3D dataSet = getTestDataSet();
+        final ContourDataSetTileCache cache = new ContourDataSetTileCache(dataSet);
+        cache.getTiles(dataSet, 0, 0, N_X - 1, 0, N_Y - 1, ReductionType.AVERAGE, false);
+        assertEquals(6, cache.getCachedTileCount());
+
+        // events carrying a row range drop only the overlapping tiles
+        dataSet.fireInvalidated(new UpdatedDataEvent(dataSet, "row", new IndexRange(DataSet.DIM_Y, 10, 10)));
+        assertEquals(3, cache.getCachedTileCount());
+        // ranges of other dimensions are treated as structural changes
+        dataSet.fireInvalidated(new AddedDataEvent(dataSet, "column", new IndexRange(DataSet.DIM_X, 10, 10)));
+        assertEquals(0, cache.getCachedTileCount());
+    }
+
+    @Test
+    public void testAppendedRows() {
+        final CircularDoubleDataSet3D dataSet = new CircularDoubleDataSet3D("waterfall", N_X, 1000);
+        final double[] row = new double[N_X];
+        for (int y = 0; y < N_Y; y++) {
+            dataSet.pushRow(row);
+        }
+        final ContourDataSetTileCache cache = new ContourDataSetTileCache(dataSet);
+        final List<Tile> tiles = cache.getTiles(dataSet, 0, 0, N_X - 1, 0, N_Y - 1, ReductionType.AVERAGE, false);
+        assertEquals(6, cache.getCachedTileCount());
+
+        // appending a row drops only the tiles covering the last rows, the others are re-used
+        dataSet.pushRow(row);
+        assertEquals(3, cache.getCachedTileCount());
+        final List<Tile> updated = cache.getTiles(dataSet, 0, 0, N_X - 1, 0, N_Y, ReductionType.AVERAGE, false);
+        for (int i = 0; i < 3; i++) {
+            assertSame(tiles.get(i), updated.get(i));
+        }
+        for (int i = 3; i < 6; i++) {
+            assertNotSame(tiles.get(i), updated.get(i));
+            assertEquals(N_Y, updated.get(i).yIndexMax);
+        }
+
+        cache.dispose(dataSet);
+    }
+}
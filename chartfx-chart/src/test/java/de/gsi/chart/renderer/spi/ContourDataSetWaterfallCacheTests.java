@@ -0,0 +1,119 @@
+package de.gsi.chart.renderer.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+
+import javafx.scene.image.PixelReader;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.chart.axes.AxisTransform;
+import de.gsi.chart.renderer.spi.utils.ColorGradient;
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
+
+/**
+ * Checks for the incremental waterfall heat-map cache {@link ContourDataSetWaterfallCache}.
+ */
+public class ContourDataSetWaterfallCacheTests {
+    private static final int N_X = 32;
+    private static final int CAPACITY = 8;
+    private static final int N_QUANT = 256;
+
+    private static double[] getRow(final double value) {
+        final double[] row = new double[N_X];
+        Arrays.fill(row, value);
+        return row;
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        final CircularDoubleDataSet3D dataSet = new CircularDoubleDataSet3D("waterfall", N_X, CAPACITY);
+        final ContourDataSetWaterfallCache cache = new ContourDataSetWaterfallCache(dataSet);
+        final AxisTransform transform = new IdentityTransform();
+        final ColorGradient gradient = ColorGradient.DEFAULT;
+
+        for (int row = 0; row < 5; row++) {
+            dataSet.pushRow(getRow(row % 2 == 0 ? 0.0 : 1.0));
+        }
+        assertEquals(5, cache.colourise(dataSet, 0.0, 1.0, false, transform, N_QUANT, gradient));
+        assertEquals(0, cache.colourise(dataSet, 0.0, 1.0, false, transform, N_QUANT, gradient));
+
+        // only newly pushed rows are colour-mapped, including wrapping around the ring buffer
+        for (int row = 5; row < 11; row++) {
+            dataSet.pushRow(getRow(row % 2 == 0 ? 0.0 : 1.0));
+        }
+        assertEquals(6, cache.colourise(dataSet, 0.0, 1.0, false, transform, N_QUANT, gradient));
+        dataSet.pushRow(getRow(1.0));
+        assertEquals(1, cache.colourise(dataSet, 0.0, 1.0, false, transform, N_QUANT, gradient));
+
+        // pushed row 'n' is stored in image row 'n % capacity'
+        final PixelReader reader = cache.getImage().getPixelReader();
+        final int low = reader.getArgb(0, 10 % CAPACITY);
+        final int high = reader.getArgb(0, 11 % CAPACITY);
+        assertNotEquals(low, high);
+        for (int row = 4; row < 12; row++) {
+            assertEquals(row % 2 == 0 ? low : high, reader.getArgb(N_X - 1, row % CAPACITY));
+        }
+
+        // a changed colour mapping or a non-push modification recolours all rows
+        assertEquals(CAPACITY, cache.colourise(dataSet, 0.0, 2.0, false, transform, N_QUANT, gradient));
+        dataSet.set(0, 0, 0.5);
+        assertEquals(CAPACITY, cache.colourise(dataSet, 0.0, 2.0, false, transform, N_QUANT, gradient));
+        dataSet.clearData();
+        assertEquals(0, cache.colourise(dataSet, 0.0, 2.0, false, transform, N_QUANT, gradient));
+        dataSet.pushRow(getRow(1.0));
+        assertEquals(1, cache.colourise(dataSet, 0.0, 2.0, false, transform, N_QUANT, gradient));
+
+        cache.dispose(dataSet);
+        dataSet.pushRow(getRow(1.0));
+        assertEquals(2, cache.colourise(dataSet, 0.0, 2.0, false, transform, N_QUANT, gradient));
+    }
+
+    private static class IdentityTransform implements AxisTransform {
+        @Override
+        public double backward(final double val) {
+            return val;
+        }
+
+        @Override
+        public double forward(final double val) {
+            return val;
+        }
+
+        @Override
+        public double getMaximumRange() {
+            // not necessary for this test
+            return 0;
+        }
+
+        @Override
+        public double getMinimumRange() {
+            // not necessary for this test
+            return 0;
+        }
+
+        @Override
+        public double getRoundedMaximumRange(final double val) {
+            // not necessary for this test
+            return 0;
+        }
+
+        @Override
+        public double getRoundedMinimumRange(final double val) {
+            // not necessary for this test
+            return 0;
+        }
+
+        @Override
+        public void setMaximumRange(final double val) {
+            // not necessary for this test
+        }
+
+        @Override
+        public void setMinimumRange(final double val) {
+            // not necessary for this test
+        }
+    }
+}
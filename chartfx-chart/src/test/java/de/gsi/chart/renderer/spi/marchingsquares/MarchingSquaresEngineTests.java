@@ -0,0 +1,109 @@
+package de.gsi.chart.renderer.spi.marchingsquares;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks for the single-pass {@link MarchingSquaresEngine}
+ */
+public class MarchingSquaresEngineTests {
+    private static final int N = 101;
+    private static final double CENTRE = 50.0;
+    private static final double HEIGHT = 100.0;
+
+    private static double[] getCone() {
+        final double[] data = new double[N * N];
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                data[row * N + col] = HEIGHT - Math.hypot(col - CENTRE, row - CENTRE);
+            }
+        }
+        return data;
+    }
+
+    @Test
+    public void testConstantField() {
+        final MarchingSquaresEngine engine = new MarchingSquaresEngine();
+        final double[] levels = { 0.5 };
+        assertThrows(IllegalArgumentException.class, () -> engine.buildIsoLines(new double[16], 4, 4, levels));
+        assertThrows(IllegalArgumentException.class, () -> engine.buildIsoLines(new double[2], 4, 4, levels));
+        assertThrows(IllegalArgumentException.class, () -> new MarchingSquaresEngine(0));
+    }
+
+    @Test
+    public void testConeLevels() {
+        final double[] levels = { 59.5, 89.5, 74.5, 96.5 };
+        final IsoLines[] isoLines = new MarchingSquaresEngine(1).buildIsoLines(getCone(), N, N, levels);
+        assertEquals(levels.length, isoLines.length);
+        for (int k = 0; k < levels.length; k++) {
+            // output in input level order, a single closed ring per level
+            final IsoLines lines = isoLines[k];
+            assertEquals(levels[k], lines.getLevel());
+            assertEquals(1, lines.getLineCount(), lines.toString());
+            assertTrue(lines.isClosed(0));
+            assertTrue(lines.getPointCount() > 4 * (HEIGHT - levels[k]));
+            final float[] xy = lines.getCoordinates();
+            for (int i = 0; i < lines.getPointCount(); i++) {
+                final double radius = Math.hypot(xy[2 * i] - CENTRE, xy[2 * i + 1] - CENTRE);
+                assertEquals(HEIGHT - levels[k], radius, 0.1);
+            }
+        }
+    }
+
+    @Test
+    public void testBandsAndMatrixInput() {
+        final double[] data = getCone();
+        final double[] levels = { 94.5, 79.5, 54.5, 39.5, 20.0 };
+        final IsoLines[] reference = new MarchingSquaresEngine(1).buildIsoLines(data, N, N, levels);
+
+        final double[][] matrix = new double[N][N];
+        for (int row = 0; row < N; row++) {
+            System.arraycopy(data, row * N, matrix[row], 0, N);
+        }
+        final IsoLines[] banded = new MarchingSquaresEngine(6).buildIsoLines(matrix, levels);
+        for (int k = 0; k < levels.length; k++) {
+            // band seams are stitched: identical lines and points, albeit possibly with a different start point
+            assertEquals(reference[k].getLineCount(), banded[k].getLineCount(), "level " + levels[k]);
+            assertEquals(reference[k].getPointCount(), banded[k].getPointCount(), "level " + levels[k]);
+            for (int line = 0; line < banded[k].getLineCount(); line++) {
+                assertTrue(banded[k].isClosed(line));
+            }
+        }
+        // rings clipped by the data boundary are closed via the padding, levels below the data range yield no lines
+        assertEquals(1, banded[3].getLineCount());
+        assertEquals(0, banded[4].getLineCount());
+    }
+
+    @Test
+    public void testTwoPeaks() {
+        final int width = 80;
+        final int height = 40;
+        final double[] data = new double[width * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                data[row * width + col] = Math.exp(-0.01 * (Math.pow(col - 20, 2) + Math.pow(row - 20, 2)))
+                                          + Math.exp(-0.01 * (Math.pow(col - 60, 2) + Math.pow(row - 20, 2)));
+            }
+        }
+        final double[] levels = { 0.5, 0.9 };
+        final IsoLines[] isoLines = new MarchingSquaresEngine(4).buildIsoLines(data, width, height, levels);
+        for (final IsoLines lines : isoLines) {
+            assertEquals(2, lines.getLineCount());
+            assertArrayEquals(new boolean[] { true, true }, new boolean[] { lines.isClosed(0), lines.isClosed(1) });
+        }
+    }
+
+    @Test
+    public void testNaNCellsOpenLines() {
+        final double[] data = getCone();
+        data[50 * N + 70] = Double.NaN;
+        final IsoLines[] isoLines = new MarchingSquaresEngine().buildIsoLines(data, N, N, new double[] { 79.5 });
+        assertEquals(1, isoLines[0].getLineCount());
+        assertFalse(isoLines[0].isClosed(0));
+    }
+}
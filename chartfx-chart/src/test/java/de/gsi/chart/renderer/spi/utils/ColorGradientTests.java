@@ -43,4 +43,41 @@ public class ColorGradientTests {
             assertNotNull(gradient.toString(), "gradient name");
         }
     }
+
+    @Test
+    public void testLookupTable() {
+        for (final ColorGradient gradient : ColorGradient.colorGradients()) {
+            for (int i = 0; i < ColorGradient.LUT_SIZE; i += 63) {
+                final double offset = (double) i / (ColorGradient.LUT_SIZE - 1);
+                final int[] color = gradient.getColorBytes(offset);
+                final int argb = (color[0] << 24) | (color[1] << 16) | (color[2] << 8) | color[3];
+                assertEquals(argb, gradient.getArgb(offset), gradient + " offset = " + offset);
+            }
+            assertEquals(0, gradient.getArgb(-0.1), "below range");
+            assertEquals(0, gradient.getArgb(1.1), "above range");
+            assertEquals(0, gradient.getArgb(Double.NaN), "NaN");
+        }
+
+        final ColorGradient gradient = ColorGradient.VIRIDIS;
+        final int nSamples = 1 << 18; // large enough for the parallel implementation
+        final double[] z = new double[nSamples];
+        for (int i = 0; i < nSamples; i++) {
+            z[i] = -10.0 + 120.0 * i / nSamples;
+        }
+        final int[] parallel = new int[nSamples];
+        final int[] serial = new int[nSamples];
+        gradient.mapToArgb(z, 0.0, 100.0, parallel);
+        gradient.mapToArgb(z, 0, nSamples, 0.0, 100.0, false, 0, serial);
+        assertArrayEquals(serial, parallel);
+        for (int i = 0; i < nSamples; i += 101) {
+            assertEquals(gradient.getArgb(z[i] / 100.0), serial[i]);
+        }
+
+        // inverted and quantised mapping
+        gradient.mapToArgb(z, 0, nSamples, 0.0, 100.0, true, 10, serial);
+        for (int i = 0; i < nSamples; i += 101) {
+            final double offset = ((int) ((1.0 - z[i] / 100.0) * 10)) / 10.0;
+            assertEquals(gradient.getArgb(offset), serial[i]);
+        }
+    }
 }
@@ -50,6 +50,38 @@ public interface AxisDescription {
      */
     public boolean clear();
 
+    /**
+     * Incrementally updates the range after 'value' has been removed from (or overwritten in) the underlying data.
+     * The range is cleared (and thus lazily recomputed) only if the value lies on or beyond the present
+     * <code>min</code> or <code>max</code> boundary.
+     *
+     * @param value value that has been removed
+     * @return <code>true</code> if the range has been invalidated
+     */
+    default boolean remove(final double value) {
+        if (!isDefined() || !Double.isFinite(value) || (value > getMin() && value < getMax())) {
+            return false;
+        }
+        return clear();
+    }
+
+    /**
+     * Incrementally updates the range after the given values have been removed from the underlying data.
+     *
+     * @param values values that have been removed
+     * @param fromIndex first index (inclusive) of the removed values
+     * @param toIndex last index (exclusive) of the removed values
+     * @return <code>true</code> if the range has been invalidated
+     */
+    default boolean remove(final double[] values, final int fromIndex, final int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (remove(values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean contains(final double value);
 
     public double getLength();
@@ -133,6 +133,24 @@ public interface DataSet extends EventSource, Serializable {
         return retValues;
     }
 
+    /**
+     * @param dimIndex the dimension index (ie. '0' equals 'X', '1' equals 'Y')
+     * @return {@code true} if the coordinates along this dimension are equidistant (implies {@link #isSorted(int)}),
+     *         ie. {@link #getIndex(int, double)} is an O(1) operation
+     */
+    default boolean isEquiDistant(final int dimIndex) {
+        return false;
+    }
+
+    /**
+     * @param dimIndex the dimension index (ie. '0' equals 'X', '1' equals 'Y')
+     * @return {@code true} if the coordinates along this dimension are sorted in ascending order, ie.
+     *         {@link #getIndex(int, double)} is guaranteed to be an O(log N) operation
+     */
+    default boolean isSorted(final int dimIndex) {
+        return false;
+    }
+
     /**
      * @return Read-Write Lock to guard the DataSet
      * @see de.gsi.dataset.locks.DataSetLock
@@ -30,6 +30,20 @@ public interface Histogram1D extends Histogram {
      */
     int fill(double x, double w);
 
+    /**
+     * Bulk fill of the values x[from, to) with weights w.
+     *
+     * @param x new values to be added
+     * @param w weights ({@code null}: unit weights)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    default void fill(final double[] x, final double[] w, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            fill(x[i], w == null ? 1.0 : w[i]);
+        }
+    }
+
     /**
      * Fill this histogram with an array x and weights w.
      *
@@ -31,6 +31,21 @@ public interface Histogram2D {
      */
     int fill(double x, double y, double w);
 
+    /**
+     * Bulk fill of the values x[from, to) and y[from, to) with weights w.
+     *
+     * @param x new horizontal values to be added
+     * @param y new vertical values to be added
+     * @param w weights ({@code null}: unit weights)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    default void fill(final double[] x, final double[] y, final double[] w, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            fill(x[i], y[i], w == null ? 1.0 : w[i]);
+        }
+    }
+
     /**
      * @param x spatial real-valued coordinate in X
      * @param y spatial real-valued coordinate in Y
@@ -0,0 +1,54 @@
+package de.gsi.dataset.event;
+
+/**
+ * Optional pay-load of {@link UpdatedDataEvent}s (and derivatives) indicating that only the given index range of one
+ * dimension has been modified, e.g. a single row of a 3D data set. Listeners may use it to limit their update to the
+ * affected data. Events without this pay-load have to be treated as affecting all data.
+ *
+ * @see UpdateEvent#getPayLoad()
+ */
+public final class IndexRange {
+    private final int dimIndex;
+    private final int min;
+    private final int max;
+
+    /**
+     * @param dimIndex the dimension the indices refer to (e.g. {@code DataSet.DIM_Y} for rows)
+     * @param min minimum modified index (inclusive)
+     * @param max maximum modified index (inclusive)
+     */
+    public IndexRange(final int dimIndex, final int min, final int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min " + min + " > max " + max);
+        }
+        this.dimIndex = dimIndex;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the dimension the indices refer to
+     */
+    public int getDimIndex() {
+        return dimIndex;
+    }
+
+    /**
+     * @return maximum modified index (inclusive)
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return minimum modified index (inclusive)
+     */
+    public int getMin() {
+        return min;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexRange[dim=" + dimIndex + ", " + min + ".." + max + "]";
+    }
+}
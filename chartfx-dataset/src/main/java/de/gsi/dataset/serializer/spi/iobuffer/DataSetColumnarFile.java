@@ -0,0 +1,323 @@
+package de.gsi.dataset.serializer.spi.iobuffer;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.serializer.spi.FastByteBuffer.SIZE_OF_DOUBLE;
+import static de.gsi.dataset.serializer.spi.FastByteBuffer.SIZE_OF_INT;
+import static de.gsi.dataset.serializer.spi.FastByteBuffer.SIZE_OF_LONG;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Map;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.serializer.DataType;
+import de.gsi.dataset.serializer.spi.BinarySerialiser;
+import de.gsi.dataset.serializer.spi.FastByteBuffer;
+import de.gsi.dataset.serializer.spi.FieldHeader;
+import de.gsi.dataset.spi.DataSetBuilder;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Chunked, columnar on-disk format for archiving DataSets with a random-access block index.
+ * <p>
+ * File layout:
+ * <ul>
+ * <li>header: int32 byte-length followed by the {@link BinarySerialiser}-encoded name, axis descriptions, meta data,
+ * number of samples, block size and column names</li>
+ * <li>data blocks: for each block of at most {@code blockSize} consecutive samples all columns (x, y, yen, ...) stored
+ * back-to-back as primitive double arrays</li>
+ * <li>index footer: {@link BinarySerialiser}-encoded per-block file offset, byte- and sample-length as well as the
+ * per-block and per-column min/max statistics</li>
+ * <li>trailer: int64 position of the index footer followed by an int32 magic number</li>
+ * </ul>
+ * The reader uses the x-column statistics of the index to load only those blocks that overlap a requested x-range.
+ */
+public class DataSetColumnarFile extends DataSetSerialiser {
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 14;
+    private static final int MAGIC_NUMBER = 0x43464458; // 'CFDX'
+    private static final int TRAILER_SIZE = (int) (SIZE_OF_LONG + SIZE_OF_INT);
+    private static final String OBJ_ROOT_END = "OBJ_ROOT_END";
+    private static final String N_SAMPLES = "nSamples";
+    private static final String BLOCK_SIZE = "blockSize";
+    private static final String COLUMNS = "columns";
+    private static final String BLOCK_OFFSET = "blockOffset";
+    private static final String BLOCK_BYTES = "blockBytes";
+    private static final String BLOCK_SAMPLES = "blockSamples";
+    private static final String STAT_MIN = ".min";
+    private static final String STAT_MAX = ".max";
+
+    protected DataSetColumnarFile() {
+        super();
+        // utility class
+    }
+
+    private static void checkIndexField(final FastByteBuffer buffer, final List<FieldHeader> fields,
+            final String fieldName, final DataType dataType) {
+        if (!checkFieldCompatibility(buffer, fields, fieldName, dataType).isPresent()) {
+            throw new InputMismatchException("missing index field '" + fieldName + "'");
+        }
+    }
+
+    private static FastByteBuffer read(final FileChannel channel, final long position, final int length,
+            final FastByteBuffer buffer) throws IOException {
+        buffer.reset();
+        buffer.ensureCapacity(length + 1L);
+        final java.nio.ByteBuffer byteBuffer = java.nio.ByteBuffer.wrap(buffer.elements(), 0, length);
+        while (byteBuffer.hasRemaining()) {
+            if (channel.read(byteBuffer, position + byteBuffer.position()) < 0) {
+                throw new EOFException("premature end of file at position " + (position + byteBuffer.position()));
+            }
+        }
+        buffer.limit(length);
+        return buffer;
+    }
+
+    /**
+     * Reads the full DataSet from the given columnar file.
+     *
+     * @param file columnar file as written by {@link #writeDataSetToFile}
+     * @return DataSet with the data and meta data read from the file
+     * @throws IOException in case the file could not be read or is corrupt
+     */
+    public static DataSet readDataSetFromFile(final Path file) throws IOException {
+        return readDataSetFromFile(file, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Reads those samples of the DataSet whose x-coordinate lies within [xMin, xMax]. Only blocks whose x-statistics
+     * overlap the requested range are read from disk.
+     *
+     * @param file columnar file as written by {@link #writeDataSetToFile}
+     * @param xMin lower (inclusive) bound of the requested x-range
+     * @param xMax upper (inclusive) bound of the requested x-range
+     * @return DataSet with the selected data and meta data read from the file
+     * @throws IOException in case the file could not be read or is corrupt
+     */
+    public static DataSet readDataSetFromFile(final Path file, final double xMin, final double xMax)
+            throws IOException {
+        AssertUtils.notNull("file", file);
+        final DataSetBuilder builder = new DataSetBuilder();
+        final FastByteBuffer buffer = new FastByteBuffer(DEFAULT_BLOCK_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize < TRAILER_SIZE + SIZE_OF_INT) {
+                throw new InputMismatchException("file too short to be a columnar DataSet file: " + file);
+            }
+
+            // trailer
+            read(channel, fileSize - TRAILER_SIZE, TRAILER_SIZE, buffer);
+            final long indexPosition = buffer.getLong();
+            if (buffer.getInt() != MAGIC_NUMBER || indexPosition < 0 || indexPosition >= fileSize - TRAILER_SIZE) {
+                throw new InputMismatchException("invalid columnar DataSet file trailer: " + file);
+            }
+
+            // header
+            read(channel, 0, (int) SIZE_OF_INT, buffer);
+            final int headerLength = buffer.getInt();
+            read(channel, SIZE_OF_INT, headerLength, buffer);
+            BinarySerialiser.checkHeaderInfo(buffer);
+            final List<FieldHeader> headerFields = BinarySerialiser.parseIoStream(buffer).getChildren();
+            parseHeader(buffer, builder, headerFields);
+            if (isMetaDataSerialised()) {
+                parseMetaData(buffer, builder, headerFields);
+            }
+            if (!checkFieldCompatibility(buffer, headerFields, COLUMNS, DataType.STRING_ARRAY).isPresent()) {
+                throw new InputMismatchException("missing header field '" + COLUMNS + "'");
+            }
+            final String[] columns = BinarySerialiser.getStringArray(buffer);
+
+            // index footer
+            read(channel, indexPosition, (int) (fileSize - TRAILER_SIZE - indexPosition), buffer);
+            BinarySerialiser.checkHeaderInfo(buffer);
+            final List<FieldHeader> indexFields = BinarySerialiser.parseIoStream(buffer).getChildren();
+            checkIndexField(buffer, indexFields, BLOCK_OFFSET, DataType.LONG_ARRAY);
+            final long[] blockOffset = BinarySerialiser.getLongArray(buffer);
+            checkIndexField(buffer, indexFields, BLOCK_BYTES, DataType.INT_ARRAY);
+            final int[] blockBytes = BinarySerialiser.getIntArray(buffer);
+            checkIndexField(buffer, indexFields, BLOCK_SAMPLES, DataType.INT_ARRAY);
+            final int[] blockSamples = BinarySerialiser.getIntArray(buffer);
+            checkIndexField(buffer, indexFields, X_ARRAY_NAME + STAT_MIN, DataType.DOUBLE_ARRAY);
+            final double[] xBlockMin = BinarySerialiser.getDoubleArray(buffer);
+            checkIndexField(buffer, indexFields, X_ARRAY_NAME + STAT_MAX, DataType.DOUBLE_ARRAY);
+            final double[] xBlockMax = BinarySerialiser.getDoubleArray(buffer);
+
+            // select blocks overlapping the requested range
+            final int nBlocks = blockOffset.length;
+            final boolean[] selected = new boolean[nBlocks];
+            int nSamplesSelected = 0;
+            for (int block = 0; block < nBlocks; block++) {
+                selected[block] = xBlockMax[block] >= xMin && xBlockMin[block] <= xMax;
+                if (selected[block]) {
+                    nSamplesSelected += blockSamples[block];
+                }
+            }
+
+            final double[][] columnData = new double[columns.length][nSamplesSelected];
+            final int xColumn = Arrays.asList(columns).indexOf(X_ARRAY_NAME);
+            if (xColumn < 0) {
+                throw new InputMismatchException("missing '" + X_ARRAY_NAME + "' column");
+            }
+            int nSamples = 0;
+            for (int block = 0; block < nBlocks; block++) {
+                if (!selected[block]) {
+                    continue;
+                }
+                read(channel, blockOffset[block], blockBytes[block], buffer);
+                final int length = blockSamples[block];
+                for (final double[] column : columnData) {
+                    buffer.getDoubleArray(column, nSamples, length);
+                }
+                if (xMin <= xBlockMin[block] && xBlockMax[block] <= xMax) {
+                    // block fully contained in range
+                    nSamples += length;
+                    continue;
+                }
+                // block partially overlapping -> compact in-range samples
+                final double[] x = columnData[xColumn];
+                int nKept = nSamples;
+                for (int i = nSamples; i < nSamples + length; i++) {
+                    if (x[i] < xMin || x[i] > xMax) {
+                        continue;
+                    }
+                    for (final double[] column : columnData) {
+                        column[nKept] = column[i];
+                    }
+                    nKept++;
+                }
+                nSamples = nKept;
+            }
+
+            final Map<String, double[]> columnMap = new HashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                columnMap.put(columns[i],
+                        nSamples == nSamplesSelected ? columnData[i] : Arrays.copyOf(columnData[i], nSamples));
+            }
+            DataSetStreamSerialiser.setColumns(builder, columnMap);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Write the data set into a columnar file using the {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param dataSet The DataSet to export
+     * @param file target file (will be overwritten if existing)
+     * @throws IOException in case the file could not be written
+     */
+    public static void writeDataSetToFile(final DataSet dataSet, final Path file) throws IOException {
+        writeDataSetToFile(dataSet, file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Write the data set into a columnar file.
+     *
+     * @param dataSet The DataSet to export
+     * @param file target file (will be overwritten if existing)
+     * @param blockSize number of samples per block (N.B. granularity of the random-access index)
+     * @throws IOException in case the file could not be written
+     */
+    public static void writeDataSetToFile(final DataSet dataSet, final Path file, final int blockSize)
+            throws IOException {
+        AssertUtils.notNull("dataSet", dataSet);
+        AssertUtils.notNull("file", file);
+        AssertUtils.gtThanZero("blockSize", blockSize);
+
+        dataSet.lock().readLock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            final int nSamples = dataSet.getDataCount(DIM_X);
+            final List<String> columns = DataSetStreamSerialiser.getColumnNames(dataSet);
+            final int nColumns = columns.size();
+            final int nBlocks = (nSamples + blockSize - 1) / blockSize;
+            final FastByteBuffer buffer = new FastByteBuffer(
+                    (int) (nColumns * (SIZE_OF_INT + blockSize * SIZE_OF_DOUBLE)) + 1);
+            final double[] values = new double[blockSize];
+
+            // header
+            buffer.putInt(-1); // header length place-holder
+            BinarySerialiser.putHeaderInfo(buffer);
+            writeHeaderDataToStream(buffer, dataSet);
+            if (isMetaDataSerialised()) {
+                writeMetaDataToStream(buffer, dataSet);
+            }
+            BinarySerialiser.put(buffer, N_SAMPLES, nSamples);
+            BinarySerialiser.put(buffer, BLOCK_SIZE, blockSize);
+            BinarySerialiser.put(buffer, COLUMNS, columns.toArray(new String[0]));
+            BinarySerialiser.putEndMarker(buffer, OBJ_ROOT_END);
+            final int headerEnd = (int) buffer.position();
+            buffer.position(0);
+            buffer.putInt(headerEnd - (int) SIZE_OF_INT);
+            write(channel, buffer, headerEnd);
+
+            // data blocks
+            final long[] blockOffset = new long[nBlocks];
+            final int[] blockBytes = new int[nBlocks];
+            final int[] blockSamples = new int[nBlocks];
+            final double[][] statistics = new double[2 * nColumns][nBlocks]; // min, max per column
+            for (int block = 0; block < nBlocks; block++) {
+                final int offset = block * blockSize;
+                final int length = Math.min(blockSize, nSamples - offset);
+                buffer.reset();
+                for (int column = 0; column < nColumns; column++) {
+                    double min = Double.MAX_VALUE;
+                    double max = -Double.MAX_VALUE;
+                    for (int i = 0; i < length; i++) {
+                        final double value = DataSetStreamSerialiser.getColumnValue(dataSet, columns.get(column),
+                                offset + i);
+                        values[i] = value;
+                        if (Double.isFinite(value)) {
+                            min = Math.min(min, value);
+                            max = Math.max(max, value);
+                        }
+                    }
+                    buffer.putDoubleArray(values, 0, length);
+                    statistics[2 * column][block] = min;
+                    statistics[2 * column + 1][block] = max;
+                }
+                blockOffset[block] = channel.position();
+                blockBytes[block] = (int) buffer.position();
+                blockSamples[block] = length;
+                write(channel, buffer, (int) buffer.position());
+            }
+
+            // index footer
+            final long indexPosition = channel.position();
+            buffer.reset();
+            BinarySerialiser.putHeaderInfo(buffer);
+            BinarySerialiser.put(buffer, BLOCK_OFFSET, blockOffset);
+            BinarySerialiser.put(buffer, BLOCK_BYTES, blockBytes);
+            BinarySerialiser.put(buffer, BLOCK_SAMPLES, blockSamples);
+            for (int column = 0; column < nColumns; column++) {
+                final String name = columns.get(column);
+                BinarySerialiser.put(buffer, name + STAT_MIN, statistics[2 * column]);
+                BinarySerialiser.put(buffer, name + STAT_MAX, statistics[2 * column + 1]);
+            }
+            BinarySerialiser.putEndMarker(buffer, OBJ_ROOT_END);
+
+            // trailer
+            buffer.ensureAdditionalCapacity(TRAILER_SIZE);
+            buffer.putLong(indexPosition);
+            buffer.putInt(MAGIC_NUMBER);
+            write(channel, buffer, (int) buffer.position());
+        } finally {
+            dataSet.lock().readUnLock();
+        }
+    }
+
+    private static void write(final FileChannel channel, final FastByteBuffer buffer, final int length)
+            throws IOException {
+        final java.nio.ByteBuffer byteBuffer = java.nio.ByteBuffer.wrap(buffer.elements(), 0, length);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+    }
+}
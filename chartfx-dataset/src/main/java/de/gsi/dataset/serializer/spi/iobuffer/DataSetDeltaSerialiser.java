@@ -0,0 +1,195 @@
+package de.gsi.dataset.serializer.spi.iobuffer;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Optional;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.serializer.DataType;
+import de.gsi.dataset.serializer.IoBuffer;
+import de.gsi.dataset.serializer.spi.BinarySerialiser;
+import de.gsi.dataset.serializer.spi.FieldHeader;
+import de.gsi.dataset.spi.CircularDoubleErrorDataSet;
+import de.gsi.dataset.spi.DoubleErrorDataSet;
+import de.gsi.dataset.spi.FifoDoubleErrorDataSet;
+import de.gsi.dataset.spi.utils.DoublePointError;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Delta (incremental) serialisation for ring-buffer-type DataSets ({@link CircularDoubleErrorDataSet} and
+ * {@link FifoDoubleErrorDataSet}). Rather than re-sending the full history, only the samples that have been appended
+ * since a given sequence number are encoded together with the current number of samples of the source. The receiver
+ * appends the new samples and drops the oldest ones that have expired on the sender side.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * // sender
+ * long seq = DataSetDeltaSerialiser.writeDeltaToByteArray(source, lastSentSequence, buffer, false);
+ * // receiver
+ * long lastReceivedSequence = DataSetDeltaSerialiser.applyDeltaFromByteArray(buffer, target);
+ * </pre>
+ *
+ * N.B. a negative {@code fromSequence} or a sequence number that lies further back than the source's history forces
+ * a full update, i.e. the receiver's content is replaced by the current source content.
+ */
+public class DataSetDeltaSerialiser extends DataSetSerialiser {
+    private static final String FROM_SEQUENCE = "fromSequence";
+    private static final String SEQUENCE = "sequence";
+    private static final String DATA_COUNT = "dataCount";
+
+    protected DataSetDeltaSerialiser() {
+        super();
+        // utility class
+    }
+
+    /**
+     * Applies a delta update (as written by {@link #writeDeltaToByteArray}) to the given receiver DataSet.
+     *
+     * @param readBuffer IoBuffer (encapsulates byte array).
+     * @param target receiving data set to be updated
+     * @return the sequence number of the source after the update (N.B. to be used for requesting the next delta)
+     */
+    public static long applyDeltaFromByteArray(final IoBuffer readBuffer, final DoubleErrorDataSet target) {
+        AssertUtils.notNull("readBuffer", readBuffer);
+        AssertUtils.notNull("target", target);
+
+        BinarySerialiser.checkHeaderInfo(readBuffer);
+        final List<FieldHeader> fields = BinarySerialiser.parseIoStream(readBuffer).getChildren();
+
+        final long fromSequence = getLong(readBuffer, fields, FROM_SEQUENCE);
+        final long sequence = getLong(readBuffer, fields, SEQUENCE);
+        if (!checkFieldCompatibility(readBuffer, fields, DATA_COUNT, DataType.INT).isPresent()) {
+            throw new InputMismatchException("missing field '" + DATA_COUNT + "'");
+        }
+        final int dataCount = BinarySerialiser.getInteger(readBuffer);
+
+        final double[] x = getDoubleArray(readBuffer, fields, X_ARRAY_NAME);
+        final double[] y = getDoubleArray(readBuffer, fields, Y_ARRAY_NAME);
+        final double[] yen = getDoubleArray(readBuffer, fields, YEN);
+        final double[] yep = getDoubleArray(readBuffer, fields, YEP);
+
+        target.lock().writeLockGuard(() -> {
+            if (fromSequence < 0 || x.length >= dataCount) {
+                // full update
+                target.set(x, y, yen, yep, x.length, false);
+                return;
+            }
+            target.add(x, y, yen, yep);
+            final int nExpired = target.getDataCount() - dataCount;
+            if (nExpired > 0) {
+                target.remove(0, nExpired);
+            }
+        });
+
+        return sequence;
+    }
+
+    private static double[] getDoubleArray(final IoBuffer readBuffer, final List<FieldHeader> fields,
+            final String fieldName) {
+        final Optional<FieldHeader> header = checkFieldCompatibility(readBuffer, fields, fieldName,
+                DataType.DOUBLE_ARRAY, DataType.FLOAT_ARRAY);
+        if (!header.isPresent()) {
+            throw new InputMismatchException("missing field '" + fieldName + "'");
+        }
+        return BinarySerialiser.getDoubleArray(readBuffer, header.get().getDataType());
+    }
+
+    private static long getLong(final IoBuffer readBuffer, final List<FieldHeader> fields, final String fieldName) {
+        if (!checkFieldCompatibility(readBuffer, fields, fieldName, DataType.LONG).isPresent()) {
+            throw new InputMismatchException("missing field '" + fieldName + "'");
+        }
+        return BinarySerialiser.getLong(readBuffer);
+    }
+
+    /**
+     * @param dataSet ring-buffer-type data set
+     * @return total number of samples that have been appended to the data set since its creation
+     */
+    public static long getSequenceNumber(final DataSet dataSet) {
+        if (dataSet instanceof CircularDoubleErrorDataSet) {
+            return ((CircularDoubleErrorDataSet) dataSet).getSequenceNumber();
+        }
+        if (dataSet instanceof FifoDoubleErrorDataSet) {
+            return ((FifoDoubleErrorDataSet) dataSet).getSequenceNumber();
+        }
+        throw new IllegalArgumentException("delta serialisation not supported for " + dataSet.getClass().getName());
+    }
+
+    /**
+     * Write the samples that have been appended to the data set since {@code fromSequence} into the byte buffer.
+     *
+     * @param dataSet The ring-buffer-type DataSet to export (CircularDoubleErrorDataSet or FifoDoubleErrorDataSet)
+     * @param fromSequence sequence number of the last transmitted update (negative: full update)
+     * @param buffer byte output buffer (N.B. keep caching this object)
+     * @param asFloat {@code true}: encode data as binary floats (smaller size, performance), or {@code false} as double
+     *        (better precision)
+     * @return the current sequence number of the data set (N.B. to be used as {@code fromSequence} for the next delta)
+     */
+    public static long writeDeltaToByteArray(final DataSet dataSet, final long fromSequence, final IoBuffer buffer,
+            final boolean asFloat) {
+        AssertUtils.notNull("dataSet", dataSet);
+        AssertUtils.notNull("buffer", buffer);
+
+        return dataSet.lock().readLockGuard(() -> {
+            final long sequence = getSequenceNumber(dataSet);
+            if (fromSequence > sequence) {
+                throw new IllegalArgumentException(
+                        "fromSequence " + fromSequence + " is ahead of data set sequence " + sequence);
+            }
+            final int dataCount = dataSet.getDataCount(DIM_X);
+            // the last 'nAppended' samples are those added since 'fromSequence' that have not yet expired
+            final int nAppended = fromSequence < 0 ? dataCount : (int) Math.min(sequence - fromSequence, dataCount);
+            final int offset = dataCount - nAppended;
+
+            final double[] x = new double[nAppended];
+            final double[] y = new double[nAppended];
+            final double[] yen = new double[nAppended];
+            final double[] yep = new double[nAppended];
+            if (dataSet instanceof FifoDoubleErrorDataSet) {
+                // linked-list backed: iterate rather than using indexed access
+                final List<? extends DoublePointError> data = ((FifoDoubleErrorDataSet) dataSet).getData();
+                final ListIterator<? extends DoublePointError> iterator = data.listIterator(offset);
+                for (int i = 0; i < nAppended; i++) {
+                    final DoublePointError point = iterator.next();
+                    x[i] = point.getX();
+                    y[i] = point.getY();
+                    yen[i] = point.getErrorX();
+                    yep[i] = point.getErrorY();
+                }
+            } else {
+                final DataSetError ds = (DataSetError) dataSet;
+                for (int i = 0; i < nAppended; i++) {
+                    x[i] = ds.get(DIM_X, offset + i);
+                    y[i] = ds.get(DIM_Y, offset + i);
+                    yen[i] = ds.getErrorNegative(DIM_Y, offset + i);
+                    yep[i] = ds.getErrorPositive(DIM_Y, offset + i);
+                }
+            }
+
+            BinarySerialiser.putHeaderInfo(buffer);
+            BinarySerialiser.put(buffer, FROM_SEQUENCE, fromSequence);
+            BinarySerialiser.put(buffer, SEQUENCE, sequence);
+            BinarySerialiser.put(buffer, DATA_COUNT, dataCount);
+            if (asFloat) {
+                BinarySerialiser.put(buffer, X_ARRAY_NAME, toFloats(x));
+                BinarySerialiser.put(buffer, Y_ARRAY_NAME, toFloats(y));
+                BinarySerialiser.put(buffer, YEN, toFloats(yen));
+                BinarySerialiser.put(buffer, YEP, toFloats(yep));
+            } else {
+                BinarySerialiser.put(buffer, X_ARRAY_NAME, x);
+                BinarySerialiser.put(buffer, Y_ARRAY_NAME, y);
+                BinarySerialiser.put(buffer, YEN, yen);
+                BinarySerialiser.put(buffer, YEP, yep);
+            }
+            BinarySerialiser.putEndMarker(buffer, "OBJ_ROOT_END");
+
+            return sequence;
+        });
+    }
+}
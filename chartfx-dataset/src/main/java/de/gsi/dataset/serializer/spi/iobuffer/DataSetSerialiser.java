@@ -41,12 +41,12 @@ import de.gsi.dataset.utils.DataSetUtilsHelper;
 public class DataSetSerialiser extends DataSetUtilsHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(DataSetSerialiser.class);
     private static final String DATA_SET_NAME = "dataSetName";
-    private static final String Y_ARRAY_NAME = "y";
-    private static final String X_ARRAY_NAME = "x";
-    private static final String XEN = "xen";
-    private static final String XEP = "xep";
-    private static final String YEP = "yep";
-    private static final String YEN = "yen";
+    static final String Y_ARRAY_NAME = "y";
+    static final String X_ARRAY_NAME = "x";
+    static final String XEN = "xen";
+    static final String XEP = "xep";
+    static final String YEP = "yep";
+    static final String YEN = "yen";
     private static final String AXIS = "axis";
     private static final String NAME = "name";
     private static final String UNIT = "unit";
@@ -278,7 +278,7 @@ public class DataSetSerialiser extends DataSetUtilsHelper {
         transmitMetaData = state;
     }
 
-    private static float[] toFloats(final double[] input) {
+    static float[] toFloats(final double[] input) {
         final float[] floatArray = new float[input.length];
         for (int i = 0; i < input.length; i++) {
             floatArray[i] = (float) input[i];
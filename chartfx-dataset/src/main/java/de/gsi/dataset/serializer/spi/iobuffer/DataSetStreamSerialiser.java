@@ -0,0 +1,354 @@
+package de.gsi.dataset.serializer.spi.iobuffer;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+import static de.gsi.dataset.serializer.spi.FastByteBuffer.SIZE_OF_DOUBLE;
+import static de.gsi.dataset.serializer.spi.FastByteBuffer.SIZE_OF_INT;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.serializer.DataType;
+import de.gsi.dataset.serializer.IoBuffer;
+import de.gsi.dataset.serializer.spi.BinarySerialiser;
+import de.gsi.dataset.serializer.spi.BinarySerialiser.HeaderInfo;
+import de.gsi.dataset.serializer.spi.FastByteBuffer;
+import de.gsi.dataset.serializer.spi.FieldHeader;
+import de.gsi.dataset.spi.DataSetBuilder;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Streaming variant of {@link DataSetSerialiser} that writes and reads DataSets as a sequence of bounded blocks over
+ * NIO byte channels. The transport buffer is allocated once and sized by the block size, so that DataSets that would
+ * not fit into a single {@link IoBuffer} can be saved and loaded with a fixed (de-)serialisation memory footprint.
+ * <p>
+ * Stream layout (each frame is prefixed by its int32 byte-length):
+ * <ul>
+ * <li>one header frame containing the name, axis descriptions, meta data, number of samples and the column names</li>
+ * <li>data frames, each containing at most {@code blockSize} consecutive samples of one column (x, y, yen, ...)</li>
+ * <li>a zero-length end-of-stream frame</li>
+ * </ul>
+ * Several DataSets may be written back-to-back into the same channel and read back one after another.
+ */
+public class DataSetStreamSerialiser extends DataSetSerialiser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSetStreamSerialiser.class);
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    private static final int FRAME_OVERHEAD = 1024; // space for the per-frame header and field descriptions
+    private static final String OBJ_ROOT_END = "OBJ_ROOT_END";
+    private static final String N_SAMPLES = "nSamples";
+    private static final String BLOCK_SIZE = "blockSize";
+    private static final String COLUMNS = "columns";
+    private static final String COLUMN = "column";
+    private static final String OFFSET = "offset";
+    private static final String VALUES = "values";
+
+    protected DataSetStreamSerialiser() {
+        super();
+        // utility class
+    }
+
+    protected static List<String> getColumnNames(final DataSet dataSet) {
+        final List<String> columns = new ArrayList<>();
+        columns.add(X_ARRAY_NAME);
+        columns.add(Y_ARRAY_NAME);
+        if (!(dataSet instanceof DataSetError)) {
+            // data set does not have any error definition
+            return columns;
+        }
+        final DataSetError ds = (DataSetError) dataSet;
+        for (int dimIndex = 0; dimIndex < 2; dimIndex++) {
+            switch (ds.getErrorType(dimIndex)) {
+            case SYMMETRIC:
+                columns.add(dimIndex == DIM_X ? XEP : YEP);
+                break;
+            case ASYMMETRIC:
+                columns.add(dimIndex == DIM_X ? XEN : YEN);
+                columns.add(dimIndex == DIM_X ? XEP : YEP);
+                break;
+            case NO_ERROR:
+            default:
+                break;
+            }
+        }
+        return columns;
+    }
+
+    protected static double getColumnValue(final DataSet dataSet, final String column, final int index) {
+        switch (column) {
+        case X_ARRAY_NAME:
+            return dataSet.get(DIM_X, index);
+        case Y_ARRAY_NAME:
+            return dataSet.get(DIM_Y, index);
+        case XEN:
+            return ((DataSetError) dataSet).getErrorNegative(DIM_X, index);
+        case XEP:
+            return ((DataSetError) dataSet).getErrorPositive(DIM_X, index);
+        case YEN:
+            return ((DataSetError) dataSet).getErrorNegative(DIM_Y, index);
+        case YEP:
+            return ((DataSetError) dataSet).getErrorPositive(DIM_Y, index);
+        default:
+            throw new IllegalArgumentException("unknown column '" + column + "'");
+        }
+    }
+
+    protected static int readFrame(final ReadableByteChannel channel, final FastByteBuffer frameBuffer)
+            throws IOException {
+        frameBuffer.reset();
+        readFully(channel, frameBuffer.elements(), 0, (int) SIZE_OF_INT);
+        final int frameLength = frameBuffer.getInt();
+        if (frameLength < 0) {
+            throw new InputMismatchException("invalid frame length " + frameLength);
+        }
+        if (frameLength == 0) {
+            // end-of-stream frame
+            return 0;
+        }
+        frameBuffer.ensureCapacity(SIZE_OF_INT + frameLength + 1L);
+        readFully(channel, frameBuffer.elements(), (int) SIZE_OF_INT, frameLength);
+        frameBuffer.limit((int) SIZE_OF_INT + frameLength);
+        frameBuffer.position(SIZE_OF_INT);
+        return frameLength;
+    }
+
+    private static void readFully(final ReadableByteChannel channel, final byte[] target, final int offset,
+            final int length) throws IOException {
+        final java.nio.ByteBuffer byteBuffer = java.nio.ByteBuffer.wrap(target, offset, length);
+        while (byteBuffer.hasRemaining()) {
+            if (channel.read(byteBuffer) < 0) {
+                throw new EOFException("channel closed after " + byteBuffer.position() + " of " + length + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Reads the next DataSet from the given channel. Only the (bounded) frame buffer and the final DataSet arrays are
+     * allocated, independent of the total number of samples.
+     *
+     * @param channel source to read the block stream from
+     * @return DataSet with the data and meta data read from the stream
+     * @throws IOException in case the channel could not be read or ended prematurely
+     */
+    public static DataSet readDataSetFromChannel(final ReadableByteChannel channel) throws IOException {
+        AssertUtils.notNull("channel", channel);
+        final FastByteBuffer readBuffer = new FastByteBuffer(FRAME_OVERHEAD);
+        final DataSetBuilder builder = new DataSetBuilder();
+
+        // header frame
+        if (readFrame(channel, readBuffer) == 0) {
+            throw new InputMismatchException("missing DataSet header frame");
+        }
+        final HeaderInfo bufferHeader = BinarySerialiser.checkHeaderInfo(readBuffer);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.atDebug().addArgument(bufferHeader).log("read header = {}");
+        }
+        final List<FieldHeader> headerFields = BinarySerialiser.parseIoStream(readBuffer).getChildren();
+        parseHeader(readBuffer, builder, headerFields);
+        if (isMetaDataSerialised()) {
+            parseMetaData(readBuffer, builder, headerFields);
+        }
+        if (isDataLablesSerialised()) {
+            parseDataLabels(readBuffer, builder, headerFields);
+        }
+
+        final int nSamples = checkFieldCompatibility(readBuffer, headerFields, N_SAMPLES, DataType.INT).isPresent()
+                ? BinarySerialiser.getInteger(readBuffer)
+                : 0;
+        final int blockSize = checkFieldCompatibility(readBuffer, headerFields, BLOCK_SIZE, DataType.INT).isPresent()
+                ? BinarySerialiser.getInteger(readBuffer)
+                : DEFAULT_BLOCK_SIZE;
+        if (nSamples < 0) {
+            throw new InputMismatchException("negative number of samples " + nSamples + " in DataSet header frame");
+        }
+        final String[] columns = checkFieldCompatibility(readBuffer, headerFields, COLUMNS, DataType.STRING_ARRAY)
+                .isPresent() ? BinarySerialiser.getStringArray(readBuffer) : new String[0];
+        final Map<String, double[]> columnData = new HashMap<>();
+        for (final String column : columns) {
+            columnData.put(column, new double[nSamples]);
+        }
+        float[] floatBlock = null; // NOPMD - lazy initialisation, only needed for float-encoded streams
+
+        // data frames
+        while (readFrame(channel, readBuffer) > 0) {
+            BinarySerialiser.checkHeaderInfo(readBuffer);
+            final List<FieldHeader> fields = BinarySerialiser.parseIoStream(readBuffer).getChildren();
+            if (!checkFieldCompatibility(readBuffer, fields, COLUMN, DataType.STRING).isPresent()) {
+                throw new InputMismatchException("data frame without '" + COLUMN + "' field");
+            }
+            final String column = BinarySerialiser.getString(readBuffer);
+            if (!checkFieldCompatibility(readBuffer, fields, OFFSET, DataType.INT).isPresent()) {
+                throw new InputMismatchException("data frame without '" + OFFSET + "' field");
+            }
+            final int offset = BinarySerialiser.getInteger(readBuffer);
+            final double[] target = columnData.get(column);
+            if (target == null) {
+                throw new InputMismatchException("data frame for undeclared column '" + column + "'");
+            }
+            if (offset < 0 || offset > nSamples) {
+                throw new InputMismatchException("data frame offset " + offset + " of column '" + column
+                        + "' outside of the declared sample range [0, " + nSamples + "]");
+            }
+            final Optional<FieldHeader> values = checkFieldCompatibility(readBuffer, fields, VALUES,
+                    DataType.DOUBLE_ARRAY, DataType.FLOAT_ARRAY);
+            if (!values.isPresent()) {
+                continue;
+            }
+            final int length = Math.min(values.get().getDataDimensions()[0], nSamples - offset);
+            if (values.get().getDataType().equals(DataType.DOUBLE_ARRAY)) {
+                readBuffer.getDoubleArray(target, offset, length);
+            } else {
+                if (floatBlock == null || floatBlock.length < length) {
+                    floatBlock = new float[Math.max(length, blockSize)];
+                }
+                readBuffer.getFloatArray(floatBlock, 0, length);
+                for (int i = 0; i < length; i++) {
+                    target[offset + i] = floatBlock[i];
+                }
+            }
+        }
+
+        setColumns(builder, columnData);
+
+        return builder.build();
+    }
+
+    /**
+     * @param builder DataSet builder to be initialised
+     * @param columnData column arrays indexed by their column name (N.B. arrays are used without copying)
+     */
+    protected static void setColumns(final DataSetBuilder builder, final Map<String, double[]> columnData) {
+        if (columnData.containsKey(X_ARRAY_NAME)) {
+            builder.setXValuesNoCopy(columnData.get(X_ARRAY_NAME));
+        }
+        if (columnData.containsKey(Y_ARRAY_NAME)) {
+            builder.setYValuesNoCopy(columnData.get(Y_ARRAY_NAME));
+        }
+        if (columnData.containsKey(XEN)) {
+            builder.setXNegErrorNoCopy(columnData.get(XEN));
+        }
+        if (columnData.containsKey(XEP)) {
+            builder.setXPosErrorNoCopy(columnData.get(XEP));
+        }
+        if (columnData.containsKey(YEN)) {
+            builder.setYNegErrorNoCopy(columnData.get(YEN));
+        }
+        if (columnData.containsKey(YEP)) {
+            builder.setYPosErrorNoCopy(columnData.get(YEP));
+        }
+    }
+
+    private static void startFrame(final IoBuffer buffer) {
+        buffer.reset();
+        buffer.putInt(-1); // frame length place-holder
+    }
+
+    private static void writeFrame(final WritableByteChannel channel, final FastByteBuffer buffer) throws IOException {
+        final int frameEnd = (int) buffer.position();
+        buffer.position(0);
+        buffer.putInt(frameEnd - (int) SIZE_OF_INT); // write actual frame length
+        final java.nio.ByteBuffer byteBuffer = java.nio.ByteBuffer.wrap(buffer.elements(), 0, frameEnd);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+    }
+
+    /**
+     * Write data set into the given channel using the {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param dataSet The DataSet to export
+     * @param channel byte output channel
+     * @param asFloat {@code true}: encode data as binary floats (smaller size, performance), or {@code false} as double
+     *        (better precision)
+     * @throws IOException in case the channel could not be written to
+     */
+    public static void writeDataSetToChannel(final DataSet dataSet, final WritableByteChannel channel,
+            final boolean asFloat) throws IOException {
+        writeDataSetToChannel(dataSet, channel, asFloat, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Write data set into the given channel as a sequence of frames containing at most {@code blockSize} samples each.
+     *
+     * @param dataSet The DataSet to export
+     * @param channel byte output channel
+     * @param asFloat {@code true}: encode data as binary floats (smaller size, performance), or {@code false} as double
+     *        (better precision)
+     * @param blockSize maximum number of samples per data frame (N.B. defines the transport buffer size)
+     * @throws IOException in case the channel could not be written to
+     */
+    public static void writeDataSetToChannel(final DataSet dataSet, final WritableByteChannel channel,
+            final boolean asFloat, final int blockSize) throws IOException {
+        AssertUtils.notNull("dataSet", dataSet);
+        AssertUtils.notNull("channel", channel);
+        AssertUtils.gtThanZero("blockSize", blockSize);
+
+        final FastByteBuffer buffer = new FastByteBuffer((int) (blockSize * SIZE_OF_DOUBLE) + FRAME_OVERHEAD);
+        final double[] doubleBlock = asFloat ? null : new double[blockSize];
+        final float[] floatBlock = asFloat ? new float[blockSize] : null;
+
+        dataSet.lock().readLock();
+        try {
+            final int nSamples = dataSet.getDataCount(DIM_X);
+            final List<String> columns = getColumnNames(dataSet);
+
+            // header frame
+            startFrame(buffer);
+            BinarySerialiser.putHeaderInfo(buffer);
+            writeHeaderDataToStream(buffer, dataSet);
+            if (isMetaDataSerialised()) {
+                writeMetaDataToStream(buffer, dataSet);
+            }
+            if (isDataLablesSerialised()) {
+                writeDataLabelsToStream(buffer, dataSet);
+            }
+            BinarySerialiser.put(buffer, N_SAMPLES, nSamples);
+            BinarySerialiser.put(buffer, BLOCK_SIZE, blockSize);
+            BinarySerialiser.put(buffer, COLUMNS, columns.toArray(new String[0]));
+            BinarySerialiser.putEndMarker(buffer, OBJ_ROOT_END);
+            writeFrame(channel, buffer);
+
+            // data frames
+            for (final String column : columns) {
+                for (int offset = 0; offset < nSamples; offset += blockSize) {
+                    final int length = Math.min(blockSize, nSamples - offset);
+                    startFrame(buffer);
+                    BinarySerialiser.putHeaderInfo(buffer);
+                    BinarySerialiser.put(buffer, COLUMN, column);
+                    BinarySerialiser.put(buffer, OFFSET, offset);
+                    if (asFloat) {
+                        for (int i = 0; i < length; i++) {
+                            floatBlock[i] = (float) getColumnValue(dataSet, column, offset + i);
+                        }
+                        BinarySerialiser.put(buffer, VALUES, floatBlock, new int[] { length });
+                    } else {
+                        for (int i = 0; i < length; i++) {
+                            doubleBlock[i] = getColumnValue(dataSet, column, offset + i);
+                        }
+                        BinarySerialiser.put(buffer, VALUES, doubleBlock, new int[] { length });
+                    }
+                    BinarySerialiser.putEndMarker(buffer, OBJ_ROOT_END);
+                    writeFrame(channel, buffer);
+                }
+            }
+
+            // end-of-stream frame
+            startFrame(buffer);
+            writeFrame(channel, buffer);
+        } finally {
+            dataSet.lock().readUnLock();
+        }
+    }
+}
@@ -37,6 +37,8 @@ import de.gsi.dataset.utils.AssertUtils;
  * <li>It maintains ranges of X and Y values.
  * <li>It gives a possibility to specify an undefined value.
  * <li>It maintains the names and units for the axes
+ * <li>It maintains whether the coordinates of a given dimension are sorted or equidistant. By default only the
+ * x-coordinates are assumed to be sorted, enabling O(log N) (sorted) or O(1) (equidistant) index look-ups.
  * </ul>
  * 
  * @param <D> java generics handling of DataSet for derived classes (needed for fluent design)
@@ -61,6 +63,8 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
     private List<String> errorList = new ArrayList<>();
     private EditConstraints editConstraints;
     private final Map<String, String> metaInfoMap = new ConcurrentHashMap<>();
+    private boolean[] sortedDimensions; // N.B. non-final for the reflection-based serialisers
+    private boolean[] equiDistantDimensions;
 
     /**
      * default constructor
@@ -77,6 +81,9 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
             final String axisName = i < DEFAULT_AXES_NAME.length ? DEFAULT_AXES_NAME[i] : "dim" + (i + 1) + "-Axis";
             axesDescriptions.add(new DefaultAxisDescription(this, axisName, "a.u."));
         }
+        sortedDimensions = new boolean[dimension];
+        equiDistantDimensions = new boolean[dimension];
+        sortedDimensions[DIM_X] = true;
     }
 
     /**
@@ -113,24 +120,21 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
     }
 
     protected int binarySearch(final int dimIndex, final double search, final int indexMin, final int indexMax) {
-        if (indexMin == indexMax) {
-            return indexMin;
-        }
-        if (indexMax - indexMin == 1) {
-            if (Math.abs(get(dimIndex, indexMin) - search) < Math.abs(get(dimIndex, indexMax) - search)) {
-                return indexMin;
+        int lower = indexMin;
+        int upper = indexMax;
+        while (upper - lower > 1) {
+            final int middle = (lower + upper) >>> 1;
+            final double valMiddle = get(dimIndex, middle);
+            if (valMiddle == search) {
+                return middle;
+            }
+            if (search < valMiddle) {
+                upper = middle;
+            } else {
+                lower = middle;
             }
-            return indexMax;
-        }
-        final int middle = (indexMax + indexMin) / 2;
-        final double valMiddle = get(dimIndex, middle);
-        if (valMiddle == search) {
-            return middle;
-        }
-        if (search < valMiddle) {
-            return binarySearch(dimIndex, search, indexMin, middle);
         }
-        return binarySearch(dimIndex, search, middle, indexMax);
+        return closestIndex(dimIndex, search, lower, upper);
     }
 
     public D clearMetaInfo() {
@@ -486,27 +490,61 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
      */
     @Override
     public int getIndex(final int dimIndex, final double x) {
-        if (this.getDataCount() == 0) {
+        final int dataCount = getDataCount(dimIndex);
+        if (dataCount == 0 || !Double.isFinite(x)) {
             return 0;
         }
-
-        if (!Double.isFinite(x)) {
-            return 0;
+        final int lastIndex = dataCount - 1;
+        if (!isSorted(dimIndex)) {
+            return closestIndex(dimIndex, x, 0, lastIndex);
         }
 
-        if (x < this.getAxisDescription(dimIndex).getMin()) {
+        final double first = get(dimIndex, 0);
+        if (x <= first) {
             return 0;
         }
-
-        final int lastIndex = getDataCount(dimIndex) - 1;
-        if (x > this.getAxisDescription(dimIndex).getMax()) {
+        final double last = get(dimIndex, lastIndex);
+        if (x >= last) {
             return lastIndex;
         }
 
-        // binary closest search -- assumes sorted data set
+        if (isEquiDistant(dimIndex)) {
+            // interpolation search -- O(1), neighbours are checked to absorb rounding errors
+            final int guess = (int) Math.round((x - first) / (last - first) * lastIndex);
+            final int lower = Math.max(0, guess - 1);
+            final int upper = Math.min(lastIndex, guess + 1);
+            if (get(dimIndex, lower) <= x && x <= get(dimIndex, upper)) {
+                return closestIndex(dimIndex, x, lower, upper);
+            }
+            // not equidistant (anymore) -- fall back to the binary search
+        }
+
+        // binary closest search -- O(log N)
         return binarySearch(dimIndex, x, 0, lastIndex);
     }
 
+    /**
+     * linear closest search (N.B. used for unsorted data)
+     *
+     * @param dimIndex the dimension index
+     * @param search the coordinate to search for
+     * @param indexMin first index (inclusive)
+     * @param indexMax last index (inclusive)
+     * @return index of the data point closest to 'search', NaN values are ignored
+     */
+    protected int closestIndex(final int dimIndex, final double search, final int indexMin, final int indexMax) {
+        int closest = indexMin;
+        double minAbsDiff = Double.MAX_VALUE;
+        for (int i = indexMin; i <= indexMax; i++) {
+            final double absDiff = Math.abs(get(dimIndex, i) - search);
+            if (absDiff < minAbsDiff) {
+                closest = i;
+                minAbsDiff = absDiff;
+            }
+        }
+        return closest;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -523,6 +561,17 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
         return result;
     }
 
+    @Override
+    public boolean isEquiDistant(final int dimIndex) {
+        return dimIndex >= 0 && dimIndex < equiDistantDimensions.length && equiDistantDimensions[dimIndex];
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dimIndex >= 0 && dimIndex < sortedDimensions.length
+                && (sortedDimensions[dimIndex] || equiDistantDimensions[dimIndex]);
+    }
+
     @Override
     public DataSetLock<? extends DataSet> lock() {
         return lock;
@@ -575,6 +624,80 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
         return getThis();
     }
 
+    /**
+     * Extends the cached range of the given dimension by a newly added value. A range that has been invalidated (e.g.
+     * by the removal of its min or max) is not partially re-filled but left to be recomputed on the next access.
+     *
+     * @param dimIndex the chosen dimension
+     * @param wasEmpty {@code true}: the data set did not contain any data prior to the addition
+     * @param value the added value
+     */
+    protected void extendRange(final int dimIndex, final boolean wasEmpty, final double value) {
+        final AxisDescription axis = getAxisDescription(dimIndex);
+        if (wasEmpty || axis.isDefined()) {
+            axis.add(value);
+        }
+    }
+
+    /**
+     * Extends the cached range of the given dimension by newly added values, see
+     * {@link #extendRange(int, boolean, double)}.
+     *
+     * @param dimIndex the chosen dimension
+     * @param wasEmpty {@code true}: the data set did not contain any data prior to the addition
+     * @param values array containing the added values
+     * @param fromIndex index of the first added value (inclusive)
+     * @param toIndex index of the last added value (exclusive)
+     */
+    protected void extendRange(final int dimIndex, final boolean wasEmpty, final double[] values, final int fromIndex,
+            final int toIndex) {
+        final AxisDescription axis = getAxisDescription(dimIndex);
+        if (!wasEmpty && !axis.isDefined()) {
+            return;
+        }
+        if (fromIndex == 0) {
+            axis.add(values, toIndex);
+            return;
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            axis.add(values[i]);
+        }
+    }
+
+    /**
+     * Incrementally updates the cached range of the given dimension when a single value is replaced. The range is
+     * invalidated (ie. lazily recomputed) only if the old value defined the present min or max, otherwise the update
+     * is O(1).
+     *
+     * @param dimIndex the chosen dimension
+     * @param oldValue value that is being replaced
+     * @param newValue replacement value
+     */
+    protected void updateRange(final int dimIndex, final double oldValue, final double newValue) {
+        updateRange(dimIndex, oldValue, oldValue, newValue, newValue);
+    }
+
+    /**
+     * Incrementally updates the cached range of the given dimension when a single value including its errors is
+     * replaced.
+     *
+     * @param dimIndex the chosen dimension
+     * @param oldMin lower bound of the replaced value (e.g. value minus negative error)
+     * @param oldMax upper bound of the replaced value (e.g. value plus positive error)
+     * @param newMin lower bound of the replacement value
+     * @param newMax upper bound of the replacement value
+     */
+    protected void updateRange(final int dimIndex, final double oldMin, final double oldMax, final double newMin,
+            final double newMax) {
+        final AxisDescription axis = getAxisDescription(dimIndex);
+        if (!axis.isDefined() || axis.remove(oldMin) || axis.remove(oldMax)) {
+            // range is undefined/invalidated and will be recomputed on the next access
+            return;
+        }
+        axis.add(newMin);
+        axis.add(newMax);
+    }
+
     /**
      * remove a custom data label for a point The label can be used as a category name if CategoryStepsDefinition is
      * used or for annotations displayed for data points.
@@ -606,6 +729,39 @@ public abstract class AbstractDataSet<D extends AbstractStylable<D>> extends Abs
         return fireInvalidated(new UpdatedMetaDataEvent(this, "new edit constraints"));
     }
 
+    /**
+     * Declares the coordinates of the given dimension as equidistant (and thus also sorted), enabling O(1) index
+     * look-ups via {@link #getIndex(int, double)}. N.B. the state is kept when data is modified (e.g. appended), the
+     * O(1) look-up falls back to the binary search if the coordinates turn out to be no longer equidistant.
+     *
+     * @param dimIndex the dimension index
+     * @param state {@code true}: coordinates are equidistant
+     * @return itself (fluent design)
+     */
+    public D setEquiDistant(final int dimIndex, final boolean state) {
+        AssertUtils.indexInBounds(dimIndex, equiDistantDimensions.length);
+        lock().writeLockGuard(() -> {
+            equiDistantDimensions[dimIndex] = state;
+        });
+        return getThis();
+    }
+
+    /**
+     * Declares the coordinates of the given dimension as sorted in ascending order, enabling O(log N) index look-ups
+     * via {@link #getIndex(int, double)}. Unsorted dimensions fall back to a linear O(N) closest search.
+     *
+     * @param dimIndex the dimension index
+     * @param state {@code true}: coordinates are sorted
+     * @return itself (fluent design)
+     */
+    public D setSorted(final int dimIndex, final boolean state) {
+        AssertUtils.indexInBounds(dimIndex, sortedDimensions.length);
+        lock().writeLockGuard(() -> {
+            sortedDimensions[dimIndex] = state;
+        });
+        return getThis();
+    }
+
     /**
      * Sets the name of data set (meta data)
      * 
@@ -22,6 +22,8 @@ public abstract class AbstractDataSet3D<D extends AbstractDataSet3D<D>> extends
     public AbstractDataSet3D(final String name) {
         super(name, 3);
         getAxisDescriptions().add(new DefaultAxisDescription(this, "z-Axis", "a.u."));
+        // x and y define the (sorted) grid
+        setSorted(DIM_Y, true);
     }
 
     /**
@@ -1,15 +1,26 @@
 package de.gsi.dataset.spi;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import de.gsi.dataset.AxisDescription;
 import de.gsi.dataset.Histogram;
 import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
 
 /**
  * @author rstein
  */
 public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogram> implements Histogram {
     private static final long serialVersionUID = -6455271782865323112L;
+    private static final String PARALLEL_WORKER_ERROR = "one parallel worker thread finished execution with error";
+    private static final int MIN_PARALLEL_FILL_SIZE = 1 << 16;
+    private static final int BIN_BUFFER_SIZE = 1 << 12;
     protected final int[] nAxisBins;
     protected double[][] axisBins;
     private final boolean equidistant;
@@ -95,11 +106,123 @@ public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogra
     public void addBinContent(final int bin, final double w) {
         lock().writeLockGuard(() -> {
             data[bin] = data[bin] + w;
-            this.getAxisDescription(this.getDimension() - 1).add(data[bin]);
+            this.getAxisDescription(getContentDimIndex()).add(data[bin]);
         });
         fireInvalidated(new UpdatedDataEvent(this, "addBinContent()"));
     }
 
+    /**
+     * Adds the weight to the given bin and updates the range of the bin content dimension.
+     * <p>
+     * N.B. the caller needs to hold the write lock and to notify the listeners
+     *
+     * @param bin bin index
+     * @param w weight to be added
+     */
+    protected void addToBin(final int bin, final double w) {
+        data[bin] += w;
+        getAxisDescription(getContentDimIndex()).add(data[bin]);
+    }
+
+    /**
+     * Adds the bin contents of a partial histogram (e.g. computed by {@link #fillPartial}) to this histogram and
+     * updates the range of the bin content dimension.
+     * <p>
+     * N.B. the caller needs to hold the write lock and to notify the listeners
+     *
+     * @param partial bin contents to be added (same binning as this histogram)
+     */
+    protected void addBinContents(final double[] partial) {
+        final AxisDescription contentRange = getAxisDescription(getContentDimIndex());
+        for (int bin = 0; bin < data.length; bin++) {
+            if (partial[bin] != 0.0) {
+                data[bin] += partial[bin];
+                contentRange.add(data[bin]);
+            }
+        }
+    }
+
+    /**
+     * Checks the index range [from, to) of a bulk fill.
+     *
+     * @param name name of the array
+     * @param array the array to be checked
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    protected static void checkFillRange(final String name, final double[] array, final int from, final int to) {
+        AssertUtils.notNull(name, array);
+        AssertUtils.gtEqThanZero("from", from);
+        AssertUtils.indexOrder(from, "from", to, "to");
+        AssertUtils.gtOrEqual(name, to, array.length);
+    }
+
+    /**
+     * Computes the partial histogram of the samples [from, to). Large ranges are split into chunks that are binned
+     * concurrently into thread-local partial histograms, which are merged at the end.
+     *
+     * @param from first sample index (inclusive)
+     * @param to last sample index (exclusive)
+     * @param kernel bins a sub-range of samples into a given partial histogram
+     * @return the partial histogram (same binning as this histogram)
+     */
+    protected double[] fillPartial(final int from, final int to, final PartialFill kernel) {
+        final int length = to - from;
+        final int nThreads = Math.min(CachedDaemonThreadFactory.getNumbersOfThreads(), length / MIN_PARALLEL_FILL_SIZE);
+        final double[] partial = new double[data.length];
+        if (nThreads <= 1) {
+            kernel.fill(from, to, partial);
+            return partial;
+        }
+
+        final int chunkSize = (length + nThreads - 1) / nThreads;
+        final List<Callable<double[]>> workers = new ArrayList<>(nThreads);
+        for (int start = from; start < to; start += chunkSize) {
+            final int chunkStart = start;
+            final int chunkStop = Math.min(to, start + chunkSize);
+            workers.add(() -> {
+                final double[] threadPartial = new double[data.length];
+                kernel.fill(chunkStart, chunkStop, threadPartial);
+                return threadPartial;
+            });
+        }
+        try {
+            final List<Future<double[]>> jobs = CachedDaemonThreadFactory.getCommonPool().invokeAll(workers);
+            for (final Future<double[]> future : jobs) {
+                final double[] threadPartial = future.get();
+                for (int bin = 0; bin < partial.length; bin++) {
+                    partial[bin] += threadPartial[bin];
+                }
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(PARALLEL_WORKER_ERROR, e);
+        }
+        return partial;
+    }
+
+    /**
+     * Bins the samples [from, to) with weights w (or unit weights if {@code null}) for dimension dimIndex into the
+     * partial histogram.
+     *
+     * @param dimIndex the dimension index
+     * @param x spatial real-valued coordinates for dimension dimIndex
+     * @param w weights (may be {@code null})
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param partial bin contents to be incremented
+     */
+    protected void fillPartial(final int dimIndex, final double[] x, final double[] w, final int from, final int to,
+            final double[] partial) {
+        final int[] bins = new int[Math.min(BIN_BUFFER_SIZE, to - from)];
+        for (int start = from; start < to; start += bins.length) {
+            final int stop = Math.min(to, start + bins.length);
+            findBins(dimIndex, x, start, stop, bins);
+            for (int i = start; i < stop; i++) {
+                partial[bins[i - start]] += w == null ? 1.0 : w[i];
+            }
+        }
+    }
+
     @Override
     public int findBin(final double x, final double y) {
         final int indexX = findBin(DIM_X, x);
@@ -128,20 +251,68 @@ public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogra
         }
         if (isEquiDistant()) {
             final double diff = x - getAxisDescription(dimIndex).getMin();
-            final double delta = getAxisDescription(dimIndex).getLength() / (getDataCount(dimIndex) - 2);
-            return (int) Math.round(diff / delta);
+            return (int) Math.round(diff / getBinWidth(dimIndex));
         }
 
-        return findNextLargerIndex(axisBins[dimIndex], x);
+        return findNextLargerIndex(getBinEdges(dimIndex), x);
+    }
+
+    /**
+     * Bulk version of {@link #findBin(int, double)}: the axis range and bin width are resolved once, followed by an
+     * O(1) look-up per sample for equidistant and a binary search for variable-width bins.
+     *
+     * @param dimIndex the dimension index
+     * @param x spatial real-valued coordinates for dimension dimIndex
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param bins storage for the bin indices, {@code bins[i - from]} corresponds to {@code x[i]}
+     */
+    public void findBins(final int dimIndex, final double[] x, final int from, final int to, final int[] bins) {
+        final AxisDescription range = getAxisDescription(dimIndex);
+        if (range.getLength() == 0.0) {
+            Arrays.fill(bins, 0, to - from, 0);
+            return;
+        }
+        final boolean defined = range.isDefined();
+        final double min = range.getMin();
+        final double max = range.getMax();
+        final int overflowBin = getDataCount(dimIndex) - 1;
+        if (isEquiDistant()) {
+            final double delta = getBinWidth(dimIndex);
+            for (int i = from; i < to; i++) {
+                final double value = x[i];
+                if (defined && value >= min && value <= max) {
+                    bins[i - from] = (int) Math.round((value - min) / delta);
+                } else {
+                    bins[i - from] = value < min ? 0 : overflowBin;
+                }
+            }
+            return;
+        }
+        final double[] edges = getBinEdges(dimIndex);
+        for (int i = from; i < to; i++) {
+            final double value = x[i];
+            if (defined && value >= min && value <= max) {
+                bins[i - from] = findNextLargerIndex(edges, value);
+            } else {
+                bins[i - from] = value < min ? 0 : overflowBin;
+            }
+        }
     }
 
     protected int findNextLargerIndex(final double[] bin, final double value) {
-        for (int i = 1; i < bin.length; i++) {
-            if (value < bin[i]) {
-                return i - 1;
+        // binary search for the first bin edge that is larger than 'value' (N.B. bin edges are sorted)
+        int lower = 1;
+        int upper = bin.length;
+        while (lower < upper) {
+            final int middle = (lower + upper) >>> 1;
+            if (value < bin[middle]) {
+                upper = middle;
+            } else {
+                lower = middle + 1;
             }
         }
-        return bin.length - 1;
+        return lower - 1;
     }
 
     /**
@@ -163,11 +334,34 @@ public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogra
         return axisBins[dimIndex][binIndex] + (0.5 * (axisBins[dimIndex][binIndex + 1] - axisBins[dimIndex][binIndex]));
     }
 
+    /**
+     * @param dimIndex the dimension index
+     * @return sorted bin edges used for the bin look-up of variable-width bins
+     */
+    protected double[] getBinEdges(final int dimIndex) {
+        return axisBins[dimIndex];
+    }
+
+    /**
+     * @param dimIndex the dimension index
+     * @return bin width used for the bin look-up of equidistant bins
+     */
+    protected double getBinWidth(final int dimIndex) {
+        return getAxisDescription(dimIndex).getLength() / (getDataCount(dimIndex) - 2);
+    }
+
     @Override
     public double getBinContent(final int bin) {
         return data[bin];
     }
 
+    /**
+     * @return dimension index holding the bin content
+     */
+    protected int getContentDimIndex() {
+        return getDimension() - 1;
+    }
+
     @Override
     public int getDataCount() {
         return getDataCount(DIM_X);
@@ -183,6 +377,17 @@ public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogra
         return equidistant;
     }
 
+    @Override
+    public boolean isEquiDistant(final int dimIndex) {
+        return isSorted(dimIndex) && isEquiDistant();
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        // bin axes are sorted by construction, the last dimension holds the bin content
+        return dimIndex >= 0 && dimIndex < getDimension() - 1;
+    }
+
     @Override
     public void reset() {
         Arrays.fill(data, 0.0);
@@ -190,4 +395,17 @@ public abstract class AbstractHistogram extends AbstractDataSet<AbstractHistogra
         getDataLabelMap().clear();
         this.getAxisDescription(this.getDimension() - 1).clear();
     }
+
+    /**
+     * Bins a sub-range of samples into a (thread-local) partial histogram.
+     */
+    @FunctionalInterface
+    protected interface PartialFill {
+        /**
+         * @param from first sample index (inclusive)
+         * @param to last sample index (exclusive)
+         * @param partial bin contents to be incremented
+         */
+        void fill(int from, int to, double[] partial);
+    }
 }
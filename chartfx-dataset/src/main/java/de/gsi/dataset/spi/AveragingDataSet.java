@@ -124,6 +124,14 @@ public class AveragingDataSet extends AbstractDataSet<AveragingDataSet> implemen
         return dimIndex == DataSet.DIM_X ? dataset.getX(index) : dataset.getY(index);
     }
 
+    @Override
+    public int getIndex(final int dimIndex, final double value) {
+        if (dataset == null) {
+            return 0;
+        }
+        return dataset.getIndex(dimIndex, value);
+    }
+
     @Override
     public int getXIndex(double x) {
         if (dataset == null) {
@@ -140,6 +148,16 @@ public class AveragingDataSet extends AbstractDataSet<AveragingDataSet> implemen
         return dataset.getYValues();
     }
 
+    @Override
+    public boolean isEquiDistant(final int dimIndex) {
+        return dataset != null && dataset.isEquiDistant(dimIndex);
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dataset != null && dataset.isSorted(dimIndex);
+    }
+
     /**
      * 
      * @param avgCount number of data sets that are supposed to be averaged
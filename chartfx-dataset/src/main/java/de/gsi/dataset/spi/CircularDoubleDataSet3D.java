@@ -0,0 +1,301 @@
+package de.gsi.dataset.spi;
+
+import java.util.Arrays;
+
+import de.gsi.dataset.AxisDescription;
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.IndexRange;
+import de.gsi.dataset.event.RemovedDataEvent;
+import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Ring-buffered implementation of a AbstractDataSet3D, e.g. for waterfall or spectrogram displays. New rows (ie. a
+ * new set of z values for all x coordinates) are appended via {@link #pushRow(double, double[])} in O(width). Once the
+ * capacity is reached, the oldest row is dropped.
+ * <p>
+ * Row index '0' corresponds to the oldest, {@code getDataCount(DIM_Y) - 1} to the most recent row. The y coordinates of
+ * subsequently pushed rows are expected to be monotonically increasing (e.g. time stamps). The z range is maintained
+ * incrementally from per-row min/max values, ie. it needs to be rescanned (O(capacity)) only if a dropped row held the
+ * present z minimum or maximum.
+ * <p>
+ * Renderers may use {@link #getPushCount()} to determine how many rows have been added since the last update: pushed
+ * row number 'n' is stored in the ring slot {@code n % capacity}. {@link #pushRow} notifies listeners with an
+ * {@link AddedDataEvent}, all other data modifications with a (non-'added') {@link UpdatedDataEvent}. Events
+ * that affect only some rows carry the modified row range as {@link IndexRange} pay-load.
+ */
+public class CircularDoubleDataSet3D extends AbstractDataSet3D<CircularDoubleDataSet3D> {
+    private static final long serialVersionUID = -3372452389146253171L;
+    private final int capacity;
+    private double[] xValues;
+    private final double[] yValues;
+    private final double[] zValues;
+    private final double[] rowMin;
+    private final double[] rowMax;
+    private int rowCount;
+    private long pushCount;
+    private double zMin = Double.NaN;
+    private double zMax = Double.NaN;
+
+    /**
+     * @param name of data set
+     * @param xValues x coordinates of each row (e.g. frequency axis)
+     * @param capacity maximum number of rows
+     */
+    public CircularDoubleDataSet3D(final String name, final double[] xValues, final int capacity) {
+        super(name);
+        AssertUtils.notNull("xValues", xValues);
+        AssertUtils.gtThanZero("capacity", capacity);
+        this.capacity = capacity;
+        this.xValues = Arrays.copyOf(xValues, xValues.length);
+        yValues = new double[capacity];
+        zValues = new double[capacity * xValues.length];
+        rowMin = new double[capacity];
+        rowMax = new double[capacity];
+        recomputeLimits(DIM_X);
+    }
+
+    /**
+     * @param name of data set
+     * @param nX number of samples per row (x coordinates are set to the sample index)
+     * @param capacity maximum number of rows
+     */
+    public CircularDoubleDataSet3D(final String name, final int nX, final int capacity) {
+        this(name, getIndexArray(nX), capacity);
+    }
+
+    /**
+     * clears all rows
+     *
+     * @return itself (fluent design)
+     */
+    public CircularDoubleDataSet3D clearData() {
+        lock().writeLockGuard(() -> {
+            rowCount = 0;
+            zMin = Double.NaN;
+            zMax = Double.NaN;
+            getAxisDescription(DIM_Y).clear();
+            getAxisDescription(DIM_Z).clear();
+        });
+        return fireInvalidated(new RemovedDataEvent(this, "clearData()"));
+    }
+
+    @Override
+    public final double get(final int dimIndex, final int index) {
+        switch (dimIndex) {
+        case DIM_X:
+            return xValues[index];
+        case DIM_Y:
+            return yValues[getRingIndex(index)];
+        case DIM_Z:
+            return getZ(index % xValues.length, index / xValues.length);
+        default:
+            throw new IndexOutOfBoundsException("dimIndex cannot be < 2");
+        }
+    }
+
+    /**
+     * @return maximum number of rows
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getDataCount(final int dimIndex) {
+        if (dimIndex == DataSet.DIM_X) {
+            return xValues.length;
+        } else if (dimIndex == DataSet.DIM_Y) {
+            return rowCount;
+        }
+        return xValues.length * rowCount;
+    }
+
+    /**
+     * @return total number of rows pushed since the creation of this data set (N.B. not reset by {@link #clearData()})
+     */
+    public long getPushCount() {
+        return pushCount;
+    }
+
+    @Override
+    public String getStyle(final int index) {
+        return null;
+    }
+
+    @Override
+    public double getX(final int i) {
+        return xValues[i];
+    }
+
+    @Override
+    public double getY(final int i) {
+        return yValues[getRingIndex(i)];
+    }
+
+    @Override
+    public double getZ(final int xIndex, final int yIndex) {
+        return zValues[getRingIndex(yIndex) * xValues.length + xIndex];
+    }
+
+    /**
+     * Appends a new row using the running push count as y coordinate.
+     *
+     * @param row z values for all x coordinates
+     * @return itself (fluent design)
+     */
+    public CircularDoubleDataSet3D pushRow(final double[] row) {
+        return pushRow(pushCount, row);
+    }
+
+    /**
+     * Appends a new row, dropping the oldest row if the capacity is reached.
+     *
+     * @param y y coordinate of the new row (should be larger than the previous one)
+     * @param row z values for all x coordinates
+     * @return itself (fluent design)
+     */
+    public CircularDoubleDataSet3D pushRow(final double y, final double[] row) {
+        AssertUtils.notNull("row", row);
+        final IndexRange modifiedRows = lock().writeLockGuard(() -> {
+            final int nX = xValues.length;
+            if (row.length < nX) {
+                throw new IllegalArgumentException("row length " + row.length + " smaller than x dimension " + nX);
+            }
+            final int slot = (int) (pushCount % capacity);
+            final boolean dropped = rowCount == capacity;
+            final double droppedMin = rowMin[slot];
+            final double droppedMax = rowMax[slot];
+
+            System.arraycopy(row, 0, zValues, slot * nX, nX);
+            updateRowRange(slot);
+            final double min = rowMin[slot];
+            final double max = rowMax[slot];
+            yValues[slot] = y;
+            pushCount++;
+            if (!dropped) {
+                rowCount++;
+            }
+
+            if (rowCount == 1 || (dropped && (droppedMin <= zMin || droppedMax >= zMax))) {
+                updateZRange();
+            } else {
+                zMin = Math.min(zMin, min);
+                zMax = Math.max(zMax, max);
+            }
+            getAxisDescription(DIM_Z).set(zMin, zMax);
+            getAxisDescription(DIM_Y).set(getY(0), getY(rowCount - 1));
+            // dropping the oldest row shifts all row indices, otherwise only the new and (w.r.t. its upper cell edge)
+            // the previously last row are affected
+            return dropped ? null : new IndexRange(DIM_Y, Math.max(0, rowCount - 2), rowCount - 1);
+        });
+        return fireInvalidated(new AddedDataEvent(this, "pushRow", modifiedRows));
+    }
+
+    @Override
+    public CircularDoubleDataSet3D recomputeLimits(final int dimension) {
+        if (dimension != DIM_Z) {
+            return super.recomputeLimits(dimension);
+        }
+        final AxisDescription zRange = getAxisDescription(DIM_Z);
+        zRange.clear();
+        updateZRange();
+        if (rowCount > 0) {
+            zRange.add(zMin);
+            zRange.add(zMax);
+        }
+        return getThis();
+    }
+
+    /**
+     * @param xIndex index of the to be modified point
+     * @param yIndex index of the to be modified row (0: oldest row)
+     * @param z new Z coordinate
+     * @return itself (fluent design)
+     */
+    public CircularDoubleDataSet3D set(final int xIndex, final int yIndex, final double z) {
+        lock().writeLockGuard(() -> {
+            AssertUtils.indexInBounds(xIndex, xValues.length, "xIndex out of bounds");
+            AssertUtils.indexInBounds(yIndex, rowCount, "yIndex out of bounds");
+            final int slot = getRingIndex(yIndex);
+            final int index = slot * xValues.length + xIndex;
+            final double oldValue = zValues[index];
+            zValues[index] = z;
+            if (oldValue <= rowMin[slot] || oldValue >= rowMax[slot]) {
+                updateRowRange(slot);
+            } else {
+                rowMin[slot] = Math.min(rowMin[slot], z);
+                rowMax[slot] = Math.max(rowMax[slot], z);
+            }
+            recomputeLimits(DIM_Z);
+        });
+        return fireInvalidated(
+                new UpdatedDataEvent(this, "set(xIndex, yIndex, z)", new IndexRange(DIM_Y, yIndex, yIndex)));
+    }
+
+    /**
+     * Replaces the x coordinates. If the number of coordinates changes, all rows are cleared.
+     *
+     * @param xValues new x coordinates
+     * @return itself (fluent design)
+     */
+    public CircularDoubleDataSet3D setXValues(final double[] xValues) {
+        AssertUtils.notNull("xValues", xValues);
+        lock().writeLockGuard(() -> {
+            if (xValues.length * capacity != zValues.length) {
+                throw new IllegalArgumentException("cannot change the row length from " + this.xValues.length
+                                                   + " to " + xValues.length);
+            }
+            this.xValues = Arrays.copyOf(xValues, xValues.length);
+            recomputeLimits(DIM_X);
+        });
+        return fireInvalidated(new UpdatedDataEvent(this, "setXValues"));
+    }
+
+    /**
+     * @param yIndex logical row index (0: oldest row)
+     * @return ring slot of the given row
+     */
+    protected int getRingIndex(final int yIndex) {
+        return (int) ((pushCount - rowCount + yIndex) % capacity);
+    }
+
+    private void updateRowRange(final int slot) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        final int offset = slot * xValues.length;
+        for (int i = 0; i < xValues.length; i++) {
+            final double z = zValues[offset + i];
+            if (z < min) {
+                min = z;
+            }
+            if (z > max) {
+                max = z;
+            }
+        }
+        rowMin[slot] = min;
+        rowMax[slot] = max;
+    }
+
+    private void updateZRange() {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < rowCount; i++) {
+            final int slot = getRingIndex(i);
+            min = Math.min(min, rowMin[slot]);
+            max = Math.max(max, rowMax[slot]);
+        }
+        zMin = rowCount == 0 ? Double.NaN : min;
+        zMax = rowCount == 0 ? Double.NaN : max;
+    }
+
+    private static double[] getIndexArray(final int n) {
+        AssertUtils.gtEqThanZero("nX", n);
+        final double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+}
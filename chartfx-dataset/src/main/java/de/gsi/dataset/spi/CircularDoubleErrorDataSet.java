@@ -22,6 +22,7 @@ public class CircularDoubleErrorDataSet extends AbstractErrorDataSet<CircularDou
     protected DoubleCircularBuffer yErrorsNeg;
     protected CircularBuffer<String> dataLabels;
     protected CircularBuffer<String> dataStyles;
+    protected long sequenceNumber;
 
     /**
      * Creates a new instance of <code>CircularDoubleErrorDataSet</code>.
@@ -84,15 +85,20 @@ public class CircularDoubleErrorDataSet extends AbstractErrorDataSet<CircularDou
     public CircularDoubleErrorDataSet add(final double x, final double y, final double yErrorNeg,
             final double yErrorPos, final String label, final String style) {
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = xValues.available() == 0;
+            removeOldestFromRanges(1);
             xValues.put(x);
             yValues.put(y);
             yErrorsPos.put(yErrorPos);
             yErrorsNeg.put(yErrorNeg);
             dataLabels.put(label);
             dataStyles.put(style);
+            sequenceNumber++;
 
-            // invalidate ranges
-            getAxisDescriptions().forEach(AxisDescription::clear);
+            // incrementally update ranges (N.B. invalidated ranges are lazily recomputed on the next access)
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y - yErrorNeg);
+            extendRange(DIM_Y, wasEmpty, y + yErrorPos);
         });
 
         return fireInvalidated(new AddedDataEvent(this));
@@ -121,17 +127,29 @@ public class CircularDoubleErrorDataSet extends AbstractErrorDataSet<CircularDou
         AssertUtils.equalDoubleArrays(xVals, yErrPos);
 
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = xValues.available() == 0;
+            final boolean replaceAll = xVals.length >= xValues.capacity();
+            if (replaceAll) {
+                getAxisDescriptions().forEach(AxisDescription::clear);
+            } else {
+                removeOldestFromRanges(xVals.length);
+            }
             this.xValues.put(xVals, xVals.length);
             this.yValues.put(yVals, yVals.length);
             this.yErrorsNeg.put(yErrNeg, yErrNeg.length);
             this.yErrorsPos.put(yErrPos, yErrPos.length);
             dataLabels.put(new String[yErrPos.length], yErrPos.length);
             dataStyles.put(new String[yErrPos.length], yErrPos.length);
+            sequenceNumber += xVals.length;
 
-            getAxisDescription(DIM_X).add(xVals);
+            if (replaceAll) {
+                // full history has been replaced -- ranges are lazily recomputed on the next access
+                return;
+            }
+            extendRange(DIM_X, wasEmpty, xVals, 0, xVals.length);
             for (int i = 0; i < yVals.length; i++) {
-                getAxisDescription(DIM_Y).add(yVals[i] + yErrPos[i]);
-                getAxisDescription(DIM_Y).add(yVals[i] - yErrNeg[i]);
+                extendRange(DIM_Y, wasEmpty, yVals[i] + yErrPos[i]);
+                extendRange(DIM_Y, wasEmpty, yVals[i] - yErrNeg[i]);
             }
         });
 
@@ -158,6 +176,14 @@ public class CircularDoubleErrorDataSet extends AbstractErrorDataSet<CircularDou
         return dimIndex == DIM_X ? 0.0 : yErrorsPos.get(index);
     }
 
+    /**
+     * @return total number of samples that have been added since creation (monotonically increasing, not affected by
+     *         {@link #reset()} or samples being overwritten by the circular buffer)
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
     @Override
     public String getStyle(final int index) {
         return dataStyles.get(index);
@@ -188,6 +214,25 @@ public class CircularDoubleErrorDataSet extends AbstractErrorDataSet<CircularDou
         throw new UnsupportedOperationException("Removing data labels is not supported for this type of DataSet");
     }
 
+    /**
+     * Incrementally updates the axis ranges for the oldest samples that are about to be overwritten. The ranges are
+     * invalidated only if one of the overwritten samples defines the present min or max, so that appending to a full
+     * buffer remains O(1) in the common case.
+     *
+     * @param nNew number of samples that are about to be added
+     */
+    protected void removeOldestFromRanges(final int nNew) {
+        final int nOverwritten = Math.min(xValues.available(), xValues.available() + nNew - xValues.capacity());
+        final AxisDescription xRange = getAxisDescription(DIM_X);
+        final AxisDescription yRange = getAxisDescription(DIM_Y);
+        for (int i = 0; i < nOverwritten && (xRange.isDefined() || yRange.isDefined()); i++) {
+            xRange.remove(xValues.get(i));
+            final double y = yValues.get(i);
+            yRange.remove(y - yErrorsNeg.get(i));
+            yRange.remove(y + yErrorsPos.get(i));
+        }
+    }
+
     /**
      * resets all data
      * 
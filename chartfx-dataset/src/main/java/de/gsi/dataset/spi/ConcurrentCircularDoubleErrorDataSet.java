@@ -0,0 +1,307 @@
+package de.gsi.dataset.spi;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSet2D;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Circular buffer DataSet for one producer (e.g. an acquisition thread) and multiple concurrent readers.
+ * <p>
+ * Contrary to {@link CircularDoubleErrorDataSet}, the producer does not acquire the write lock: samples are written
+ * into a power-of-two ring buffer and published via a monotonically increasing sequence number (Disruptor-style),
+ * i.e. {@code add(...)} is wait-free and never blocked by readers. Before overwriting a slot, the producer announces
+ * the claimed sequence so that readers can take consistent snapshots of any window of the history via
+ * {@link #snapshot(long, long, double[], double[], double[], double[])} without blocking the producer: samples that
+ * have been overwritten while copying are detected and dropped.
+ * <p>
+ * The {@code DataSet} interface exposes a snapshot of the latest {@link #getCapacity()} samples that is updated and
+ * announced to the listeners by {@link #flush()} (typically called by the consumer at the display update rate).
+ * N.B. the {@code add(...)} methods must only be called by a single producer thread.
+ */
+public class ConcurrentCircularDoubleErrorDataSet extends AbstractErrorDataSet<ConcurrentCircularDoubleErrorDataSet>
+        implements DataSet2D, DataSetError {
+    private static final long serialVersionUID = -2217938411519432876L;
+    private final int capacity;
+    private final int mask;
+    private final double[] ringX;
+    private final double[] ringY;
+    private final double[] ringErrorNeg;
+    private final double[] ringErrorPos;
+    private final AtomicLong claimed = new AtomicLong(); // slots up to this sequence may be (over-)written
+    private final AtomicLong published = new AtomicLong(); // samples up to this sequence are readable
+    private long nextSequence; // producer-local
+    // DataSet view (guarded by the DataSet lock)
+    private final double[] viewX;
+    private final double[] viewY;
+    private final double[] viewErrorNeg;
+    private final double[] viewErrorPos;
+    private int viewCount;
+    private long viewSequence;
+
+    /**
+     * @param name name of this DataSet.
+     * @param capacity number of samples that are exposed via the DataSet interface (N.B. the internal ring buffer is
+     *            rounded up to the next power of two)
+     * @throws IllegalArgumentException if <code>name</code> is <code>null</code> or capacity is smaller than one
+     */
+    public ConcurrentCircularDoubleErrorDataSet(final String name, final int capacity) {
+        super(name, 2, ErrorType.NO_ERROR, ErrorType.ASYMMETRIC);
+        AssertUtils.gtThanZero("capacity", capacity);
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity '" + capacity + "' must be <= 2^30");
+        }
+        this.capacity = capacity;
+        final int ringSize = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = ringSize - 1;
+        ringX = new double[ringSize];
+        ringY = new double[ringSize];
+        ringErrorNeg = new double[ringSize];
+        ringErrorPos = new double[ringSize];
+        viewX = new double[capacity];
+        viewY = new double[capacity];
+        viewErrorNeg = new double[capacity];
+        viewErrorPos = new double[capacity];
+    }
+
+    /**
+     * publishes a new sample (wait-free, single producer only)
+     *
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     * @param yErrorNeg the -dy error
+     * @param yErrorPos the +dy error
+     */
+    public void add(final double x, final double y, final double yErrorNeg, final double yErrorPos) {
+        final long sequence = nextSequence;
+        claim(sequence + 1);
+        final int slot = (int) sequence & mask;
+        ringX[slot] = x;
+        ringY[slot] = y;
+        ringErrorNeg[slot] = yErrorNeg;
+        ringErrorPos[slot] = yErrorPos;
+        nextSequence = sequence + 1;
+        published.lazySet(nextSequence);
+    }
+
+    /**
+     * publishes new samples as one batch (wait-free, single producer only)
+     *
+     * @param x the new x coordinates
+     * @param y the new y coordinates
+     * @param yErrorNeg the -dy errors
+     * @param yErrorPos the +dy errors
+     * @param length number of samples to be published
+     */
+    public void add(final double[] x, final double[] y, final double[] yErrorNeg, final double[] yErrorPos,
+            final int length) {
+        AssertUtils.notNull("X coordinates", x);
+        AssertUtils.notNull("Y coordinates", y);
+        AssertUtils.notNull("Y error neg", yErrorNeg);
+        AssertUtils.notNull("Y error pos", yErrorPos);
+        AssertUtils.gtOrEqual("x.length >= length", length, x.length);
+        AssertUtils.gtOrEqual("y.length >= length", length, y.length);
+        AssertUtils.gtOrEqual("yErrorNeg.length >= length", length, yErrorNeg.length);
+        AssertUtils.gtOrEqual("yErrorPos.length >= length", length, yErrorPos.length);
+        // only the last 'ring size' samples survive
+        final int nCopy = Math.min(length, mask + 1);
+        final int offset = length - nCopy;
+        final long first = nextSequence + offset;
+        claim(nextSequence + length);
+        int done = 0;
+        while (done < nCopy) {
+            final int slot = (int) (first + done) & mask;
+            final int n = Math.min(nCopy - done, mask + 1 - slot);
+            System.arraycopy(x, offset + done, ringX, slot, n);
+            System.arraycopy(y, offset + done, ringY, slot, n);
+            System.arraycopy(yErrorNeg, offset + done, ringErrorNeg, slot, n);
+            System.arraycopy(yErrorPos, offset + done, ringErrorPos, slot, n);
+            done += n;
+        }
+        nextSequence += length;
+        published.lazySet(nextSequence);
+    }
+
+    @Override
+    public String addDataLabel(final int index, final String label) {
+        throw new UnsupportedOperationException("Data labels are not supported for this type of DataSet");
+    }
+
+    @Override
+    public String addDataStyle(final int index, final String style) {
+        throw new UnsupportedOperationException("Data styles are not supported for this type of DataSet");
+    }
+
+    /**
+     * Updates the DataSet view with the latest published samples and notifies the listeners.
+     *
+     * @return {@code true} if new samples have been published since the last flush
+     */
+    public boolean flush() {
+        final boolean modified = lock().writeLockGuard(() -> {
+            final long sequence = published.get();
+            if (sequence == viewSequence) {
+                return false;
+            }
+            final long from = Math.max(0, sequence - capacity);
+            final long first = snapshot(from, sequence, viewX, viewY, viewErrorNeg, viewErrorPos);
+            viewCount = (int) (sequence - first);
+            viewSequence = sequence;
+            recomputeLimits(DIM_X);
+            recomputeLimits(DIM_Y);
+            return true;
+        });
+        if (modified) {
+            fireInvalidated(new AddedDataEvent(this, "flush()"));
+        }
+        return modified;
+    }
+
+    @Override
+    public final double get(final int dimIndex, final int index) {
+        return dimIndex == DataSet.DIM_X ? viewX[index] : viewY[index];
+    }
+
+    /**
+     * @return maximum number of samples exposed via the DataSet interface
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getDataCount(final int dimIndex) {
+        return viewCount;
+    }
+
+    @Override
+    public String getDataLabel(final int index) {
+        return null;
+    }
+
+    @Override
+    public double getErrorNegative(final int dimIndex, final int index) {
+        return dimIndex == DIM_X ? 0.0 : viewErrorNeg[index];
+    }
+
+    @Override
+    public double getErrorPositive(final int dimIndex, final int index) {
+        return dimIndex == DIM_X ? 0.0 : viewErrorPos[index];
+    }
+
+    /**
+     * @return sequence number of the oldest sample that is still available in the ring buffer
+     */
+    public long getOldestSequenceNumber() {
+        return Math.max(0, claimed.get() - mask - 1);
+    }
+
+    /**
+     * @return total number of samples that have been published since creation (monotonically increasing)
+     */
+    public long getSequenceNumber() {
+        return published.get();
+    }
+
+    @Override
+    public String getStyle(final int index) {
+        return null;
+    }
+
+    @Override
+    public String removeDataLabel(final int index) {
+        throw new UnsupportedOperationException("Data labels are not supported for this type of DataSet");
+    }
+
+    @Override
+    public String removeStyle(final int index) {
+        throw new UnsupportedOperationException("Data styles are not supported for this type of DataSet");
+    }
+
+    /**
+     * Copies a consistent snapshot of the published samples [fromSequence, toSequence[ without blocking the producer.
+     * Samples that are no longer available (i.e. have been overwritten before or while copying) are dropped at the
+     * front of the window. Any of the destination arrays may be {@code null}.
+     *
+     * @param fromSequence sequence number of the first requested sample
+     * @param toSequence sequence number (exclusive) of the last requested sample, must not exceed
+     *            {@link #getSequenceNumber()}
+     * @param x destination of the x coordinates
+     * @param y destination of the y coordinates
+     * @param yErrorNeg destination of the -dy errors
+     * @param yErrorPos destination of the +dy errors
+     * @return sequence number of the first copied sample {@code first}, i.e. samples [first, toSequence[ have been
+     *         copied to the array indices [0, toSequence - first[
+     */
+    public long snapshot(final long fromSequence, final long toSequence, final double[] x, final double[] y,
+            final double[] yErrorNeg, final double[] yErrorPos) {
+        if (fromSequence < 0 || fromSequence > toSequence || toSequence > published.get()) {
+            throw new IndexOutOfBoundsException("requested window [" + fromSequence + ", " + toSequence
+                                                + "[ exceeds published samples [0, " + published.get() + "[");
+        }
+        // skip samples that have already been overwritten
+        long first = Math.max(fromSequence, claimed.get() - mask - 1);
+        if (first >= toSequence) {
+            return toSequence;
+        }
+        copy(first, toSequence, x, y, yErrorNeg, yErrorPos);
+        // orders the data reads above before the re-read of the claimed sequence (cf. StampedLock#validate)
+        VarHandle.acquireFence();
+        final long oldestValid = claimed.get() - mask - 1;
+        if (oldestValid > first) {
+            // the producer overtook the copy: drop the possibly torn samples and compact the arrays
+            final long newFirst = Math.min(oldestValid, toSequence);
+            final int shift = (int) (newFirst - first);
+            final int length = (int) (toSequence - newFirst);
+            compact(x, shift, length);
+            compact(y, shift, length);
+            compact(yErrorNeg, shift, length);
+            compact(yErrorPos, shift, length);
+            first = newFirst;
+        }
+        return first;
+    }
+
+    private void claim(final long sequence) {
+        claimed.lazySet(sequence);
+        // the claim must be visible before any of the following ring buffer writes
+        VarHandle.storeStoreFence();
+    }
+
+    private void copy(final long first, final long last, final double[] x, final double[] y, final double[] yErrorNeg,
+            final double[] yErrorPos) {
+        final int length = (int) (last - first);
+        for (final double[] array : new double[][] { x, y, yErrorNeg, yErrorPos }) {
+            if (array != null && array.length < length) {
+                throw new IllegalArgumentException("destination array length " + array.length + " < " + length);
+            }
+        }
+        int done = 0;
+        while (done < length) {
+            final int slot = (int) (first + done) & mask;
+            final int n = Math.min(length - done, mask + 1 - slot);
+            copyColumn(ringX, slot, x, done, n);
+            copyColumn(ringY, slot, y, done, n);
+            copyColumn(ringErrorNeg, slot, yErrorNeg, done, n);
+            copyColumn(ringErrorPos, slot, yErrorPos, done, n);
+            done += n;
+        }
+    }
+
+    private static void compact(final double[] array, final int shift, final int length) {
+        if (array != null && shift > 0 && length > 0) {
+            System.arraycopy(array, shift, array, 0, length);
+        }
+    }
+
+    private static void copyColumn(final double[] src, final int srcPos, final double[] dst, final int dstPos,
+            final int length) {
+        if (dst != null) {
+            System.arraycopy(src, srcPos, dst, dstPos, length);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.gsi.dataset.spi;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+
+/**
+ * One dimensional histogram for lock-free filling by multiple concurrent producer threads.
+ * <p>
+ * The {@code fill(...)} and {@code addBinContent(...)} methods neither acquire the write lock nor notify listeners,
+ * but accumulate the weights into striped atomic bin arrays (the stripe is chosen by the producer's thread id to reduce
+ * contention on frequently hit bins). Bulk fills are binned into a thread-local partial histogram first so that only
+ * the non-empty bins are added atomically. The pending contents become visible through the DataSet interface once
+ * {@link #flush()} is called, typically by the consumer at the display update rate.
+ */
+public class ConcurrentHistogram extends Histogram {
+    private static final long serialVersionUID = 2468047317373556813L;
+    private transient AtomicLongArray[] stripes;
+
+    /**
+     * Creates histogram with name and range [minX, maxX]
+     *
+     * @param name of the data sets
+     * @param xBins the initial bin array (defines [minX, maxX] and nBins)
+     */
+    public ConcurrentHistogram(final String name, final double[] xBins) {
+        super(name, xBins);
+        stripes = createStripes(data.length);
+    }
+
+    /**
+     * Creates histogram with name and range [minX, maxX]
+     *
+     * @param name of the data sets
+     * @param nBins number of bins
+     * @param minX minimum of range
+     * @param maxX maximum of range
+     */
+    public ConcurrentHistogram(final String name, final int nBins, final double minX, final double maxX) {
+        super(name, nBins, minX, maxX);
+        stripes = createStripes(data.length);
+    }
+
+    @Override
+    public void addBinContent(final int bin, final double w) {
+        add(getStripe(), bin, w);
+    }
+
+    @Override
+    public int fill(final double x, final double w) {
+        final int bin = findBin(isHorizontal ? DIM_X : DIM_Y, x);
+        add(getStripe(), bin, w);
+        return bin;
+    }
+
+    @Override
+    public void fill(final double[] x, final double[] w, final int from, final int to) {
+        checkFillRange("x", x, from, to);
+        if (w != null) {
+            checkFillRange("w", w, from, to);
+        }
+        final int dimIndex = isHorizontal ? DIM_X : DIM_Y;
+        final double[] partial = fillPartial(from, to, (start, stop, p) -> fillPartial(dimIndex, x, w, start, stop, p));
+        final AtomicLongArray stripe = getStripe();
+        for (int bin = 0; bin < partial.length; bin++) {
+            if (partial[bin] != 0.0) {
+                add(stripe, bin, partial[bin]);
+            }
+        }
+    }
+
+    /**
+     * Moves the pending (concurrently filled) bin contents into the histogram and notifies the listeners.
+     *
+     * @return {@code true} if there were pending contents
+     */
+    public boolean flush() {
+        final double[] pending = new double[data.length];
+        boolean modified = false;
+        for (final AtomicLongArray stripe : stripes) {
+            for (int bin = 0; bin < pending.length; bin++) {
+                if (stripe.get(bin) != 0L) {
+                    pending[bin] += Double.longBitsToDouble(stripe.getAndSet(bin, 0L));
+                    modified = true;
+                }
+            }
+        }
+        if (!modified) {
+            return false;
+        }
+        lock().writeLockGuard(() -> {
+            addBinContents(pending);
+        });
+        fireInvalidated(new AddedDataEvent(this, "flush()"));
+        return true;
+    }
+
+    /**
+     * @param bin global bin ID
+     * @return bin content that is not yet flushed into the histogram
+     */
+    public double getPendingBinContent(final int bin) {
+        double sum = 0.0;
+        for (final AtomicLongArray stripe : stripes) {
+            sum += Double.longBitsToDouble(stripe.get(bin));
+        }
+        return sum;
+    }
+
+    @Override
+    public void reset() {
+        lock().writeLockGuard(() -> {
+            for (final AtomicLongArray stripe : stripes) {
+                for (int bin = 0; bin < stripe.length(); bin++) {
+                    stripe.set(bin, 0L);
+                }
+            }
+            super.reset();
+        });
+    }
+
+    private AtomicLongArray getStripe() {
+        return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // N.B. only flushed contents are part of the serialised state
+        stripes = createStripes(data.length);
+    }
+
+    private static void add(final AtomicLongArray stripe, final int bin, final double w) {
+        // lock-free 'double' addition via compare-and-set of the raw bit pattern
+        long prev;
+        long next;
+        do {
+            prev = stripe.get(bin);
+            next = Double.doubleToRawLongBits(Double.longBitsToDouble(prev) + w);
+        } while (!stripe.compareAndSet(bin, prev, next));
+    }
+
+    private static AtomicLongArray[] createStripes(final int nBins) {
+        // next power of two of the number of threads
+        final int nThreads = CachedDaemonThreadFactory.getNumbersOfThreads();
+        final int nStripes = Integer.highestOneBit(Math.max(1, nThreads - 1)) << 1;
+        final AtomicLongArray[] stripes = new AtomicLongArray[nStripes];
+        for (int i = 0; i < nStripes; i++) {
+            stripes[i] = new AtomicLongArray(nBins);
+        }
+        return stripes;
+    }
+}
@@ -129,6 +129,39 @@ public class DataRange {
         return set(DataRange.MAX_VALUE, DataRange.MIN_VALUE);
     }
 
+    /**
+     * Incrementally updates this range after 'value' has been removed from (or overwritten in) the underlying data.
+     * The range is cleared (and thus lazily recomputed) only if the value lies on or beyond the present
+     * <code>min</code> or <code>max</code> boundary. Removing interior values is an O(1) no-op.
+     *
+     * @param value value that has been removed
+     * @return <code>true</code> if this range has been invalidated
+     */
+    public boolean remove(final double value) {
+        if (!isDefined() || !Double.isFinite(value) || (value > min && value < max)) {
+            return false;
+        }
+        return clear();
+    }
+
+    /**
+     * Incrementally updates this range after the given values have been removed from the underlying data.
+     *
+     * @param values values that have been removed
+     * @param fromIndex first index (inclusive) of the removed values
+     * @param toIndex last index (exclusive) of the removed values
+     * @return <code>true</code> if this range has been invalidated
+     * @see #remove(double)
+     */
+    public boolean remove(final double[] values, final int fromIndex, final int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (remove(values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Examines if this range contains the specified value.
      *
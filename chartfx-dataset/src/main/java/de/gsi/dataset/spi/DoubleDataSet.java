@@ -1,5 +1,9 @@
 package de.gsi.dataset.spi;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import de.gsi.dataset.AxisDescription;
 import de.gsi.dataset.DataSet;
 import de.gsi.dataset.DataSet2D;
@@ -8,12 +12,17 @@ import de.gsi.dataset.event.AddedDataEvent;
 import de.gsi.dataset.event.RemovedDataEvent;
 import de.gsi.dataset.event.UpdatedDataEvent;
 import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.dataset.utils.ChunkedDoubleArray;
 
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 /**
  * Implementation of the {@code DataSet} interface which stores x,y values in two separate arrays. It provides methods
  * allowing easily manipulate of data points.
+ * <p>
+ * Optionally, the values can be stored in chunked arrays (see {@link #DoubleDataSet(String, int, boolean)} and
+ * {@link ChunkedDoubleArray}) to avoid the reallocation and copying of the whole storage when appending to very large
+ * data sets. In this mode, {@link #getValues(int)} returns a cached contiguous copy of the data.
  *
  * @see DoubleErrorDataSet for an implementation with asymmetric errors in Y
  * @author rstein
@@ -23,6 +32,8 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
     private static final long serialVersionUID = -493232313124620828L;
     protected DoubleArrayList xValues; // way faster than java default lists
     protected DoubleArrayList yValues; // way faster than java default lists
+    protected transient ChunkedDoubleArray xChunks; // non-null only for chunked storage
+    protected transient ChunkedDoubleArray yChunks; // non-null only for chunked storage
 
     /**
      * Creates a new instance of <code>DoubleDataSet</code> as copy of another (deep-copy).
@@ -73,10 +84,31 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      * @throws IllegalArgumentException if {@code name} is {@code null}
      */
     public DoubleDataSet(final String name, final int initalSize) {
+        this(name, initalSize, false);
+    }
+
+    /**
+     * Creates a new instance of <code>DoubleDataSet</code>.
+     *
+     * @param name name of this DataSet.
+     * @param initalSize initial capacity of buffer (N.B. size=0)
+     * @param chunkedStorage true: store the values in chunks of {@link ChunkedDoubleArray#DEFAULT_CHUNK_BITS} elements
+     *            rather than contiguous arrays (no reallocation and copying when growing large data sets). N.B.
+     *            the chunked storage is not covered by the generic (reflection-based) serialisers
+     * @throws IllegalArgumentException if {@code name} is {@code null}
+     */
+    public DoubleDataSet(final String name, final int initalSize, final boolean chunkedStorage) {
         super(name, 2);
         AssertUtils.gtEqThanZero("initalSize", initalSize);
-        xValues = new DoubleArrayList(initalSize);
-        yValues = new DoubleArrayList(initalSize);
+        if (chunkedStorage) {
+            xChunks = new ChunkedDoubleArray();
+            yChunks = new ChunkedDoubleArray();
+            xChunks.ensureCapacity(initalSize);
+            yChunks.ensureCapacity(initalSize);
+        } else {
+            xValues = new DoubleArrayList(initalSize);
+            yValues = new DoubleArrayList(initalSize);
+        }
     }
 
     /**
@@ -100,15 +132,21 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet add(final double x, final double y, final String label) {
         lock().writeLockGuard(() -> {
-            xValues.add(x);
-            yValues.add(y);
+            final boolean wasEmpty = getDataCount() == 0;
+            if (isChunkedStorage()) {
+                xChunks.add(x);
+                yChunks.add(y);
+            } else {
+                xValues.add(x);
+                yValues.add(y);
+            }
 
             if ((label != null) && !label.isEmpty()) {
-                addDataLabel(xValues.size() - 1, label);
+                addDataLabel(getDataCount() - 1, label);
             }
 
-            getAxisDescription(DIM_X).add(x);
-            getAxisDescription(DIM_Y).add(y);
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y);
         });
         return fireInvalidated(new UpdatedDataEvent(this, "add"));
     }
@@ -126,14 +164,19 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
         AssertUtils.equalDoubleArrays(xValuesNew, yValuesNew);
 
         lock().writeLockGuard(() -> {
-            final int addAt = xValues.size();
+            final int addAt = getDataCount();
             final int newElements = Math.min(xValuesNew.length, yValuesNew.length);
-            resize(addAt + newElements);
-            xValues.setElements(addAt, xValuesNew);
-            yValues.setElements(addAt, yValuesNew);
+            if (isChunkedStorage()) {
+                xChunks.addElements(addAt, xValuesNew, 0, newElements);
+                yChunks.addElements(addAt, yValuesNew, 0, newElements);
+            } else {
+                resize(addAt + newElements);
+                xValues.setElements(addAt, xValuesNew);
+                yValues.setElements(addAt, yValuesNew);
+            }
 
-            getAxisDescription(DIM_X).add(xValuesNew);
-            getAxisDescription(DIM_Y).add(yValuesNew);
+            extendRange(DIM_X, addAt == 0, xValuesNew, 0, newElements);
+            extendRange(DIM_Y, addAt == 0, yValuesNew, 0, newElements);
         });
 
         return fireInvalidated(new AddedDataEvent(this));
@@ -174,14 +217,20 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet add(final int index, final double x, final double y, final String label) {
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = getDataCount() == 0;
             final int indexAt = Math.max(0, Math.min(index, getDataCount() + 1));
 
-            xValues.add(indexAt, x);
-            yValues.add(indexAt, y);
-            getDataLabelMap().addValueAndShiftKeys(indexAt, xValues.size(), label);
-            getDataStyleMap().shiftKeys(indexAt, xValues.size());
-            getAxisDescription(DIM_X).add(x);
-            getAxisDescription(DIM_Y).add(y);
+            if (isChunkedStorage()) {
+                xChunks.add(indexAt, x);
+                yChunks.add(indexAt, y);
+            } else {
+                xValues.add(indexAt, x);
+                yValues.add(indexAt, y);
+            }
+            getDataLabelMap().addValueAndShiftKeys(indexAt, getDataCount(), label);
+            getDataStyleMap().shiftKeys(indexAt, getDataCount());
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y);
         });
         return fireInvalidated(new AddedDataEvent(this));
     }
@@ -201,13 +250,19 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
         AssertUtils.equalDoubleArrays(x, y, min);
 
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = getDataCount() == 0;
             final int indexAt = Math.max(0, Math.min(index, getDataCount() + 1));
-            xValues.addElements(indexAt, x, 0, min);
-            yValues.addElements(indexAt, y, 0, min);
-            getAxisDescription(DIM_X).add(x, min);
-            getAxisDescription(DIM_Y).add(y, min);
-            getDataLabelMap().shiftKeys(indexAt, xValues.size());
-            getDataStyleMap().shiftKeys(indexAt, xValues.size());
+            if (isChunkedStorage()) {
+                xChunks.addElements(indexAt, x, 0, min);
+                yChunks.addElements(indexAt, y, 0, min);
+            } else {
+                xValues.addElements(indexAt, x, 0, min);
+                yValues.addElements(indexAt, y, 0, min);
+            }
+            extendRange(DIM_X, wasEmpty, x, 0, min);
+            extendRange(DIM_Y, wasEmpty, y, 0, min);
+            getDataLabelMap().shiftKeys(indexAt, getDataCount());
+            getDataStyleMap().shiftKeys(indexAt, getDataCount());
         });
         return fireInvalidated(new AddedDataEvent(this));
     }
@@ -219,8 +274,13 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet clearData() {
         lock().writeLockGuard(() -> {
-            xValues.clear();
-            yValues.clear();
+            if (isChunkedStorage()) {
+                xChunks.clear();
+                yChunks.clear();
+            } else {
+                xValues.clear();
+                yValues.clear();
+            }
             getDataLabelMap().clear();
             getDataStyleMap().clear();
             clearMetaInfo();
@@ -232,6 +292,9 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
 
     @Override
     public final double get(final int dimIndex, final int index) {
+        if (xChunks != null) {
+            return dimIndex == DataSet.DIM_X ? xChunks.getDouble(index) : yChunks.getDouble(index);
+        }
         return dimIndex == DataSet.DIM_X ? xValues.elements()[index] : yValues.elements()[index];
     }
 
@@ -239,16 +302,28 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      * @return storage capacity of dataset
      */
     public int getCapacity() {
+        if (isChunkedStorage()) {
+            return Math.min(xChunks.capacity(), yChunks.capacity());
+        }
         return Math.min(xValues.elements().length, yValues.elements().length);
     }
 
     @Override
     public int getDataCount(final int dimIndex) {
+        if (isChunkedStorage()) {
+            return Math.min(xChunks.size(), yChunks.size());
+        }
         return Math.min(xValues.size(), yValues.size());
     }
 
+    /**
+     * N.B. for chunked storage, this returns a contiguous copy that is cached until the next modification
+     */
     @Override
     public final double[] getValues(final int dimIndex) {
+        if (isChunkedStorage()) {
+            return dimIndex == DataSet.DIM_X ? xChunks.elements() : yChunks.elements();
+        }
         return dimIndex == DataSet.DIM_X ? xValues.elements() : yValues.elements();
     }
 
@@ -265,6 +340,13 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
         return getThis();
     }
 
+    /**
+     * @return true: values are stored in chunks rather than contiguous arrays
+     */
+    public boolean isChunkedStorage() {
+        return xChunks != null;
+    }
+
     /**
      * remove point from data set
      *
@@ -289,15 +371,22 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
             AssertUtils.indexOrder(fromIndex, "fromIndex", toIndex, "toIndex");
 
             final int clampedToIndex = Math.min(toIndex, getDataCount());
-            xValues.removeElements(fromIndex, clampedToIndex);
-            yValues.removeElements(fromIndex, clampedToIndex);
+            // update ranges -- invalidated only if the removed points define the present min/max
+            if (isChunkedStorage()) {
+                removeFromRange(DIM_X, xChunks, fromIndex, clampedToIndex);
+                removeFromRange(DIM_Y, yChunks, fromIndex, clampedToIndex);
+                xChunks.removeElements(fromIndex, clampedToIndex);
+                yChunks.removeElements(fromIndex, clampedToIndex);
+            } else {
+                getAxisDescription(DIM_X).remove(xValues.elements(), fromIndex, clampedToIndex);
+                getAxisDescription(DIM_Y).remove(yValues.elements(), fromIndex, clampedToIndex);
+                xValues.removeElements(fromIndex, clampedToIndex);
+                yValues.removeElements(fromIndex, clampedToIndex);
+            }
 
             // remove old label and style keys
             getDataLabelMap().remove(fromIndex, clampedToIndex);
             getDataStyleMap().remove(fromIndex, clampedToIndex);
-
-            // invalidate ranges
-            getAxisDescriptions().forEach(AxisDescription::clear);
         });
         return fireInvalidated(new RemovedDataEvent(this));
     }
@@ -310,8 +399,13 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet resize(final int size) {
         lock().writeLockGuard(() -> {
-            xValues.size(size);
-            yValues.size(size);
+            if (isChunkedStorage()) {
+                xChunks.size(size);
+                yChunks.size(size);
+            } else {
+                xValues.size(size);
+                yValues.size(size);
+            }
         });
         return fireInvalidated(new UpdatedDataEvent(this, "increaseCapacity()"));
     }
@@ -390,7 +484,8 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      * @param xValues X coordinates
      * @param yValues Y coordinates
      * @param nSamples number of samples to be copied
-     * @param copy true: makes an internal copy, false: use the pointer as is (saves memory allocation
+     * @param copy true: makes an internal copy, false: use the pointer as is (saves memory allocation, N.B. ignored
+     *            for chunked storage that always copies)
      * @return itself
      */
     public DoubleDataSet set(final double[] xValues, final double[] yValues, final int nSamples, final boolean copy) {
@@ -407,7 +502,12 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
         lock().writeLockGuard(() -> {
             getDataLabelMap().clear();
             getDataStyleMap().clear();
-            if (copy) {
+            if (isChunkedStorage()) {
+                xChunks.clear();
+                yChunks.clear();
+                xChunks.addElements(0, xValues, 0, nSamplesToAdd);
+                yChunks.addElements(0, yValues, 0, nSamplesToAdd);
+            } else if (copy) {
                 if (this.xValues == null) {
                     this.xValues = new DoubleArrayList();
                 }
@@ -451,25 +551,42 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet set(final int index, final double x, final double y) {
         lock().writeLockGuard(() -> {
+            if (index >= this.getDataCount()) {
+                // new (and possibly zero-padded) points -- invalidate ranges
+                getAxisDescriptions().forEach(AxisDescription::clear);
+            } else {
+                // replace existing point -- ranges are recomputed only if the old value was an extremum
+                updateRange(DIM_X, get(DIM_X, index), x);
+                updateRange(DIM_Y, get(DIM_Y, index), y);
+            }
             final int dataCount = Math.max(index + 1, this.getDataCount());
-            xValues.size(dataCount);
-            yValues.size(dataCount);
-            xValues.elements()[index] = x;
-            yValues.elements()[index] = y;
+            if (isChunkedStorage()) {
+                xChunks.size(dataCount);
+                yChunks.size(dataCount);
+                xChunks.set(index, x);
+                yChunks.set(index, y);
+            } else {
+                xValues.size(dataCount);
+                yValues.size(dataCount);
+                xValues.elements()[index] = x;
+                yValues.elements()[index] = y;
+            }
             getDataLabelMap().remove(index);
             getDataStyleMap().remove(index);
-
-            // invalidate ranges
-            getAxisDescriptions().forEach(AxisDescription::clear);
         });
         return fireInvalidated(new UpdatedDataEvent(this, "set - single"));
     }
 
     public DoubleDataSet set(final int index, final double[] x, final double[] y) {
         lock().writeLockGuard(() -> {
-            resize(Math.max(index + x.length, xValues.size()));
-            System.arraycopy(x, 0, xValues.elements(), index, x.length);
-            System.arraycopy(y, 0, yValues.elements(), index, y.length);
+            resize(Math.max(index + x.length, getDataCount()));
+            if (isChunkedStorage()) {
+                xChunks.setElements(index, x, 0, x.length);
+                yChunks.setElements(index, y, 0, y.length);
+            } else {
+                System.arraycopy(x, 0, xValues.elements(), index, x.length);
+                System.arraycopy(y, 0, yValues.elements(), index, y.length);
+            }
             getDataLabelMap().remove(index, index + x.length);
             getDataStyleMap().remove(index, index + x.length);
 
@@ -487,9 +604,37 @@ public class DoubleDataSet extends AbstractDataSet<DoubleDataSet> implements Edi
      */
     public DoubleDataSet trim() {
         lock().writeLockGuard(() -> {
-            xValues.trim(0);
-            yValues.trim(0);
+            if (isChunkedStorage()) {
+                xChunks.trim();
+                yChunks.trim();
+            } else {
+                xValues.trim(0);
+                yValues.trim(0);
+            }
         });
         return fireInvalidated(new UpdatedDataEvent(this, "increaseCapacity()"));
     }
+
+    private void removeFromRange(final int dimIndex, final ChunkedDoubleArray values, final int fromIndex,
+            final int toIndex) {
+        final AxisDescription range = getAxisDescription(dimIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (range.remove(values.getDouble(i))) {
+                return;
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        xChunks = (ChunkedDoubleArray) in.readObject();
+        yChunks = (ChunkedDoubleArray) in.readObject();
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // N.B. chunked storage is transient for the reflection-based serialisers, null for contiguous storage
+        out.writeObject(xChunks);
+        out.writeObject(yChunks);
+    }
 }
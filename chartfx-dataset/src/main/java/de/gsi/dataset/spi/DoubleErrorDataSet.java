@@ -1,5 +1,9 @@
 package de.gsi.dataset.spi;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import de.gsi.dataset.AxisDescription;
 import de.gsi.dataset.DataSet;
 import de.gsi.dataset.DataSet2D;
@@ -9,12 +13,17 @@ import de.gsi.dataset.event.AddedDataEvent;
 import de.gsi.dataset.event.RemovedDataEvent;
 import de.gsi.dataset.event.UpdatedDataEvent;
 import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.dataset.utils.ChunkedDoubleArray;
 
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 /**
  * Implementation of the {@code DataSetError} interface which stores x,y, +eyn, and -eyn values in separate double
  * arrays. It provides methods allowing easily manipulate of data points.
+ * <p>
+ * Optionally, the values can be stored in chunked arrays (see {@link #DoubleErrorDataSet(String, int, boolean)} and
+ * {@link ChunkedDoubleArray}) to avoid the reallocation and copying of the whole storage when appending to very large
+ * data sets. In this mode, the array getters (e.g. {@link #getValues(int)}) return cached contiguous copies.
  *
  * @see DoubleDataSet for an implementation without errors
  * @author rstein
@@ -25,10 +34,15 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
     private static final String Y_COORDINATES = "Y coordinates";
     private static final String X_COORDINATES = "X coordinates";
     private static final long serialVersionUID = 8931518518245752926L;
+    private static final int COL_X = 0;
+    private static final int COL_Y = 1;
+    private static final int COL_EYN = 2;
+    private static final int COL_EYP = 3;
     protected DoubleArrayList xValues; // way faster than java default lists
     protected DoubleArrayList yValues; // way faster than java default lists
     protected DoubleArrayList yErrorsPos;
     protected DoubleArrayList yErrorsNeg;
+    protected transient ChunkedDoubleArray[] chunks; // non-null only for chunked storage: x, y, -ey, +ey
 
     /**
      * Creates a new instance of <code>DoubleErrorDataSet</code> as copy of another (deep-copy).
@@ -81,12 +95,34 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      * @throws IllegalArgumentException if {@code name} is {@code null}
      */
     public DoubleErrorDataSet(final String name, final int initalSize) {
+        this(name, initalSize, false);
+    }
+
+    /**
+     * Creates a new instance of <code>DoubleErrorDataSet</code>.
+     *
+     * @param name name of this DataSet.
+     * @param initalSize initial capacity of buffer (N.B. size=0)
+     * @param chunkedStorage true: store the values in chunks of {@link ChunkedDoubleArray#DEFAULT_CHUNK_BITS} elements
+     *            rather than contiguous arrays (no reallocation and copying when growing large data sets). N.B.
+     *            the chunked storage is not covered by the generic (reflection-based) serialisers
+     * @throws IllegalArgumentException if {@code name} is {@code null}
+     */
+    public DoubleErrorDataSet(final String name, final int initalSize, final boolean chunkedStorage) {
         super(name, 2, ErrorType.NO_ERROR, ErrorType.ASYMMETRIC);
         AssertUtils.gtEqThanZero("initalSize", initalSize);
-        xValues = new DoubleArrayList(initalSize);
-        yValues = new DoubleArrayList(initalSize);
-        yErrorsPos = new DoubleArrayList(initalSize);
-        yErrorsNeg = new DoubleArrayList(initalSize);
+        if (chunkedStorage) {
+            chunks = new ChunkedDoubleArray[4];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new ChunkedDoubleArray();
+                chunks[i].ensureCapacity(initalSize);
+            }
+        } else {
+            xValues = new DoubleArrayList(initalSize);
+            yValues = new DoubleArrayList(initalSize);
+            yErrorsPos = new DoubleArrayList(initalSize);
+            yErrorsNeg = new DoubleArrayList(initalSize);
+        }
     }
 
     /**
@@ -126,18 +162,26 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
     public DoubleErrorDataSet add(final double x, final double y, final double yErrorNeg, final double yErrorPos,
             final String label) {
         lock().writeLockGuard(() -> {
-            xValues.add(x);
-            yValues.add(y);
-            yErrorsNeg.add(yErrorNeg);
-            yErrorsPos.add(yErrorPos);
+            final boolean wasEmpty = getDataCount() == 0;
+            if (isChunkedStorage()) {
+                chunks[COL_X].add(x);
+                chunks[COL_Y].add(y);
+                chunks[COL_EYN].add(yErrorNeg);
+                chunks[COL_EYP].add(yErrorPos);
+            } else {
+                xValues.add(x);
+                yValues.add(y);
+                yErrorsNeg.add(yErrorNeg);
+                yErrorsPos.add(yErrorPos);
+            }
 
             if (label != null && !label.isEmpty()) {
-                addDataLabel(xValues.size() - 1, label);
+                addDataLabel(getDataCount() - 1, label);
             }
 
-            getAxisDescription(DIM_X).add(x);
-            getAxisDescription(DIM_Y).add(y - yErrorNeg);
-            getAxisDescription(DIM_Y).add(y + yErrorPos);
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y - yErrorNeg);
+            extendRange(DIM_Y, wasEmpty, y + yErrorPos);
         });
         return fireInvalidated(new UpdatedDataEvent(this, "add"));
     }
@@ -160,18 +204,25 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
         AssertUtils.equalDoubleArrays(xValuesNew, yValuesNew);
 
         lock().writeLockGuard(() -> {
-            final int addAt = xValues.size();
+            final int addAt = getDataCount();
             final int newElements = Math.min(Math.min(xValuesNew.length, yValuesNew.length),
                     Math.min(yErrorsNegNew.length, yErrorsPosNew.length));
             this.resize(addAt + newElements);
 
-            xValues.setElements(addAt, xValuesNew, 0, newElements);
-            yValues.setElements(addAt, yValuesNew, 0, newElements);
-            yErrorsNeg.setElements(addAt, yErrorsNegNew, 0, newElements);
-            yErrorsPos.setElements(addAt, yErrorsPosNew, 0, newElements);
+            if (isChunkedStorage()) {
+                chunks[COL_X].setElements(addAt, xValuesNew, 0, newElements);
+                chunks[COL_Y].setElements(addAt, yValuesNew, 0, newElements);
+                chunks[COL_EYN].setElements(addAt, yErrorsNegNew, 0, newElements);
+                chunks[COL_EYP].setElements(addAt, yErrorsPosNew, 0, newElements);
+            } else {
+                xValues.setElements(addAt, xValuesNew, 0, newElements);
+                yValues.setElements(addAt, yValuesNew, 0, newElements);
+                yErrorsNeg.setElements(addAt, yErrorsNegNew, 0, newElements);
+                yErrorsPos.setElements(addAt, yErrorsPosNew, 0, newElements);
+            }
 
-            getAxisDescription(DIM_X).add(xValuesNew);
-            getAxisDescription(DIM_Y).add(yValuesNew);
+            extendRange(DIM_X, addAt == 0, xValuesNew, 0, newElements);
+            extendRange(DIM_Y, addAt == 0, yValuesNew, 0, newElements);
         });
         return fireInvalidated(new AddedDataEvent(this));
     }
@@ -231,17 +282,25 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
     public DoubleErrorDataSet add(final int index, final double x, final double y, final double yErrorNeg,
             final double yErrorPos, final String label) {
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = getDataCount() == 0;
             final int indexAt = Math.max(0, Math.min(index, getDataCount() + 1));
 
-            xValues.add(indexAt, x);
-            yValues.add(indexAt, y);
-            yErrorsNeg.add(indexAt, yErrorNeg);
-            yErrorsPos.add(indexAt, yErrorPos);
-            getDataLabelMap().addValueAndShiftKeys(indexAt, xValues.size(), label);
-            getDataStyleMap().shiftKeys(indexAt, xValues.size());
-            getAxisDescription(DIM_X).add(x);
-            getAxisDescription(DIM_Y).add(y - yErrorNeg);
-            getAxisDescription(DIM_Y).add(y + yErrorPos);
+            if (isChunkedStorage()) {
+                chunks[COL_X].add(indexAt, x);
+                chunks[COL_Y].add(indexAt, y);
+                chunks[COL_EYN].add(indexAt, yErrorNeg);
+                chunks[COL_EYP].add(indexAt, yErrorPos);
+            } else {
+                xValues.add(indexAt, x);
+                yValues.add(indexAt, y);
+                yErrorsNeg.add(indexAt, yErrorNeg);
+                yErrorsPos.add(indexAt, yErrorPos);
+            }
+            getDataLabelMap().addValueAndShiftKeys(indexAt, getDataCount(), label);
+            getDataStyleMap().shiftKeys(indexAt, getDataCount());
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y - yErrorNeg);
+            extendRange(DIM_Y, wasEmpty, y + yErrorPos);
         });
         return fireInvalidated(new AddedDataEvent(this));
     }
@@ -266,19 +325,27 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
         AssertUtils.equalDoubleArrays(x, y, min);
 
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = getDataCount() == 0;
             final int indexAt = Math.max(0, Math.min(index, getDataCount()));
 
-            xValues.addElements(indexAt, x, 0, min);
-            yValues.addElements(indexAt, y, 0, min);
-            yErrorsNeg.addElements(indexAt, yErrorNeg, 0, min);
-            yErrorsPos.addElements(indexAt, yErrorPos, 0, min);
+            if (isChunkedStorage()) {
+                chunks[COL_X].addElements(indexAt, x, 0, min);
+                chunks[COL_Y].addElements(indexAt, y, 0, min);
+                chunks[COL_EYN].addElements(indexAt, yErrorNeg, 0, min);
+                chunks[COL_EYP].addElements(indexAt, yErrorPos, 0, min);
+            } else {
+                xValues.addElements(indexAt, x, 0, min);
+                yValues.addElements(indexAt, y, 0, min);
+                yErrorsNeg.addElements(indexAt, yErrorNeg, 0, min);
+                yErrorsPos.addElements(indexAt, yErrorPos, 0, min);
+            }
 
             // recompute ranges
-            getAxisDescription(DIM_X).add(x);
-            getAxisDescription(DIM_Y).add(y);
+            extendRange(DIM_X, wasEmpty, x, 0, min);
+            extendRange(DIM_Y, wasEmpty, y, 0, min);
 
-            getDataLabelMap().shiftKeys(indexAt, xValues.size());
-            getDataStyleMap().shiftKeys(indexAt, xValues.size());
+            getDataLabelMap().shiftKeys(indexAt, getDataCount());
+            getDataStyleMap().shiftKeys(indexAt, getDataCount());
         });
 
         return fireInvalidated(new AddedDataEvent(this));
@@ -291,10 +358,16 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      */
     public DoubleErrorDataSet clearData() {
         lock().writeLockGuard(() -> {
-            xValues.clear();
-            yValues.clear();
-            yErrorsPos.clear();
-            yErrorsNeg.clear();
+            if (isChunkedStorage()) {
+                for (final ChunkedDoubleArray column : chunks) {
+                    column.clear();
+                }
+            } else {
+                xValues.clear();
+                yValues.clear();
+                yErrorsPos.clear();
+                yErrorsNeg.clear();
+            }
             getDataLabelMap().clear();
             getDataStyleMap().clear();
             clearMetaInfo();
@@ -306,6 +379,9 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
 
     @Override
     public final double get(final int dimIndex, final int index) {
+        if (chunks != null) {
+            return chunks[dimIndex == DataSet.DIM_X ? COL_X : COL_Y].getDouble(index);
+        }
         return dimIndex == DataSet.DIM_X ? xValues.elements()[index] : yValues.elements()[index];
     }
 
@@ -313,57 +389,81 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      * @return storage capacity of dataset
      */
     public int getCapacity() {
+        if (isChunkedStorage()) {
+            return Math.min(chunks[COL_X].capacity(), chunks[COL_Y].capacity());
+        }
         return Math.min(xValues.elements().length, yValues.elements().length);
     }
 
     @Override
     public int getDataCount(final int dimIndex) {
+        if (isChunkedStorage()) {
+            return Math.min(chunks[COL_X].size(), chunks[COL_Y].size());
+        }
         return Math.min(xValues.size(), yValues.size());
     }
 
     @Override
     public double getErrorNegative(final int dimIndex, final int index) {
-        return dimIndex == DIM_X ? 0.0 : yErrorsNeg.elements()[index];
+        if (dimIndex == DIM_X) {
+            return 0.0;
+        }
+        return isChunkedStorage() ? chunks[COL_EYN].getDouble(index) : yErrorsNeg.elements()[index];
     }
 
     @Override
     public double getErrorPositive(final int dimIndex, final int index) {
-        return dimIndex == DIM_X ? 0.0 : yErrorsPos.elements()[index];
+        if (dimIndex == DIM_X) {
+            return 0.0;
+        }
+        return isChunkedStorage() ? chunks[COL_EYP].getDouble(index) : yErrorsPos.elements()[index];
     }
 
     @Override
     public double[] getErrorsNegative(final int dimIndex) {
-        return dimIndex == DIM_X ? super.getErrorsNegative(dimIndex) : yErrorsNeg.elements();
+        if (dimIndex == DIM_X) {
+            return super.getErrorsNegative(dimIndex);
+        }
+        return isChunkedStorage() ? chunks[COL_EYN].elements() : yErrorsNeg.elements();
     }
 
     @Override
     public double[] getErrorsPositive(final int dimIndex) {
-        return dimIndex == DIM_X ? super.getErrorsPositive(dimIndex) : yErrorsPos.elements();
+        if (dimIndex == DIM_X) {
+            return super.getErrorsPositive(dimIndex);
+        }
+        return isChunkedStorage() ? chunks[COL_EYP].elements() : yErrorsPos.elements();
     }
 
+    /**
+     * N.B. for chunked storage, this returns a contiguous copy that is cached until the next modification
+     */
     @Override
     public final double[] getValues(final int dimIndex) {
+        if (isChunkedStorage()) {
+            return chunks[dimIndex == DataSet.DIM_X ? COL_X : COL_Y].elements();
+        }
         return dimIndex == DataSet.DIM_X ? xValues.elements() : yValues.elements();
     }
 
     @Override
     public double getX(final int index) {
-        return xValues.elements()[index];
+        return get(DIM_X, index);
     }
 
     @Override
     public double[] getXValues() {
-        return xValues.elements();
+        return getValues(DIM_X);
     }
 
     @Override
     public double getY(final int index) {
-        return yValues.elements()[index];
+        return get(DIM_Y, index);
     }
 
     @Override
     public double[] getYValues() {
-        return yValues.elements();
+        return getValues(DIM_Y);
     }
 
     /**
@@ -379,6 +479,13 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
         return getThis();
     }
 
+    /**
+     * @return true: values are stored in chunks rather than contiguous arrays
+     */
+    public boolean isChunkedStorage() {
+        return chunks != null;
+    }
+
     @Override
     public DoubleErrorDataSet remove(int index) {
         return remove(index, index + 1);
@@ -397,17 +504,36 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
             AssertUtils.indexOrder(fromIndex, "fromIndex", toIndex, "toIndex");
 
             final int clampedToIndex = Math.min(toIndex, getDataCount());
-            xValues.removeElements(fromIndex, clampedToIndex);
-            yValues.removeElements(fromIndex, clampedToIndex);
-            yErrorsNeg.removeElements(fromIndex, clampedToIndex);
-            yErrorsPos.removeElements(fromIndex, clampedToIndex);
+            // update ranges -- invalidated only if the removed points define the present min/max
+            final AxisDescription xRange = getAxisDescription(DIM_X);
+            if (isChunkedStorage()) {
+                for (int i = fromIndex; i < clampedToIndex && xRange.isDefined(); i++) {
+                    xRange.remove(get(DIM_X, i));
+                }
+            } else {
+                xRange.remove(xValues.elements(), fromIndex, clampedToIndex);
+            }
+            final AxisDescription yRange = getAxisDescription(DIM_Y);
+            for (int i = fromIndex; i < clampedToIndex && yRange.isDefined(); i++) {
+                final double y = get(DIM_Y, i);
+                yRange.remove(y - getErrorNegative(DIM_Y, i));
+                yRange.remove(y + getErrorPositive(DIM_Y, i));
+            }
+
+            if (isChunkedStorage()) {
+                for (final ChunkedDoubleArray column : chunks) {
+                    column.removeElements(fromIndex, clampedToIndex);
+                }
+            } else {
+                xValues.removeElements(fromIndex, clampedToIndex);
+                yValues.removeElements(fromIndex, clampedToIndex);
+                yErrorsNeg.removeElements(fromIndex, clampedToIndex);
+                yErrorsPos.removeElements(fromIndex, clampedToIndex);
+            }
 
             // remove old label and style keys
             getDataLabelMap().remove(fromIndex, clampedToIndex);
             getDataLabelMap().remove(fromIndex, clampedToIndex);
-
-            // invalidate ranges
-            getAxisDescriptions().forEach(AxisDescription::clear);
         });
         return fireInvalidated(new RemovedDataEvent(this));
     }
@@ -420,10 +546,16 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      */
     public DoubleErrorDataSet resize(final int size) {
         lock().writeLockGuard(() -> {
-            xValues.size(size);
-            yValues.size(size);
-            yErrorsPos.size(size);
-            yErrorsNeg.size(size);
+            if (isChunkedStorage()) {
+                for (final ChunkedDoubleArray column : chunks) {
+                    column.size(size);
+                }
+            } else {
+                xValues.size(size);
+                yValues.size(size);
+                yErrorsPos.size(size);
+                yErrorsNeg.size(size);
+            }
         });
         return fireInvalidated(new UpdatedDataEvent(this, "increaseCapacity()"));
     }
@@ -519,7 +651,8 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      * @param yErrorsNeg the +dy errors
      * @param yErrorsPos the -dy errors
      * @param nSamples number of samples to be copied
-     * @param copy true: makes an internal copy, false: use the pointer as is (saves memory allocation)
+     * @param copy true: makes an internal copy, false: use the pointer as is (saves memory allocation, N.B. ignored
+     *            for chunked storage that always copies)
      * @return itself (fluent design)
      */
     public DoubleErrorDataSet set(final double[] xValues, final double[] yValues, final double[] yErrorsNeg,
@@ -544,7 +677,13 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
         lock().writeLockGuard(() -> {
             getDataLabelMap().clear();
             getDataStyleMap().clear();
-            if (copy) {
+            if (isChunkedStorage()) {
+                resize(0);
+                chunks[COL_X].addElements(0, xValues, 0, nSamplesToAdd);
+                chunks[COL_Y].addElements(0, yValues, 0, nSamplesToAdd);
+                chunks[COL_EYN].addElements(0, yErrorsNeg, 0, nSamplesToAdd);
+                chunks[COL_EYP].addElements(0, yErrorsPos, 0, nSamplesToAdd);
+            } else if (copy) {
                 if (this.xValues == null) {
                     this.xValues = new DoubleArrayList();
                 }
@@ -615,7 +754,27 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
     public DoubleErrorDataSet set(final int index, final double x, final double y, final double yErrorNeg,
             final double yErrorPos) {
         lock().writeLockGuard(() -> {
+            if (index >= this.getDataCount()) {
+                // new (and possibly zero-padded) points -- invalidate ranges
+                getAxisDescriptions().forEach(AxisDescription::clear);
+            } else {
+                // replace existing point -- ranges are recomputed only if the old value was an extremum
+                final double oldY = get(DIM_Y, index);
+                updateRange(DIM_X, get(DIM_X, index), x);
+                updateRange(DIM_Y, oldY - getErrorNegative(DIM_Y, index), oldY + getErrorPositive(DIM_Y, index),
+                        y - yErrorNeg, y + yErrorPos);
+            }
             final int dataCount = Math.max(index + 1, this.getDataCount());
+            if (isChunkedStorage()) {
+                resize(dataCount);
+                chunks[COL_X].set(index, x);
+                chunks[COL_Y].set(index, y);
+                chunks[COL_EYN].set(index, yErrorNeg);
+                chunks[COL_EYP].set(index, yErrorPos);
+                getDataLabelMap().remove(index);
+                getDataStyleMap().remove(index);
+                return;
+            }
             xValues.size(dataCount);
             yValues.size(dataCount);
             xValues.elements()[index] = x;
@@ -626,9 +785,6 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
             yErrorsPos.elements()[index] = yErrorPos;
             getDataLabelMap().remove(index);
             getDataStyleMap().remove(index);
-
-            // invalidate ranges
-            getAxisDescriptions().forEach(AxisDescription::clear);
         });
 
         return fireInvalidated(new UpdatedDataEvent(this, "set - single"));
@@ -637,11 +793,18 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
     public DoubleErrorDataSet set(final int index, final double[] x, final double[] y, final double[] yErrorNeg,
             final double[] yErrorPos) {
         lock().writeLockGuard(() -> {
-            resize(Math.max(index + x.length, xValues.size()));
-            System.arraycopy(x, 0, xValues.elements(), index, x.length);
-            System.arraycopy(y, 0, yValues.elements(), index, y.length);
-            System.arraycopy(yErrorNeg, 0, yErrorsNeg.elements(), index, yErrorNeg.length);
-            System.arraycopy(yErrorPos, 0, yErrorsPos.elements(), index, yErrorPos.length);
+            resize(Math.max(index + x.length, getDataCount()));
+            if (isChunkedStorage()) {
+                chunks[COL_X].setElements(index, x, 0, x.length);
+                chunks[COL_Y].setElements(index, y, 0, y.length);
+                chunks[COL_EYN].setElements(index, yErrorNeg, 0, yErrorNeg.length);
+                chunks[COL_EYP].setElements(index, yErrorPos, 0, yErrorPos.length);
+            } else {
+                System.arraycopy(x, 0, xValues.elements(), index, x.length);
+                System.arraycopy(y, 0, yValues.elements(), index, y.length);
+                System.arraycopy(yErrorNeg, 0, yErrorsNeg.elements(), index, yErrorNeg.length);
+                System.arraycopy(yErrorPos, 0, yErrorsPos.elements(), index, yErrorPos.length);
+            }
             getDataLabelMap().remove(index, index + x.length);
             getDataStyleMap().remove(index, index + x.length);
 
@@ -659,6 +822,12 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
      */
     public DoubleErrorDataSet trim() {
         lock().writeLockGuard(() -> {
+            if (isChunkedStorage()) {
+                for (final ChunkedDoubleArray column : chunks) {
+                    column.trim();
+                }
+                return;
+            }
             xValues.trim(0);
             yValues.trim(0);
             yErrorsPos.trim(0);
@@ -666,4 +835,15 @@ public class DoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorDataSet>
         });
         return fireInvalidated(new UpdatedDataEvent(this, "increaseCapacity()"));
     }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        chunks = (ChunkedDoubleArray[]) in.readObject();
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // N.B. chunked storage is transient for the reflection-based serialisers, null for contiguous storage
+        out.writeObject(chunks);
+    }
 }
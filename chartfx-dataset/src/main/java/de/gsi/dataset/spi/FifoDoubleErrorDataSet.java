@@ -22,6 +22,7 @@ public class FifoDoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorData
     private static final long serialVersionUID = -7153702141838930486L;
     protected final LimitedQueue<DataBlob> data;
     protected double maxDistance = Double.MAX_VALUE;
+    protected long sequenceNumber;
 
     /**
      * Creates a new instance of <code>FifoDoubleErrorDataSet</code>.
@@ -96,10 +97,13 @@ public class FifoDoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorData
     public FifoDoubleErrorDataSet add(final double x, final double y, final double yErrorNeg, final double yErrorPos,
             final String tag, final String style) {
         lock().writeLockGuard(() -> {
+            final boolean wasEmpty = data.isEmpty();
             data.add(new DataBlob(x, y, yErrorNeg, yErrorPos, tag, style));
-            this.getAxisDescription(DIM_X).add(x);
-            this.getAxisDescription(DIM_Y).add(y - yErrorNeg);
-            this.getAxisDescription(DIM_Y).add(y + yErrorPos);
+            sequenceNumber++;
+            // N.B. invalidated ranges are lazily recomputed on the next access
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y - yErrorNeg);
+            extendRange(DIM_Y, wasEmpty, y + yErrorPos);
 
             // remove old fields if necessary
             expire(x);
@@ -151,9 +155,18 @@ public class FifoDoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorData
             }
 
             if (toRemoveList.size() > 0) {
-                // remove elements and invalidate ranges if necessary
+                // remove elements and invalidate ranges only if an expired element defines the present min/max
                 data.removeAll(toRemoveList);
-                getAxisDescriptions().forEach(AxisDescription::clear);
+                final AxisDescription xRange = getAxisDescription(DIM_X);
+                final AxisDescription yRange = getAxisDescription(DIM_Y);
+                for (final DataBlob blob : toRemoveList) {
+                    if (!xRange.isDefined() && !yRange.isDefined()) {
+                        break;
+                    }
+                    xRange.remove(blob.getX());
+                    yRange.remove(blob.getY() - blob.getErrorX());
+                    yRange.remove(blob.getY() + blob.getErrorY());
+                }
             }
             return toRemoveList.size();
         });
@@ -202,6 +215,14 @@ public class FifoDoubleErrorDataSet extends AbstractErrorDataSet<DoubleErrorData
         return maxDistance;
     }
 
+    /**
+     * @return total number of samples that have been added since creation (monotonically increasing, not affected by
+     *         {@link #reset()} or expired samples)
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
     @Override
     public String getStyle(final int index) {
         return data.get(index).getStyle();
@@ -118,20 +118,38 @@ public class FragmentedDataSet extends AbstractDataSet<FragmentedDataSet> implem
         return Double.NaN;
     }
 
+    @Override
+    public int getIndex(final int dimIndex, final double value) {
+        return dimIndex == DIM_X ? getXIndex(value) : super.getIndex(dimIndex, value);
+    }
+
     @Override
     public int getXIndex(double x) {
         return lock().readLockGuard(() -> {
-            if (x < getAxisDescription(DIM_X).getMin()) {
+            if (list.isEmpty() || x < getAxisDescription(DIM_X).getMin()) {
                 return 0;
             }
-            int index = 0;
-            for (final DataSet dataset : list) {
-                if (x >= dataset.getAxisDescription(DIM_X).getMin() && x <= dataset.getAxisDescription(DIM_X).getMax()) {
-                    return index + dataset.getIndex(DIM_X, x);
+            // binary search for the last fragment starting at or before 'x' (N.B. fragments are sorted by their minimum)
+            int lower = 0;
+            int upper = list.size() - 1;
+            while (lower < upper) {
+                final int middle = (lower + upper + 1) >>> 1;
+                if (list.get(middle).getAxisDescription(DIM_X).getMin() <= x) {
+                    lower = middle;
+                } else {
+                    upper = middle - 1;
                 }
-                index += dataset.getDataCount();
             }
-            return getDataCount();
+            int index = 0;
+            for (int i = 0; i < lower; i++) {
+                index += list.get(i).getDataCount();
+            }
+            final DataSet dataset = list.get(lower);
+            if (x > dataset.getAxisDescription(DIM_X).getMax()) {
+                // 'x' lies in a gap between fragments or beyond the last fragment
+                return index + dataset.getDataCount();
+            }
+            return index + dataset.getIndex(DIM_X, x);
         });
     }
 
@@ -75,11 +75,7 @@ public class Histogram extends AbstractHistogram implements Histogram1D {
     public void addBinContent(final int bin, final double w) {
         lock().writeLockGuard(() -> {
             data[bin] = data[bin] + w;
-            if (getDimension() == 2) {
-                getAxisDescription(isHorizontal ? DIM_Y : DIM_X).add(data[bin]);
-            } else {
-                getAxisDescription(getDimension() - 1).add(data[bin]);
-            }
+            getAxisDescription(getContentDimIndex()).add(data[bin]);
         });
         fireInvalidated(new UpdatedDataEvent(this, "addBinContent()"));
     }
@@ -95,6 +91,31 @@ public class Histogram extends AbstractHistogram implements Histogram1D {
         return retVal;
     }
 
+    /**
+     * Bulk fill of the samples [from, to) that acquires the write lock and notifies listeners only once. The bin
+     * look-up is O(1) for equidistant bins and large ranges are binned concurrently into thread-local partial
+     * histograms that are merged at the end.
+     *
+     * @param x new values to be added
+     * @param w weights ({@code null}: unit weights)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    @Override
+    public void fill(final double[] x, final double[] w, final int from, final int to) {
+        checkFillRange("x", x, from, to);
+        if (w != null) {
+            checkFillRange("w", w, from, to);
+        }
+        final int dimIndex = isHorizontal ? DIM_X : DIM_Y;
+        // N.B. binning is performed outside the lock, only the merge of the partial histogram is guarded
+        final double[] partial = fillPartial(from, to, (start, stop, p) -> fillPartial(dimIndex, x, w, start, stop, p));
+        lock().writeLockGuard(() -> {
+            addBinContents(partial);
+        });
+        fireInvalidated(new AddedDataEvent(this, "fill(double[] x, double[] w, int from, int to)"));
+    }
+
     @Override
     public void fillN(double[] x, double[] w, int stepSize) {
         lock().writeLockGuard(() -> {
@@ -118,12 +139,9 @@ public class Histogram extends AbstractHistogram implements Histogram1D {
         }
         if (isEquiDistant()) {
             final double diff = x - getAxisDescription(dimIndex).getMin();
-            final double len = getAxisDescription(dimIndex).getLength();
-            final int count = getDataCount(dimIndex);
-            final double delta = len / count;
-            return (int) Math.round(diff / delta);
+            return (int) Math.round(diff / getBinWidth(dimIndex));
         }
-        return findNextLargerIndex(axisBins[0], x);
+        return findNextLargerIndex(getBinEdges(dimIndex), x);
     }
 
     @Override
@@ -138,6 +156,24 @@ public class Histogram extends AbstractHistogram implements Histogram1D {
         return dimIndex + 1 < this.getDimension() ? getBinCenter(DIM_X, index + 1) : getBinContent(index + 1);
     }
 
+    @Override
+    protected double[] getBinEdges(final int dimIndex) {
+        return axisBins[0];
+    }
+
+    @Override
+    protected double getBinWidth(final int dimIndex) {
+        return getAxisDescription(dimIndex).getLength() / getDataCount(dimIndex);
+    }
+
+    @Override
+    protected int getContentDimIndex() {
+        if (getDimension() == 2) {
+            return isHorizontal ? DIM_Y : DIM_X;
+        }
+        return getDimension() - 1;
+    }
+
     @Override
     public List<String> getErrorList() {
         return Collections.<String>emptyList();
@@ -11,7 +11,7 @@ import de.gsi.dataset.DataSet3D;
 import de.gsi.dataset.DataSetMetaData;
 import de.gsi.dataset.Histogram1D;
 import de.gsi.dataset.Histogram2D;
-import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.event.AddedDataEvent;
 
 /**
  * @author rstein
@@ -56,15 +56,54 @@ public class Histogram2 extends AbstractHistogram implements Histogram2D, DataSe
      */
     @Override
     public int fill(double x, double y, double w) {
-        final int ret = lock().writeLockGuard(() -> {
-            xProjection.fill(x, w);
-            yProjection.fill(y, w);
-            final int bin = super.findBin(x, y);
-            super.addBinContent(bin, w);
-            return bin;
+        // N.B. bin look-ups do not depend on the bin contents and are performed outside the locks
+        final int bin = super.findBin(x, y);
+        final int xBin = xProjection.findBin(DIM_X, x);
+        final int yBin = yProjection.findBin(DIM_Y, y);
+        lock().writeLockGuard(() -> {
+            // the projections are updated together with the bin contents, ie. they are consistent for lock holders
+            xProjection.lock().writeLockGuard(() -> xProjection.addToBin(xBin, w));
+            yProjection.lock().writeLockGuard(() -> yProjection.addToBin(yBin, w));
+            addToBin(bin, w);
         });
-        fireInvalidated(new UpdatedDataEvent(this, "fill()"));
-        return ret;
+        xProjection.fireInvalidated(new AddedDataEvent(xProjection, "fill()"));
+        yProjection.fireInvalidated(new AddedDataEvent(yProjection, "fill()"));
+        fireInvalidated(new AddedDataEvent(this, "fill()"));
+        return bin;
+    }
+
+    /**
+     * Bulk fill of the samples [from, to) (including the projections) that acquires the write lock and notifies
+     * listeners only once. The bin look-up is O(1) and large ranges are binned concurrently into thread-local partial
+     * histograms, which are merged -- together with those of the projections -- under the write lock at the end.
+     *
+     * @param x new horizontal values to be added
+     * @param y new vertical values to be added
+     * @param w weights ({@code null}: unit weights)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    @Override
+    public void fill(final double[] x, final double[] y, final double[] w, final int from, final int to) {
+        checkFillRange("x", x, from, to);
+        checkFillRange("y", y, from, to);
+        if (w != null) {
+            checkFillRange("w", w, from, to);
+        }
+        final double[] partial = fillPartial(from, to, (start, stop, p) -> fillPartial2D(x, y, w, start, stop, p));
+        final double[] xPartial = xProjection.fillPartial(from, to,
+                (start, stop, p) -> xProjection.fillPartial(DIM_X, x, w, start, stop, p));
+        final double[] yPartial = yProjection.fillPartial(from, to,
+                (start, stop, p) -> yProjection.fillPartial(DIM_Y, y, w, start, stop, p));
+        lock().writeLockGuard(() -> {
+            xProjection.lock().writeLockGuard(() -> xProjection.addBinContents(xPartial));
+            yProjection.lock().writeLockGuard(() -> yProjection.addBinContents(yPartial));
+            addBinContents(partial);
+        });
+        final String msg = "fill(double[] x, double[] y, double[] w, int from, int to)";
+        xProjection.fireInvalidated(new AddedDataEvent(xProjection, msg));
+        yProjection.fireInvalidated(new AddedDataEvent(yProjection, msg));
+        fireInvalidated(new AddedDataEvent(this, msg));
     }
 
     /*
@@ -85,6 +124,22 @@ public class Histogram2 extends AbstractHistogram implements Histogram2D, DataSe
         return getBinCenter(dimIndex, binIndex + 1);
     }
 
+    private void fillPartial2D(final double[] x, final double[] y, final double[] w, final int from, final int to,
+            final double[] partial) {
+        final int nBuffer = Math.min(4096, to - from);
+        final int[] xBins = new int[nBuffer];
+        final int[] yBins = new int[nBuffer];
+        final int nBinsX = getDataCount();
+        for (int start = from; start < to; start += nBuffer) {
+            final int stop = Math.min(to, start + nBuffer);
+            findBins(DIM_X, x, start, stop, xBins);
+            findBins(DIM_Y, y, start, stop, yBins);
+            for (int i = start; i < stop; i++) {
+                partial[nBinsX * yBins[i - start] + xBins[i - start]] += w == null ? 1.0 : w[i];
+            }
+        }
+    }
+
     @Override
     public List<String> getErrorList() {
         return Collections.<String>emptyList();
@@ -1,8 +1,6 @@
 package de.gsi.dataset.spi;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Arrays;
 
 import de.gsi.dataset.AxisDescription;
 import de.gsi.dataset.DataSet2D;
@@ -10,6 +8,7 @@ import de.gsi.dataset.event.AddedDataEvent;
 import de.gsi.dataset.event.RemovedDataEvent;
 import de.gsi.dataset.event.UpdatedDataEvent;
 import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.dataset.utils.trees.IndexedDoubleTree;
 import de.gsi.dataset.utils.trees.IndexedNavigableSet;
 import de.gsi.dataset.utils.trees.IndexedTreeSet;
 
@@ -18,6 +17,9 @@ import de.gsi.dataset.utils.trees.IndexedTreeSet;
  * insertions), indexed (required for the chart interface to efficiently parse through the data ('efficient' for most
  * 'normal' implementations), limited queue (to limit the maximum number samples stored), and limited in time (based on
  * 'x').
+ * <p>
+ * The samples are stored in a primitive counted B+-tree (see {@link IndexedDoubleTree}) with the columns y, ex and ey,
+ * rather than one boxed object per sample. Samples with an already existing x coordinate are ignored.
  *
  * @see de.gsi.dataset.DataSet
  * @see de.gsi.dataset.DataSetError
@@ -25,7 +27,12 @@ import de.gsi.dataset.utils.trees.IndexedTreeSet;
  */
 public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndexedTreeDataSet> implements DataSet2D {
     private static final long serialVersionUID = -6372417982869679455L;
-    protected IndexedNavigableSet<DataAtom> data = new IndexedTreeSet<>();
+    private static final int COL_Y = 0;
+    private static final int COL_EX = 1;
+    private static final int COL_EY = 2;
+    private static final int LABEL = 0;
+    private static final int STYLE = 1;
+    protected IndexedDoubleTree data = new IndexedDoubleTree(3);
     protected int maxQueueSize = Integer.MAX_VALUE;
     protected double maxLength = Double.MAX_VALUE;
     protected boolean subtractOffset = false;
@@ -78,7 +85,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
     public LimitedIndexedTreeDataSet add(final double x, final double y, final double ex, final double ey,
             final String... labelStyle) {
         lock().writeLockGuard(() -> {
-            data.add(new DataAtom(x, y, ex, ey, labelStyle));
+            addPoint(x, y, ex, ey, labelStyle);
             getAxisDescription(DIM_X).add(x - ex);
             getAxisDescription(DIM_X).add(x + ex);
             getAxisDescription(DIM_Y).add(y - ey);
@@ -125,7 +132,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
                 final double y = yValues[i];
                 final double ex = xErrors[i];
                 final double ey = yErrors[i];
-                data.add(new DataAtom(x, y, ex, ey, labelStyle)); // NOPMD need to initialise object in loop by design
+                addPoint(x, y, ex, ey, labelStyle);
 
                 getAxisDescription(DIM_X).add(x - ex);
                 getAxisDescription(DIM_X).add(x + ex);
@@ -147,9 +154,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String addDataLabel(final int index, final String label) {
-        final String old = data.get(index).label;
-        data.get(index).label = label;
-        return old;
+        return setLabelStyle(index, LABEL, label);
     }
 
     /**
@@ -162,9 +167,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String addDataStyle(final int index, final String style) {
-        final String old = data.get(index).style;
-        data.get(index).style = style;
-        return old;
+        return setLabelStyle(index, STYLE, style);
     }
 
     /**
@@ -186,7 +189,11 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      * @see #setMaxLength
      */
     public void expire() {
-        lock().writeLockGuard(() -> expire(data.last().getX()));
+        lock().writeLockGuard(() -> {
+            if (data.size() > 0) {
+                expire(data.lastKey());
+            }
+        });
     }
 
     /**
@@ -197,32 +204,50 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     public void expire(final double now) {
         lock().writeLockGuard(() -> {
-            try {
-                DataAtom first = data.first();
-                if (first == null) {
-                    return;
-                }
-                for (; data.size() > maxQueueSize || now - first.getX() > maxLength; first = data.first()) {
-                    data.remove(first);
-                }
-                // invalidate ranges
-                getAxisDescriptions().forEach(AxisDescription::clear);
-            } catch (final NoSuchElementException cannotDoAnythingHere) {
-                // cannot do anything here
+            final int size = data.size();
+            if (size == 0) {
+                return;
+            }
+            // number of leading samples outside the time window, the rank look-up is verified against the neighbours
+            int nExpired = data.indexOf(now - maxLength);
+            while (nExpired > 0 && !(now - data.getKey(nExpired - 1) > maxLength)) {
+                nExpired--;
             }
+            while (nExpired < size && now - data.getKey(nExpired) > maxLength) {
+                nExpired++;
+            }
+            data.removeRange(0, Math.max(nExpired, size - maxQueueSize));
+            // invalidate ranges
+            getAxisDescriptions().forEach(AxisDescription::clear);
         });
     }
 
     @Override
     public double get(final int dimIndex, final int i) {
-        return dimIndex == DIM_X ? (subtractOffset ? data.get(i).getX() - data.get(data.size() - 1).getX() : data.get(i).getX()) : data.get(i).getY();
+        if (dimIndex != DIM_X) {
+            return data.getValue(COL_Y, i);
+        }
+        return subtractOffset ? data.getKey(i) - data.lastKey() : data.getKey(i);
     }
 
     /**
-     * @return data container
+     * N.B. the samples are no longer stored as {@link DataAtom}s. This returns a detached copy, modifications of which
+     * are not reflected in this data set.
+     *
+     * @return copy of the data as sorted set of data atoms
+     * @deprecated use {@link #getTree()} to access the primitive data container directly
      */
+    @Deprecated
     public IndexedNavigableSet<DataAtom> getData() {
-        return data;
+        final IndexedNavigableSet<DataAtom> ret = new IndexedTreeSet<>();
+        lock().readLockGuard(() -> {
+            for (int i = 0; i < data.size(); i++) {
+                final String[] labelStyle = (String[]) data.getAttachment(i);
+                ret.add(new DataAtom(data.getKey(i), data.getValue(COL_Y, i), data.getValue(COL_EX, i),
+                        data.getValue(COL_EY, i), labelStyle)); // NOPMD need to initialise object in loop by design
+            }
+        });
+        return ret;
     }
 
     @Override
@@ -239,7 +264,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String getDataLabel(final int index) {
-        final String dataLabel = data.get(index).getLabel();
+        final String dataLabel = getLabelStyle(index, LABEL);
         if (dataLabel != null) {
             return dataLabel;
         }
@@ -249,12 +274,12 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
 
     @Override
     public double getErrorNegative(final int dimIndex, final int index) {
-        return dimIndex == DIM_X ? data.get(index).getErrorX() : data.get(index).getErrorY();
+        return data.getValue(dimIndex == DIM_X ? COL_EX : COL_EY, index);
     }
 
     @Override
     public double getErrorPositive(final int dimIndex, final int index) {
-        return dimIndex == DIM_X ? data.get(index).getErrorX() : data.get(index).getErrorY();
+        return data.getValue(dimIndex == DIM_X ? COL_EX : COL_EY, index);
     }
 
     /**
@@ -280,13 +305,25 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String getStyle(final int index) {
-        return data.get(index).getStyle();
+        return getLabelStyle(index, STYLE);
+    }
+
+    /**
+     * @return data container (key: x, value columns: y, ex, ey)
+     */
+    public IndexedDoubleTree getTree() {
+        return data;
     }
 
     /**
      * 
      * @return {@code true}: normalise x-Axis to last value
      */
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dimIndex == DIM_X;
+    }
+
     public boolean isSubtractOffset() {
         return subtractOffset;
     }
@@ -304,11 +341,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
             AssertUtils.indexInBounds(toIndex, getDataCount(), "toIndex");
             AssertUtils.indexOrder(fromIndex, "fromIndex", toIndex, "toIndex");
 
-            final List<DataAtom> toRemove = new ArrayList<>();
-            for (int i = fromIndex; i < toIndex; i++) {
-                toRemove.add(data.get(i));
-            }
-            data.removeAll(toRemove);
+            data.removeRange(fromIndex, toIndex);
 
             getAxisDescription(DIM_X).setMax(Double.NaN);
             getAxisDescription(DIM_Y).setMax(Double.NaN);
@@ -329,11 +362,14 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
         }
 
         lock().writeLockGuard(() -> {
-            final List<DataAtom> tupleTobeRemovedReferences = new ArrayList<>();
-            for (final int indexToRemove : indices) {
-                tupleTobeRemovedReferences.add(data.get(indexToRemove));
+            // remove from the back so that the remaining indices stay valid
+            final int[] sorted = Arrays.copyOf(indices, indices.length);
+            Arrays.sort(sorted);
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                if (i == sorted.length - 1 || sorted[i] != sorted[i + 1]) {
+                    data.remove(sorted[i]);
+                }
             }
-            data.removeAll(tupleTobeRemovedReferences);
 
             // invalidate ranges
             getAxisDescriptions().forEach(AxisDescription::clear);
@@ -350,9 +386,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String removeDataLabel(final int index) {
-        final String old = data.get(index).label;
-        data.get(index).label = "";
-        return old;
+        return setLabelStyle(index, LABEL, "");
     }
 
     /**
@@ -364,9 +398,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      */
     @Override
     public String removeStyle(final int index) {
-        final String old = data.get(index).style;
-        data.get(index).style = "";
-        return old;
+        return setLabelStyle(index, STYLE, "");
     }
 
     /**
@@ -375,7 +407,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      * @return itself (fluent design)
      */
     public LimitedIndexedTreeDataSet reset() {
-        lock().writeLockGuard(() -> getData().clear());
+        lock().writeLockGuard(() -> data.clear());
         return this;
     }
 
@@ -425,7 +457,7 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
                 getAxisDescription(DIM_X).add(x + dx);
                 getAxisDescription(DIM_Y).add(y - dy);
                 getAxisDescription(DIM_Y).add(y + dy);
-                data.add(new DataAtom(x, y, dx, dy)); // NOPMD need to initialise object in loop by design
+                addPoint(x, y, dx, dy);
             }
             expire();
         });
@@ -485,11 +517,25 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
      * @param dx the horizontal error
      * @param dy the vertical error N.B. assumes symmetric errors
      * @return itself
+     * @throws IllegalArgumentException if another sample with the new x coordinate exists already
      */
     public LimitedIndexedTreeDataSet set(final int index, final double x, final double y, final double dx,
             final double dy) {
         lock().writeLockGuard(() -> {
-            data.get(index).set(x, y, dy, dy);
+            AssertUtils.indexInBounds(index, data.size());
+            if (data.getKey(index) == x) {
+                data.setValue(COL_Y, index, y);
+                data.setValue(COL_EX, index, dx);
+                data.setValue(COL_EY, index, dy);
+            } else {
+                if (data.contains(x)) {
+                    throw new IllegalArgumentException("a sample with x = " + x + " exists already");
+                }
+                // N.B. re-insert to keep the samples sorted w.r.t. the new x coordinate
+                final Object labelStyle = data.getAttachment(index);
+                data.remove(index);
+                data.setAttachment(addPoint(x, y, dx, dy), labelStyle);
+            }
 
             getAxisDescription(DIM_X).add(x - dx);
             getAxisDescription(DIM_X).add(x + dx);
@@ -526,6 +572,47 @@ public class LimitedIndexedTreeDataSet extends AbstractErrorDataSet<LimitedIndex
         this.subtractOffset = subtractOffset;
     }
 
+    /**
+     * adds a new sample unless a sample with the same x coordinate already exists
+     *
+     * @return index of the new sample or '-1' if it was ignored
+     */
+    private int addPoint(final double x, final double y, final double ex, final double ey,
+            final String... labelStyle) {
+        if (data.contains(x)) {
+            return -1;
+        }
+        final int index = data.add(x, y, ex, ey);
+        if (labelStyle != null && labelStyle.length > 0) {
+            final String[] attachment = new String[2];
+            System.arraycopy(labelStyle, 0, attachment, 0, Math.min(2, labelStyle.length));
+            data.setAttachment(index, attachment);
+        }
+        return index;
+    }
+
+    private String getLabelStyle(final int index, final int type) {
+        final String[] attachment = (String[]) data.getAttachment(index);
+        return attachment == null ? null : attachment[type];
+    }
+
+    private String setLabelStyle(final int index, final int type, final String value) {
+        String[] attachment = (String[]) data.getAttachment(index);
+        if (attachment == null) {
+            attachment = new String[2];
+            data.setAttachment(index, attachment);
+        }
+        final String old = attachment[type];
+        attachment[type] = value;
+        return old;
+    }
+
+    /**
+     * legacy sample representation, only used for the detached copy returned by {@link #getData()}
+     *
+     * @deprecated the samples are stored in a primitive {@link IndexedDoubleTree}, see {@link #getTree()}
+     */
+    @Deprecated
     protected class DataAtom implements Comparable<DataAtom> {
         protected double x; // horizontal value
         protected double y; // vertical value
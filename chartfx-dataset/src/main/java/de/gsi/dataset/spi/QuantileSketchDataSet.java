@@ -0,0 +1,502 @@
+package de.gsi.dataset.spi;
+
+import java.util.Arrays;
+
+import de.gsi.dataset.DataSet2D;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.RemovedDataEvent;
+import de.gsi.dataset.event.UpdatedDataEvent;
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Streaming quantile estimator based on a merging t-digest (T. Dunning, O. Ertl, "Computing Extremely Accurate
+ * Quantiles Using t-Digests", 2019) with fixed memory.
+ * <p>
+ * Samples are appended in O(1) to a fixed-size buffer that is sorted and merged into at most
+ * {@code compression + 4} weighted centroids once it is full. The centroid sizes are limited by the arcsine scale
+ * function so that the relative accuracy is highest near the tails (e.g. p99, p99.9). Sketches filled by parallel
+ * producers can be combined via {@link #merge(QuantileSketchDataSet)}.
+ * <p>
+ * The DataSet interface exposes the estimated cumulative distribution (CDF) or probability density (PDF) function
+ * evaluated at the data minimum, the centroid means and the data maximum (N.B. reflecting the samples up to the last
+ * compression, see {@link #compress()}). The query methods (e.g. {@link #quantile(double)}) include the buffered
+ * samples but neither modify the sketch nor notify listeners.
+ */
+public class QuantileSketchDataSet extends AbstractDataSet<QuantileSketchDataSet> implements DataSet2D {
+    private static final long serialVersionUID = -3150574322436276112L;
+    /** default compression parameter, ie. approximate maximum number of centroids */
+    public static final double DEFAULT_COMPRESSION = 200.0;
+    private static final int BUFFER_FACTOR = 5;
+    private static final double[] UNIT_WEIGHTS = new double[0];
+    private final double compression;
+    private Distribution distribution = Distribution.CDF;
+
+    // merged centroids sorted by mean
+    private final double[] means;
+    private final double[] weights;
+    private int nCentroids;
+    private double totalWeight;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    // unmerged unit-weight samples
+    private final double[] buffer;
+    private int nBuffer;
+
+    // merge scratch space
+    private final double[] mergeMeans;
+    private final double[] mergeWeights;
+
+    /**
+     * Estimated distribution function exposed via the DataSet interface
+     */
+    public enum Distribution {
+        /** cumulative distribution function */
+        CDF,
+        /** probability density function */
+        PDF
+    }
+
+    /**
+     * @param name name of this DataSet.
+     */
+    public QuantileSketchDataSet(final String name) {
+        this(name, DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param name name of this DataSet.
+     * @param compression compression parameter, ie. approximate maximum number of centroids (larger: more accurate)
+     */
+    public QuantileSketchDataSet(final String name, final double compression) {
+        super(name, 2);
+        if (!(compression >= 10.0)) {
+            throw new IllegalArgumentException("compression '" + compression + "' must be >= 10");
+        }
+        this.compression = compression;
+        final int capacity = 2 * (int) Math.ceil(compression / 2) + 4;
+        means = new double[capacity];
+        weights = new double[capacity];
+        buffer = new double[BUFFER_FACTOR * capacity];
+        mergeMeans = new double[capacity + Math.max(capacity, buffer.length)];
+        mergeWeights = new double[mergeMeans.length];
+    }
+
+    /**
+     * Adds a sample (N.B. listeners are notified only if this triggers a compression).
+     *
+     * @param value the new sample (NaN values are ignored)
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet add(final double value) {
+        if (Double.isNaN(value)) {
+            return getThis();
+        }
+        final boolean compressed = lock().writeLockGuard(() -> {
+            buffer[nBuffer++] = value;
+            if (nBuffer < buffer.length) {
+                return false;
+            }
+            compressBuffer();
+            return true;
+        });
+        if (compressed) {
+            fireInvalidated(new AddedDataEvent(this, "add"));
+        }
+        return getThis();
+    }
+
+    /**
+     * Adds the samples values[from, to) and notifies listeners once.
+     *
+     * @param values the new samples (NaN values are ignored)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet add(final double[] values, final int from, final int to) {
+        AssertUtils.notNull("values", values);
+        AssertUtils.indexOrder(from, "from", to, "to");
+        AssertUtils.gtOrEqual("values", to, values.length);
+        lock().writeLockGuard(() -> {
+            for (int i = from; i < to; i++) {
+                if (Double.isNaN(values[i])) {
+                    continue;
+                }
+                buffer[nBuffer++] = values[i];
+                if (nBuffer == buffer.length) {
+                    compressBuffer();
+                }
+            }
+            compressBuffer();
+        });
+        return fireInvalidated(new AddedDataEvent(this, "add(double[], int, int)"));
+    }
+
+    /**
+     * Estimates the cumulative distribution function
+     *
+     * @param x the value
+     * @return fraction of samples smaller or equal than x (NaN if the sketch is empty)
+     */
+    public double cdf(final double x) {
+        return lock().readLockGuard(() -> getCompressedView().estimateCdf(x));
+    }
+
+    /**
+     * Removes all samples.
+     *
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet clearData() {
+        lock().writeLockGuard(() -> {
+            nBuffer = 0;
+            nCentroids = 0;
+            totalWeight = 0.0;
+            min = Double.NaN;
+            max = Double.NaN;
+            getAxisDescription(DIM_X).clear();
+            getAxisDescription(DIM_Y).clear();
+        });
+        return fireInvalidated(new RemovedDataEvent(this, "clearData"));
+    }
+
+    /**
+     * Merges the buffered samples into the centroids, ie. makes them visible through the DataSet interface.
+     *
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet compress() {
+        final boolean compressed = lock().writeLockGuard(() -> {
+            if (nBuffer == 0) {
+                return false;
+            }
+            compressBuffer();
+            return true;
+        });
+        if (compressed) {
+            fireInvalidated(new AddedDataEvent(this, "compress"));
+        }
+        return getThis();
+    }
+
+    @Override
+    public double get(final int dimIndex, final int index) {
+        if (nCentroids == 0) {
+            return Double.NaN;
+        }
+        final double x;
+        if (index == 0) {
+            x = min;
+        } else if (index > nCentroids) {
+            x = max;
+        } else {
+            x = means[index - 1];
+        }
+        if (dimIndex == DIM_X) {
+            return x;
+        }
+        return distribution == Distribution.CDF ? estimateCdf(x) : estimatePdf(index);
+    }
+
+    /**
+     * @return compression parameter, ie. approximate maximum number of centroids
+     */
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return number of samples (including those not yet compressed)
+     */
+    public long getCount() {
+        return lock().readLockGuard(() -> (long) totalWeight + nBuffer);
+    }
+
+    /**
+     * @return number of centroids of the compressed sketch
+     */
+    public int getCentroidCount() {
+        return nCentroids;
+    }
+
+    @Override
+    public int getDataCount(final int dimIndex) {
+        return nCentroids == 0 ? 0 : nCentroids + 2;
+    }
+
+    /**
+     * @return distribution function exposed via the DataSet interface
+     */
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * @return largest sample value (NaN if empty)
+     */
+    public double getMax() {
+        return lock().readLockGuard(() -> getCompressedView().max);
+    }
+
+    /**
+     * @return smallest sample value (NaN if empty)
+     */
+    public double getMin() {
+        return lock().readLockGuard(() -> getCompressedView().min);
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dimIndex == DIM_X || distribution == Distribution.CDF;
+    }
+
+    /**
+     * Merges the samples of another sketch (e.g. filled by a parallel producer) into this sketch.
+     *
+     * @param other the other sketch (remains unchanged)
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet merge(final QuantileSketchDataSet other) {
+        AssertUtils.notNull("other", other);
+        if (other == this) {
+            throw new IllegalArgumentException("cannot merge sketch with itself");
+        }
+        final double[][] otherCentroids = other.lock().readLockGuard(() -> {
+            final QuantileSketchDataSet view = other.getCompressedView();
+            return new double[][] { Arrays.copyOf(view.means, view.nCentroids),
+                Arrays.copyOf(view.weights, view.nCentroids), { view.min, view.max } };
+        });
+        if (otherCentroids[0].length == 0) {
+            return getThis();
+        }
+        lock().writeLockGuard(() -> {
+            compressBuffer();
+            // N.B. chunked since the other sketch may have a larger compression, ie. more centroids
+            final int length = otherCentroids[0].length;
+            for (int from = 0; from < length; from += means.length) {
+                merge(otherCentroids[0], otherCentroids[1], from, Math.min(length, from + means.length));
+            }
+            min = Double.isNaN(min) ? otherCentroids[2][0] : Math.min(min, otherCentroids[2][0]);
+            max = Double.isNaN(max) ? otherCentroids[2][1] : Math.max(max, otherCentroids[2][1]);
+            recomputeLimits(DIM_X);
+            recomputeLimits(DIM_Y);
+        });
+        return fireInvalidated(new AddedDataEvent(this, "merge"));
+    }
+
+    /**
+     * Estimates the quantile, e.g. q = 0.5 for the median or q = 0.99 for the 99th percentile.
+     *
+     * @param q quantile in [0, 1]
+     * @return estimated value (NaN if the sketch is empty)
+     */
+    public double quantile(final double q) {
+        if (!(q >= 0.0 && q <= 1.0)) {
+            throw new IllegalArgumentException("quantile '" + q + "' must be within [0, 1]");
+        }
+        return lock().readLockGuard(() -> getCompressedView().estimateQuantile(q));
+    }
+
+    /**
+     * @param distribution distribution function to be exposed via the DataSet interface
+     * @return itself (fluent design)
+     */
+    public QuantileSketchDataSet setDistribution(final Distribution distribution) {
+        AssertUtils.notNull("distribution", distribution);
+        lock().writeLockGuard(() -> {
+            this.distribution = distribution;
+            recomputeLimits(DIM_Y);
+        });
+        return fireInvalidated(new UpdatedDataEvent(this, "setDistribution"));
+    }
+
+    private void compressBuffer() {
+        if (nBuffer == 0) {
+            return;
+        }
+        mergeBuffer();
+        recomputeLimits(DIM_X);
+        recomputeLimits(DIM_Y);
+    }
+
+    private double estimateCdf(final double x) {
+        if (nCentroids == 0) {
+            return Double.NaN;
+        }
+        if (x < min) {
+            return 0.0;
+        }
+        if (x >= max) {
+            return 1.0;
+        }
+        final int last = nCentroids - 1;
+        if (x < means[0]) {
+            // between minimum and the first centroid centre
+            return means[0] > min ? (x - min) / (means[0] - min) * 0.5 * weights[0] / totalWeight : 0.0;
+        }
+        if (x >= means[last]) {
+            // between the last centroid centre and the maximum
+            return 1.0 - (max - x) / (max - means[last]) * 0.5 * weights[last] / totalWeight;
+        }
+        double cumulative = 0.5 * weights[0];
+        for (int i = 0; i < last; i++) {
+            final double step = 0.5 * (weights[i] + weights[i + 1]);
+            if (x < means[i + 1]) {
+                final double delta = means[i + 1] - means[i];
+                return (cumulative + (delta > 0 ? (x - means[i]) / delta * step : 0.0)) / totalWeight;
+            }
+            cumulative += step;
+        }
+        return cumulative / totalWeight;
+    }
+
+    private double estimatePdf(final int index) {
+        // average of the densities of the adjacent intervals between min, the centroid means and max
+        final double left = getIntervalDensity(index - 1);
+        final double right = getIntervalDensity(index);
+        if (index == 0) {
+            return right;
+        }
+        return index > nCentroids ? left : 0.5 * (left + right);
+    }
+
+    private double estimateQuantile(final double q) {
+        if (nCentroids == 0) {
+            return Double.NaN;
+        }
+        final double index = q * totalWeight;
+        final int last = nCentroids - 1;
+        if (index <= 0.5 * weights[0]) {
+            return min + (means[0] - min) * index / (0.5 * weights[0]);
+        }
+        if (index >= totalWeight - 0.5 * weights[last]) {
+            return max - (max - means[last]) * (totalWeight - index) / (0.5 * weights[last]);
+        }
+        double cumulative = 0.5 * weights[0];
+        for (int i = 0; i < last; i++) {
+            final double step = 0.5 * (weights[i] + weights[i + 1]);
+            if (index < cumulative + step) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+            }
+            cumulative += step;
+        }
+        return means[last];
+    }
+
+    /**
+     * N.B. to be called with the read lock held
+     *
+     * @return itself if there are no buffered samples, otherwise a private copy with the buffered samples merged into
+     *         the centroids (this sketch and its listeners remain unaffected)
+     */
+    private QuantileSketchDataSet getCompressedView() {
+        if (nBuffer == 0) {
+            return this;
+        }
+        final QuantileSketchDataSet view = new QuantileSketchDataSet(getName(), compression);
+        System.arraycopy(means, 0, view.means, 0, nCentroids);
+        System.arraycopy(weights, 0, view.weights, 0, nCentroids);
+        System.arraycopy(buffer, 0, view.buffer, 0, nBuffer);
+        view.nCentroids = nCentroids;
+        view.totalWeight = totalWeight;
+        view.min = min;
+        view.max = max;
+        view.nBuffer = nBuffer;
+        view.mergeBuffer();
+        return view;
+    }
+
+    private double getIntervalDensity(final int interval) {
+        // interval 'i' spans from get(DIM_X, i) to get(DIM_X, i + 1)
+        if (interval < 0 || interval > nCentroids) {
+            return 0.0;
+        }
+        final double left = interval == 0 ? min : means[interval - 1];
+        final double right = interval == nCentroids ? max : means[interval];
+        final double weight;
+        if (interval == 0) {
+            weight = 0.5 * weights[0];
+        } else if (interval == nCentroids) {
+            weight = 0.5 * weights[nCentroids - 1];
+        } else {
+            weight = 0.5 * (weights[interval - 1] + weights[interval]);
+        }
+        return right > left ? weight / (right - left) / totalWeight : 0.0;
+    }
+
+    /**
+     * merges the buffered samples into the centroids (without updating the axis ranges)
+     */
+    private void mergeBuffer() {
+        Arrays.sort(buffer, 0, nBuffer);
+        min = Double.isNaN(min) ? buffer[0] : Math.min(min, buffer[0]);
+        max = Double.isNaN(max) ? buffer[nBuffer - 1] : Math.max(max, buffer[nBuffer - 1]);
+        merge(buffer, UNIT_WEIGHTS, 0, nBuffer);
+        nBuffer = 0;
+    }
+
+    /**
+     * merges the sorted (mean, weight) pairs into the centroids
+     *
+     * @param newMeans sorted means
+     * @param newWeights corresponding weights (empty: unit weights)
+     * @param from first new centroid (inclusive)
+     * @param to last new centroid (exclusive)
+     */
+    private void merge(final double[] newMeans, final double[] newWeights, final int from, final int to) {
+        // merge-sort the two sorted lists into the scratch space
+        int nMerge = 0;
+        int i = 0;
+        int j = from;
+        while (i < nCentroids || j < to) {
+            if (j >= to || (i < nCentroids && means[i] <= newMeans[j])) {
+                mergeMeans[nMerge] = means[i];
+                mergeWeights[nMerge++] = weights[i++];
+            } else {
+                mergeMeans[nMerge] = newMeans[j];
+                mergeWeights[nMerge++] = newWeights.length == 0 ? 1.0 : newWeights[j];
+                j++;
+            }
+        }
+        double total = 0.0;
+        for (int k = 0; k < nMerge; k++) {
+            total += mergeWeights[k];
+        }
+        totalWeight = total;
+
+        // greedily combine neighbours as long as the centroid spans at most one unit of the scale function
+        nCentroids = 0;
+        double weightSoFar = 0.0;
+        double currentMean = mergeMeans[0];
+        double currentWeight = mergeWeights[0];
+        double weightLimit = total * inverseScale(scale(0.0) + 1.0);
+        for (int k = 1; k < nMerge; k++) {
+            if (weightSoFar + currentWeight + mergeWeights[k] <= weightLimit) {
+                currentWeight += mergeWeights[k];
+                currentMean += (mergeMeans[k] - currentMean) * mergeWeights[k] / currentWeight;
+            } else {
+                means[nCentroids] = currentMean;
+                weights[nCentroids++] = currentWeight;
+                weightSoFar += currentWeight;
+                weightLimit = total * inverseScale(scale(weightSoFar / total) + 1.0);
+                currentMean = mergeMeans[k];
+                currentWeight = mergeWeights[k];
+            }
+        }
+        means[nCentroids] = currentMean;
+        weights[nCentroids++] = currentWeight;
+    }
+
+    private double inverseScale(final double k) {
+        if (k >= compression / 4) {
+            return 1.0;
+        }
+        return 0.5 * (Math.sin(k * 2.0 * Math.PI / compression) + 1.0);
+    }
+
+    private double scale(final double q) {
+        // arcsine scale function 'k1': small centroids near the tails
+        return compression / (2.0 * Math.PI) * Math.asin(2.0 * q - 1.0);
+    }
+}
@@ -0,0 +1,188 @@
+package de.gsi.dataset.spi;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import de.gsi.dataset.AxisDescription;
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSet2D;
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.RemovedDataEvent;
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.dataset.utils.TimeStampUtils;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Time-series {@code DataSet} that stores the x coordinates natively as {@code long} UTC time-stamps in nanoseconds.
+ * <p>
+ * Via the generic {@code DataSet} interface, x is provided in UTC seconds (compatible with the time axes and
+ * {@code DefaultTimeFormatter}), which is limited to about sub-microsecond resolution for present-day time-stamps.
+ * Renderers and user code that need the full precision should access the raw time-stamps via
+ * {@link #getTimeStamp(int)}/{@link #getTimeStamps()} and subtract the reference/axis offset in bulk, e.g. using
+ * {@link TimeStampUtils#toScreen(long[], int, int, long, double, double, double[], int)}.
+ */
+public class TimeSeriesDataSet extends AbstractDataSet<TimeSeriesDataSet> implements DataSet2D {
+    private static final long serialVersionUID = 3547217365917417216L;
+    protected LongArrayList timeStamps; // [ns] UTC
+    protected DoubleArrayList yValues;
+    private transient DoubleArrayList xSeconds; // [s] UTC, kept in sync by the mutators for getValues(DIM_X)
+
+    /**
+     * Creates a new instance of <code>TimeSeriesDataSet</code>.
+     *
+     * @param name name of this DataSet.
+     * @throws IllegalArgumentException if {@code name} is {@code null}
+     */
+    public TimeSeriesDataSet(final String name) {
+        this(name, 0);
+    }
+
+    /**
+     * Creates a new instance of <code>TimeSeriesDataSet</code>.
+     *
+     * @param name name of this DataSet.
+     * @param initalSize initial capacity of buffer (N.B. size=0)
+     * @throws IllegalArgumentException if {@code name} is {@code null}
+     */
+    public TimeSeriesDataSet(final String name, final int initalSize) {
+        super(name, 2);
+        AssertUtils.gtEqThanZero("initalSize", initalSize);
+        timeStamps = new LongArrayList(initalSize);
+        yValues = new DoubleArrayList(initalSize);
+        xSeconds = new DoubleArrayList(initalSize);
+    }
+
+    /**
+     * Add point to the end of the data set
+     *
+     * @param timeStamp UTC time-stamp in nanoseconds
+     * @param y vertical coordinate of the new data point
+     * @return itself (fluent design)
+     */
+    public TimeSeriesDataSet add(final long timeStamp, final double y) {
+        lock().writeLockGuard(() -> {
+            final boolean wasEmpty = timeStamps.isEmpty();
+            timeStamps.add(timeStamp);
+            yValues.add(y);
+            final double x = TimeStampUtils.toSeconds(timeStamp);
+            xSeconds.add(x);
+            extendRange(DIM_X, wasEmpty, x);
+            extendRange(DIM_Y, wasEmpty, y);
+        });
+        return fireInvalidated(new AddedDataEvent(this, "add"));
+    }
+
+    /**
+     * Add points to the end of the data set
+     *
+     * @param timeStampsNew UTC time-stamps in nanoseconds
+     * @param yValuesNew vertical coordinates
+     * @param length number of points to be added
+     * @return itself (fluent design)
+     */
+    public TimeSeriesDataSet add(final long[] timeStampsNew, final double[] yValuesNew, final int length) {
+        AssertUtils.notNull("time-stamps", timeStampsNew);
+        AssertUtils.notNull("Y coordinates", yValuesNew);
+        AssertUtils.gtOrEqual("time-stamps length >= length", length, timeStampsNew.length);
+        AssertUtils.gtOrEqual("Y coordinates length >= length", length, yValuesNew.length);
+        lock().writeLockGuard(() -> {
+            timeStamps.addElements(timeStamps.size(), timeStampsNew, 0, length);
+            yValues.addElements(yValues.size(), yValuesNew, 0, length);
+            final int offset = xSeconds.size();
+            xSeconds.size(offset + length);
+            final double[] x = xSeconds.elements();
+            TimeStampUtils.toSeconds(timeStampsNew, 0, length, x, offset);
+            extendRange(DIM_X, offset == 0, x, offset, offset + length);
+            extendRange(DIM_Y, offset == 0, yValuesNew, 0, length);
+        });
+        return fireInvalidated(new AddedDataEvent(this));
+    }
+
+    /**
+     * clear all data points
+     *
+     * @return itself (fluent design)
+     */
+    public TimeSeriesDataSet clearData() {
+        lock().writeLockGuard(() -> {
+            timeStamps.clear();
+            yValues.clear();
+            xSeconds.clear();
+            getDataLabelMap().clear();
+            getDataStyleMap().clear();
+            getAxisDescriptions().forEach(AxisDescription::clear);
+        });
+        return fireInvalidated(new RemovedDataEvent(this, "clearData()"));
+    }
+
+    /**
+     * N.B. the x coordinate is returned in UTC seconds
+     */
+    @Override
+    public final double get(final int dimIndex, final int index) {
+        return dimIndex == DataSet.DIM_X ? TimeStampUtils.toSeconds(timeStamps.elements()[index])
+                                         : yValues.elements()[index];
+    }
+
+    @Override
+    public int getDataCount(final int dimIndex) {
+        return Math.min(timeStamps.size(), yValues.size());
+    }
+
+    /**
+     * @param index data point index
+     * @return UTC time-stamp in nanoseconds
+     */
+    public long getTimeStamp(final int index) {
+        return timeStamps.elements()[index];
+    }
+
+    /**
+     * @return raw internal UTC time-stamp array in nanoseconds N.B. the array may be larger than the data count
+     */
+    public long[] getTimeStamps() {
+        return timeStamps.elements();
+    }
+
+    /**
+     * N.B. the x coordinates are returned in UTC seconds (converted by the mutators when the data is modified)
+     */
+    @Override
+    public final double[] getValues(final int dimIndex) {
+        return dimIndex == DataSet.DIM_X ? xSeconds.elements() : yValues.elements();
+    }
+
+    /**
+     * removes sub-range of data points
+     *
+     * @param fromIndex start index
+     * @param toIndex stop index
+     * @return itself (fluent design)
+     */
+    public TimeSeriesDataSet remove(final int fromIndex, final int toIndex) {
+        lock().writeLockGuard(() -> {
+            AssertUtils.indexInBounds(fromIndex, getDataCount(), "fromIndex");
+            AssertUtils.indexOrder(fromIndex, "fromIndex", toIndex, "toIndex");
+            final int clampedToIndex = Math.min(toIndex, getDataCount());
+            // update ranges -- invalidated only if the removed points define the present min/max
+            getAxisDescription(DIM_X).remove(xSeconds.elements(), fromIndex, clampedToIndex);
+            getAxisDescription(DIM_Y).remove(yValues.elements(), fromIndex, clampedToIndex);
+            timeStamps.removeElements(fromIndex, clampedToIndex);
+            yValues.removeElements(fromIndex, clampedToIndex);
+            xSeconds.removeElements(fromIndex, clampedToIndex);
+            getDataLabelMap().remove(fromIndex, clampedToIndex);
+            getDataStyleMap().remove(fromIndex, clampedToIndex);
+        });
+        return fireInvalidated(new RemovedDataEvent(this));
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = timeStamps.size();
+        xSeconds = new DoubleArrayList(count);
+        xSeconds.size(count);
+        TimeStampUtils.toSeconds(timeStamps.elements(), 0, count, xSeconds.elements(), 0);
+    }
+}
@@ -154,6 +154,16 @@ public class TransposedDataSet implements DataSet {
         return transposed;
     }
 
+    @Override
+    public boolean isEquiDistant(final int dimIndex) {
+        return dataSet.isEquiDistant(permutation[dimIndex]);
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dataSet.isSorted(permutation[dimIndex]);
+    }
+
     @Override
     public <D extends DataSet> DataSetLock<D> lock() {
         return dataSet.lock();
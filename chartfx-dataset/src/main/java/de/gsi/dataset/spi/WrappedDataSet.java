@@ -84,6 +84,11 @@ public class WrappedDataSet extends AbstractDataSet<WrappedDataSet> implements D
         return dataset == null ? 0 : dataset.getX(i);
     }
 
+    @Override
+    public int getIndex(final int dimIndex, final double value) {
+        return dataset == null ? 0 : dataset.getIndex(dimIndex, value);
+    }
+
     @Override
     public int getXIndex(final double x) {
         return dataset == null ? 0 : dataset.getXIndex(x);
@@ -94,6 +99,16 @@ public class WrappedDataSet extends AbstractDataSet<WrappedDataSet> implements D
         return dataset == null ? 0 : dataset.getY(i);
     }
 
+    @Override
+    public boolean isEquiDistant(final int dimIndex) {
+        return dataset != null && dataset.isEquiDistant(dimIndex);
+    }
+
+    @Override
+    public boolean isSorted(final int dimIndex) {
+        return dataset != null && dataset.isSorted(dimIndex);
+    }
+
     /**
      * update/overwrite internal data set with content from other data set
      * 
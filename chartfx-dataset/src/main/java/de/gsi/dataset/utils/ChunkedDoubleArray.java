@@ -0,0 +1,378 @@
+package de.gsi.dataset.utils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * growable primitive double array that is stored as a list of fixed-size chunks (by default 64k elements).
+ * <p>
+ * Contrary to a contiguous array list, growing the storage only allocates new chunks and never copies the existing
+ * elements. Appends are thus amortised O(1) without large transient arrays, which matters for data sets with
+ * 10^7 - 10^8 samples that are filled point-by-point. Insertions and removals in the middle shift the tail as usual.
+ * <p>
+ * The method names follow the subset of {@code DoubleArrayList} used by the DataSet implementations. For legacy code
+ * that requires a contiguous {@code double[]}, {@link #elements()} provides a flattened copy that is cached until the
+ * next modification.
+ * <p>
+ * N.B. the Java serialised form contains only the valid elements, not the unused capacity.
+ */
+public class ChunkedDoubleArray implements Serializable {
+    private static final long serialVersionUID = -2684154384120618735L;
+    /** default chunk size: 2^16 = 65536 elements (512 kB) */
+    public static final int DEFAULT_CHUNK_BITS = 16;
+    private final int chunkBits;
+    private final int chunkSize;
+    private final int chunkMask;
+    private transient double[][] chunks = new double[0][];
+    private transient int nChunks; // number of allocated chunks
+    private int size;
+    private transient double[] flattened = new double[0]; // cache for elements()
+    private transient boolean flattenedValid = true;
+
+    /**
+     * new array with the default chunk size of 2^{@value #DEFAULT_CHUNK_BITS} elements
+     */
+    public ChunkedDoubleArray() {
+        this(DEFAULT_CHUNK_BITS);
+    }
+
+    /**
+     * @param chunkBits chunk size as power of two (valid range [1, 30])
+     */
+    public ChunkedDoubleArray(final int chunkBits) {
+        if (chunkBits < 1 || chunkBits > 30) {
+            throw new IllegalArgumentException("chunkBits '" + chunkBits + "' must be within [1, 30]");
+        }
+        this.chunkBits = chunkBits;
+        this.chunkSize = 1 << chunkBits;
+        this.chunkMask = chunkSize - 1;
+    }
+
+    /**
+     * appends value at the end
+     *
+     * @param value new value
+     */
+    public void add(final double value) {
+        if (size == nChunks << chunkBits) {
+            ensureCapacity(size + 1);
+        }
+        chunks[size >>> chunkBits][size & chunkMask] = value;
+        size++;
+        flattenedValid = false;
+    }
+
+    /**
+     * inserts value at the given position and shifts the following elements
+     *
+     * @param index insertion index within [0, size]
+     * @param value new value
+     */
+    public void add(final int index, final double value) {
+        makeRoom(index, 1);
+        chunks[index >>> chunkBits][index & chunkMask] = value;
+    }
+
+    /**
+     * inserts elements at the given position and shifts the following elements
+     *
+     * @param index insertion index within [0, size]
+     * @param values source array
+     * @param offset first source index
+     * @param length number of elements to be inserted
+     */
+    public void addElements(final int index, final double[] values, final int offset, final int length) {
+        checkArray(values, offset, length);
+        makeRoom(index, length);
+        copyFrom(values, offset, index, length);
+    }
+
+    /**
+     * @return capacity of the allocated chunks
+     */
+    public int capacity() {
+        return nChunks << chunkBits;
+    }
+
+    /**
+     * sets the size to zero (N.B. allocated chunks are kept, see {@link #trim()})
+     */
+    public void clear() {
+        size = 0;
+        flattenedValid = false;
+    }
+
+    /**
+     * allocates chunks so that at least 'capacity' elements can be stored without further allocation
+     *
+     * @param capacity minimum capacity
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalStateException("capacity exceeds maximum array index");
+        }
+        final int needed = (int) ((capacity + (long) chunkMask) >>> chunkBits);
+        if (needed <= nChunks) {
+            return;
+        }
+        if (needed > chunks.length) {
+            // only the chunk references are copied
+            chunks = Arrays.copyOf(chunks, Math.max(needed, 2 * chunks.length));
+        }
+        for (int i = nChunks; i < needed; i++) {
+            chunks[i] = new double[chunkSize];
+        }
+        nChunks = needed;
+    }
+
+    /**
+     * compatibility path for code that requires a contiguous array.
+     * <p>
+     * N.B. returns a flattened copy with length &gt;= size that is cached until the next modification. Writes into
+     * the returned array are not propagated back.
+     *
+     * @return contiguous copy of the elements
+     */
+    public double[] elements() {
+        if (!flattenedValid) {
+            if (flattened.length < size) {
+                flattened = new double[size];
+            }
+            getElements(0, flattened, 0, size);
+            flattenedValid = true;
+        }
+        return flattened;
+    }
+
+    /**
+     * @param chunkIndex chunk index within [0, chunkCount()[
+     * @return raw internal chunk N.B. only the first {@code size - chunkIndex * chunkSize} elements are valid
+     */
+    public double[] getChunk(final int chunkIndex) {
+        return chunks[chunkIndex];
+    }
+
+    /**
+     * @return number of chunks that contain valid elements
+     */
+    public int getChunkCount() {
+        return (size + chunkMask) >>> chunkBits;
+    }
+
+    /**
+     * @return number of elements per chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param index element index N.B. for performance reasons not checked against the size
+     * @return value at index
+     */
+    public double getDouble(final int index) {
+        return chunks[index >>> chunkBits][index & chunkMask];
+    }
+
+    /**
+     * copies elements into the given array
+     *
+     * @param from first element index
+     * @param into destination array
+     * @param offset first destination index
+     * @param length number of elements to be copied
+     */
+    public void getElements(final int from, final double[] into, final int offset, final int length) {
+        checkArray(into, offset, length);
+        checkRange(from, from + length);
+        int index = from;
+        int dst = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            final int chunkOffset = index & chunkMask;
+            final int n = Math.min(remaining, chunkSize - chunkOffset);
+            System.arraycopy(chunks[index >>> chunkBits], chunkOffset, into, dst, n);
+            index += n;
+            dst += n;
+            remaining -= n;
+        }
+    }
+
+    /**
+     * removes the elements in [from, to[ and shifts the following elements
+     *
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    public void removeElements(final int from, final int to) {
+        checkRange(from, to);
+        move(to, from, size - to);
+        size -= to - from;
+        flattenedValid = false;
+    }
+
+    /**
+     * @param index element index within [0, size[
+     * @param value new value
+     */
+    public void set(final int index, final double value) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range [0, " + size + "[");
+        }
+        chunks[index >>> chunkBits][index & chunkMask] = value;
+        flattenedValid = false;
+    }
+
+    /**
+     * overwrites existing elements
+     *
+     * @param index first index to be overwritten
+     * @param values source array
+     * @param offset first source index
+     * @param length number of elements (N.B. index + length must not exceed the size)
+     */
+    public void setElements(final int index, final double[] values, final int offset, final int length) {
+        checkArray(values, offset, length);
+        checkRange(index, index + length);
+        copyFrom(values, offset, index, length);
+    }
+
+    /**
+     * @return number of valid elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * sets the number of valid elements. New elements are initialised with zero.
+     *
+     * @param newSize new size
+     */
+    public void size(final int newSize) {
+        AssertUtils.gtEqThanZero("newSize", newSize);
+        if (newSize > size) {
+            ensureCapacity(newSize);
+            fill(size, newSize);
+        }
+        size = newSize;
+        flattenedValid = false;
+    }
+
+    /**
+     * releases chunks that are not needed to store the present elements
+     */
+    public void trim() {
+        final int needed = getChunkCount();
+        Arrays.fill(chunks, needed, nChunks, null);
+        nChunks = needed;
+        chunks = Arrays.copyOf(chunks, needed);
+        flattened = new double[0];
+        flattenedValid = false;
+    }
+
+    private void checkArray(final double[] array, final int offset, final int length) {
+        AssertUtils.notNull("array", array);
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException(
+                    "offset " + offset + " + length " + length + " exceed array length " + array.length);
+        }
+    }
+
+    private void checkRange(final int from, final int to) {
+        if (from < 0 || from > to || to > size) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + "[ out of bounds [0, " + size + "]");
+        }
+    }
+
+    private void copyFrom(final double[] values, final int offset, final int index, final int length) {
+        int src = offset;
+        int dst = index;
+        int remaining = length;
+        while (remaining > 0) {
+            final int chunkOffset = dst & chunkMask;
+            final int n = Math.min(remaining, chunkSize - chunkOffset);
+            System.arraycopy(values, src, chunks[dst >>> chunkBits], chunkOffset, n);
+            src += n;
+            dst += n;
+            remaining -= n;
+        }
+        flattenedValid = false;
+    }
+
+    private void fill(final int from, final int to) {
+        int index = from;
+        while (index < to) {
+            final int chunkOffset = index & chunkMask;
+            final int n = Math.min(to - index, chunkSize - chunkOffset);
+            Arrays.fill(chunks[index >>> chunkBits], chunkOffset, chunkOffset + n, 0.0);
+            index += n;
+        }
+    }
+
+    private void makeRoom(final int index, final int length) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range [0, " + size + "]");
+        }
+        ensureCapacity(size + length);
+        move(index, index + length, size - index);
+        size += length;
+        flattenedValid = false;
+    }
+
+    private void move(final int src, final int dst, final int length) {
+        if (length <= 0 || src == dst) {
+            return;
+        }
+        if (dst < src) {
+            // forward copy
+            int from = src;
+            int to = dst;
+            int remaining = length;
+            while (remaining > 0) {
+                final int fromOffset = from & chunkMask;
+                final int toOffset = to & chunkMask;
+                final int n = Math.min(remaining, chunkSize - Math.max(fromOffset, toOffset));
+                System.arraycopy(chunks[from >>> chunkBits], fromOffset, chunks[to >>> chunkBits], toOffset, n);
+                from += n;
+                to += n;
+                remaining -= n;
+            }
+            return;
+        }
+        // backward copy (from the end) to cope with overlapping ranges
+        int fromEnd = src + length;
+        int toEnd = dst + length;
+        int remaining = length;
+        while (remaining > 0) {
+            final int fromOffset = ((fromEnd - 1) & chunkMask) + 1;
+            final int toOffset = ((toEnd - 1) & chunkMask) + 1;
+            final int n = Math.min(remaining, Math.min(fromOffset, toOffset));
+            System.arraycopy(chunks[(fromEnd - 1) >>> chunkBits], fromOffset - n, chunks[(toEnd - 1) >>> chunkBits],
+                    toOffset - n, n);
+            fromEnd -= n;
+            toEnd -= n;
+            remaining -= n;
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        chunks = new double[0][];
+        flattened = new double[0];
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            chunks[i >>> chunkBits][i & chunkMask] = in.readDouble();
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(chunks[i >>> chunkBits][i & chunkMask]);
+        }
+    }
+}
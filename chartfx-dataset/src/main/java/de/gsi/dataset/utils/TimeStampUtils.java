@@ -0,0 +1,105 @@
+package de.gsi.dataset.utils;
+
+/**
+ * Conversion kernels for UTC time-stamps stored as {@code long} nanoseconds.
+ * <p>
+ * A {@code double} carries only about 16 significant digits, i.e. absolute UTC nanosecond time-stamps (~1.6e18 ns)
+ * lose their sub-microsecond resolution when being converted to seconds. The kernels below therefore subtract a
+ * common reference (e.g. the axis minimum) using exact {@code long} arithmetic first and convert only the (small)
+ * remainder to {@code double}. This keeps the relative precision of all samples and avoids per-sample rounding jitter.
+ */
+public final class TimeStampUtils {
+    /** number of nanoseconds per second */
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final double SECONDS_PER_NANO = 1e-9;
+
+    private TimeStampUtils() {
+        // utility class
+    }
+
+    /**
+     * @param seconds UTC time in seconds (N.B. resolution is limited by the double mantissa)
+     * @return UTC time in nanoseconds (rounded)
+     */
+    public static long toNanos(final double seconds) {
+        final double fullSeconds = Math.floor(seconds);
+        return (long) fullSeconds * NANOS_PER_SECOND + Math.round((seconds - fullSeconds) * NANOS_PER_SECOND);
+    }
+
+    /**
+     * @param nanos UTC time-stamp in nanoseconds
+     * @return UTC time in seconds (N.B. closest double value, as used by the time axes and {@code DefaultTimeFormatter})
+     */
+    public static double toSeconds(final long nanos) {
+        return Math.floorDiv(nanos, NANOS_PER_SECOND) + Math.floorMod(nanos, NANOS_PER_SECOND) * SECONDS_PER_NANO;
+    }
+
+    /**
+     * bulk conversion to UTC seconds
+     *
+     * @param nanos source UTC time-stamps in nanoseconds
+     * @param from first source index (inclusive)
+     * @param to last source index (exclusive)
+     * @param seconds destination array
+     * @param offset first destination index
+     */
+    public static void toSeconds(final long[] nanos, final int from, final int to, final double[] seconds,
+            final int offset) {
+        checkRange(nanos, from, to, seconds, offset);
+        for (int i = from; i < to; i++) {
+            seconds[offset + i - from] = toSeconds(nanos[i]);
+        }
+    }
+
+    /**
+     * bulk conversion to seconds relative to a common reference time-stamp (exact subtraction)
+     *
+     * @param nanos source UTC time-stamps in nanoseconds
+     * @param from first source index (inclusive)
+     * @param to last source index (exclusive)
+     * @param referenceNanos reference time-stamp in nanoseconds
+     * @param seconds destination array
+     * @param offset first destination index
+     */
+    public static void toRelativeSeconds(final long[] nanos, final int from, final int to, final long referenceNanos,
+            final double[] seconds, final int offset) {
+        checkRange(nanos, from, to, seconds, offset);
+        for (int i = from; i < to; i++) {
+            seconds[offset + i - from] = (nanos[i] - referenceNanos) * SECONDS_PER_NANO;
+        }
+    }
+
+    /**
+     * bulk linear screen transform: {@code screen[i] = originPixel + (nanos[i] - originNanos) * pixelsPerNano}.
+     * <p>
+     * The offset is subtracted in exact {@code long} arithmetic before the scaling so that neighbouring samples remain
+     * distinguishable down to nanosecond resolution independent of the absolute time.
+     *
+     * @param nanos source UTC time-stamps in nanoseconds
+     * @param from first source index (inclusive)
+     * @param to last source index (exclusive)
+     * @param originNanos time-stamp that maps to {@code originPixel}
+     * @param originPixel screen coordinate of {@code originNanos}
+     * @param pixelsPerNano scale (may be negative for inverted axes)
+     * @param screen destination array
+     * @param offset first destination index
+     */
+    public static void toScreen(final long[] nanos, final int from, final int to, final long originNanos,
+            final double originPixel, final double pixelsPerNano, final double[] screen, final int offset) {
+        checkRange(nanos, from, to, screen, offset);
+        for (int i = from; i < to; i++) {
+            screen[offset + i - from] = originPixel + (nanos[i] - originNanos) * pixelsPerNano;
+        }
+    }
+
+    private static void checkRange(final long[] src, final int from, final int to, final double[] dst,
+            final int offset) {
+        AssertUtils.notNull("src", src);
+        AssertUtils.notNull("dst", dst);
+        if (from < 0 || from > to || to > src.length || offset < 0 || offset + to - from > dst.length) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + "[ (src length = " + src.length
+                                                + ") does not fit into dst[" + offset + "...] (length = "
+                                                + dst.length + ")");
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package de.gsi.dataset.utils.trees;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted and indexed container of primitive (key, value columns...) entries implemented as a counted B+-tree.
+ * <p>
+ * In contrast to {@link IndexedTreeSet}, entries are not boxed but stored column-wise in {@code double[]} leaves, while
+ * the inner nodes keep the number of entries of each sub-tree. Thus, inserting (in any key order), removing and the
+ * look-up of an entry by its index (rank) or of the rank of a key are O(log n) with a large fan-out. Sequential index
+ * access (e.g. by renderers) is O(1) via a cached leaf cursor. Appending in key order fills leaves completely.
+ * <p>
+ * Entries with equal keys are stored in insertion order. An optional (sparse) object attachment per entry may hold
+ * rarely used meta data (e.g. labels), leaves allocate their attachment storage only on first use.
+ * <p>
+ * <strong>Note that this implementation is not synchronized.</strong>
+ */
+public class IndexedDoubleTree {
+    /** default maximum number of entries per leaf */
+    public static final int DEFAULT_LEAF_CAPACITY = 256;
+    /** default maximum number of children per inner node */
+    public static final int DEFAULT_NODE_CAPACITY = 64;
+    private final int nColumns;
+    private final int leafCapacity;
+    private final int nodeCapacity;
+    private Node root;
+    private Cursor cursor;
+    private int insertIndex;
+
+    /**
+     * @param nColumns number of value columns besides the key
+     */
+    public IndexedDoubleTree(final int nColumns) {
+        this(nColumns, DEFAULT_LEAF_CAPACITY, DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * @param nColumns number of value columns besides the key
+     * @param leafCapacity maximum number of entries per leaf
+     * @param nodeCapacity maximum number of children per inner node
+     */
+    public IndexedDoubleTree(final int nColumns, final int leafCapacity, final int nodeCapacity) {
+        if (nColumns < 0) {
+            throw new IllegalArgumentException("nColumns '" + nColumns + "' must be >= 0");
+        }
+        if (leafCapacity < 4 || nodeCapacity < 4) {
+            throw new IllegalArgumentException(
+                    "leafCapacity '" + leafCapacity + "' and nodeCapacity '" + nodeCapacity + "' must be >= 4");
+        }
+        this.nColumns = nColumns;
+        this.leafCapacity = leafCapacity;
+        this.nodeCapacity = nodeCapacity;
+        root = new Leaf();
+    }
+
+    /**
+     * Inserts a new entry after all entries with an equal key
+     *
+     * @param key the sort key
+     * @param values the value columns (length &gt;= number of columns)
+     * @return index of the inserted entry
+     */
+    public int add(final double key, final double... values) {
+        if (values.length < nColumns) {
+            throw new IllegalArgumentException("values length " + values.length + " < " + nColumns);
+        }
+        cursor = null;
+        final Node sibling = insert(root, key, values, 0);
+        if (sibling != null) {
+            final Inner newRoot = new Inner();
+            newRoot.insertChild(0, root, Double.NEGATIVE_INFINITY);
+            newRoot.insertChild(1, sibling, sibling.firstKey());
+            root = newRoot;
+        }
+        return insertIndex;
+    }
+
+    /**
+     * removes all entries
+     */
+    public void clear() {
+        cursor = null;
+        root = new Leaf();
+    }
+
+    /**
+     * @param key the sort key
+     * @return {@code true} if an entry with the given key exists
+     */
+    public boolean contains(final double key) {
+        final int index = indexOf(key);
+        return index < size() && getKey(index) == key;
+    }
+
+    /**
+     * @return smallest key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public double firstKey() {
+        if (size() == 0) {
+            throw new NoSuchElementException("tree is empty");
+        }
+        return getKey(0);
+    }
+
+    /**
+     * @param index the entry index
+     * @return attachment of the entry (or {@code null})
+     */
+    public Object getAttachment(final int index) {
+        final Cursor c = locate(index);
+        return c.leaf.attachments == null ? null : c.leaf.attachments[index - c.start];
+    }
+
+    /**
+     * @return number of value columns besides the key
+     */
+    public int getColumnCount() {
+        return nColumns;
+    }
+
+    /**
+     * @param index the entry index
+     * @return key of the entry
+     */
+    public double getKey(final int index) {
+        final Cursor c = locate(index);
+        return c.leaf.keys[index - c.start];
+    }
+
+    /**
+     * @param column the value column
+     * @param index the entry index
+     * @return value of the entry
+     */
+    public double getValue(final int column, final int index) {
+        final Cursor c = locate(index);
+        return c.leaf.values[column][index - c.start];
+    }
+
+    /**
+     * @param key the sort key
+     * @return index of the first entry with a key greater or equal than the given key ({@link #size()} if none)
+     */
+    public int indexOf(final double key) {
+        Node node = root;
+        int rank = 0;
+        while (node instanceof Inner) {
+            final Inner inner = (Inner) node;
+            // last child whose separator is strictly smaller than the key
+            int child = 0;
+            while (child + 1 < inner.n && inner.separators[child + 1] < key) {
+                rank += inner.counts[child];
+                child++;
+            }
+            node = inner.children[child];
+        }
+        final Leaf leaf = (Leaf) node;
+        int low = 0;
+        int high = leaf.n;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (leaf.keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return rank + low;
+    }
+
+    /**
+     * @return largest key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public double lastKey() {
+        if (size() == 0) {
+            throw new NoSuchElementException("tree is empty");
+        }
+        return getKey(size() - 1);
+    }
+
+    /**
+     * @param index index of the entry to be removed
+     */
+    public void remove(final int index) {
+        removeRange(index, index + 1);
+    }
+
+    /**
+     * @param fromIndex first entry to be removed (inclusive)
+     * @param toIndex last entry to be removed (exclusive)
+     */
+    public void removeRange(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("range [" + fromIndex + ", " + toIndex + ") size " + size());
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        cursor = null;
+        remove(root, fromIndex, toIndex);
+        // shrink tree height
+        while (root instanceof Inner && ((Inner) root).n <= 1) {
+            root = ((Inner) root).n == 0 ? new Leaf() : ((Inner) root).children[0];
+        }
+    }
+
+    /**
+     * @param index the entry index
+     * @param attachment new attachment of the entry (may be {@code null})
+     */
+    public void setAttachment(final int index, final Object attachment) {
+        final Cursor c = locate(index);
+        if (c.leaf.attachments == null) {
+            if (attachment == null) {
+                return;
+            }
+            c.leaf.attachments = new Object[leafCapacity];
+        }
+        c.leaf.attachments[index - c.start] = attachment;
+    }
+
+    /**
+     * N.B. the key of an entry cannot be modified (remove and add the entry instead)
+     *
+     * @param column the value column
+     * @param index the entry index
+     * @param value new value of the entry
+     */
+    public void setValue(final int column, final int index, final double value) {
+        final Cursor c = locate(index);
+        c.leaf.values[column][index - c.start] = value;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return root.size();
+    }
+
+    private Node insert(final Node node, final double key, final double[] values, final int rank) {
+        if (node instanceof Leaf) {
+            final Leaf leaf = (Leaf) node;
+            int low = 0;
+            int high = leaf.n;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (leaf.keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            insertIndex = rank + low;
+            return leaf.insert(low, key, values);
+        }
+        final Inner inner = (Inner) node;
+        // last child whose separator is smaller or equal than the key
+        int child = 0;
+        int childRank = rank;
+        while (child + 1 < inner.n && inner.separators[child + 1] <= key) {
+            childRank += inner.counts[child];
+            child++;
+        }
+        final Node sibling = insert(inner.children[child], key, values, childRank);
+        inner.counts[child]++;
+        inner.total++;
+        if (sibling == null) {
+            return null;
+        }
+        inner.counts[child] -= sibling.size();
+        inner.total -= sibling.size();
+        inner.insertChild(child + 1, sibling, sibling.firstKey());
+        return inner.n == nodeCapacity ? inner.split(child + 1 == inner.n - 1) : null;
+    }
+
+    private Cursor locate(final int index) {
+        final Cursor c = cursor;
+        if (c != null && index >= c.start) {
+            final int end = c.start + c.leaf.n;
+            if (index < end) {
+                return c;
+            }
+            if (c.leaf.next != null && index < end + c.leaf.next.n) {
+                // sequential access
+                final Cursor nextCursor = new Cursor(c.leaf.next, end);
+                cursor = nextCursor;
+                return nextCursor;
+            }
+        }
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size());
+        }
+        Node node = root;
+        int start = 0;
+        int local = index;
+        while (node instanceof Inner) {
+            final Inner inner = (Inner) node;
+            int child = 0;
+            while (local >= inner.counts[child]) {
+                local -= inner.counts[child];
+                start += inner.counts[child];
+                child++;
+            }
+            node = inner.children[child];
+        }
+        final Cursor newCursor = new Cursor((Leaf) node, start);
+        cursor = newCursor;
+        return newCursor;
+    }
+
+    private int remove(final Node node, final int from, final int to) {
+        if (node instanceof Leaf) {
+            ((Leaf) node).remove(from, to);
+            return to - from;
+        }
+        final Inner inner = (Inner) node;
+        int removed = 0;
+        int childStart = 0;
+        for (int child = 0; child < inner.n && childStart < to - removed;) {
+            final int childSize = inner.counts[child];
+            final int localFrom = Math.max(0, from - childStart);
+            final int localTo = Math.min(childSize, to - removed - childStart);
+            if (localFrom < localTo) {
+                final int childRemoved = remove(inner.children[child], localFrom, localTo);
+                removed += childRemoved;
+                inner.counts[child] -= childRemoved;
+                inner.total -= childRemoved;
+                if (inner.counts[child] == 0) {
+                    inner.removeChild(child);
+                    continue;
+                }
+            }
+            childStart += inner.counts[child];
+            child++;
+        }
+        return removed;
+    }
+
+    private static final class Cursor {
+        private final Leaf leaf;
+        private final int start;
+
+        private Cursor(final Leaf leaf, final int start) {
+            this.leaf = leaf;
+            this.start = start;
+        }
+    }
+
+    private final class Inner extends Node {
+        private final Node[] children = new Node[nodeCapacity];
+        private final int[] counts = new int[nodeCapacity];
+        // lower key bound of each child (N.B. the first separator is not used for routing)
+        private final double[] separators = new double[nodeCapacity];
+        private int n;
+        private int total;
+
+        @Override
+        double firstKey() {
+            return separators[0];
+        }
+
+        private void insertChild(final int index, final Node child, final double separator) {
+            System.arraycopy(children, index, children, index + 1, n - index);
+            System.arraycopy(counts, index, counts, index + 1, n - index);
+            System.arraycopy(separators, index, separators, index + 1, n - index);
+            children[index] = child;
+            counts[index] = child.size();
+            separators[index] = separator;
+            total += counts[index];
+            n++;
+        }
+
+        private void removeChild(final int index) {
+            final Node child = children[index];
+            if (child instanceof Leaf) {
+                ((Leaf) child).unlink();
+            }
+            total -= counts[index];
+            System.arraycopy(children, index + 1, children, index, n - index - 1);
+            System.arraycopy(counts, index + 1, counts, index, n - index - 1);
+            System.arraycopy(separators, index + 1, separators, index, n - index - 1);
+            n--;
+            children[n] = null;
+        }
+
+        @Override
+        int size() {
+            return total;
+        }
+
+        private Inner split(final boolean append) {
+            // N.B. for appending keep the left node full
+            final int mid = append ? n - 1 : n / 2;
+            final Inner right = new Inner();
+            for (int i = mid; i < n; i++) {
+                right.insertChild(i - mid, children[i], separators[i]);
+                total -= counts[i];
+                children[i] = null;
+            }
+            n = mid;
+            return right;
+        }
+    }
+
+    private final class Leaf extends Node {
+        private final double[] keys = new double[leafCapacity];
+        private final double[][] values = new double[nColumns][leafCapacity];
+        private Object[] attachments;
+        private int n;
+        private Leaf next;
+        private Leaf prev;
+
+        @Override
+        double firstKey() {
+            return keys[0];
+        }
+
+        private Leaf insert(final int index, final double key, final double[] newValues) {
+            System.arraycopy(keys, index, keys, index + 1, n - index);
+            keys[index] = key;
+            for (int column = 0; column < nColumns; column++) {
+                System.arraycopy(values[column], index, values[column], index + 1, n - index);
+                values[column][index] = newValues[column];
+            }
+            if (attachments != null) {
+                System.arraycopy(attachments, index, attachments, index + 1, n - index);
+                attachments[index] = null;
+            }
+            n++;
+            return n == leafCapacity ? split(index == n - 1) : null;
+        }
+
+        private void remove(final int from, final int to) {
+            final int length = n - to;
+            System.arraycopy(keys, to, keys, from, length);
+            for (int column = 0; column < nColumns; column++) {
+                System.arraycopy(values[column], to, values[column], from, length);
+            }
+            if (attachments != null) {
+                System.arraycopy(attachments, to, attachments, from, length);
+                Arrays.fill(attachments, from + length, n, null);
+            }
+            n -= to - from;
+        }
+
+        @Override
+        int size() {
+            return n;
+        }
+
+        private Leaf split(final boolean append) {
+            // N.B. for appending keep the left leaf full
+            final int mid = append ? n - 1 : n / 2;
+            final Leaf right = new Leaf();
+            final int length = n - mid;
+            System.arraycopy(keys, mid, right.keys, 0, length);
+            for (int column = 0; column < nColumns; column++) {
+                System.arraycopy(values[column], mid, right.values[column], 0, length);
+            }
+            if (attachments != null) {
+                right.attachments = new Object[leafCapacity];
+                System.arraycopy(attachments, mid, right.attachments, 0, length);
+                Arrays.fill(attachments, mid, n, null);
+            }
+            right.n = length;
+            n = mid;
+            right.next = next;
+            right.prev = this;
+            if (next != null) {
+                next.prev = right;
+            }
+            next = right;
+            return right;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            prev = null;
+            next = null;
+        }
+    }
+
+    private abstract static class Node {
+        abstract double firstKey();
+
+        abstract int size();
+    }
+}
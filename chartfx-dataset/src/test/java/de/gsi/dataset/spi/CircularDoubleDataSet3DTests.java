@@ -0,0 +1,134 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+import static de.gsi.dataset.DataSet.DIM_Z;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.UpdateEvent;
+
+/**
+ * Checks for the ring-buffered {@link CircularDoubleDataSet3D}
+ */
+public class CircularDoubleDataSet3DTests {
+    private static final int N_X = 16;
+    private static final int CAPACITY = 10;
+
+    private static double[] getRow(final int rowIndex) {
+        final double[] row = new double[N_X];
+        for (int i = 0; i < N_X; i++) {
+            // large values for the first rows, so that dropping them forces a z range rescan
+            row[i] = (rowIndex < 3 ? 1000.0 : 0.0) + Math.sin(0.1 * rowIndex + i) * rowIndex;
+        }
+        return row;
+    }
+
+    @Test
+    public void testConstructors() {
+        final CircularDoubleDataSet3D dataSet = new CircularDoubleDataSet3D("test", N_X, CAPACITY);
+        assertEquals("test", dataSet.getName());
+        assertEquals(3, dataSet.getDimension());
+        assertEquals(CAPACITY, dataSet.getCapacity());
+        assertEquals(N_X, dataSet.getDataCount(DIM_X));
+        assertEquals(0, dataSet.getDataCount(DIM_Y));
+        assertEquals(0, dataSet.getDataCount());
+        assertEquals(N_X - 1.0, dataSet.getX(N_X - 1));
+        assertEquals(N_X - 1.0, dataSet.getAxisDescription(DIM_X).getMax());
+
+        assertThrows(IllegalArgumentException.class, () -> new CircularDoubleDataSet3D("test", N_X, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CircularDoubleDataSet3D("test", null, CAPACITY));
+        assertThrows(IllegalArgumentException.class, () -> dataSet.pushRow(new double[N_X - 1]));
+        assertThrows(IllegalArgumentException.class, () -> dataSet.setXValues(new double[N_X + 1]));
+    }
+
+    @Test
+    public void testPushRow() {
+        final CircularDoubleDataSet3D dataSet = new CircularDoubleDataSet3D("test", N_X, CAPACITY);
+        final List<UpdateEvent> events = new ArrayList<>();
+        dataSet.addListener(evt -> {
+            if (evt instanceof AddedDataEvent) {
+                events.add(evt);
+            }
+        });
+
+        for (int row = 0; row < 3 * CAPACITY + 3; row++) {
+            dataSet.pushRow(10.0 * row, getRow(row));
+            final int nRows = Math.min(row + 1, CAPACITY);
+            assertEquals(row + 1L, dataSet.getPushCount());
+            assertEquals(nRows, dataSet.getDataCount(DIM_Y));
+            assertEquals(nRows * N_X, dataSet.getDataCount(DIM_Z));
+
+            // oldest row first
+            final int firstRow = row + 1 - nRows;
+            for (int y = 0; y < nRows; y++) {
+                assertEquals(10.0 * (firstRow + y), dataSet.getY(y));
+                final double[] expected = getRow(firstRow + y);
+                for (int x = 0; x < N_X; x++) {
+                    assertEquals(expected[x], dataSet.getZ(x, y));
+                    assertEquals(expected[x], dataSet.get(DIM_Z, y * N_X + x));
+                }
+            }
+
+            // incrementally maintained ranges must match a full rescan
+            final double zMin = dataSet.getAxisDescription(DIM_Z).getMin();
+            final double zMax = dataSet.getAxisDescription(DIM_Z).getMax();
+            assertEquals(10.0 * firstRow, dataSet.getAxisDescription(DIM_Y).getMin());
+            assertEquals(10.0 * row, dataSet.getAxisDescription(DIM_Y).getMax());
+            double refMin = Double.MAX_VALUE;
+            double refMax = -Double.MAX_VALUE;
+            for (int y = 0; y < nRows; y++) {
+                for (int x = 0; x < N_X; x++) {
+                    refMin = Math.min(refMin, dataSet.getZ(x, y));
+                    refMax = Math.max(refMax, dataSet.getZ(x, y));
+                }
+            }
+            assertEquals(refMin, zMin);
+            assertEquals(refMax, zMax);
+        }
+        assertEquals(3 * CAPACITY + 3, events.size());
+        assertTrue(dataSet.getAxisDescription(DIM_Z).getMax() < 1000.0);
+
+        // index look-up on the (sorted) rolling y axis
+        assertEquals(0, dataSet.getIndex(DIM_Y, 0.0));
+        assertEquals(5, dataSet.getIndex(DIM_Y, 10.0 * (3 * CAPACITY + 3 - CAPACITY + 5)));
+
+        dataSet.clearData();
+        assertEquals(0, dataSet.getDataCount(DIM_Y));
+        assertEquals(3L * CAPACITY + 3, dataSet.getPushCount());
+        dataSet.pushRow(getRow(5));
+        assertEquals(1, dataSet.getDataCount(DIM_Y));
+        assertEquals(3.0 * CAPACITY + 3, dataSet.getY(0));
+        assertEquals(getRow(5)[2], dataSet.getZ(2, 0));
+    }
+
+    @Test
+    public void testSet() {
+        final CircularDoubleDataSet3D dataSet = new CircularDoubleDataSet3D("test", N_X, CAPACITY);
+        for (int row = 0; row < CAPACITY + 4; row++) {
+            dataSet.pushRow(getRow(row));
+        }
+        dataSet.set(3, 2, -42.0);
+        assertEquals(-42.0, dataSet.getZ(3, 2));
+        assertEquals(-42.0, dataSet.getAxisDescription(DIM_Z).getMin());
+        dataSet.set(3, 2, 0.0);
+        assertTrue(dataSet.getAxisDescription(DIM_Z).getMin() > -42.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> dataSet.set(0, CAPACITY, 1.0));
+
+        final double[] xValues = new double[N_X];
+        for (int i = 0; i < N_X; i++) {
+            xValues[i] = 0.5 * i;
+        }
+        dataSet.setXValues(xValues);
+        assertEquals(0.5 * (N_X - 1), dataSet.getAxisDescription(DIM_X).getMax());
+        assertEquals(CAPACITY, dataSet.getDataCount(DIM_Y));
+    }
+}
@@ -76,4 +76,29 @@ public class CircularDoubleErrorDataSetTests {
         assertThrows(UnsupportedOperationException.class, () -> dataSet.addDataLabel(0, "addedLabel"));
         assertThrows(UnsupportedOperationException.class, () -> dataSet.addDataStyle(0, "color:green"));
     }
+
+    @Test
+    public void rangeTrackingTests() {
+        final CircularDoubleErrorDataSet dataSet = new CircularDoubleErrorDataSet("test", 50);
+        for (int i = 0; i < 500; i++) {
+            final double y = Math.sin(0.1 * i) * (1 + 0.01 * i);
+            if (i % 7 == 0) {
+                dataSet.add(new double[] { i, i + 0.5 }, new double[] { y, -y }, new double[] { 0.1, 0.2 },
+                        new double[] { 0.3, 0.4 });
+            } else {
+                dataSet.add(i, y, 0.1, 0.2);
+            }
+            // compare incrementally maintained ranges with a full re-computation
+            final double xMin = dataSet.getAxisDescription(DIM_X).getMin();
+            final double xMax = dataSet.getAxisDescription(DIM_X).getMax();
+            final double yMin = dataSet.getAxisDescription(DIM_Y).getMin();
+            final double yMax = dataSet.getAxisDescription(DIM_Y).getMax();
+            dataSet.recomputeLimits(DIM_X);
+            dataSet.recomputeLimits(DIM_Y);
+            assertEquals(dataSet.getAxisDescription(DIM_X).getMin(), xMin, "xMin @" + i);
+            assertEquals(dataSet.getAxisDescription(DIM_X).getMax(), xMax, "xMax @" + i);
+            assertEquals(dataSet.getAxisDescription(DIM_Y).getMin(), yMin, "yMin @" + i);
+            assertEquals(dataSet.getAxisDescription(DIM_Y).getMax(), yMax, "yMax @" + i);
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.UpdateEvent;
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+
+/**
+ * Checks for the lock-free single-producer/multi-consumer {@link ConcurrentCircularDoubleErrorDataSet}
+ */
+public class ConcurrentCircularDoubleErrorDataSetTests {
+    private static final int CAPACITY = 1000;
+
+    @Test
+    public void testDataSetView() {
+        final ConcurrentCircularDoubleErrorDataSet dataSet = new ConcurrentCircularDoubleErrorDataSet("test", CAPACITY);
+        final List<UpdateEvent> events = new ArrayList<>();
+        dataSet.addListener(events::add);
+        for (int i = 0; i < 100; i++) {
+            dataSet.add(i, 2.0 * i, 0.1, 0.2);
+        }
+        // producer does not notify, the view is updated by flush()
+        assertTrue(events.isEmpty());
+        assertEquals(0, dataSet.getDataCount());
+        assertEquals(100, dataSet.getSequenceNumber());
+
+        assertTrue(dataSet.flush());
+        assertFalse(dataSet.flush());
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof AddedDataEvent);
+        assertEquals(100, dataSet.getDataCount());
+        assertEquals(99.0, dataSet.get(DIM_X, 99));
+        assertEquals(198.0, dataSet.get(DIM_Y, 99));
+        assertEquals(0.1, dataSet.getErrorNegative(DIM_Y, 5));
+        assertEquals(0.2, dataSet.getErrorPositive(DIM_Y, 5));
+        assertEquals(0.0, dataSet.getErrorPositive(DIM_X, 5));
+        assertEquals(-0.1, dataSet.getAxisDescription(DIM_Y).getMin(), 1e-12);
+        assertEquals(198.2, dataSet.getAxisDescription(DIM_Y).getMax(), 1e-12);
+
+        // wrap-around via bulk publish: only the latest 'capacity' samples are exposed
+        final int n = 2500;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 100 + i;
+            y[i] = 2.0 * x[i];
+        }
+        dataSet.add(x, y, new double[n], new double[n], n);
+        assertTrue(dataSet.flush());
+        assertEquals(CAPACITY, dataSet.getDataCount());
+        assertEquals(2600.0 - CAPACITY, dataSet.get(DIM_X, 0));
+        assertEquals(2599.0, dataSet.get(DIM_X, CAPACITY - 1));
+        assertEquals(2600 - 1024, dataSet.getOldestSequenceNumber());
+
+        // window snapshots
+        final double[] snapshotX = new double[100];
+        assertEquals(2000, dataSet.snapshot(2000, 2100, snapshotX, null, null, null));
+        assertEquals(2000.0, snapshotX[0]);
+        assertEquals(2600 - 1024, dataSet.snapshot(0, 1600, new double[1600], null, null, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> dataSet.snapshot(0, 2601, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> dataSet.snapshot(2000, 2200, snapshotX, null, null, null));
+        assertThrows(UnsupportedOperationException.class, () -> dataSet.addDataLabel(0, "label"));
+    }
+
+    @Test
+    public void testConcurrentSnapshots() throws Exception {
+        final int nSamples = 2_000_000;
+        final int nReaders = 3;
+        final int window = 700;
+        final ConcurrentCircularDoubleErrorDataSet dataSet = new ConcurrentCircularDoubleErrorDataSet("test", CAPACITY);
+        final List<Callable<Long>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            for (int i = 0; i < nSamples; i++) {
+                dataSet.add(i, -i, 0.5 * i, 2.0 * i);
+            }
+            return (long) nSamples;
+        });
+        for (int r = 0; r < nReaders; r++) {
+            tasks.add(() -> {
+                final double[] x = new double[window];
+                final double[] y = new double[window];
+                final double[] eyn = new double[window];
+                final double[] eyp = new double[window];
+                long nChecked = 0;
+                while (dataSet.getSequenceNumber() < nSamples) {
+                    final long to = dataSet.getSequenceNumber();
+                    final long from = Math.max(0, to - window);
+                    final long first = dataSet.snapshot(from, to, x, y, eyn, eyp);
+                    for (int i = 0; i < to - first; i++) {
+                        // every copied sample must be consistent (not torn) and in sequence
+                        final double expected = first + i;
+                        if (x[i] != expected || y[i] != -expected || eyn[i] != 0.5 * expected
+                                || eyp[i] != 2.0 * expected) {
+                            throw new IllegalStateException("inconsistent sample at sequence " + expected);
+                        }
+                    }
+                    nChecked += to - first;
+                }
+                return nChecked;
+            });
+        }
+        for (final Future<Long> future : CachedDaemonThreadFactory.getCommonPool().invokeAll(tasks)) {
+            assertTrue(future.get() >= 0);
+        }
+        assertEquals(nSamples, dataSet.getSequenceNumber());
+        assertTrue(dataSet.flush());
+        assertEquals(CAPACITY, dataSet.getDataCount());
+        assertEquals(nSamples - 1.0, dataSet.get(DIM_X, CAPACITY - 1));
+    }
+}
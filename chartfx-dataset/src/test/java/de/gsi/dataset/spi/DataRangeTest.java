@@ -184,6 +184,32 @@ public class DataRangeTest {
         }
     }
 
+    @Test
+    public void testRemoveMethods() {
+        final DataRange test1 = new DataRange(-1.0, +1.0);
+        // interior and non-finite values leave the range untouched
+        assertFalse(test1.remove(0.5));
+        assertFalse(test1.remove(Double.NaN));
+        assertTrue(test1.isDefined());
+        assertEquals(-1.0, test1.getMin());
+        assertEquals(+1.0, test1.getMax());
+
+        // boundary values invalidate the range
+        assertTrue(test1.remove(+1.0));
+        assertFalse(test1.isDefined());
+        assertFalse(test1.remove(0.0));
+
+        final DataRange test2 = new DataRange(-1.0, +1.0);
+        assertFalse(test2.remove(new double[] { -2.0, 0.0, 0.5 }, 1, 3));
+        assertTrue(test2.isDefined());
+        assertTrue(test2.remove(new double[] { -2.0, 0.0, 0.5 }, 0, 3));
+        assertFalse(test2.isDefined());
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.atDebug().log("finished testRemoveMethods()");
+        }
+    }
+
     @Test
     public void testSetMethods() {
 
@@ -1,6 +1,7 @@
 package de.gsi.dataset.spi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -121,6 +122,47 @@ public class DoubleDataSetTests extends EditableDataSetTests {
         }
     }
 
+    @Test
+    public void chunkedStorageTests() {
+        EditableDataSetTests.checkEditableDataSetInterface(new DoubleDataSet("test", 0, true));
+
+        final DoubleDataSet contiguous = new DoubleDataSet("test");
+        final DoubleDataSet chunked = new DoubleDataSet("test", 10, true);
+        assertTrue(chunked.isChunkedStorage());
+        assertFalse(contiguous.isChunkedStorage());
+        assertTrue(chunked.getCapacity() >= 10);
+        for (int i = 0; i < 3 * 65536; i++) {
+            contiguous.add(i, Math.sin(0.01 * i));
+            chunked.add(i, Math.sin(0.01 * i));
+        }
+        contiguous.add(0, testCoordinate[0], testCoordinate[1]);
+        chunked.add(0, testCoordinate[0], testCoordinate[1]);
+        contiguous.add(2, -1.0, -2.0, "label");
+        chunked.add(2, -1.0, -2.0, "label");
+        contiguous.remove(100, 70_000);
+        chunked.remove(100, 70_000);
+        contiguous.set(5, 42.0, 43.0);
+        chunked.set(5, 42.0, 43.0);
+        contiguous.set(7, testCoordinate[0], testCoordinate[1]);
+        chunked.set(7, testCoordinate[0], testCoordinate[1]);
+        assertEquals(contiguous, chunked);
+        assertEquals("label", chunked.getDataLabel(2));
+        assertEquals(contiguous.getAxisDescription(DIM_Y).getMin(), chunked.getAxisDescription(DIM_Y).getMin());
+
+        // compatibility path
+        final double[] yValues = chunked.getValues(DIM_Y);
+        for (int i = 0; i < chunked.getDataCount(); i++) {
+            assertEquals(contiguous.get(DIM_Y, i), yValues[i]);
+        }
+
+        chunked.trim();
+        assertTrue(chunked.getCapacity() >= chunked.getDataCount());
+        chunked.set(testCoordinate[0], testCoordinate[1]);
+        assertEquals(new DoubleDataSet("test", testCoordinate[0], testCoordinate[1], n, true), chunked);
+        chunked.clearData();
+        assertEquals(0, chunked.getDataCount());
+    }
+
     @Test
     public void trimTest() {
         DoubleDataSet dataSet = new DoubleDataSet("test");
@@ -152,6 +194,30 @@ public class DoubleDataSetTests extends EditableDataSetTests {
         assertEquals(firstDataSet, thirdDataSet);
     }
 
+    @Test
+    public void rangeTests() {
+        for (final boolean chunked : new boolean[] { false, true }) {
+            final DoubleDataSet dataSet = new DoubleDataSet("test", 10, chunked);
+            dataSet.add(new double[] { 1.0, 2.0, 3.0, 4.0 }, new double[] { 10.0, 40.0, 20.0, 30.0 });
+            assertEquals(10.0, dataSet.getAxisDescription(DIM_Y).getMin());
+            assertEquals(40.0, dataSet.getAxisDescription(DIM_Y).getMax());
+
+            // removing the extremum invalidates the range, a following add must not partially re-fill it
+            dataSet.remove(1, 2);
+            dataSet.add(5.0, 25.0);
+            assertEquals(1.0, dataSet.getAxisDescription(DIM_X).getMin());
+            assertEquals(5.0, dataSet.getAxisDescription(DIM_X).getMax());
+            assertEquals(10.0, dataSet.getAxisDescription(DIM_Y).getMin());
+            assertEquals(30.0, dataSet.getAxisDescription(DIM_Y).getMax());
+
+            dataSet.remove(0, 1);
+            dataSet.add(0, new double[] { 0.5 }, new double[] { 15.0 });
+            dataSet.add(new double[] { 6.0 }, new double[] { 35.0 });
+            assertEquals(15.0, dataSet.getAxisDescription(DIM_Y).getMin());
+            assertEquals(35.0, dataSet.getAxisDescription(DIM_Y).getMax());
+        }
+    }
+
     @Test
     public void getterTests() {
         final DoubleDataSet dataSet = new DoubleDataSet("test", testCoordinate[0], testCoordinate[1], n, true);
@@ -172,6 +238,58 @@ public class DoubleDataSetTests extends EditableDataSetTests {
         }
     }
 
+    @Test
+    public void indexSearchTests() {
+        final int nSamples = 1000;
+        final DoubleDataSet dataSet = new DoubleDataSet("test", nSamples);
+        for (int i = 0; i < nSamples; i++) {
+            dataSet.add(0.5 * i, Math.sin(0.1 * i));
+        }
+        assertTrue(dataSet.isSorted(DIM_X));
+        assertFalse(dataSet.isSorted(DIM_Y));
+        assertFalse(dataSet.isEquiDistant(DIM_X));
+
+        for (final boolean equiDistant : new boolean[] { false, true }) {
+            dataSet.setEquiDistant(DIM_X, equiDistant);
+            assertEquals(equiDistant, dataSet.isEquiDistant(DIM_X));
+            assertEquals(0, dataSet.getIndex(DIM_X, -10.0));
+            assertEquals(nSamples - 1, dataSet.getIndex(DIM_X, 1e6));
+            assertEquals(0, dataSet.getIndex(DIM_X, Double.NaN));
+            for (int i = 0; i < nSamples; i++) {
+                assertEquals(i, dataSet.getIndex(DIM_X, 0.5 * i));
+                assertEquals(i, dataSet.getIndex(DIM_X, 0.5 * i + 0.2));
+                assertEquals(i, dataSet.getIndex(DIM_X, 0.5 * i - 0.2));
+            }
+        }
+
+        // appending keeps the equidistant declaration
+        dataSet.add(0.5 * nSamples, 0.0);
+        assertTrue(dataSet.isEquiDistant(DIM_X));
+        assertEquals(nSamples, dataSet.getIndex(DIM_X, 0.5 * nSamples));
+        dataSet.remove(nSamples, nSamples + 1);
+
+        // stale declarations fall back to the binary search
+        for (int i = 0; i < nSamples; i++) {
+            dataSet.getXValues()[i] = i < nSamples / 2 ? 0.1 * i : 0.9 * i;
+        }
+        dataSet.setEquiDistant(DIM_X, true);
+        assertEquals(10, dataSet.getIndex(DIM_X, 1.0));
+        assertEquals(nSamples - 1, dataSet.getIndex(DIM_X, 0.9 * nSamples));
+        assertEquals(nSamples / 2 + 10, dataSet.getIndex(DIM_X, 0.9 * (nSamples / 2 + 10)));
+        assertFalse(dataSet.isSorted(-1));
+        assertFalse(dataSet.isEquiDistant(-1));
+
+        // unsorted data -- linear closest search
+        final DoubleDataSet unsorted = new DoubleDataSet("unsorted", new double[] { 3.0, 1.0, 4.0, 2.0 },
+                new double[] { 1.0, 2.0, 3.0, 4.0 }, 4, true);
+        unsorted.setSorted(DIM_X, false);
+        assertFalse(unsorted.isSorted(DIM_X));
+        assertEquals(1, unsorted.getIndex(DIM_X, 0.9));
+        assertEquals(3, unsorted.getIndex(DIM_X, 2.1));
+        assertEquals(2, unsorted.getIndex(DIM_X, 10.0));
+        assertEquals(0, unsorted.getIndex(DIM_Y, 0.0));
+    }
+
     @Test
     public void mixedErrorNonErrorDataSetTests() {
         final DoubleDataSet dataSet1 = new DoubleDataSet("test", testCoordinate[0], testCoordinate[1],
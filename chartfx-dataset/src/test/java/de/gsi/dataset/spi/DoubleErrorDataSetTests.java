@@ -138,6 +138,50 @@ public class DoubleErrorDataSetTests extends EditableDataSetTests {
         }
     }
 
+    @Test
+    public void chunkedStorageTests() {
+        EditableDataSetTests.checkEditableDataSetInterface(new DoubleErrorDataSet("test", 0, true));
+
+        final DoubleErrorDataSet contiguous = new DoubleErrorDataSet("test");
+        final DoubleErrorDataSet chunked = new DoubleErrorDataSet("test", 10, true);
+        assertTrue(chunked.isChunkedStorage());
+        for (int i = 0; i < 3 * 65536; i++) {
+            contiguous.add(i, Math.sin(0.01 * i), 0.1, 0.2);
+            chunked.add(i, Math.sin(0.01 * i), 0.1, 0.2);
+        }
+        contiguous.add(0, testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        chunked.add(0, testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        contiguous.add(testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        chunked.add(testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        contiguous.add(2, -1.0, -2.0, 0.5, 0.6, "label");
+        chunked.add(2, -1.0, -2.0, 0.5, 0.6, "label");
+        contiguous.remove(100, 70_000);
+        chunked.remove(100, 70_000);
+        contiguous.set(5, 42.0, 43.0, 0.3, 0.4);
+        chunked.set(5, 42.0, 43.0, 0.3, 0.4);
+        contiguous.set(7, testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        chunked.set(7, testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        assertEquals(contiguous, chunked);
+        assertEquals("label", chunked.getDataLabel(2));
+        assertEquals(0.6, chunked.getErrorPositive(DIM_Y, 2));
+        assertEquals(0.5, chunked.getErrorNegative(DIM_Y, 2));
+
+        // compatibility path
+        final double[] errors = chunked.getErrorsPositive(DIM_Y);
+        final double[] xValues = chunked.getXValues();
+        for (int i = 0; i < chunked.getDataCount(); i++) {
+            assertEquals(contiguous.getErrorPositive(DIM_Y, i), errors[i]);
+            assertEquals(contiguous.getX(i), xValues[i]);
+        }
+
+        chunked.trim();
+        chunked.set(testCoordinate[0], testCoordinate[1], testEYN, testEYP);
+        assertEquals(new DoubleErrorDataSet("test", testCoordinate[0], testCoordinate[1], testEYN, testEYP, n, true),
+                chunked);
+        chunked.clearData();
+        assertEquals(0, chunked.getDataCount());
+    }
+
     @Test
     public void trimTest() {
         DoubleErrorDataSet dataSet = new DoubleErrorDataSet("test");
@@ -0,0 +1,197 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.event.AddedDataEvent;
+import de.gsi.dataset.event.UpdateEvent;
+import de.gsi.dataset.utils.CachedDaemonThreadFactory;
+
+/**
+ * Checks for the bulk and concurrent filling of {@link Histogram}, {@link Histogram2} and {@link ConcurrentHistogram}
+ */
+public class HistogramTests {
+    private static final int N_BINS = 20;
+    private static final double X_MIN = -2.0;
+    private static final double X_MAX = 3.0;
+
+    private static double[] getSamples(final int n, final long seed) {
+        final Random rnd = new Random(seed);
+        final double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            // includes under- and overflows
+            x[i] = X_MIN - 0.5 + (X_MAX - X_MIN + 1.0) * rnd.nextDouble();
+        }
+        return x;
+    }
+
+    private static double[] getWeights(final int n) {
+        final double[] w = new double[n];
+        for (int i = 0; i < n; i++) {
+            w[i] = 1 + i % 3;
+        }
+        return w;
+    }
+
+    @Test
+    public void testBulkFill() {
+        final double[] x = getSamples(1000, 42);
+        final double[] w = getWeights(x.length);
+        final double[] edges = { -1.0, -0.5, 0.0, 0.25, 0.5, 1.0, 2.0 };
+        for (final boolean equidistant : new boolean[] { true, false }) {
+            final Histogram reference = equidistant ? new Histogram("ref", N_BINS, X_MIN, X_MAX)
+                                                    : new Histogram("ref", edges);
+            final Histogram bulk = equidistant ? new Histogram("bulk", N_BINS, X_MIN, X_MAX)
+                                               : new Histogram("bulk", edges);
+            final List<UpdateEvent> events = new ArrayList<>();
+            bulk.addListener(events::add);
+            for (int i = 10; i < 900; i++) {
+                reference.fill(x[i], w[i]);
+            }
+            bulk.fill(x, w, 10, 900);
+            assertEquals(1, events.size());
+            assertTrue(events.get(0) instanceof AddedDataEvent);
+            for (int bin = 0; bin < reference.getDataCount() + 2; bin++) {
+                assertEquals(reference.getBinContent(bin), bulk.getBinContent(bin), "bin " + bin);
+            }
+            assertEquals(reference.getAxisDescription(DIM_Y).getMax(), bulk.getAxisDescription(DIM_Y).getMax());
+
+            // unit weights
+            reference.fill(x[950]);
+            bulk.fill(x, null, 950, 951);
+            assertEquals(reference.getBinContent(reference.findBin(DIM_X, x[950])),
+                    bulk.getBinContent(bulk.findBin(DIM_X, x[950])));
+        }
+
+        final Histogram histogram = new Histogram("test", N_BINS, X_MIN, X_MAX);
+        assertTrue(histogram.isSorted(DIM_X));
+        assertTrue(histogram.isEquiDistant(DIM_X));
+        assertFalse(histogram.isSorted(DIM_Y));
+        assertFalse(histogram.isSorted(-1));
+        assertFalse(histogram.isEquiDistant(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.fill(null, w, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> histogram.fill(x, w, 0, x.length + 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> histogram.fill(x, w, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.fill(x, new double[5], 0, 10));
+    }
+
+    @Test
+    public void testParallelBulkFill() {
+        final int n = 1 << 20;
+        final double[] x = getSamples(n, 7);
+        final Histogram reference = new Histogram("ref", N_BINS, X_MIN, X_MAX);
+        final double[] partial = new double[N_BINS + 2];
+        reference.fillPartial(DIM_X, x, null, 0, n, partial);
+        final Histogram bulk = new Histogram("bulk", N_BINS, X_MIN, X_MAX);
+        bulk.fill(x, null, 0, n);
+        double sum = 0.0;
+        for (int bin = 0; bin < N_BINS + 2; bin++) {
+            // unit weights: merging of partial histograms is exact
+            assertEquals(partial[bin], bulk.getBinContent(bin), "bin " + bin);
+            sum += bulk.getBinContent(bin);
+        }
+        assertEquals(n, sum);
+    }
+
+    @Test
+    public void testBulkFill2D() {
+        final double[] x = getSamples(2000, 1);
+        final double[] y = getSamples(2000, 2);
+        final double[] w = getWeights(x.length);
+        final Histogram2 reference = new Histogram2("ref", N_BINS, X_MIN, X_MAX, N_BINS / 2, X_MIN, X_MAX);
+        final Histogram2 bulk = new Histogram2("bulk", N_BINS, X_MIN, X_MAX, N_BINS / 2, X_MIN, X_MAX);
+        final List<UpdateEvent> events = new ArrayList<>();
+        reference.addListener(events::add);
+        bulk.addListener(events::add);
+        for (int i = 0; i < x.length; i++) {
+            reference.fill(x[i], y[i], w[i]);
+        }
+        bulk.fill(x, y, w, 0, x.length);
+        // one event per fill, same event type as for the 1D histogram
+        assertEquals(x.length + 1, events.size());
+        assertTrue(events.stream().allMatch(AddedDataEvent.class::isInstance));
+        for (int bin = 0; bin < N_BINS * N_BINS / 2 + 2; bin++) {
+            assertEquals(reference.getBinContent(bin), bulk.getBinContent(bin), "bin " + bin);
+        }
+        for (int index = 0; index < N_BINS; index++) {
+            assertEquals(reference.getProjectionX().get(DIM_Y, index), bulk.getProjectionX().get(DIM_Y, index));
+        }
+        // projections are consistent with the 2D bin contents
+        double sum = 0.0;
+        for (int bin = 0; bin < N_BINS * N_BINS / 2 + 2; bin++) {
+            sum += bulk.getBinContent(bin);
+        }
+        double sumX = 0.0;
+        for (int bin = 0; bin < N_BINS + 2; bin++) {
+            assertEquals(reference.getProjectionX().getBinContent(bin), bulk.getProjectionX().getBinContent(bin));
+            sumX += bulk.getProjectionX().getBinContent(bin);
+        }
+        double sumY = 0.0;
+        for (int bin = 0; bin < N_BINS / 2 + 2; bin++) {
+            assertEquals(reference.getProjectionY().getBinContent(bin), bulk.getProjectionY().getBinContent(bin));
+            sumY += bulk.getProjectionY().getBinContent(bin);
+        }
+        assertEquals(sum, sumX, 1e-9 * Math.abs(sum));
+        assertEquals(sum, sumY, 1e-9 * Math.abs(sum));
+    }
+
+    @Test
+    public void testConcurrentFill() throws Exception {
+        final int nProducers = 8;
+        final int nSamples = 50_000;
+        final double[] x = getSamples(nSamples, 3);
+        final ConcurrentHistogram histogram = new ConcurrentHistogram("concurrent", N_BINS, X_MIN, X_MAX);
+        final List<UpdateEvent> events = new ArrayList<>();
+        histogram.addListener(events::add);
+
+        final List<Callable<Boolean>> producers = new ArrayList<>();
+        for (int p = 0; p < nProducers; p++) {
+            final boolean bulk = p % 2 == 0;
+            producers.add(() -> {
+                if (bulk) {
+                    histogram.fill(x, null, 0, nSamples);
+                } else {
+                    for (final double value : x) {
+                        histogram.fill(value);
+                    }
+                }
+                return Boolean.TRUE;
+            });
+        }
+        for (final Future<Boolean> future : CachedDaemonThreadFactory.getCommonPool().invokeAll(producers)) {
+            assertTrue(future.get());
+        }
+        assertTrue(events.isEmpty());
+
+        final Histogram reference = new Histogram("ref", N_BINS, X_MIN, X_MAX);
+        reference.fill(x, null, 0, nSamples);
+        assertEquals(nProducers * reference.getBinContent(3), histogram.getPendingBinContent(3));
+        assertEquals(0.0, histogram.getBinContent(3));
+
+        assertTrue(histogram.flush());
+        assertEquals(1, events.size());
+        assertFalse(histogram.flush());
+        for (int bin = 0; bin < N_BINS + 2; bin++) {
+            assertEquals(nProducers * reference.getBinContent(bin), histogram.getBinContent(bin), "bin " + bin);
+            assertEquals(0.0, histogram.getPendingBinContent(bin));
+        }
+
+        histogram.fill(x[0]);
+        histogram.reset();
+        assertFalse(histogram.flush());
+        assertEquals(0.0, histogram.getBinContent(histogram.findBin(DIM_X, x[0])));
+    }
+}
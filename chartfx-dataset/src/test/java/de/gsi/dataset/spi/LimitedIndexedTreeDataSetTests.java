@@ -0,0 +1,83 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks for the tree-based {@link LimitedIndexedTreeDataSet}
+ */
+public class LimitedIndexedTreeDataSetTests {
+    @Test
+    public void testOrderingAndLimits() {
+        final LimitedIndexedTreeDataSet dataSet = new LimitedIndexedTreeDataSet("test", 1000, 50.0);
+        // out-of-order and duplicate x coordinates
+        for (int i = 99; i >= 0; i--) {
+            dataSet.add(i, 2.0 * i, 0.1, 0.2, "label" + i, "style" + i);
+            dataSet.add(i, -1.0);
+        }
+        dataSet.expire(99);
+        assertTrue(dataSet.isSorted(DIM_X));
+        assertEquals(51, dataSet.getDataCount());
+        for (int i = 0; i < dataSet.getDataCount(); i++) {
+            assertEquals(49.0 + i, dataSet.get(DIM_X, i));
+            assertEquals(2.0 * (49.0 + i), dataSet.get(DIM_Y, i));
+            assertEquals("label" + (49 + i), dataSet.getDataLabel(i));
+            assertEquals("style" + (49 + i), dataSet.getStyle(i));
+        }
+        assertEquals(0.1, dataSet.getErrorNegative(DIM_X, 0));
+        assertEquals(0.2, dataSet.getErrorPositive(DIM_Y, 0));
+
+        dataSet.setMaxQueueSize(10);
+        dataSet.expire();
+        assertEquals(10, dataSet.getDataCount());
+        assertEquals(90.0, dataSet.get(DIM_X, 0));
+
+        dataSet.setSubtractOffset(true);
+        assertEquals(-9.0, dataSet.get(DIM_X, 0));
+        dataSet.setSubtractOffset(false);
+
+        // moving a sample keeps the set sorted and the label attached
+        dataSet.set(0, 100.0, 1.0, 0.5, 0.5);
+        assertEquals(10, dataSet.getDataCount());
+        assertEquals(91.0, dataSet.get(DIM_X, 0));
+        assertEquals(100.0, dataSet.get(DIM_X, 9));
+        assertEquals(0.5, dataSet.getErrorNegative(DIM_X, 9));
+        assertEquals("label90", dataSet.getDataLabel(9));
+
+        // in-place update with unchanged x, colliding x coordinates are rejected without losing the sample
+        dataSet.set(9, 100.0, 3.0, 0.5, 0.7);
+        assertEquals(3.0, dataSet.get(DIM_Y, 9));
+        assertEquals(0.7, dataSet.getErrorPositive(DIM_Y, 9));
+        assertEquals("label90", dataSet.getDataLabel(9));
+        assertThrows(IllegalArgumentException.class, () -> dataSet.set(0, 100.0, 1.0));
+        assertEquals(10, dataSet.getDataCount());
+        assertEquals(91.0, dataSet.get(DIM_X, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> dataSet.set(10, 200.0, 1.0));
+
+        // legacy accessor returns a detached copy
+        assertEquals(10, dataSet.getData().size());
+        assertEquals(100.0, dataSet.getData().last().getX());
+        assertEquals("label90", dataSet.getData().last().getLabel());
+        assertEquals(10, dataSet.getTree().size());
+
+        dataSet.remove(new int[] { 3, 1, 3 });
+        assertEquals(8, dataSet.getDataCount());
+        assertEquals(95.0, dataSet.get(DIM_X, 2));
+        dataSet.removeDataLabel(0);
+        assertEquals("", dataSet.getDataLabel(0));
+
+        dataSet.reset();
+        assertEquals(0, dataSet.getDataCount());
+        dataSet.add(1.0, 1.0);
+        assertNull(dataSet.getStyle(0));
+        dataSet.expire();
+        assertEquals(1, dataSet.getDataCount());
+    }
+}
@@ -0,0 +1,166 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.event.UpdateEvent;
+import de.gsi.dataset.spi.QuantileSketchDataSet.Distribution;
+
+/**
+ * Checks for the t-digest based {@link QuantileSketchDataSet}
+ */
+public class QuantileSketchDataSetTests {
+    private static final int N_SAMPLES = 1_000_000;
+    private static final double[] QUANTILES = { 0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999 };
+
+    private static double[] getSamples(final int n, final long seed) {
+        final Random rnd = new Random(seed);
+        final double[] samples = new double[n];
+        for (int i = 0; i < n; i++) {
+            // skewed jitter-like distribution
+            samples[i] = Math.exp(0.5 * rnd.nextGaussian());
+        }
+        return samples;
+    }
+
+    private static void assertQuantiles(final double[] sorted, final QuantileSketchDataSet sketch) {
+        for (final double q : QUANTILES) {
+            // rank error is the relevant accuracy measure for quantile sketches
+            final double estimate = sketch.quantile(q);
+            final int rank = Math.abs(Arrays.binarySearch(sorted, estimate));
+            final double rankError = Math.abs(rank / (double) sorted.length - q);
+            assertTrue(rankError < Math.max(1e-4, 0.01 * Math.min(q, 1 - q)), "q = " + q + " rank error " + rankError);
+        }
+    }
+
+    @Test
+    public void testQuantiles() {
+        final double[] samples = getSamples(N_SAMPLES, 42);
+        final QuantileSketchDataSet sketch = new QuantileSketchDataSet("sketch");
+        for (final double sample : samples) {
+            sketch.add(sample);
+        }
+        sketch.add(Double.NaN);
+        assertEquals(N_SAMPLES, sketch.getCount());
+
+        final double[] sorted = Arrays.copyOf(samples, samples.length);
+        Arrays.sort(sorted);
+        assertQuantiles(sorted, sketch);
+        assertEquals(sorted[0], sketch.getMin());
+        assertEquals(sorted[N_SAMPLES - 1], sketch.getMax());
+        assertEquals(sorted[0], sketch.quantile(0.0));
+        assertEquals(sorted[N_SAMPLES - 1], sketch.quantile(1.0));
+        assertEquals(0.5, sketch.cdf(sketch.quantile(0.5)), 1e-3);
+        assertEquals(0.0, sketch.cdf(sorted[0] - 1.0));
+        assertEquals(1.0, sketch.cdf(sorted[N_SAMPLES - 1]));
+
+        // fixed memory
+        assertTrue(sketch.getCentroidCount() <= sketch.getCompression() + 4);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.1));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketchDataSet("sketch", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(sketch));
+    }
+
+    @Test
+    public void testQueriesDoNotModify() {
+        final QuantileSketchDataSet sketch = new QuantileSketchDataSet("sketch");
+        final List<UpdateEvent> events = new ArrayList<>();
+        sketch.addListener(events::add);
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i); // below the buffer capacity: no compression
+        }
+        assertEquals(0, sketch.getCentroidCount());
+
+        // queries include the buffered samples ...
+        assertEquals(100, sketch.getCount());
+        assertEquals(1.0, sketch.getMin());
+        assertEquals(100.0, sketch.getMax());
+        assertEquals(50.5, sketch.quantile(0.5), 1.0);
+        assertEquals(0.5, sketch.cdf(50.5), 0.01);
+        final QuantileSketchDataSet merged = new QuantileSketchDataSet("merged").merge(sketch);
+        assertEquals(100, merged.getCount());
+        assertEquals(100.0, merged.getMax());
+
+        // ... but neither compress the sketch nor notify listeners
+        assertEquals(0, sketch.getCentroidCount());
+        assertEquals(0, sketch.getDataCount());
+        assertTrue(events.isEmpty());
+
+        sketch.compress();
+        assertEquals(1, events.size());
+        assertEquals(100, sketch.getCount());
+        assertEquals(100.0, sketch.getMax());
+    }
+
+    @Test
+    public void testMerge() {
+        final int nProducers = 4;
+        final double[] samples = getSamples(N_SAMPLES, 7);
+        final QuantileSketchDataSet merged = new QuantileSketchDataSet("merged");
+        final List<UpdateEvent> events = new ArrayList<>();
+        merged.addListener(events::add);
+        final int chunk = N_SAMPLES / nProducers;
+        for (int p = 0; p < nProducers; p++) {
+            // producers with different accuracy settings
+            final QuantileSketchDataSet producer = new QuantileSketchDataSet("producer" + p, 100.0 * (p + 1));
+            producer.add(samples, p * chunk, (p + 1) * chunk);
+            merged.merge(producer);
+            assertEquals((p + 1L) * chunk, merged.getCount());
+        }
+        assertEquals(nProducers, events.size());
+        assertTrue(merged.getCentroidCount() <= merged.getCompression() + 4);
+
+        final double[] sorted = Arrays.copyOf(samples, samples.length);
+        Arrays.sort(sorted);
+        assertQuantiles(sorted, merged);
+        assertEquals(sorted[0], merged.getMin());
+        assertEquals(sorted[N_SAMPLES - 1], merged.getMax());
+
+        merged.clearData();
+        assertEquals(0, merged.getCount());
+        assertEquals(0, merged.getDataCount());
+        assertTrue(Double.isNaN(merged.quantile(0.5)));
+    }
+
+    @Test
+    public void testDataSetInterface() {
+        final QuantileSketchDataSet sketch = new QuantileSketchDataSet("sketch", 50);
+        sketch.add(getSamples(100_000, 3), 0, 100_000);
+        final int n = sketch.getDataCount();
+        assertEquals(sketch.getCentroidCount() + 2, n);
+        assertEquals(sketch.getMin(), sketch.get(DIM_X, 0));
+        assertEquals(sketch.getMax(), sketch.get(DIM_X, n - 1));
+
+        // CDF: monotonic from 0 to 1
+        assertEquals(0.0, sketch.get(DIM_Y, 0));
+        assertEquals(1.0, sketch.get(DIM_Y, n - 1));
+        for (int i = 1; i < n; i++) {
+            assertTrue(sketch.get(DIM_X, i) >= sketch.get(DIM_X, i - 1));
+            assertTrue(sketch.get(DIM_Y, i) >= sketch.get(DIM_Y, i - 1));
+        }
+        assertEquals(1.0, sketch.getAxisDescription(DIM_Y).getMax());
+
+        // PDF: non-negative and normalised
+        sketch.setDistribution(Distribution.PDF);
+        assertEquals(Distribution.PDF, sketch.getDistribution());
+        double integral = 0.0;
+        for (int i = 1; i < n; i++) {
+            assertTrue(sketch.get(DIM_Y, i) >= 0.0);
+            integral += 0.5 * (sketch.get(DIM_Y, i) + sketch.get(DIM_Y, i - 1))
+                        * (sketch.get(DIM_X, i) - sketch.get(DIM_X, i - 1));
+        }
+        assertEquals(1.0, integral, 0.05);
+    }
+}
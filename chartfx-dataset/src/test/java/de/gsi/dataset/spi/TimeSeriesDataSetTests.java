@@ -0,0 +1,81 @@
+package de.gsi.dataset.spi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.utils.TimeStampUtils;
+
+/**
+ * Checks for {@link TimeSeriesDataSet} and the nanosecond time-stamp conversion kernels in {@link TimeStampUtils}
+ */
+public class TimeSeriesDataSetTests {
+    private static final long T0 = 1_600_000_000_123_456_789L; // 2020-09-13 [ns]
+
+    @Test
+    public void basicTests() {
+        final TimeSeriesDataSet dataSet = new TimeSeriesDataSet("test", 10);
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesDataSet("test", -1));
+        assertEquals(0, dataSet.getDataCount());
+
+        dataSet.add(T0, 1.0);
+        dataSet.add(new long[] { T0 + 1, T0 + 2, T0 + 1_000_000_000L }, new double[] { 2.0, 3.0, 4.0 }, 3);
+        assertEquals(4, dataSet.getDataCount());
+        assertEquals(T0 + 2, dataSet.getTimeStamp(2));
+        assertEquals(3.0, dataSet.get(DIM_Y, 2));
+        assertEquals(TimeStampUtils.toSeconds(T0), dataSet.get(DIM_X, 0));
+        assertEquals(1.0, dataSet.get(DIM_X, 3) - dataSet.get(DIM_X, 0), 1e-6);
+        assertEquals(TimeStampUtils.toSeconds(T0), dataSet.getAxisDescription(DIM_X).getMin());
+        assertEquals(4.0, dataSet.getAxisDescription(DIM_Y).getMax());
+
+        final double[] xValues = dataSet.getValues(DIM_X);
+        for (int i = 0; i < dataSet.getDataCount(); i++) {
+            assertEquals(dataSet.get(DIM_X, i), xValues[i]);
+        }
+
+        // access while holding the write lock (non-reentrant read lock)
+        dataSet.lock().writeLockGuard(() -> assertEquals(dataSet.get(DIM_X, 1), dataSet.getValues(DIM_X)[1]));
+
+        // interior points do not invalidate the range
+        dataSet.remove(1, 3);
+        assertEquals(2, dataSet.getDataCount());
+        assertTrue(dataSet.getAxisDescription(DIM_Y).isDefined());
+        assertEquals(T0 + 1_000_000_000L, dataSet.getTimeStamp(1));
+        assertEquals(TimeStampUtils.toSeconds(T0 + 1_000_000_000L), dataSet.getValues(DIM_X)[1]);
+        assertEquals(4.0, dataSet.getAxisDescription(DIM_Y).getMax());
+        dataSet.remove(1, 2);
+        assertEquals(1.0, dataSet.getAxisDescription(DIM_Y).getMax());
+        assertEquals(TimeStampUtils.toSeconds(T0), dataSet.getAxisDescription(DIM_X).getMax());
+
+        dataSet.clearData();
+        assertEquals(0, dataSet.getDataCount());
+    }
+
+    @Test
+    public void conversionTests() {
+        assertEquals(1.5, TimeStampUtils.toSeconds(1_500_000_000L));
+        assertEquals(-1.5, TimeStampUtils.toSeconds(-1_500_000_000L));
+        assertEquals(T0, TimeStampUtils.toNanos(TimeStampUtils.toSeconds(T0)), 1000);
+        assertEquals(-1_500_000_000L, TimeStampUtils.toNanos(-1.5));
+
+        // relative and screen transforms keep nanosecond resolution for absolute UTC time-stamps
+        final long[] nanos = { T0, T0 + 1, T0 + 2, T0 + 3 };
+        final double[] relative = new double[4];
+        TimeStampUtils.toRelativeSeconds(nanos, 0, 4, T0, relative, 0);
+        assertArrayEquals(new double[] { 0.0, 1e-9, 2e-9, 3e-9 }, relative, 1e-18);
+
+        final double[] screen = new double[5];
+        TimeStampUtils.toScreen(nanos, 1, 4, T0, 100.0, 2.0, screen, 2);
+        assertArrayEquals(new double[] { 0.0, 0.0, 102.0, 104.0, 106.0 }, screen);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> TimeStampUtils.toScreen(nanos, 0, 4, T0, 0, 1, screen, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> TimeStampUtils.toSeconds(nanos, 2, 1, screen, 0));
+        assertThrows(IllegalArgumentException.class, () -> TimeStampUtils.toSeconds(null, 0, 0, screen, 0));
+    }
+}
@@ -0,0 +1,147 @@
+package de.gsi.dataset.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+
+/**
+ * Checks for {@link ChunkedDoubleArray}
+ */
+public class ChunkedDoubleArrayTests {
+    private static void assertEqualContent(final DoubleArrayList reference, final ChunkedDoubleArray array) {
+        assertEquals(reference.size(), array.size());
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals(reference.getDouble(i), array.getDouble(i), "index " + i);
+        }
+        assertArrayEquals(reference.toDoubleArray(), Arrays.copyOf(array.elements(), array.size()));
+    }
+
+    @Test
+    public void testRandomOperations() throws IOException, ClassNotFoundException {
+        // small chunks to exercise the chunk boundaries
+        final ChunkedDoubleArray array = new ChunkedDoubleArray(3);
+        final DoubleArrayList reference = new DoubleArrayList();
+        final Random rnd = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            final double value = rnd.nextDouble();
+            switch (rnd.nextInt(6)) {
+            case 0:
+                array.add(value);
+                reference.add(value);
+                break;
+            case 1:
+                final int index = rnd.nextInt(reference.size() + 1);
+                array.add(index, value);
+                reference.add(index, value);
+                break;
+            case 2:
+                final double[] values = new double[rnd.nextInt(30)];
+                Arrays.fill(values, value);
+                final int at = rnd.nextInt(reference.size() + 1);
+                final int offset = values.length > 0 ? rnd.nextInt(values.length) : 0;
+                array.addElements(at, values, offset, values.length - offset);
+                reference.addElements(at, values, offset, values.length - offset);
+                break;
+            case 3:
+                if (!reference.isEmpty()) {
+                    final int from = rnd.nextInt(reference.size());
+                    final int to = from + rnd.nextInt(Math.min(25, reference.size() - from) + 1);
+                    array.removeElements(from, to);
+                    reference.removeElements(from, to);
+                }
+                break;
+            case 4:
+                if (!reference.isEmpty()) {
+                    final int setAt = rnd.nextInt(reference.size());
+                    array.set(setAt, value);
+                    reference.set(setAt, value);
+                }
+                break;
+            default:
+                final int newSize = Math.max(0, reference.size() + rnd.nextInt(21) - 10);
+                array.size(newSize);
+                reference.size(newSize);
+                break;
+            }
+            if (i % 100 == 0) {
+                assertEqualContent(reference, array);
+            }
+        }
+        assertEqualContent(reference, array);
+
+        // bulk copy across chunk boundaries
+        final double[] copy = new double[reference.size() + 3];
+        array.getElements(1, copy, 3, reference.size() - 1);
+        for (int i = 1; i < reference.size(); i++) {
+            assertEquals(reference.getDouble(i), copy[i + 2]);
+        }
+
+        array.trim();
+        assertEquals(array.getChunkCount() * array.getChunkSize(), array.capacity());
+        assertEqualContent(reference, array);
+
+        // Java serialisation stores only the valid elements
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(array);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final ChunkedDoubleArray deserialised = (ChunkedDoubleArray) in.readObject();
+            assertEquals(array.getChunkSize(), deserialised.getChunkSize());
+            assertEqualContent(reference, deserialised);
+        }
+        array.clear();
+        assertEquals(0, array.size());
+    }
+
+    @Test
+    public void testAppendWithoutReallocation() {
+        final ChunkedDoubleArray array = new ChunkedDoubleArray();
+        final int n = 3 * array.getChunkSize() + 17;
+        for (int i = 0; i < n; i++) {
+            array.add(i);
+        }
+        final double[] firstChunk = array.getChunk(0);
+        for (int i = 0; i < n; i++) {
+            array.add(n + i);
+        }
+        // existing chunks are never reallocated when growing
+        assertSame(firstChunk, array.getChunk(0));
+        assertEquals(2 * n, array.size());
+        assertEquals(7, array.getChunkCount());
+        assertTrue(array.capacity() >= array.size());
+
+        // compatibility path: cached flattened copy
+        final double[] flat = array.elements();
+        assertSame(flat, array.elements());
+        assertEquals(2 * n - 1.0, flat[2 * n - 1]);
+        array.set(0, -1.0);
+        assertEquals(-1.0, array.elements()[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedDoubleArray(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.set(2 * n, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.add(2 * n + 1, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.removeElements(10, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.setElements(2 * n - 1, new double[2], 0, 2));
+
+        // pre-allocation without changing the size
+        final ChunkedDoubleArray preallocated = new ChunkedDoubleArray(3);
+        preallocated.ensureCapacity(17);
+        assertEquals(0, preallocated.size());
+        assertEquals(24, preallocated.capacity());
+    }
+}
@@ -0,0 +1,91 @@
+package de.gsi.dataset.utils.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.InputMismatchException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.serializer.spi.iobuffer.DataSetColumnarFile;
+import de.gsi.dataset.spi.DoubleErrorDataSet;
+
+/**
+ * Checks for {@link DataSetColumnarFile} block-indexed file storage.
+ */
+public class DataSetColumnarFileTests {
+    private static final int N_SAMPLES = 10_000;
+
+    @TempDir
+    protected Path tempDir;
+
+    private static DoubleErrorDataSet getTestDataSet() {
+        final DoubleErrorDataSet dataSet = new DoubleErrorDataSet("columnarTest", N_SAMPLES);
+        for (int i = 0; i < N_SAMPLES; i++) {
+            dataSet.add(0.1 * i, Math.cos(0.01 * i), 0.01 * i, 0.02 * i);
+        }
+        dataSet.getAxisDescription(DIM_X).set("time", "s");
+        return dataSet;
+    }
+
+    @Test
+    public void testFullRoundTrip() throws IOException {
+        final DoubleErrorDataSet original = getTestDataSet();
+        final Path file = tempDir.resolve("full.cds");
+        DataSetColumnarFile.writeDataSetToFile(original, file, 999);
+
+        final DataSet copy = DataSetColumnarFile.readDataSetFromFile(file);
+        assertEquals(original.getName(), copy.getName());
+        assertEquals("time", copy.getAxisDescription(DIM_X).getName());
+        assertEquals(N_SAMPLES, copy.getDataCount(DIM_X));
+        final DataSetError errorCopy = (DataSetError) copy;
+        for (int i = 0; i < N_SAMPLES; i++) {
+            assertEquals(original.get(DIM_X, i), copy.get(DIM_X, i));
+            assertEquals(original.get(DIM_Y, i), copy.get(DIM_Y, i));
+            assertEquals(original.getErrorNegative(DIM_Y, i), errorCopy.getErrorNegative(DIM_Y, i));
+            assertEquals(original.getErrorPositive(DIM_Y, i), errorCopy.getErrorPositive(DIM_Y, i));
+        }
+    }
+
+    @Test
+    public void testRangeRead() throws IOException {
+        final DoubleErrorDataSet original = getTestDataSet();
+        final Path file = tempDir.resolve("range.cds");
+        DataSetColumnarFile.writeDataSetToFile(original, file, 1000);
+
+        // range spanning partial blocks
+        final double xMin = 250.05;
+        final double xMax = 520.0;
+        final DataSet range = DataSetColumnarFile.readDataSetFromFile(file, xMin, xMax);
+        int count = 0;
+        for (int i = 0; i < N_SAMPLES; i++) {
+            final double x = original.get(DIM_X, i);
+            if (x < xMin || x > xMax) {
+                continue;
+            }
+            assertEquals(x, range.get(DIM_X, count));
+            assertEquals(original.get(DIM_Y, i), range.get(DIM_Y, count));
+            count++;
+        }
+        assertEquals(count, range.getDataCount(DIM_X));
+
+        // range outside the data
+        assertEquals(0, DataSetColumnarFile.readDataSetFromFile(file, 5000, 6000).getDataCount(DIM_X));
+    }
+
+    @Test
+    public void testCorruptFile() throws IOException {
+        final Path file = tempDir.resolve("corrupt.cds");
+        Files.write(file, new byte[64]);
+        assertThrows(InputMismatchException.class, () -> DataSetColumnarFile.readDataSetFromFile(file));
+    }
+}
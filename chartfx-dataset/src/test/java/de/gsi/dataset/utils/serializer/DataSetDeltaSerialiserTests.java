@@ -0,0 +1,109 @@
+package de.gsi.dataset.utils.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.serializer.spi.FastByteBuffer;
+import de.gsi.dataset.serializer.spi.iobuffer.DataSetDeltaSerialiser;
+import de.gsi.dataset.spi.CircularDoubleErrorDataSet;
+import de.gsi.dataset.spi.DoubleDataSet;
+import de.gsi.dataset.spi.DoubleErrorDataSet;
+import de.gsi.dataset.spi.FifoDoubleErrorDataSet;
+
+/**
+ * Checks for {@link DataSetDeltaSerialiser} incremental updates of ring-buffer-type DataSets.
+ */
+public class DataSetDeltaSerialiserTests {
+    private static void assertSameContent(final DataSetError expected, final DataSetError actual) {
+        assertEquals(expected.getDataCount(DIM_X), actual.getDataCount(DIM_X), "data count");
+        for (int i = 0; i < expected.getDataCount(DIM_X); i++) {
+            assertEquals(expected.get(DIM_X, i), actual.get(DIM_X, i), "x @" + i);
+            assertEquals(expected.get(DIM_Y, i), actual.get(DIM_Y, i), "y @" + i);
+            assertEquals(expected.getErrorNegative(DIM_Y, i), actual.getErrorNegative(DIM_Y, i), "yen @" + i);
+            assertEquals(expected.getErrorPositive(DIM_Y, i), actual.getErrorPositive(DIM_Y, i), "yep @" + i);
+        }
+    }
+
+    private static long transfer(final FastByteBuffer buffer, final DataSetError source, final long fromSequence,
+            final DoubleErrorDataSet target) {
+        buffer.reset();
+        final long sequence = DataSetDeltaSerialiser.writeDeltaToByteArray(source, fromSequence, buffer, false);
+        buffer.reset();
+        assertEquals(sequence, DataSetDeltaSerialiser.applyDeltaFromByteArray(buffer, target));
+        return sequence;
+    }
+
+    @Test
+    public void testCircularDataSetDelta() {
+        final CircularDoubleErrorDataSet source = new CircularDoubleErrorDataSet("source", 100);
+        final DoubleErrorDataSet target = new DoubleErrorDataSet("target");
+        final FastByteBuffer buffer = new FastByteBuffer();
+
+        for (int i = 0; i < 150; i++) {
+            source.add(i, i * i, 0.1, 0.2);
+        }
+        assertEquals(150, source.getSequenceNumber());
+        long sequence = transfer(buffer, source, -1, target);
+        assertSameContent(source, target);
+        final long fullSize = buffer.position();
+
+        for (int i = 150; i < 160; i++) {
+            source.add(i, i * i, 0.3, 0.4);
+        }
+        sequence = transfer(buffer, source, sequence, target);
+        assertTrue(buffer.position() < fullSize, "delta smaller than full update");
+        assertSameContent(source, target);
+
+        // no new samples
+        sequence = transfer(buffer, source, sequence, target);
+        assertSameContent(source, target);
+
+        // more samples than the history length -> implicit full update
+        for (int i = 160; i < 400; i++) {
+            source.add(i, -i, 0.5, 0.6);
+        }
+        transfer(buffer, source, sequence, target);
+        assertSameContent(source, target);
+    }
+
+    @Test
+    public void testFifoDataSetDelta() {
+        final FifoDoubleErrorDataSet source = new FifoDoubleErrorDataSet("source", 1000, 50.0);
+        final DoubleErrorDataSet target = new DoubleErrorDataSet("target");
+        final FastByteBuffer buffer = new FastByteBuffer();
+
+        long sequence = -1;
+        for (int update = 0; update < 10; update++) {
+            for (int i = 0; i < 17; i++) {
+                final double x = update * 17 + i;
+                source.add(x, Math.sin(x), 0.1, 0.2);
+            }
+            sequence = transfer(buffer, source, sequence, target);
+            assertSameContent(source, target);
+        }
+
+        // after a reset, sequence numbers keep increasing
+        source.reset();
+        source.add(1000.0, 1.0, 0.1, 0.1);
+        sequence = transfer(buffer, source, sequence, target);
+        assertEquals(1, target.getDataCount(DIM_X));
+        assertSameContent(source, target);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        final CircularDoubleErrorDataSet source = new CircularDoubleErrorDataSet("source", 10);
+        final FastByteBuffer buffer = new FastByteBuffer();
+        assertThrows(IllegalArgumentException.class,
+                () -> DataSetDeltaSerialiser.writeDeltaToByteArray(source, 1, buffer, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> DataSetDeltaSerialiser.writeDeltaToByteArray(new DoubleDataSet("test"), 0, buffer, false));
+    }
+}
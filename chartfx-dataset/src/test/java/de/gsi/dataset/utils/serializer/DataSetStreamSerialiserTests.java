@@ -0,0 +1,125 @@
+package de.gsi.dataset.utils.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.serializer.spi.iobuffer.DataSetStreamSerialiser;
+import de.gsi.dataset.spi.DoubleErrorDataSet;
+
+/**
+ * Checks for {@link DataSetStreamSerialiser} block-wise channel (de-)serialisation.
+ */
+public class DataSetStreamSerialiserTests {
+    private static final int N_SAMPLES = 10_000;
+
+    private static DoubleErrorDataSet getTestDataSet() {
+        final DoubleErrorDataSet dataSet = new DoubleErrorDataSet("streamTest", N_SAMPLES);
+        for (int i = 0; i < N_SAMPLES; i++) {
+            dataSet.add(i, Math.sin(0.01 * i), 0.1 + 1e-5 * i, 0.2 + 1e-5 * i);
+        }
+        dataSet.getAxisDescription(DIM_X).set("time", "s");
+        dataSet.getAxisDescription(DIM_Y).set("amplitude", "V");
+        dataSet.getInfoList().add("info");
+        return dataSet;
+    }
+
+    @Test
+    public void testDoubleStreamRoundTrip() throws IOException {
+        final DoubleErrorDataSet original = getTestDataSet();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            // block size deliberately not a divider of the number of samples
+            DataSetStreamSerialiser.writeDataSetToChannel(original, channel, false, 999);
+        }
+
+        final DataSet copy;
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            copy = DataSetStreamSerialiser.readDataSetFromChannel(channel);
+        }
+
+        assertEquals(original.getName(), copy.getName());
+        assertEquals(N_SAMPLES, copy.getDataCount(DIM_X));
+        assertArrayEquals(Arrays.copyOf(original.getXValues(), N_SAMPLES), copy.getValues(DIM_X));
+        assertArrayEquals(Arrays.copyOf(original.getYValues(), N_SAMPLES), copy.getValues(DIM_Y));
+        assertTrue(copy instanceof DataSetError);
+        final DataSetError errorCopy = (DataSetError) copy;
+        for (int i = 0; i < N_SAMPLES; i++) {
+            assertEquals(original.getErrorNegative(DIM_Y, i), errorCopy.getErrorNegative(DIM_Y, i));
+            assertEquals(original.getErrorPositive(DIM_Y, i), errorCopy.getErrorPositive(DIM_Y, i));
+        }
+        assertEquals("time", copy.getAxisDescription(DIM_X).getName());
+        assertEquals("V", copy.getAxisDescription(DIM_Y).getUnit());
+    }
+
+    @Test
+    public void testCorruptFrameOffset() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            DataSetStreamSerialiser.writeDataSetToChannel(getTestDataSet(), channel, false, 999);
+        }
+        // overwrite the offset of the second data frame (999, little-endian) with an out-of-range value
+        final byte[] stream = outputStream.toByteArray();
+        final byte[] offsetName = "offset".getBytes(StandardCharsets.UTF_8);
+        final int secondFrame = indexOf(stream, offsetName, indexOf(stream, offsetName, 0) + 1);
+        final int offsetValue = indexOf(stream, new byte[] { (byte) 0xE7, 0x03, 0x00, 0x00 }, secondFrame);
+        assertTrue(secondFrame > 0 && offsetValue > secondFrame);
+        stream[offsetValue + 1] = 0x70;
+
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(stream))) {
+            final InputMismatchException exception = assertThrows(InputMismatchException.class,
+                    () -> DataSetStreamSerialiser.readDataSetFromChannel(channel));
+            assertTrue(exception.getMessage().contains("offset"), exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testFloatStreamWithMultipleDataSets() throws IOException {
+        final DoubleErrorDataSet original = getTestDataSet();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            DataSetStreamSerialiser.writeDataSetToChannel(original, channel, true, 128);
+            DataSetStreamSerialiser.writeDataSetToChannel(original, channel, true);
+        }
+
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            for (int n = 0; n < 2; n++) {
+                final DataSet copy = DataSetStreamSerialiser.readDataSetFromChannel(channel);
+                assertEquals(N_SAMPLES, copy.getDataCount(DIM_X));
+                for (int i = 0; i < N_SAMPLES; i++) {
+                    assertEquals((float) original.get(DIM_X, i), copy.get(DIM_X, i));
+                    assertEquals((float) original.get(DIM_Y, i), copy.get(DIM_Y, i));
+                }
+            }
+            assertThrows(EOFException.class, () -> DataSetStreamSerialiser.readDataSetFromChannel(channel));
+        }
+    }
+
+    private static int indexOf(final byte[] array, final byte[] pattern, final int from) {
+        for (int i = from; i <= array.length - pattern.length; i++) {
+            if (Arrays.equals(array, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,143 @@
+package de.gsi.dataset.utils.trees;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks for the primitive counted B+-tree {@link IndexedDoubleTree}
+ */
+public class IndexedDoubleTreeTests {
+    private static void assertEqualContent(final List<Double> reference, final IndexedDoubleTree tree) {
+        assertEquals(reference.size(), tree.size());
+        for (int i = 0; i < reference.size(); i++) {
+            final double key = reference.get(i);
+            assertEquals(key, tree.getKey(i), "index " + i);
+            assertEquals(2.0 * key, tree.getValue(0, i), "index " + i);
+            assertEquals(-key, tree.getValue(1, i), "index " + i);
+        }
+    }
+
+    @Test
+    public void testRandomInsertAndRemove() {
+        // small capacities to force many leaf and inner node splits/merges
+        final IndexedDoubleTree tree = new IndexedDoubleTree(2, 4, 4);
+        final List<Double> reference = new ArrayList<>();
+        final Random rnd = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final double key = rnd.nextInt(2000) * 0.5;
+            final int index = tree.add(key, 2.0 * key, -key);
+            assertEquals(key, tree.getKey(index));
+            reference.add(key);
+        }
+        Collections.sort(reference);
+        assertEqualContent(reference, tree);
+        assertEquals(reference.get(0), tree.firstKey());
+        assertEquals(reference.get(reference.size() - 1), tree.lastKey());
+
+        // rank look-up (lower bound)
+        for (int i = 0; i < 200; i++) {
+            final double key = rnd.nextInt(2100) * 0.5 - 10.0;
+            int expected = Collections.binarySearch(reference, key);
+            expected = expected < 0 ? -expected - 1 : expected;
+            while (expected > 0 && reference.get(expected - 1) == key) {
+                expected--;
+            }
+            assertEquals(expected, tree.indexOf(key), "key " + key);
+            assertEquals(expected < reference.size() && reference.get(expected) == key, tree.contains(key));
+        }
+
+        // random single removals
+        for (int i = 0; i < 1000; i++) {
+            final int index = rnd.nextInt(reference.size());
+            reference.remove(index);
+            tree.remove(index);
+        }
+        assertEqualContent(reference, tree);
+
+        // range removals
+        tree.removeRange(100, 1100);
+        reference.subList(100, 1100).clear();
+        assertEqualContent(reference, tree);
+        tree.removeRange(0, 500);
+        reference.subList(0, 500).clear();
+        assertEqualContent(reference, tree);
+        tree.removeRange(tree.size() - 300, tree.size());
+        reference.subList(reference.size() - 300, reference.size()).clear();
+        assertEqualContent(reference, tree);
+
+        tree.removeRange(0, tree.size());
+        assertEquals(0, tree.size());
+        assertThrows(NoSuchElementException.class, tree::firstKey);
+        assertThrows(NoSuchElementException.class, tree::lastKey);
+        tree.add(1.0, 2.0, -1.0);
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void testSequentialAppend() {
+        final IndexedDoubleTree tree = new IndexedDoubleTree(1);
+        final int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, tree.add(i, 10.0 * i));
+        }
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += tree.getValue(0, i);
+        }
+        assertEquals(10.0 * n * (n - 1) / 2, sum);
+        tree.setValue(0, 42, -1.0);
+        assertEquals(-1.0, tree.getValue(0, 42));
+
+        // sliding window: expire the oldest entries
+        tree.removeRange(0, n / 2);
+        assertEquals(n / 2, tree.size());
+        assertEquals(n / 2, tree.firstKey());
+        assertEquals(n - 1, tree.lastKey());
+
+        tree.clear();
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void testAttachmentsAndChecks() {
+        final IndexedDoubleTree tree = new IndexedDoubleTree(1, 4, 4);
+        for (int i = 0; i < 20; i++) {
+            tree.add(i, i);
+        }
+        assertNull(tree.getAttachment(5));
+        tree.setAttachment(5, "five");
+        assertEquals("five", tree.getAttachment(5));
+        // attachments move with their entry
+        tree.remove(0);
+        assertEquals("five", tree.getAttachment(4));
+        tree.add(-1.0, -1.0);
+        tree.add(-2.0, -2.0);
+        assertEquals("five", tree.getAttachment(6));
+        assertEquals(4.0, tree.getKey(5));
+
+        // equal keys are inserted after the existing ones
+        assertEquals(7, tree.add(5.0, 42.0));
+        assertEquals(42.0, tree.getValue(0, 7));
+        assertEquals("five", tree.getAttachment(6));
+        assertTrue(tree.contains(5.0));
+        assertFalse(tree.contains(5.5));
+
+        assertEquals(1, tree.getColumnCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.getKey(tree.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.removeRange(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> tree.add(1.0));
+        assertThrows(IllegalArgumentException.class, () -> new IndexedDoubleTree(1, 2, 4));
+    }
+}
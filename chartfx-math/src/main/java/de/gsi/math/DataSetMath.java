@@ -21,6 +21,7 @@ import de.gsi.dataset.spi.DoubleErrorDataSet;
 import de.gsi.dataset.spi.utils.DoublePointError;
 import de.gsi.math.spectra.Apodization;
 import de.gsi.math.spectra.SpectrumTools;
+import de.gsi.math.spectra.fft.FFTPlanCache;
 
 /**
  * Some math operation on DataSet and DataSetError
@@ -35,6 +36,7 @@ public final class DataSetMath { // NOPMD - nomen est omen
     private static final char MULTIPLICATION_SYMBOL = 0x00B7;
     private static final String DIFFERENTIAL = DIFFERENTIAL_SYMBOL + "/" + DIFFERENTIAL_SYMBOL + "x";
     private static final TRandom random = new TRandom(System.currentTimeMillis());
+    private static final FFTPlanCache.WorkingArrays WORKING_ARRAYS = new FFTPlanCache.WorkingArrays(2);
 
     /**
      *
@@ -754,18 +756,19 @@ public final class DataSetMath { // NOPMD - nomen est omen
             final boolean dbScale, final boolean normalisedFrequency) {
         final int n = function.getDataCount();
 
-        final DoubleFFT_1D fastFourierTrafo = new DoubleFFT_1D(n);
+        final DoubleFFT_1D fastFourierTrafo = FFTPlanCache.getDoubleFFT(n);
 
         // N.B. since realForward computes the FFT in-place -> generate a copy
-        final double[] fftSpectra = new double[n];
+        final double[] fftSpectra = WORKING_ARRAYS.get(0, n);
         for (int i = 0; i < n; i++) {
             final double window = apodization.getIndex(i, n);
             fftSpectra[i] = function.get(DIM_Y, i) * window;
         }
 
         fastFourierTrafo.realForward(fftSpectra);
-        final double[] mag = dbScale ? SpectrumTools.computeMagnitudeSpectrum_dB(fftSpectra, true)
-                                     : SpectrumTools.computeMagnitudeSpectrum(fftSpectra, true);
+        final double[] magnitude = WORKING_ARRAYS.get(1, n / 2);
+        final double[] mag = dbScale ? SpectrumTools.computeMagnitudeSpectrum_dB(fftSpectra, true, magnitude)
+                                     : SpectrumTools.computeMagnitudeSpectrum(fftSpectra, true, magnitude);
         final double dt = function.get(DIM_X, function.getDataCount() - 1) - function.get(DIM_X, 0);
         final double fsampling = normalisedFrequency || dt <= 0 ? 0.5 / mag.length : 1.0 / dt;
 
@@ -24,6 +24,8 @@ package de.gsi.math.filter.iir;
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.complex.ComplexUtils;
 
+import de.gsi.dataset.utils.AssertUtils;
+
 /**
  * The mother of all filters. It contains the coefficients of all filter stages as a sequence of 2nd order filters and
  * the states of the 2nd order filters which also imply if it's direct form I or II
@@ -39,12 +41,41 @@ public class Cascade {
     // number of biquads in the system
     private int mNumBiquads;
 
+    // filter topology, see DirectFormAbstract
+    private int mDirectFormType = DirectFormAbstract.DIRECT_FORM_II;
+
     public Cascade() {
         mNumBiquads = 0;
         mBiquads = null;
         mStates = null;
     }
 
+    /**
+     * copy constructor: the new cascade has the same coefficients and filter topology but independent (reset) states
+     *
+     * @param other the cascade to be copied
+     */
+    public Cascade(final Cascade other) {
+        AssertUtils.notNull("other", other);
+        mNumBiquads = other.mNumBiquads;
+        mDirectFormType = other.mDirectFormType;
+        if (other.mBiquads == null) {
+            return;
+        }
+        mBiquads = new Biquad[mNumBiquads];
+        for (int i = 0; i < mNumBiquads; i++) {
+            final Biquad s = other.mBiquads[i];
+            mBiquads[i] = new Biquad();
+            mBiquads[i].mA0 = s.mA0;
+            mBiquads[i].mA1 = s.mA1;
+            mBiquads[i].mA2 = s.mA2;
+            mBiquads[i].mB0 = s.mB0;
+            mBiquads[i].mB1 = s.mB1;
+            mBiquads[i].mB2 = s.mB2;
+        }
+        mStates = createStates(mNumBiquads, mDirectFormType);
+    }
+
     public void applyScale(final double scale) {
         // For higher order filters it might be helpful
         // to spread this factor between all the stages.
@@ -63,6 +94,49 @@ public class Cascade {
         return out;
     }
 
+    /**
+     * filters the samples [from, to[ of a block (two stages per pass), the filter state is carried over between
+     * consecutive calls (i.e. the result is identical to calling {@link #filter(double)} for each sample)
+     *
+     * @param in input samples
+     * @param out output samples (may be identical to the input array)
+     * @param from first sample index
+     * @param to last sample index (exclusive)
+     */
+    public void filter(final double[] in, final double[] out, final int from, final int to) {
+        AssertUtils.notNull("in", in);
+        AssertUtils.notNull("out", out);
+        AssertUtils.indexOrder(from, "from", to, "to");
+        AssertUtils.indexInBounds(from, in.length + 1, "from");
+        AssertUtils.indexInBounds(to, in.length + 1, "to");
+        AssertUtils.indexInBounds(to, out.length + 1, "to");
+        double[] src = in;
+        for (int i = 0; i < mNumBiquads; i++) {
+            if (mStates[i] == null) {
+                continue;
+            }
+            // N.B. the first stage reads 'in', the following stages operate in-place on 'out'
+            if (i + 1 < mNumBiquads && mStates[i + 1] != null) {
+                // evaluate two stages per loop to overlap their recursions
+                mStates[i].process(src, out, from, to, mBiquads[i], mStates[i + 1], mBiquads[i + 1]);
+                i++;
+            } else {
+                mStates[i].process(src, out, from, to, mBiquads[i]);
+            }
+            src = out;
+        }
+        if (src != out) {
+            System.arraycopy(in, from, out, from, to - from);
+        }
+    }
+
+    /**
+     * @return filter topology, see {@link DirectFormAbstract}
+     */
+    public int getDirectFormType() {
+        return mDirectFormType;
+    }
+
     public Biquad getBiquad(final int index) {
         return mBiquads[index];
     }
@@ -71,6 +145,39 @@ public class Cascade {
         return mNumBiquads;
     }
 
+    /**
+     * Estimates the number of samples after which the impulse response decayed below the given tolerance (relative to
+     * unity) based on the largest pole radius of all stages. This is e.g. used as warm-up length to settle the filter
+     * states when starting in the middle of a record.
+     *
+     * @param tolerance relative tolerance (0 &lt; tolerance &lt; 1)
+     * @return estimated settling length in samples
+     * @throws IllegalStateException if the filter is unstable (pole radius &ge; 1)
+     */
+    public int getSettlingLength(final double tolerance) {
+        if (!(tolerance > 0.0 && tolerance < 1.0)) {
+            throw new IllegalArgumentException("tolerance = " + tolerance + " must be within ]0, 1[");
+        }
+        double maxRadius = 0.0;
+        for (int i = 0; i < mNumBiquads; i++) {
+            final double a1 = mBiquads[i].mA1;
+            final double a2 = mBiquads[i].mA2;
+            // poles: roots of z^2 + a1 z + a2
+            final double discriminant = a1 * a1 - 4 * a2;
+            final double radius = discriminant < 0 ? Math.sqrt(a2) : 0.5 * (Math.abs(a1) + Math.sqrt(discriminant));
+            maxRadius = Math.max(maxRadius, radius);
+        }
+        if (maxRadius >= 1.0) {
+            throw new IllegalStateException("unstable filter - pole radius = " + maxRadius);
+        }
+        if (maxRadius == 0.0) {
+            return 2 * mNumBiquads + 1; // FIR
+        }
+        // N.B. factor two accounts for repeated poles of the cascaded stages (envelope ~ n^k r^n)
+        final double length = 2.0 * Math.log(tolerance) / Math.log(maxRadius) + 2 * mNumBiquads + 1;
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(length));
+    }
+
     public void reset() {
         for (int i = 0; i < mNumBiquads; i++) {
             mStates[i].reset();
@@ -102,30 +209,58 @@ public class Cascade {
         return ch.divide(cbot);
     }
 
+    /**
+     * initialises the filter states to the steady state for a constant input, i.e. the output immediately equals the
+     * DC response for this input. This avoids start-up transients, e.g. for offline or zero-phase filtering.
+     *
+     * @param in the constant input value
+     */
+    public void setSteadyState(final double in) {
+        double value = in;
+        for (int i = 0; i < mNumBiquads; i++) {
+            if (mStates[i] != null) {
+                value = mStates[i].setSteadyState(value, mBiquads[i]);
+            }
+        }
+    }
+
     public void setLayout(final LayoutBase proto, final int filterTypes) {
         final int numPoles = proto.getNumPoles();
         mNumBiquads = (numPoles + 1) / 2;
         mBiquads = new Biquad[mNumBiquads];
+        mDirectFormType = filterTypes;
+        mStates = createStates(mNumBiquads, filterTypes);
+        for (int i = 0; i < mNumBiquads; ++i) {
+            final PoleZeroPair p = proto.getPair(i);
+            mBiquads[i] = new Biquad();
+            mBiquads[i].setPoleZeroPair(p);
+        }
+        applyScale(proto.getNormalGain() / response(proto.getNormalW() / (2 * Math.PI)).abs());
+    }
+
+    private static DirectFormAbstract[] createStates(final int nBiquads, final int filterTypes) {
+        final DirectFormAbstract[] states;
         switch (filterTypes) {
         case DirectFormAbstract.DIRECT_FORM_I:
-            mStates = new DirectFormI[mNumBiquads];
-            for (int i = 0; i < mNumBiquads; i++) {
-                mStates[i] = new DirectFormI();
+            states = new DirectFormI[nBiquads];
+            for (int i = 0; i < nBiquads; i++) {
+                states[i] = new DirectFormI();
+            }
+            break;
+        case DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED:
+            states = new DirectFormIITransposed[nBiquads];
+            for (int i = 0; i < nBiquads; i++) {
+                states[i] = new DirectFormIITransposed();
             }
             break;
         case DirectFormAbstract.DIRECT_FORM_II:
         default:
-            mStates = new DirectFormII[mNumBiquads];
-            for (int i = 0; i < mNumBiquads; i++) {
-                mStates[i] = new DirectFormII();
+            states = new DirectFormII[nBiquads];
+            for (int i = 0; i < nBiquads; i++) {
+                states[i] = new DirectFormII();
             }
             break;
         }
-        for (int i = 0; i < mNumBiquads; ++i) {
-            final PoleZeroPair p = proto.getPair(i);
-            mBiquads[i] = new Biquad();
-            mBiquads[i].setPoleZeroPair(p);
-        }
-        applyScale(proto.getNormalGain() / response(proto.getNormalW() / (2 * Math.PI)).abs());
+        return states;
     }
 }
@@ -30,12 +30,66 @@ public abstract class DirectFormAbstract {
 
     public static final int DIRECT_FORM_II = 1;
 
+    public static final int DIRECT_FORM_II_TRANSPOSED = 2;
+
     public DirectFormAbstract() {
         reset();
     }
 
+    /**
+     * filters the samples [from, to[ of a block, the filter state is carried over between consecutive calls (i.e. the
+     * result is identical to calling {@link #process1(double, Biquad)} for each sample)
+     *
+     * @param in input samples
+     * @param out output samples (may be identical to the input array)
+     * @param from first sample index
+     * @param to last sample index (exclusive)
+     * @param s filter coefficients
+     */
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s) {
+        for (int i = from; i < to; i++) {
+            out[i] = process1(in[i], s);
+        }
+    }
+
+    /**
+     * filters the samples [from, to[ of a block through this and the following stage. Implementations may evaluate
+     * both stages in the same loop, which allows the CPU to overlap the (latency bound) recursions of both stages.
+     *
+     * @param in input samples
+     * @param out output samples (may be identical to the input array)
+     * @param from first sample index
+     * @param to last sample index (exclusive)
+     * @param s filter coefficients of this stage
+     * @param next state of the following stage
+     * @param nextS filter coefficients of the following stage
+     */
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s,
+            final DirectFormAbstract next, final Biquad nextS) {
+        process(in, out, from, to, s);
+        next.process(out, out, from, to, nextS);
+    }
+
     public abstract double process1(double in, Biquad s);
 
     public abstract void reset();
 
+    /**
+     * initialises the state to the steady state for a constant input
+     *
+     * @param in the constant input value
+     * @param s filter coefficients
+     * @return the corresponding constant output value (DC gain times input), or zero if the stage has a pole at z = 1
+     */
+    public abstract double setSteadyState(double in, Biquad s);
+
+    /**
+     * @param s filter coefficients
+     * @return DC gain of the stage, or NaN if the stage has a pole at z = 1
+     */
+    protected static double getDcGain(final Biquad s) {
+        final double denominator = 1.0 + s.mA1 + s.mA2;
+        return denominator == 0.0 ? Double.NaN : (s.mB0 + s.mB1 + s.mB2) / denominator;
+    }
+
 }
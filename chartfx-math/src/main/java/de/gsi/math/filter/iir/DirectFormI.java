@@ -34,6 +34,79 @@ public class DirectFormI extends DirectFormAbstract {
         reset();
     }
 
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s) {
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        double x1 = mX1;
+        double x2 = mX2;
+        double y1 = mY1;
+        double y2 = mY2;
+        for (int i = from; i < to; i++) {
+            final double input = in[i];
+            final double output = b0 * input + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            y2 = y1;
+            x1 = input;
+            y1 = output;
+            out[i] = output;
+        }
+        mX1 = x1;
+        mX2 = x2;
+        mY1 = y1;
+        mY2 = y2;
+    }
+
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s,
+            final DirectFormAbstract next, final Biquad nextS) {
+        if (!(next instanceof DirectFormI)) {
+            super.process(in, out, from, to, s, next, nextS);
+            return;
+        }
+        final DirectFormI state = (DirectFormI) next;
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        final double c1 = nextS.mA1;
+        final double c2 = nextS.mA2;
+        final double d0 = nextS.mB0;
+        final double d1 = nextS.mB1;
+        final double d2 = nextS.mB2;
+        double x1 = mX1;
+        double x2 = mX2;
+        double y1 = mY1;
+        double y2 = mY2;
+        double z1 = state.mY1;
+        double z2 = state.mY2;
+        for (int i = from; i < to; i++) {
+            final double input = in[i];
+            final double y = b0 * input + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = input;
+            final double z = d0 * y + d1 * y1 + d2 * y2 - c1 * z1 - c2 * z2;
+            y2 = y1;
+            y1 = y;
+            z2 = z1;
+            z1 = z;
+            out[i] = z;
+        }
+        mX1 = x1;
+        mX2 = x2;
+        mY1 = y1;
+        mY2 = y2;
+        // N.B. the input history of the following stage is the output history of this stage
+        state.mX1 = y1;
+        state.mX2 = y2;
+        state.mY1 = z1;
+        state.mY2 = z2;
+    }
+
     @Override
     public double process1(final double input, final Biquad s) {
 
@@ -53,4 +126,19 @@ public class DirectFormI extends DirectFormAbstract {
         mY1 = 0;
         mY2 = 0;
     }
+
+    @Override
+    public double setSteadyState(final double in, final Biquad s) {
+        final double gain = getDcGain(s);
+        if (Double.isNaN(gain)) {
+            reset();
+            return 0.0;
+        }
+        final double out = gain * in;
+        mX1 = in;
+        mX2 = in;
+        mY1 = out;
+        mY2 = out;
+        return out;
+    }
 }
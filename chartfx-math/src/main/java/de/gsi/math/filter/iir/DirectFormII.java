@@ -33,6 +33,67 @@ public class DirectFormII extends DirectFormAbstract {
         reset();
     }
 
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s) {
+        if (s == null) {
+            System.arraycopy(in, from, out, from, to - from);
+            return;
+        }
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        double v1 = mV1;
+        double v2 = mV2;
+        for (int i = from; i < to; i++) {
+            final double w = in[i] - a1 * v1 - a2 * v2;
+            out[i] = b0 * w + b1 * v1 + b2 * v2;
+            v2 = v1;
+            v1 = w;
+        }
+        mV1 = v1;
+        mV2 = v2;
+    }
+
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s,
+            final DirectFormAbstract next, final Biquad nextS) {
+        if (s == null || nextS == null || !(next instanceof DirectFormII)) {
+            super.process(in, out, from, to, s, next, nextS);
+            return;
+        }
+        final DirectFormII state = (DirectFormII) next;
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        final double c1 = nextS.mA1;
+        final double c2 = nextS.mA2;
+        final double d0 = nextS.mB0;
+        final double d1 = nextS.mB1;
+        final double d2 = nextS.mB2;
+        double v1 = mV1;
+        double v2 = mV2;
+        double u1 = state.mV1;
+        double u2 = state.mV2;
+        for (int i = from; i < to; i++) {
+            final double w = in[i] - a1 * v1 - a2 * v2;
+            final double y = b0 * w + b1 * v1 + b2 * v2;
+            v2 = v1;
+            v1 = w;
+            final double u = y - c1 * u1 - c2 * u2;
+            out[i] = d0 * u + d1 * u1 + d2 * u2;
+            u2 = u1;
+            u1 = u;
+        }
+        mV1 = v1;
+        mV2 = v2;
+        state.mV1 = u1;
+        state.mV2 = u2;
+    }
+
     @Override
     public double process1(final double in, final Biquad s) {
         if (s != null) {
@@ -52,4 +113,21 @@ public class DirectFormII extends DirectFormAbstract {
         mV1 = 0;
         mV2 = 0;
     }
+
+    @Override
+    public double setSteadyState(final double in, final Biquad s) {
+        if (s == null) {
+            reset();
+            return in;
+        }
+        final double denominator = 1.0 + s.mA1 + s.mA2;
+        if (denominator == 0.0) {
+            reset();
+            return 0.0;
+        }
+        final double w = in / denominator;
+        mV1 = w;
+        mV2 = w;
+        return (s.mB0 + s.mB1 + s.mB2) * w;
+    }
 }
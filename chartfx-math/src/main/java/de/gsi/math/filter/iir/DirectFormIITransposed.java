@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) 2009 by Vinnie Falco
+ * Copyright (c) 2016 by Bernd Porr
+ * Copyright (c) 2019 by Ralph J. Steinhagen
+ */
+
+package de.gsi.math.filter.iir;
+
+/**
+ * Implementation of a transposed Direct Form II filter with its states. The coefficients are supplied from the
+ * outside. Compared to Direct Form II, the transposed form has a shorter dependency chain per sample and is
+ * numerically more robust for floating-point arithmetic.
+ */
+public class DirectFormIITransposed extends DirectFormAbstract {
+    public double mS1; // s1[n-1]
+    public double mS2; // s2[n-1]
+
+    public DirectFormIITransposed() {
+        reset();
+    }
+
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s) {
+        if (s == null) {
+            System.arraycopy(in, from, out, from, to - from);
+            return;
+        }
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        double s1 = mS1;
+        double s2 = mS2;
+        for (int i = from; i < to; i++) {
+            final double x = in[i];
+            final double y = b0 * x + s1;
+            s1 = b1 * x - a1 * y + s2;
+            s2 = b2 * x - a2 * y;
+            out[i] = y;
+        }
+        mS1 = s1;
+        mS2 = s2;
+    }
+
+    @Override
+    public void process(final double[] in, final double[] out, final int from, final int to, final Biquad s,
+            final DirectFormAbstract next, final Biquad nextS) {
+        if (s == null || nextS == null || !(next instanceof DirectFormIITransposed)) {
+            super.process(in, out, from, to, s, next, nextS);
+            return;
+        }
+        final DirectFormIITransposed state = (DirectFormIITransposed) next;
+        final double a1 = s.mA1;
+        final double a2 = s.mA2;
+        final double b0 = s.mB0;
+        final double b1 = s.mB1;
+        final double b2 = s.mB2;
+        final double c1 = nextS.mA1;
+        final double c2 = nextS.mA2;
+        final double d0 = nextS.mB0;
+        final double d1 = nextS.mB1;
+        final double d2 = nextS.mB2;
+        double s1 = mS1;
+        double s2 = mS2;
+        double t1 = state.mS1;
+        double t2 = state.mS2;
+        for (int i = from; i < to; i++) {
+            final double x = in[i];
+            final double y = b0 * x + s1;
+            s1 = b1 * x - a1 * y + s2;
+            s2 = b2 * x - a2 * y;
+            final double z = d0 * y + t1;
+            t1 = d1 * y - c1 * z + t2;
+            t2 = d2 * y - c2 * z;
+            out[i] = z;
+        }
+        mS1 = s1;
+        mS2 = s2;
+        state.mS1 = t1;
+        state.mS2 = t2;
+    }
+
+    @Override
+    public double process1(final double in, final Biquad s) {
+        if (s != null) {
+            final double out = s.mB0 * in + mS1;
+            mS1 = s.mB1 * in - s.mA1 * out + mS2;
+            mS2 = s.mB2 * in - s.mA2 * out;
+            return out;
+        }
+        return in;
+    }
+
+    @Override
+    public final void reset() {
+        mS1 = 0;
+        mS2 = 0;
+    }
+
+    @Override
+    public double setSteadyState(final double in, final Biquad s) {
+        if (s == null) {
+            reset();
+            return in;
+        }
+        final double gain = getDcGain(s);
+        if (Double.isNaN(gain)) {
+            reset();
+            return 0.0;
+        }
+        final double out = gain * in;
+        mS2 = s.mB2 * in - s.mA2 * out;
+        mS1 = s.mB1 * in - s.mA1 * out + mS2;
+        return out;
+    }
+}
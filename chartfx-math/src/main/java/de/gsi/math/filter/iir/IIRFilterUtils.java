@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) 2009 by Vinnie Falco
+ * Copyright (c) 2016 by Bernd Porr
+ * Copyright (c) 2019 by Ralph J. Steinhagen
+ */
+
+package de.gsi.math.filter.iir;
+
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Offline filtering of (large) records with the coefficients of a given {@link Cascade}:
+ * <ul>
+ * <li>zero-phase forward-backward filtering ('filtfilt') with odd-symmetric edge extension and steady-state initial
+ * conditions to suppress start-up and end transients,</li>
+ * <li>parallel segmented filtering: long records are split into one segment per thread, each segment being preceded by
+ * a warm-up region (by default the settling length of the filter, see {@link Cascade#getSettlingLength(double)}) that
+ * settles the filter states before the segment proper is filtered. The result is identical to the sequential filter
+ * within the settling tolerance.</li>
+ * </ul>
+ * The filter state of the supplied cascade is neither used nor modified, each call works on independent copies.
+ */
+public final class IIRFilterUtils {
+    /**
+     * relative tolerance used to derive the default warm-up length
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+    private static final int MIN_PARALLEL_SAMPLES = 1 << 16; // minimum record length to distribute work across cores
+
+    private IIRFilterUtils() {
+        // utility class
+    }
+
+    /**
+     * causal filtering starting from rest (zero initial states), long records are filtered in parallel segments
+     *
+     * @param cascade filter providing the coefficients and topology
+     * @param in input samples
+     * @param out optional output array (length &ge; in.length, may be identical to the input array), a new array is
+     *        allocated if {@code null}
+     * @return filtered samples
+     */
+    public static double[] filter(final Cascade cascade, final double[] in, final double[] out) {
+        AssertUtils.notNull("cascade", cascade);
+        return filter(cascade, in, out, cascade.getSettlingLength(DEFAULT_TOLERANCE));
+    }
+
+    /**
+     * causal filtering starting from rest (zero initial states), long records are filtered in parallel segments
+     *
+     * @param cascade filter providing the coefficients and topology
+     * @param in input samples
+     * @param out optional output array (length &ge; in.length, may be identical to the input array)
+     * @param warmUpLength number of samples used to settle the filter states preceding each parallel segment
+     * @return filtered samples
+     */
+    public static double[] filter(final Cascade cascade, final double[] in, final double[] out,
+            final int warmUpLength) {
+        AssertUtils.notNull("cascade", cascade);
+        final double[] result = checkArrays(in, out);
+        AssertUtils.gtThanZero("warmUpLength", warmUpLength);
+        filterSegmented(cascade, in, result, in.length, warmUpLength, false);
+        return result;
+    }
+
+    /**
+     * zero-phase forward-backward filtering, the effective magnitude response is the square of the cascade's response.
+     * The record is extended at both ends by an odd-symmetric reflection of 3 * (2 * nBiquads + 1) samples and both
+     * passes start from the steady state of the first (extended) sample.
+     *
+     * @param cascade filter providing the coefficients and topology
+     * @param in input samples
+     * @param out optional output array (length &ge; in.length, may be identical to the input array), a new array is
+     *        allocated if {@code null}
+     * @return filtered samples
+     */
+    public static double[] filtfilt(final Cascade cascade, final double[] in, final double[] out) {
+        AssertUtils.notNull("cascade", cascade);
+        return filtfilt(cascade, in, out, cascade.getSettlingLength(DEFAULT_TOLERANCE));
+    }
+
+    /**
+     * zero-phase forward-backward filtering, see {@link #filtfilt(Cascade, double[], double[])}
+     *
+     * @param cascade filter providing the coefficients and topology
+     * @param in input samples
+     * @param out optional output array (length &ge; in.length, may be identical to the input array)
+     * @param warmUpLength number of samples used to settle the filter states preceding each parallel segment
+     * @return filtered samples
+     */
+    public static double[] filtfilt(final Cascade cascade, final double[] in, final double[] out,
+            final int warmUpLength) {
+        AssertUtils.notNull("cascade", cascade);
+        final double[] result = checkArrays(in, out);
+        AssertUtils.gtThanZero("warmUpLength", warmUpLength);
+        final int n = in.length;
+        final int nPad = Math.min(3 * (2 * cascade.getNumBiquads() + 1), n - 1);
+        final int length = n + 2 * nPad;
+
+        // odd-symmetric extension around the first and last sample
+        final double[] extended = new double[length];
+        System.arraycopy(in, 0, extended, nPad, n);
+        for (int k = 1; k <= nPad; k++) {
+            extended[nPad - k] = 2.0 * in[0] - in[k];
+            extended[nPad + n - 1 + k] = 2.0 * in[n - 1] - in[n - 1 - k];
+        }
+
+        filterSegmented(cascade, extended, extended, length, warmUpLength, true); // forward pass
+        reverse(extended);
+        filterSegmented(cascade, extended, extended, length, warmUpLength, true); // backward pass
+        reverse(extended);
+
+        System.arraycopy(extended, nPad, result, 0, n);
+        return result;
+    }
+
+    private static double[] checkArrays(final double[] in, final double[] out) {
+        AssertUtils.nonEmptyArray("in", in);
+        if (out == null) {
+            return new double[in.length];
+        }
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("output array length " + out.length
+                                               + " is smaller than the input length " + in.length);
+        }
+        return out;
+    }
+
+    private static void filterSegmented(final Cascade cascade, final double[] in, final double[] out,
+            final int length, final int warmUpLength, final boolean steadyStateStart) {
+        // segments should be long compared to their warm-up region
+        final int nSegments = (int) Math.min(ConcurrencyUtils.getNumberOfThreads(), length / (4L * warmUpLength));
+        if (nSegments <= 1 || length < MIN_PARALLEL_SAMPLES) {
+            final Cascade filter = new Cascade(cascade);
+            if (steadyStateStart) {
+                filter.setSteadyState(in[0]);
+            }
+            filter.filter(in, out, 0, length);
+            return;
+        }
+        final int segmentLength = (length + nSegments - 1) / nSegments;
+
+        // N.B. copy the warm-up regions before any segment is (possibly in-place) overwritten
+        final double[][] warmUp = new double[nSegments][];
+        for (int segment = 1; segment < nSegments; segment++) {
+            final int start = segment * segmentLength;
+            warmUp[segment] = Arrays.copyOfRange(in, start - warmUpLength, start);
+        }
+
+        final Future<?>[] futures = new Future[nSegments];
+        for (int segment = 0; segment < nSegments; segment++) {
+            final int start = segment * segmentLength;
+            final int end = Math.min(length, start + segmentLength);
+            final double[] warmUpData = warmUp[segment];
+            futures[segment] = ConcurrencyUtils.submit(() -> {
+                final Cascade filter = new Cascade(cascade);
+                if (warmUpData != null) {
+                    filter.setSteadyState(warmUpData[0]);
+                    filter.filter(warmUpData, warmUpData, 0, warmUpData.length);
+                } else if (steadyStateStart) {
+                    filter.setSteadyState(in[0]);
+                }
+                filter.filter(in, out, start, end);
+            });
+        }
+        ConcurrencyUtils.waitForCompletionOrThrow(futures);
+    }
+
+    private static void reverse(final double[] data) {
+        for (int i = 0, j = data.length - 1; i < j; i++, j--) {
+            final double tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) 2009 by Vinnie Falco
+ * Copyright (c) 2016 by Bernd Porr
+ * Copyright (c) 2019 by Ralph J. Steinhagen
+ */
+
+package de.gsi.math.filter.iir;
+
+import java.util.Arrays;
+
+import de.gsi.dataset.utils.AssertUtils;
+
+/**
+ * Filters N channels with the same {@link Cascade} coefficients in one pass. The samples are expected in an interleaved
+ * layout (sample i of channel c at index i * nChannels + c) and the filter states are kept as structure-of-arrays
+ * (one contiguous array per stage and state variable). The inner loop over the channels thus has no loop-carried
+ * dependency and can be vectorised by the JIT, which makes the filtering of many channels memory-bandwidth rather
+ * than latency bound. Each stage is evaluated in the transposed Direct Form II, i.e. each channel yields the same
+ * result as a {@link Cascade} set up with {@link DirectFormAbstract#DIRECT_FORM_II_TRANSPOSED}.
+ * <p>
+ * N.B. the coefficients are copied on construction, later modifications of the cascade are not reflected.
+ */
+public class MultiChannelCascade {
+    private final int nChannels;
+    private final int nStages;
+    private final double[][] coefficients; // [stage][b0, b1, b2, a1, a2]
+    private final double[][] state1; // [stage][channel]
+    private final double[][] state2; // [stage][channel]
+    private final double[] frame; // [channel]
+
+    /**
+     * @param cascade filter providing the coefficients
+     * @param nChannels number of channels
+     */
+    public MultiChannelCascade(final Cascade cascade, final int nChannels) {
+        AssertUtils.notNull("cascade", cascade);
+        AssertUtils.gtThanZero("nChannels", nChannels);
+        this.nChannels = nChannels;
+        nStages = cascade.getNumBiquads();
+        coefficients = new double[nStages][];
+        for (int i = 0; i < nStages; i++) {
+            final Biquad s = cascade.getBiquad(i);
+            coefficients[i] = new double[] { s.mB0, s.mB1, s.mB2, s.mA1, s.mA2 };
+        }
+        state1 = new double[nStages][nChannels];
+        state2 = new double[nStages][nChannels];
+        frame = new double[nChannels];
+    }
+
+    /**
+     * filters the interleaved sample frames [fromFrame, toFrame[, the filter states are carried over between
+     * consecutive calls
+     *
+     * @param in interleaved input samples (sample i of channel c at index i * nChannels + c)
+     * @param out interleaved output samples (may be identical to the input array)
+     * @param fromFrame first sample frame
+     * @param toFrame last sample frame (exclusive)
+     */
+    public void filter(final double[] in, final double[] out, final int fromFrame, final int toFrame) {
+        AssertUtils.notNull("in", in);
+        AssertUtils.notNull("out", out);
+        AssertUtils.indexOrder(fromFrame, "fromFrame", toFrame, "toFrame");
+        AssertUtils.indexInBounds(fromFrame, in.length / nChannels + 1, "fromFrame");
+        AssertUtils.indexInBounds(toFrame, in.length / nChannels + 1, "toFrame");
+        AssertUtils.indexInBounds(toFrame, out.length / nChannels + 1, "toFrame");
+        if (nStages == 0) {
+            System.arraycopy(in, fromFrame * nChannels, out, fromFrame * nChannels, (toFrame - fromFrame) * nChannels);
+            return;
+        }
+        final double[] x = frame;
+        for (int f = fromFrame; f < toFrame; f++) {
+            // N.B. all arrays of the inner loop are indexed by 'ch' only which enables the auto-vectorisation
+            System.arraycopy(in, f * nChannels, x, 0, nChannels);
+            for (int stage = 0; stage < nStages; stage++) {
+                final double[] c = coefficients[stage];
+                final double b0 = c[0];
+                final double b1 = c[1];
+                final double b2 = c[2];
+                final double a1 = c[3];
+                final double a2 = c[4];
+                final double[] s1 = state1[stage];
+                final double[] s2 = state2[stage];
+                for (int ch = 0; ch < nChannels; ch++) {
+                    final double xn = x[ch];
+                    final double y = b0 * xn + s1[ch];
+                    s1[ch] = b1 * xn - a1 * y + s2[ch];
+                    s2[ch] = b2 * xn - a2 * y;
+                    x[ch] = y;
+                }
+            }
+            System.arraycopy(x, 0, out, f * nChannels, nChannels);
+        }
+    }
+
+    /**
+     * @return number of channels
+     */
+    public int getNumChannels() {
+        return nChannels;
+    }
+
+    /**
+     * resets the filter states of all channels
+     */
+    public void reset() {
+        for (int stage = 0; stage < nStages; stage++) {
+            Arrays.fill(state1[stage], 0.0);
+            Arrays.fill(state2[stage], 0.0);
+        }
+    }
+}
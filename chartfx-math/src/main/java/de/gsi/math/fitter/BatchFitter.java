@@ -0,0 +1,393 @@
+package de.gsi.math.fitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.DataSetError;
+import de.gsi.dataset.DataSetError.ErrorType;
+import de.gsi.dataset.spi.MultiDimDoubleDataSet;
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.TMath;
+import de.gsi.math.fitter.LevenbergMarquardtFitter.Jacobian;
+import de.gsi.math.fitter.LevenbergMarquardtFitter.Status;
+import de.gsi.math.functions.Function1D;
+import de.gsi.math.functions.GaussianFunction;
+
+/**
+ * Concurrent least-squares fitting of the same model to many independent traces (e.g. the bunch profiles of one
+ * acquisition cycle).
+ * <p>
+ * The traces are distributed on a work-stealing {@link ForkJoinPool} (by default the common pool). Each pool thread
+ * keeps its own {@link LevenbergMarquardtFitter} and model instance (created via the supplied factory), i.e. no
+ * function or work buffer is allocated in the steady state. Each trace is started from the converged solution of the
+ * same trace index of the previous call ('warm start') or, if none is available, from the estimate of the
+ * {@link InitialGuess} strategy. A warm-started fit that does not converge is repeated from the initial guess.
+ * <p>
+ * The results are returned as a parameter table with one row per trace and the columns: trace index, the parameter
+ * values, the parameter errors, the reduced chi^2, the number of iterations and the fit status ordinal (see
+ * {@link #getColumnCount(int)}).
+ * <p>
+ * N.B. the individual fits run sequentially (cf. {@link LevenbergMarquardtFitter#setParallel(boolean)}), the
+ * parallelism is across traces. Concurrent calls to the same instance are not supported.
+ */
+public class BatchFitter {
+    private static final int MIN_TRACES_PER_TASK = 4; // minimum number of traces per work-stealing task
+    private final Supplier<Function1D> modelFactory;
+    private final Jacobian jacobian;
+    private final InitialGuess initialGuess;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    private final String[] parameterNames;
+    private int maxIterations = LevenbergMarquardtFitter.DEFAULT_MAX_ITERATIONS;
+    private double tolerance = LevenbergMarquardtFitter.DEFAULT_TOLERANCE;
+    private boolean warmStart = true;
+    private double[][] previousSolutions = new double[0][]; // [trace][parameter], null: no converged solution
+
+    /**
+     * strategy to derive start parameters from the data of one trace
+     */
+    @FunctionalInterface
+    public interface InitialGuess {
+        /**
+         * @param xValues abscissa values
+         * @param yValues ordinate values
+         * @param parameters output: start values for all model parameters
+         */
+        void estimate(double[] xValues, double[] yValues, double[] parameters);
+    }
+
+    /**
+     * batch fitter using the model's default parameters as start values and numerical derivatives
+     *
+     * @param modelFactory creates the model instances (one per pool thread)
+     */
+    public BatchFitter(final Supplier<Function1D> modelFactory) {
+        this(modelFactory, null, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param modelFactory creates the model instances (one per pool thread)
+     * @param jacobian optional analytic derivatives of the model, forward differences if {@code null}
+     * @param initialGuess optional start value estimate, the model's default parameters are used if {@code null}
+     * @param pool work-stealing pool executing the fits
+     */
+    public BatchFitter(final Supplier<Function1D> modelFactory, final Jacobian jacobian,
+            final InitialGuess initialGuess, final ForkJoinPool pool) {
+        AssertUtils.notNull("modelFactory", modelFactory);
+        AssertUtils.notNull("pool", pool);
+        this.modelFactory = modelFactory;
+        this.jacobian = jacobian;
+        this.initialGuess = initialGuess;
+        this.pool = pool;
+        final Function1D prototype = modelFactory.get();
+        AssertUtils.notNull("modelFactory.get()", prototype);
+        parameterNames = new String[prototype.getParameterCount()];
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameterNames[i] = prototype.getParameterName(i);
+        }
+    }
+
+    /**
+     * fits each row of a 2D array sharing the same abscissa
+     *
+     * @param xValues common abscissa values
+     * @param traces ordinate values [trace][sample], each of length xValues.length
+     * @return parameter table with one row per trace
+     */
+    public MultiDimDoubleDataSet fit(final double[] xValues, final double[][] traces) {
+        AssertUtils.nonEmptyArray("xValues", xValues);
+        AssertUtils.notNull("traces", traces);
+        for (int i = 0; i < traces.length; i++) {
+            AssertUtils.notNull("traces[" + i + "]", traces[i]);
+            AssertUtils.checkArrayDimension("traces[" + i + "]", traces[i], xValues.length);
+        }
+        return fit(traces.length, (worker, trace) -> worker.fit(trace, xValues, traces[trace], null));
+    }
+
+    /**
+     * fits each data set (DIM_X: abscissa, DIM_Y: ordinate, y-errors of {@link DataSetError}s are used as weights)
+     *
+     * @param dataSets traces to be fitted
+     * @return parameter table with one row per trace
+     */
+    public MultiDimDoubleDataSet fit(final List<? extends DataSet> dataSets) {
+        AssertUtils.notNull("dataSets", dataSets);
+        for (int i = 0; i < dataSets.size(); i++) {
+            AssertUtils.notNull("dataSets[" + i + "]", dataSets.get(i));
+        }
+        return fit(dataSets.size(), (worker, trace) -> worker.fit(trace, dataSets.get(trace)));
+    }
+
+    /**
+     * @param nParameters number of model parameters
+     * @return number of columns (dimensions) of the parameter table: 2 * nParameters + 4
+     */
+    public static int getColumnCount(final int nParameters) {
+        return 2 * nParameters + 4;
+    }
+
+    /**
+     * @return maximum number of iterations per trace
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * @return convergence tolerance, see {@link LevenbergMarquardtFitter#setTolerance(double)}
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return {@code true}: traces start from the converged solution of the previous call
+     */
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * discards the stored solutions, the next call starts all traces from the initial guess
+     */
+    public void resetWarmStart() {
+        previousSolutions = new double[0][];
+    }
+
+    /**
+     * @param maxIterations maximum number of iterations per trace
+     */
+    public void setMaxIterations(final int maxIterations) {
+        AssertUtils.gtThanZero("maxIterations", maxIterations);
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param tolerance convergence tolerance, see {@link LevenbergMarquardtFitter#setTolerance(double)}
+     */
+    public void setTolerance(final double tolerance) {
+        AssertUtils.gtThanZero("tolerance", tolerance);
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @param state {@code true}: traces start from the converged solution of the previous call
+     */
+    public void setWarmStart(final boolean state) {
+        warmStart = state;
+    }
+
+    private MultiDimDoubleDataSet fit(final int nTraces, final TraceFit traceFit) {
+        final int nParameters = parameterNames.length;
+        if (previousSolutions.length != nTraces) {
+            previousSolutions = Arrays.copyOf(previousSolutions, nTraces);
+        }
+        final double[][] table = new double[getColumnCount(nParameters)][nTraces];
+        final int grainSize = Math.max(MIN_TRACES_PER_TASK, nTraces / (8 * pool.getParallelism()));
+        pool.invoke(new FitTask(0, nTraces, grainSize, traceFit, table));
+
+        final MultiDimDoubleDataSet result = new MultiDimDoubleDataSet("fit parameters", table, nTraces, false);
+        result.getAxisDescription(0).set("trace index");
+        for (int i = 0; i < nParameters; i++) {
+            result.getAxisDescription(1 + i).set(parameterNames[i]);
+            result.getAxisDescription(1 + nParameters + i).set(parameterNames[i] + " error");
+        }
+        result.getAxisDescription(2 * nParameters + 1).set("chi2/ndf");
+        result.getAxisDescription(2 * nParameters + 2).set("iterations");
+        result.getAxisDescription(2 * nParameters + 3).set("status");
+        return result;
+    }
+
+    /**
+     * batch fitter of Gaussian profiles {@code scale/(sigma*sqrt(2.pi)) * exp(-0.5 [(x - mean)/sigma]^2)} (parameter
+     * order: mean, sigma, scaling, cf. {@link GaussianFunction}) using analytic derivatives and moment-based start
+     * values
+     *
+     * @return new batch fitter using the common pool
+     */
+    public static BatchFitter gaussian() {
+        return new BatchFitter(() -> new GaussianFunction("batch-gauss"), BatchFitter::gaussDerivatives,
+                BatchFitter::gaussMoments, ForkJoinPool.commonPool());
+    }
+
+    private static void gaussDerivatives(final double x, final double[] parameters, final double[] derivatives) {
+        final double sigma = parameters[1];
+        final double u = (x - parameters[0]) / sigma;
+        final double g = TMath.Gauss(x, parameters[0], sigma, true);
+        final double f = parameters[2] * g;
+        derivatives[0] = f * u / sigma;
+        derivatives[1] = f * (u * u - 1.0) / sigma;
+        derivatives[2] = g;
+    }
+
+    private static void gaussMoments(final double[] xValues, final double[] yValues, final double[] parameters) {
+        final int n = xValues.length;
+        double sum = 0.0;
+        double sumX = 0.0;
+        double sumX2 = 0.0;
+        for (int i = 0; i < n; i++) {
+            final double weight = Math.max(0.0, yValues[i]); // model has no offset, ignore negative noise
+            sum += weight;
+            sumX += weight * xValues[i];
+            sumX2 += weight * xValues[i] * xValues[i];
+        }
+        final double range = Math.abs(xValues[n - 1] - xValues[0]);
+        if (sum <= 0.0) {
+            parameters[0] = 0.5 * (xValues[0] + xValues[n - 1]);
+            parameters[1] = range > 0 ? 0.25 * range : 1.0;
+            parameters[2] = 0.0;
+            return;
+        }
+        final double mean = sumX / sum;
+        final double variance = sumX2 / sum - mean * mean;
+        parameters[0] = mean;
+        parameters[1] = variance > 0 ? Math.sqrt(variance) : (range > 0 ? range / n : 1.0);
+        parameters[2] = n > 1 ? sum * range / (n - 1) : sum; // area: sum times the mean sample spacing
+    }
+
+    @FunctionalInterface
+    private interface TraceFit {
+        double[] fit(Worker worker, int trace);
+    }
+
+    private class FitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+        private final transient TraceFit traceFit;
+        private final double[][] table;
+
+        protected FitTask(final int from, final int to, final int grainSize, final TraceFit traceFit,
+                final double[][] table) {
+            super();
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+            this.traceFit = traceFit;
+            this.table = table;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grainSize) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new FitTask(from, middle, grainSize, traceFit, table),
+                        new FitTask(middle, to, grainSize, traceFit, table));
+                return;
+            }
+            final Worker worker = workers.get();
+            for (int trace = from; trace < to; trace++) {
+                final double[] row = traceFit.fit(worker, trace);
+                for (int column = 0; column < row.length; column++) {
+                    table[column][trace] = row[column];
+                }
+            }
+        }
+    }
+
+    /**
+     * per-thread fitter, model and buffers
+     */
+    private class Worker {
+        private final LevenbergMarquardtFitter fitter = new LevenbergMarquardtFitter();
+        private final Function1D model = modelFactory.get();
+        private final double[] defaults = new double[parameterNames.length];
+        private final double[] start = new double[parameterNames.length];
+        private final double[] row = new double[getColumnCount(parameterNames.length)];
+        private double[] xBuffer = new double[0];
+        private double[] yBuffer = new double[0];
+        private double[] errorBuffer = new double[0];
+
+        protected Worker() {
+            fitter.setParallel(false);
+            fitter.setJacobian(jacobian);
+            for (int i = 0; i < defaults.length; i++) {
+                defaults[i] = model.getParameterValue(i);
+            }
+        }
+
+        protected double[] fit(final int trace, final DataSet dataSet) {
+            return dataSet.lock().readLockGuard(() -> {
+                final int n = dataSet.getDataCount();
+                if (xBuffer.length != n) {
+                    xBuffer = new double[n];
+                    yBuffer = new double[n];
+                    errorBuffer = new double[n];
+                }
+                final boolean hasErrors = dataSet instanceof DataSetError
+                                          && ((DataSetError) dataSet).getErrorType(DataSet.DIM_Y) != ErrorType.NO_ERROR;
+                for (int i = 0; i < n; i++) {
+                    xBuffer[i] = dataSet.get(DataSet.DIM_X, i);
+                    yBuffer[i] = dataSet.get(DataSet.DIM_Y, i);
+                    if (hasErrors) {
+                        final DataSetError errorDataSet = (DataSetError) dataSet;
+                        errorBuffer[i] = 0.5 * (errorDataSet.getErrorNegative(DataSet.DIM_Y, i)
+                                                + errorDataSet.getErrorPositive(DataSet.DIM_Y, i));
+                    }
+                }
+                return fit(trace, xBuffer, yBuffer, hasErrors ? errorBuffer : null);
+            });
+        }
+
+        protected double[] fit(final int trace, final double[] xValues, final double[] yValues,
+                final double[] yErrors) {
+            fitter.setMaxIterations(maxIterations);
+            fitter.setTolerance(tolerance);
+            final double[] previous = previousSolutions[trace];
+            Status status;
+            int iterations = 0;
+            if (warmStart && previous != null) {
+                setParameters(previous);
+                status = fitter.fit(model, xValues, yValues, yErrors);
+                iterations = fitter.getIterations();
+                if (status != Status.CONVERGED) {
+                    status = coldStart(xValues, yValues, yErrors);
+                    iterations += fitter.getIterations();
+                }
+            } else {
+                status = coldStart(xValues, yValues, yErrors);
+                iterations = fitter.getIterations();
+            }
+
+            final int nParameters = start.length;
+            final double[] parameters = fitter.getParameters();
+            final double[] errors = fitter.getParameterErrors();
+            row[0] = trace;
+            System.arraycopy(parameters, 0, row, 1, nParameters);
+            System.arraycopy(errors, 0, row, 1 + nParameters, nParameters);
+            row[2 * nParameters + 1] = fitter.getReducedChiSquare();
+            row[2 * nParameters + 2] = iterations;
+            row[2 * nParameters + 3] = status.ordinal();
+            // N.B. each trace index is written by exactly one task
+            if (status != Status.CONVERGED) {
+                previousSolutions[trace] = null;
+            } else if (previous == null) {
+                previousSolutions[trace] = parameters.clone();
+            } else {
+                System.arraycopy(parameters, 0, previous, 0, nParameters);
+            }
+            return row;
+        }
+
+        private Status coldStart(final double[] xValues, final double[] yValues, final double[] yErrors) {
+            if (initialGuess == null) {
+                System.arraycopy(defaults, 0, start, 0, start.length);
+            } else {
+                initialGuess.estimate(xValues, yValues, start);
+            }
+            setParameters(start);
+            return fitter.fit(model, xValues, yValues, yErrors);
+        }
+
+        private void setParameters(final double[] values) {
+            for (int i = 0; i < values.length; i++) {
+                model.setParameterValue(i, values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package de.gsi.math.fitter;
+
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.functions.Function1D;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Levenberg-Marquardt least-squares fitter for {@link Function1D} models.
+ * <p>
+ * The model values, the Jacobian (either analytic via {@link #setJacobian(Jacobian)} or by forward differences) and
+ * the normal equations are evaluated in parallel over data chunks via {@link ConcurrencyUtils}. The work buffers are
+ * kept between consecutive fits, i.e. repeated (interactive) fits of data with the same length do not allocate. A
+ * running fit can be cancelled from another thread via {@link #cancel()} and reports its progress after each iteration
+ * to an optional {@link ProgressListener}.
+ * <p>
+ * Fixed parameters (see {@link Function1D#isParameterFixed(int)}) are not varied, parameter ranges (if minimum &lt;
+ * maximum) are enforced by clamping. After the fit, the function holds the best-fit parameter values.
+ * <p>
+ * N.B. the function's {@code getValue(x)} (and Jacobian) must be safe for concurrent invocation with constant
+ * parameters, which is the case for the implementations in {@code de.gsi.math.functions}. The fitter instance itself
+ * is not thread-safe, i.e. use one instance per thread for concurrent fits.
+ */
+public class LevenbergMarquardtFitter {
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    private static final int MIN_PARALLEL_SAMPLES = 1 << 14; // minimum number of samples per parallel chunk
+    private static final double LAMBDA_INITIAL = 1e-3;
+    private static final double LAMBDA_MAX = 1e12;
+    private static final double DERIVATIVE_STEP = 1.5e-8; // ~ sqrt(machine precision)
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private boolean parallel = true;
+    private Jacobian jacobian;
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    // work buffers, re-used between fits
+    private double[] weights = new double[0];
+    private double[] model = new double[0]; // model values of the current best parameters
+    private double[] trialModel = new double[0]; // model values of the trial parameters
+    private double[][] jacobianColumns = new double[0][]; // [free parameter][sample]
+    private double[][] partialSums = new double[0][]; // [chunk][alpha (m*m), beta (m), chi^2 (1)]
+    private double[][] derivatives = new double[0][]; // [chunk][parameter]
+
+    // results
+    private Status status = Status.NOT_STARTED;
+    private double[] parameters = new double[0];
+    private double[] parameterErrors = new double[0];
+    private double[][] covariance = new double[0][0];
+    private double chiSquare = Double.NaN;
+    private int degreesOfFreedom;
+    private int iterations;
+
+    /**
+     * fit status
+     */
+    public enum Status {
+        NOT_STARTED,
+        /** relative chi^2 change or parameter step below tolerance */
+        CONVERGED,
+        /** maximum number of iterations reached */
+        MAX_ITERATIONS,
+        /** fit has been cancelled, the results correspond to the best parameters found so far */
+        CANCELLED
+    }
+
+    /**
+     * analytic derivatives of the model function with respect to its parameters
+     */
+    @FunctionalInterface
+    public interface Jacobian {
+        /**
+         * @param x abscissa value
+         * @param parameters current values of all parameters (read-only)
+         * @param derivatives output: partial derivatives df(x)/dp_j for all parameters j (entries of fixed parameters
+         *        are ignored)
+         */
+        void computeDerivatives(double x, double[] parameters, double[] derivatives);
+    }
+
+    /**
+     * progress callback invoked after each iteration on the fitting thread
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param iteration iteration count
+         * @param chiSquare chi^2 of the best parameters so far
+         * @param parameters best parameters so far (read-only)
+         */
+        void progress(int iteration, double chiSquare, double[] parameters);
+    }
+
+    /**
+     * cancels a running fit, the fit returns with {@link Status#CANCELLED} and the best parameters found so far
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * least-squares fit of the function to the data points
+     *
+     * @param function model function, its present parameter values are used as start values
+     * @param xValues abscissa values
+     * @param yValues ordinate values
+     * @param yErrors optional ordinate errors (weights 1/err^2, non-positive errors are treated as unity), unit weights
+     *        if {@code null}
+     * @return fit status
+     */
+    public Status fit(final Function1D function, final double[] xValues, final double[] yValues,
+            final double[] yErrors) {
+        AssertUtils.notNull("function", function);
+        AssertUtils.nonEmptyArray("xValues", xValues);
+        AssertUtils.notNull("yValues", yValues);
+        AssertUtils.checkArrayDimension("yValues", yValues, xValues.length);
+        if (yErrors != null) {
+            AssertUtils.checkArrayDimension("yErrors", yErrors, xValues.length);
+        }
+        cancelled = false;
+        final int n = xValues.length;
+        final int nParameters = function.getParameterCount();
+        final int[] free = getFreeParameters(function);
+        final int m = free.length;
+        initialiseBuffers(n, m, nParameters, yErrors);
+
+        parameters = new double[nParameters];
+        for (int j = 0; j < nParameters; j++) {
+            parameters[j] = function.getParameterValue(j);
+        }
+        degreesOfFreedom = Math.max(1, n - m);
+        iterations = 0;
+        status = Status.MAX_ITERATIONS;
+
+        final double[] trial = new double[nParameters];
+        final double[] alpha = new double[m * m];
+        final double[] beta = new double[m];
+        final double[] system = new double[m * m];
+        final double[] delta = new double[m];
+        chiSquare = evaluate(function, parameters, xValues, yValues, model);
+        double lambda = LAMBDA_INITIAL;
+
+        iterationLoop:
+        while (iterations < maxIterations && m > 0) {
+            if (cancelled) {
+                status = Status.CANCELLED;
+                break;
+            }
+            iterations++;
+            computeNormalEquations(function, free, xValues, yValues, alpha, beta);
+
+            while (true) {
+                System.arraycopy(alpha, 0, system, 0, m * m);
+                for (int k = 0; k < m; k++) {
+                    system[k * m + k] += lambda * Math.max(alpha[k * m + k], Double.MIN_NORMAL);
+                }
+                System.arraycopy(beta, 0, delta, 0, m);
+                if (!choleskyDecompose(system, m)) {
+                    lambda *= 10;
+                    if (lambda > LAMBDA_MAX) {
+                        status = Status.CONVERGED;
+                        break iterationLoop;
+                    }
+                    continue;
+                }
+                choleskySubstitute(system, delta, m);
+
+                System.arraycopy(parameters, 0, trial, 0, nParameters);
+                boolean smallStep = true;
+                for (int k = 0; k < m; k++) {
+                    final int j = free[k];
+                    trial[j] = clamp(function, j, parameters[j] + delta[k]);
+                    final double step = Math.abs(trial[j] - parameters[j]);
+                    smallStep &= step <= tolerance * (Math.abs(parameters[j]) + tolerance);
+                }
+
+                if (cancelled) {
+                    status = Status.CANCELLED;
+                    break iterationLoop;
+                }
+                final double trialChiSquare = evaluate(function, trial, xValues, yValues, trialModel);
+                if (trialChiSquare <= chiSquare) {
+                    final double change = chiSquare - trialChiSquare;
+                    System.arraycopy(trial, 0, parameters, 0, nParameters);
+                    final double[] tmp = model;
+                    model = trialModel;
+                    trialModel = tmp;
+                    chiSquare = trialChiSquare;
+                    lambda = Math.max(lambda / 10, 1e-15);
+                    if (smallStep || change <= tolerance * chiSquare) {
+                        status = Status.CONVERGED;
+                    }
+                    break;
+                }
+                lambda *= 10;
+                if (lambda > LAMBDA_MAX || smallStep) {
+                    // no further improvement possible
+                    status = Status.CONVERGED;
+                    break;
+                }
+            }
+
+            if (progressListener != null) {
+                progressListener.progress(iterations, chiSquare, parameters);
+            }
+            if (status == Status.CONVERGED) {
+                break;
+            }
+        }
+        if (m == 0) {
+            status = Status.CONVERGED;
+        }
+
+        function.setParameterValues(parameters);
+        computeCovariance(function, free, xValues, yValues, yErrors == null, alpha, beta);
+        return status;
+    }
+
+    /**
+     * @return chi^2 of the last fit (weighted sum of squared residuals)
+     */
+    public double getChiSquare() {
+        return chiSquare;
+    }
+
+    /**
+     * @return covariance matrix of the parameters of the last fit (zero for fixed parameters)
+     */
+    public double[][] getCovarianceMatrix() {
+        return covariance;
+    }
+
+    /**
+     * @return number of iterations of the last fit
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return maximum number of iterations
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * @return parameter uncertainties of the last fit, scaled by the reduced chi^2 if no y errors have been supplied
+     */
+    public double[] getParameterErrors() {
+        return parameterErrors;
+    }
+
+    /**
+     * @return best-fit parameters of the last fit
+     */
+    public double[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return chi^2 / (number of data points - number of free parameters)
+     */
+    public double getReducedChiSquare() {
+        return chiSquare / degreesOfFreedom;
+    }
+
+    /**
+     * @return status of the last fit
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return convergence tolerance
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return true: model and Jacobian evaluations are distributed across cores
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @param jacobian analytic derivatives of the model, forward differences are used if {@code null}
+     */
+    public void setJacobian(final Jacobian jacobian) {
+        this.jacobian = jacobian;
+    }
+
+    /**
+     * @param maxIterations maximum number of iterations
+     */
+    public void setMaxIterations(final int maxIterations) {
+        AssertUtils.gtThanZero("maxIterations", maxIterations);
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @param parallel true: model and Jacobian evaluations are distributed across cores
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param listener optional progress callback invoked after each iteration
+     */
+    public void setProgressListener(final ProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * @param tolerance relative chi^2 change or parameter step below which the fit is considered converged
+     */
+    public void setTolerance(final double tolerance) {
+        AssertUtils.gtThanZero("tolerance", tolerance);
+        this.tolerance = tolerance;
+    }
+
+    private void computeCovariance(final Function1D function, final int[] free, final double[] xValues,
+            final double[] yValues, final boolean scaleByChiSquare, final double[] alpha, final double[] beta) {
+        final int nParameters = parameters.length;
+        final int m = free.length;
+        covariance = new double[nParameters][nParameters];
+        parameterErrors = new double[nParameters];
+        if (m == 0) {
+            return;
+        }
+        computeNormalEquations(function, free, xValues, yValues, alpha, beta);
+        if (!choleskyDecompose(alpha, m)) {
+            Arrays.fill(parameterErrors, Double.NaN);
+            return;
+        }
+        final double scale = scaleByChiSquare ? getReducedChiSquare() : 1.0;
+        final double[] column = new double[m];
+        for (int k = 0; k < m; k++) {
+            Arrays.fill(column, 0.0);
+            column[k] = 1.0;
+            choleskySubstitute(alpha, column, m);
+            for (int l = 0; l < m; l++) {
+                covariance[free[l]][free[k]] = scale * column[l];
+            }
+        }
+        for (int k = 0; k < m; k++) {
+            parameterErrors[free[k]] = Math.sqrt(Math.max(0.0, covariance[free[k]][free[k]]));
+        }
+    }
+
+    /**
+     * computes the Jacobian at the present best parameters and accumulates alpha = J^T W J and beta = J^T W (y - f)
+     */
+    private void computeNormalEquations(final Function1D function, final int[] free, final double[] xValues,
+            final double[] yValues, final double[] alpha, final double[] beta) {
+        final int m = free.length;
+        final int n = xValues.length;
+        if (jacobian == null) {
+            // forward differences, one parallel model evaluation per free parameter
+            final double[] shifted = parameters.clone();
+            for (int k = 0; k < m; k++) {
+                final int j = free[k];
+                final double step = DERIVATIVE_STEP * (Math.abs(parameters[j]) + DERIVATIVE_STEP);
+                shifted[j] = parameters[j] + step;
+                final double[] column = jacobianColumns[k];
+                function.setParameterValues(shifted);
+                forEachChunk(n, (chunk, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        column[i] = (function.getValue(xValues[i]) - model[i]) / step;
+                    }
+                });
+                shifted[j] = parameters[j];
+            }
+            // restore the unshifted parameters, the function must not keep the last finite-difference step
+            function.setParameterValues(parameters);
+        } else {
+            final double[] current = parameters;
+            forEachChunk(n, (chunk, from, to) -> {
+                final double[] df = derivatives[chunk];
+                for (int i = from; i < to; i++) {
+                    jacobian.computeDerivatives(xValues[i], current, df);
+                    for (int k = 0; k < m; k++) {
+                        jacobianColumns[k][i] = df[free[k]];
+                    }
+                }
+            });
+        }
+
+        final int nChunks = forEachChunk(n, (chunk, from, to) -> {
+            final double[] sum = partialSums[chunk];
+            Arrays.fill(sum, 0.0);
+            for (int i = from; i < to; i++) {
+                final double w = weights[i];
+                final double residual = w * (yValues[i] - model[i]);
+                for (int k = 0; k < m; k++) {
+                    final double wjk = w * jacobianColumns[k][i];
+                    sum[m * m + k] += jacobianColumns[k][i] * residual;
+                    for (int l = 0; l <= k; l++) {
+                        sum[k * m + l] += wjk * jacobianColumns[l][i];
+                    }
+                }
+            }
+        });
+        Arrays.fill(alpha, 0.0);
+        Arrays.fill(beta, 0.0);
+        for (int chunk = 0; chunk < nChunks; chunk++) {
+            final double[] sum = partialSums[chunk];
+            for (int k = 0; k < m; k++) {
+                beta[k] += sum[m * m + k];
+                for (int l = 0; l <= k; l++) {
+                    alpha[k * m + l] += sum[k * m + l];
+                }
+            }
+        }
+        for (int k = 0; k < m; k++) {
+            for (int l = 0; l < k; l++) {
+                alpha[l * m + k] = alpha[k * m + l];
+            }
+        }
+    }
+
+    /**
+     * @return weighted chi^2 of the given parameters, the model values are stored in 'values'
+     */
+    private double evaluate(final Function1D function, final double[] params, final double[] xValues,
+            final double[] yValues, final double[] values) {
+        function.setParameterValues(params);
+        final int nChunks = forEachChunk(xValues.length, (chunk, from, to) -> {
+            double sum = 0.0;
+            for (int i = from; i < to; i++) {
+                values[i] = function.getValue(xValues[i]);
+                final double residual = yValues[i] - values[i];
+                sum += weights[i] * residual * residual;
+            }
+            partialSums[chunk][partialSums[chunk].length - 1] = sum;
+        });
+        double sum = 0.0;
+        for (int chunk = 0; chunk < nChunks; chunk++) {
+            sum += partialSums[chunk][partialSums[chunk].length - 1];
+        }
+        return Double.isNaN(sum) ? Double.POSITIVE_INFINITY : sum;
+    }
+
+    /**
+     * executes the task for [0, n[ split into chunks, in parallel if enabled and worthwhile
+     *
+     * @return number of chunks
+     */
+    private int forEachChunk(final int n, final ChunkTask task) {
+        final int nChunks = getChunkCount(n);
+        if (nChunks <= 1) {
+            task.compute(0, 0, n);
+            return 1;
+        }
+        final int chunkSize = (n + nChunks - 1) / nChunks;
+        final Future<?>[] futures = new Future[nChunks];
+        for (int chunk = 0; chunk < nChunks; chunk++) {
+            final int index = chunk;
+            final int from = chunk * chunkSize;
+            final int to = Math.min(n, from + chunkSize);
+            futures[chunk] = ConcurrencyUtils.submit(() -> task.compute(index, from, to));
+        }
+        ConcurrencyUtils.waitForCompletionOrThrow(futures);
+        return nChunks;
+    }
+
+    private int getChunkCount(final int n) {
+        if (!parallel) {
+            return 1;
+        }
+        return Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), n / MIN_PARALLEL_SAMPLES));
+    }
+
+    private void initialiseBuffers(final int n, final int m, final int nParameters, final double[] yErrors) {
+        if (weights.length != n) {
+            weights = new double[n];
+            model = new double[n];
+            trialModel = new double[n];
+            jacobianColumns = new double[0][];
+        }
+        if (jacobianColumns.length < m) {
+            final double[][] columns = Arrays.copyOf(jacobianColumns, m);
+            for (int k = jacobianColumns.length; k < m; k++) {
+                columns[k] = new double[n];
+            }
+            jacobianColumns = columns;
+        }
+        final int nChunks = Math.max(1, getChunkCount(n));
+        if (partialSums.length < nChunks || partialSums[0].length != m * m + m + 1) {
+            partialSums = new double[nChunks][m * m + m + 1];
+        }
+        if (derivatives.length < nChunks || derivatives[0].length != nParameters) {
+            derivatives = new double[nChunks][nParameters];
+        }
+        for (int i = 0; i < n; i++) {
+            final double error = yErrors == null ? 1.0 : yErrors[i];
+            weights[i] = error > 0 ? 1.0 / (error * error) : 1.0;
+        }
+    }
+
+    private static double clamp(final Function1D function, final int id, final double value) {
+        final double min = function.getParameterRangeMinimum(id);
+        final double max = function.getParameterRangeMaximum(id);
+        if (min >= max) {
+            return value; // no range defined
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * in-place Cholesky decomposition a = L L^T of a symmetric m x m matrix (row-major, lower triangle is used)
+     *
+     * @return false if the matrix is not positive definite
+     */
+    private static boolean choleskyDecompose(final double[] a, final int m) {
+        for (int j = 0; j < m; j++) {
+            double diagonal = a[j * m + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * m + k] * a[j * m + k];
+            }
+            if (!(diagonal > 0.0)) {
+                return false;
+            }
+            final double ljj = Math.sqrt(diagonal);
+            a[j * m + j] = ljj;
+            for (int i = j + 1; i < m; i++) {
+                double sum = a[i * m + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[i * m + k] * a[j * m + k];
+                }
+                a[i * m + j] = sum / ljj;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * solves L L^T x = b in-place for a Cholesky factor computed by {@link #choleskyDecompose(double[], int)}
+     */
+    private static void choleskySubstitute(final double[] l, final double[] b, final int m) {
+        for (int i = 0; i < m; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * m + k] * b[k];
+            }
+            b[i] = sum / l[i * m + i];
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int k = i + 1; k < m; k++) {
+                sum -= l[k * m + i] * b[k];
+            }
+            b[i] = sum / l[i * m + i];
+        }
+    }
+
+    private static int[] getFreeParameters(final Function1D function) {
+        final int nParameters = function.getParameterCount();
+        int count = 0;
+        final int[] free = new int[nParameters];
+        for (int j = 0; j < nParameters; j++) {
+            if (!function.isParameterFixed(j)) {
+                free[count++] = j;
+            }
+        }
+        return Arrays.copyOf(free, count);
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void compute(int chunk, int from, int to);
+    }
+}
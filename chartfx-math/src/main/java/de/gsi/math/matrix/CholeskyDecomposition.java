@@ -52,8 +52,15 @@ public class CholeskyDecomposition implements java.io.Serializable {
         // Initialize.
         double[][] A = Arg.getArray();
         n = Arg.getRowDimension();
-        L = new double[n][n];
         isspd = (Arg.getColumnDimension() == n);
+        if (isspd && n >= MatrixKernels.MIN_BLOCKED_DIMENSION) {
+            // blocked right-looking algorithm on a flat row-major copy
+            final double[] flat = Arg.getRowPackedCopy();
+            isspd = MatrixKernels.choleskyDecompose(flat, n);
+            L = new MatrixD(flat, n).getArray();
+            return;
+        }
+        L = new double[n][n];
         // Main loop.
         for (int j = 0; j < n; j++) {
             double[] Lrowj = L[j];
@@ -157,23 +164,33 @@ public class CholeskyDecomposition implements java.io.Serializable {
         double[][] X = B.getArrayCopy();
         int nx = B.getColumnDimension();
 
-        // Solve L*Y = B;
+        // Solve L*Y = B; (row-wise to access X with unit stride)
         for (int k = 0; k < n; k++) {
-            for (int j = 0; j < nx; j++) {
-                for (int i = 0; i < k; i++) {
-                    X[k][j] -= X[i][j] * L[k][i];
+            final double[] Xrowk = X[k];
+            for (int i = 0; i < k; i++) {
+                final double factor = L[k][i];
+                final double[] Xrowi = X[i];
+                for (int j = 0; j < nx; j++) {
+                    Xrowk[j] -= Xrowi[j] * factor;
                 }
-                X[k][j] /= L[k][k];
+            }
+            for (int j = 0; j < nx; j++) {
+                Xrowk[j] /= L[k][k];
             }
         }
 
         // Solve L'*X = Y;
         for (int k = n - 1; k >= 0; k--) {
-            for (int j = 0; j < nx; j++) {
-                for (int i = k + 1; i < n; i++) {
-                    X[k][j] -= X[i][j] * L[i][k];
+            final double[] Xrowk = X[k];
+            for (int i = k + 1; i < n; i++) {
+                final double factor = L[i][k];
+                final double[] Xrowi = X[i];
+                for (int j = 0; j < nx; j++) {
+                    Xrowk[j] -= Xrowi[j] * factor;
                 }
-                X[k][j] /= L[k][k];
+            }
+            for (int j = 0; j < nx; j++) {
+                Xrowk[j] /= L[k][k];
             }
         }
 
@@ -54,13 +54,20 @@ public class LUDecomposition implements java.io.Serializable {
      */
 
     public LUDecomposition(MatrixD A) {
+        m = A.getRowDimension();
+        n = A.getColumnDimension();
+        piv = new int[m];
+        if (Math.min(m, n) >= MatrixKernels.MIN_BLOCKED_DIMENSION) {
+            // blocked right-looking algorithm on a flat row-major copy
+            final double[] flat = A.getRowPackedCopy();
+            pivsign = MatrixKernels.luDecompose(flat, m, n, piv);
+            LU = new MatrixD(flat, m).getArray();
+            return;
+        }
 
         // Use a "left-looking", dot-product, Crout/Doolittle algorithm.
 
         LU = A.getArrayCopy();
-        m = A.getRowDimension();
-        n = A.getColumnDimension();
-        piv = new int[m];
         for (int i = 0; i < m; i++) {
             piv[i] = i;
         }
@@ -419,7 +419,7 @@ public class MatrixD extends AbstractMatrix {
         final double[][] B = X.getArray();
         try {
             for (int i = i0; i <= i1; i++) {
-                System.arraycopy(element[i], j0, B[i - i0], j0, j1 - j0);
+                System.arraycopy(element[i], j0, B[i - i0], 0, j1 - j0 + 1);
             }
         } catch (final ArrayIndexOutOfBoundsException e) {
             throw new ArrayIndexOutOfBoundsException("Submatrix indices");
@@ -507,7 +507,7 @@ public class MatrixD extends AbstractMatrix {
     public double[] getRowPackedCopy() {
         final double[] vals = new double[m * n];
         for (int i = 0; i < m; i++) {
-            System.arraycopy(element[i], 0, vals, i * m, n);
+            System.arraycopy(element[i], 0, vals, i * n, n);
         }
         return vals;
     }
@@ -892,6 +892,12 @@ public class MatrixD extends AbstractMatrix {
         if (B.m != n) {
             throw new IllegalArgumentException("Matrix inner dimensions must agree.");
         }
+        if (B.n != 1 && (long) m * n * B.n >= MatrixKernels.MIN_BLOCKED_FLOPS) {
+            // cache-blocked (and for large matrices parallel) multiplication on flat row-major copies
+            final double[] product = new double[m * B.n];
+            MatrixKernels.gemm(m, B.n, n, 1.0, getRowPackedCopy(), 0, n, B.getRowPackedCopy(), 0, B.n, product, 0, B.n);
+            return new MatrixD(product, m);
+        }
         final MatrixD X = new MatrixD(m, B.n);
         final double[][] C = X.getArray();
         final double[] vector = new double[n];
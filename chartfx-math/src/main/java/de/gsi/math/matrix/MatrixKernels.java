@@ -0,0 +1,528 @@
+package de.gsi.math.matrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Dense linear-algebra kernels operating on flat, row-major {@code double[]} storage, i.e. element (i, j) of a matrix
+ * with leading dimension (row stride) {@code ld} is stored at {@code offset + i * ld + j}.
+ * <ul>
+ * <li>{@link #gemm}: cache-blocked matrix multiply-add. Panels of B are packed into a contiguous buffer that stays in
+ * the L2 cache while four rows of C are updated per pass with (SuperWord-vectorisable) unit-stride inner loops.</li>
+ * <li>{@link #luDecompose}, {@link #qrDecompose}, {@link #choleskyDecompose}: right-looking blocked decompositions
+ * with panels of {@link #BLOCK_SIZE} columns, the bulk of the work being done in GEMM updates of the trailing
+ * matrix.</li>
+ * <li>the GEMM and trailing updates are distributed via fork/join (common pool) above {@code MIN_PARALLEL_FLOPS}
+ * multiply-adds if more than one thread is configured in {@link ConcurrencyUtils}.</li>
+ * </ul>
+ * The storage conventions of the decompositions are those of {@link LUDecomposition}, {@link QRDecomposition} and
+ * {@link CholeskyDecomposition}, which use these kernels for matrices with at least {@link #MIN_BLOCKED_DIMENSION}
+ * rows and columns. {@link MatrixD#times(MatrixD)} uses {@link #gemm} for products with at least
+ * {@link #MIN_BLOCKED_FLOPS} multiply-adds.
+ */
+public final class MatrixKernels {
+    /**
+     * panel width of the blocked decompositions
+     */
+    public static final int BLOCK_SIZE = 32;
+    /**
+     * minimum number of rows and columns for which the JAMA-style decompositions use the blocked kernels
+     */
+    public static final int MIN_BLOCKED_DIMENSION = 64;
+    /**
+     * minimum number of multiply-adds for which {@link MatrixD#times(MatrixD)} uses the blocked kernel
+     */
+    public static final long MIN_BLOCKED_FLOPS = 1L << 18;
+    private static final long MIN_PARALLEL_FLOPS = 1L << 21; // minimum work to distribute across cores
+    private static final int GEMM_DEPTH = 128; // rows of the packed B panel
+    private static final int GEMM_WIDTH = 256; // columns of the packed B panel
+    private static final int GEMM_ROWS = 4; // rows of C updated per pass over the B panel
+
+    private MatrixKernels() {
+        // utility class
+    }
+
+    /**
+     * in-place Cholesky decomposition A = L * L' of a symmetric, positive definite matrix. Only the lower triangle of
+     * the input is referenced, on return it holds L and the strict upper triangle is zeroed.
+     *
+     * @param a n x n matrix (row-major, length n * n)
+     * @param n matrix dimension
+     * @return {@code true} if the matrix is symmetric and positive definite, otherwise the decomposition is partial
+     *         (cf. {@link CholeskyDecomposition#isSPD()})
+     */
+    public static boolean choleskyDecompose(final double[] a, final int n) {
+        AssertUtils.gtEqThanZero("n", n);
+        AssertUtils.notNull("a", a);
+        AssertUtils.checkArrayDimension("a", a, n * n);
+        boolean spd = true;
+        for (int i = 0; i < n && spd; i++) {
+            for (int j = 0; j < i; j++) {
+                if (a[i * n + j] != a[j * n + i]) {
+                    spd = false;
+                    break;
+                }
+            }
+        }
+
+        for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+            final int k1 = Math.min(n, k0 + BLOCK_SIZE);
+            // unblocked factorisation of the diagonal block
+            for (int j = k0; j < k1; j++) {
+                final int rowJ = j * n;
+                for (int k = k0; k < j; k++) {
+                    final int rowK = k * n;
+                    double sum = a[rowJ + k];
+                    for (int p = k0; p < k; p++) {
+                        sum -= a[rowK + p] * a[rowJ + p];
+                    }
+                    a[rowJ + k] = sum / a[rowK + k];
+                }
+                double diagonal = a[rowJ + j];
+                for (int p = k0; p < j; p++) {
+                    diagonal -= a[rowJ + p] * a[rowJ + p];
+                }
+                spd &= diagonal > 0.0;
+                a[rowJ + j] = Math.sqrt(Math.max(diagonal, 0.0));
+            }
+            if (k1 == n) {
+                break;
+            }
+
+            // L21 = A21 * L11^-T
+            for (int i = k1; i < n; i++) {
+                final int rowI = i * n;
+                for (int k = k0; k < k1; k++) {
+                    final int rowK = k * n;
+                    double sum = a[rowI + k];
+                    for (int p = k0; p < k; p++) {
+                        sum -= a[rowI + p] * a[rowK + p];
+                    }
+                    a[rowI + k] = sum / a[rowK + k];
+                }
+            }
+
+            updateTrailingLower(a, n, k0, k1);
+        }
+
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(a, i * n + i + 1, (i + 1) * n, 0.0);
+        }
+        return spd;
+    }
+
+    /**
+     * general matrix multiply-add C += alpha * A * B
+     *
+     * @param m number of rows of A and C
+     * @param n number of columns of B and C
+     * @param k number of columns of A and rows of B
+     * @param alpha scaling factor of the product
+     * @param a m x k matrix A
+     * @param aOffset index of A(0, 0)
+     * @param lda row stride of A (&ge; k)
+     * @param b k x n matrix B
+     * @param bOffset index of B(0, 0)
+     * @param ldb row stride of B (&ge; n)
+     * @param c m x n matrix C (updated in place, must not overlap with the referenced elements of A and B)
+     * @param cOffset index of C(0, 0)
+     * @param ldc row stride of C (&ge; n)
+     */
+    public static void gemm(final int m, final int n, final int k, final double alpha, // NOPMD - BLAS signature
+            final double[] a, final int aOffset, final int lda, final double[] b, final int bOffset, final int ldb,
+            final double[] c, final int cOffset, final int ldc) {
+        AssertUtils.gtEqThanZero("m", m);
+        AssertUtils.gtEqThanZero("n", n);
+        AssertUtils.gtEqThanZero("k", k);
+        checkMatrix("a", a, aOffset, lda, m, k);
+        checkMatrix("b", b, bOffset, ldb, k, n);
+        checkMatrix("c", c, cOffset, ldc, m, n);
+        if (m == 0 || n == 0 || k == 0 || alpha == 0.0) {
+            return;
+        }
+        if (isParallel((long) m * n * k) && m >= 2 * GEMM_ROWS) {
+            final int nThreads = ConcurrencyUtils.getNumberOfThreads();
+            final int grain = Math.max(GEMM_ROWS, (m / (4 * nThreads)) / GEMM_ROWS * GEMM_ROWS);
+            parallelFor(0, m, grain, (from, to) -> gemmBlocked(from, to, n, k, alpha, a, aOffset, lda, b, bOffset,
+                    ldb, c, cOffset, ldc));
+            return;
+        }
+        gemmBlocked(0, m, n, k, alpha, a, aOffset, lda, b, bOffset, ldb, c, cOffset, ldc);
+    }
+
+    /**
+     * in-place LU decomposition with partial (row) pivoting A(piv, :) = L * U. On return, the strict lower part holds
+     * the multipliers of the unit lower triangular L and the upper part U (cf. {@link LUDecomposition}).
+     *
+     * @param a m x n matrix (row-major, length m * n)
+     * @param m number of rows
+     * @param n number of columns
+     * @param pivot output: row permutation vector (length m)
+     * @return pivot sign (+1 or -1, i.e. the determinant of the permutation)
+     */
+    public static int luDecompose(final double[] a, final int m, final int n, final int[] pivot) {
+        AssertUtils.gtEqThanZero("m", m);
+        AssertUtils.gtEqThanZero("n", n);
+        AssertUtils.notNull("a", a);
+        AssertUtils.checkArrayDimension("a", a, m * n);
+        AssertUtils.notNull("pivot", pivot);
+        AssertUtils.checkArrayDimension("pivot", pivot, m);
+        for (int i = 0; i < m; i++) {
+            pivot[i] = i;
+        }
+        int pivotSign = 1;
+        final int nMin = Math.min(m, n);
+        for (int k0 = 0; k0 < nMin; k0 += BLOCK_SIZE) {
+            final int k1 = Math.min(nMin, k0 + BLOCK_SIZE);
+            // unblocked factorisation of the panel columns [k0, k1)
+            for (int j = k0; j < k1; j++) {
+                int p = j;
+                double max = Math.abs(a[j * n + j]);
+                for (int i = j + 1; i < m; i++) {
+                    final double value = Math.abs(a[i * n + j]);
+                    if (value > max) {
+                        max = value;
+                        p = i;
+                    }
+                }
+                if (p != j) {
+                    swapRows(a, n, p, j);
+                    final int tmp = pivot[p];
+                    pivot[p] = pivot[j];
+                    pivot[j] = tmp;
+                    pivotSign = -pivotSign;
+                }
+                final int rowJ = j * n;
+                final double diagonal = a[rowJ + j];
+                if (diagonal == 0.0) {
+                    continue;
+                }
+                for (int i = j + 1; i < m; i++) {
+                    final int rowI = i * n;
+                    final double factor = a[rowI + j] /= diagonal;
+                    for (int col = j + 1; col < k1; col++) {
+                        a[rowI + col] -= factor * a[rowJ + col];
+                    }
+                }
+            }
+            if (k1 == n) {
+                continue;
+            }
+
+            // U12 = L11^-1 * A12 (unit lower triangular forward substitution)
+            for (int i = k0 + 1; i < k1; i++) {
+                final int rowI = i * n;
+                for (int p = k0; p < i; p++) {
+                    final double factor = a[rowI + p];
+                    final int rowP = p * n;
+                    for (int col = k1; col < n; col++) {
+                        a[rowI + col] -= factor * a[rowP + col];
+                    }
+                }
+            }
+            // A22 -= L21 * U12
+            if (k1 < m) {
+                gemm(m - k1, n - k1, k1 - k0, -1.0, a, k1 * n + k0, n, a, k0 * n + k1, n, a, k1 * n + k1, n);
+            }
+        }
+        return pivotSign;
+    }
+
+    /**
+     * in-place QR decomposition by Householder reflections. On return, the lower trapezoidal part holds the Householder
+     * vectors and the strict upper part R, its diagonal is returned separately (cf. {@link QRDecomposition}).
+     *
+     * @param a m x n matrix (row-major, length m * n)
+     * @param m number of rows
+     * @param n number of columns
+     * @param rDiagonal output: diagonal of R (length n)
+     */
+    public static void qrDecompose(final double[] a, final int m, final int n, final double[] rDiagonal) {
+        AssertUtils.gtEqThanZero("m", m);
+        AssertUtils.gtEqThanZero("n", n);
+        AssertUtils.notNull("a", a);
+        AssertUtils.checkArrayDimension("a", a, m * n);
+        AssertUtils.notNull("rDiagonal", rDiagonal);
+        AssertUtils.checkArrayDimension("rDiagonal", rDiagonal, n);
+        final double[] tau = new double[BLOCK_SIZE]; // reflector H = I - tau * v * v'
+        final double[] sums = new double[BLOCK_SIZE];
+        for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+            final int k1 = Math.min(n, k0 + BLOCK_SIZE);
+            // unblocked factorisation of the panel columns [k0, k1)
+            for (int k = k0; k < k1; k++) {
+                double norm = columnNorm(a, m, n, k);
+                if (norm == 0.0) {
+                    tau[k - k0] = 0.0;
+                    rDiagonal[k] = -norm;
+                    continue;
+                }
+                if (a[k * n + k] < 0) {
+                    norm = -norm;
+                }
+                for (int i = k; i < m; i++) {
+                    a[i * n + k] /= norm;
+                }
+                a[k * n + k] += 1.0;
+                final double vk = a[k * n + k];
+                tau[k - k0] = 1.0 / vk;
+                rDiagonal[k] = -norm;
+
+                // apply the reflection to the remaining panel columns
+                Arrays.fill(sums, 0.0);
+                for (int i = k; i < m; i++) {
+                    final int rowI = i * n;
+                    final double vi = a[rowI + k];
+                    for (int j = k + 1; j < k1; j++) {
+                        sums[j - k0] += vi * a[rowI + j];
+                    }
+                }
+                for (int j = k + 1; j < k1; j++) {
+                    sums[j - k0] = -sums[j - k0] / vk;
+                }
+                for (int i = k; i < m; i++) {
+                    final int rowI = i * n;
+                    final double vi = a[rowI + k];
+                    for (int j = k + 1; j < k1; j++) {
+                        a[rowI + j] += sums[j - k0] * vi;
+                    }
+                }
+            }
+            if (k1 < n && k0 < m) {
+                applyBlockReflector(a, m, n, k0, k1, tau);
+            }
+        }
+    }
+
+    /**
+     * applies Q' = (H_k0 ... H_k1-1)' = I - V * T' * V' to the trailing columns [k1, n) using the compact WY
+     * representation (LAPACK dlarft/dlarfb)
+     */
+    private static void applyBlockReflector(final double[] a, final int m, final int n, final int k0, final int k1,
+            final double[] tau) {
+        final int kb = k1 - k0;
+        final int rows = m - k0;
+        final int cols = n - k1;
+
+        // V (rows x kb, zero above the diagonal) and V'
+        final double[] v = new double[rows * kb];
+        final double[] vt = new double[kb * rows];
+        for (int i = 0; i < rows; i++) {
+            final int rowI = (k0 + i) * n + k0;
+            for (int j = 0; j <= Math.min(i, kb - 1); j++) {
+                v[i * kb + j] = a[rowI + j];
+                vt[j * rows + i] = a[rowI + j];
+            }
+        }
+
+        // upper triangular T: T(0:i, i) = -tau_i * T(0:i, 0:i) * V(:, 0:i)' * v_i
+        final double[] t = new double[kb * kb];
+        for (int i = 0; i < kb; i++) {
+            t[i * kb + i] = tau[i];
+            if (tau[i] == 0.0) {
+                continue;
+            }
+            for (int j = 0; j < i; j++) {
+                double dot = 0.0;
+                for (int r = i; r < rows; r++) {
+                    dot += vt[j * rows + r] * vt[i * rows + r];
+                }
+                t[j * kb + i] = dot;
+            }
+            // N.B. in place: row j only depends on the dot products of rows >= j
+            for (int j = 0; j < i; j++) {
+                double sum = 0.0;
+                for (int p = j; p < i; p++) {
+                    sum += t[j * kb + p] * t[p * kb + i];
+                }
+                t[j * kb + i] = -tau[i] * sum;
+            }
+        }
+
+        // W = V' * C
+        final double[] w = new double[kb * cols];
+        gemm(kb, cols, rows, 1.0, vt, 0, rows, a, k0 * n + k1, n, w, 0, cols);
+        // W = T' * W (lower triangular, bottom-up in place)
+        for (int j = kb - 1; j >= 0; j--) {
+            final int rowJ = j * cols;
+            final double diagonal = t[j * kb + j];
+            for (int col = 0; col < cols; col++) {
+                w[rowJ + col] *= diagonal;
+            }
+            for (int p = 0; p < j; p++) {
+                final double factor = t[p * kb + j];
+                final int rowP = p * cols;
+                for (int col = 0; col < cols; col++) {
+                    w[rowJ + col] += factor * w[rowP + col];
+                }
+            }
+        }
+        // C -= V * W
+        gemm(rows, cols, kb, -1.0, v, 0, kb, w, 0, cols, a, k0 * n + k1, n);
+    }
+
+    private static void checkMatrix(final String name, final double[] data, final int offset, final int ld,
+            final int rows, final int cols) {
+        AssertUtils.notNull(name, data);
+        AssertUtils.gtEqThanZero(name + " offset", offset);
+        AssertUtils.gtOrEqual(name + " row stride", cols, ld);
+        if (rows > 0 && cols > 0) {
+            AssertUtils.gtOrEqual(name + ".length", (long) offset + (long) (rows - 1) * ld + cols, data.length);
+        }
+    }
+
+    /**
+     * 2-norm of column k (rows k, ..., m-1) without under/overflow
+     */
+    private static double columnNorm(final double[] a, final int m, final int n, final int k) {
+        double scale = 0.0;
+        for (int i = k; i < m; i++) {
+            scale = Math.max(scale, Math.abs(a[i * n + k]));
+        }
+        if (scale == 0.0 || Double.isInfinite(scale) || Double.isNaN(scale)) {
+            return scale;
+        }
+        final double inverse = 1.0 / scale;
+        double sum = 0.0;
+        for (int i = k; i < m; i++) {
+            final double value = a[i * n + k] * inverse;
+            sum += value * value;
+        }
+        return scale * Math.sqrt(sum);
+    }
+
+    private static void gemmBlocked(final int rowFrom, final int rowTo, final int n, final int k, // NOPMD
+            final double alpha, final double[] a, final int aOffset, final int lda, final double[] b,
+            final int bOffset, final int ldb, final double[] c, final int cOffset, final int ldc) {
+        final double[] panel = new double[Math.min(k, GEMM_DEPTH) * Math.min(n, GEMM_WIDTH)];
+        for (int p0 = 0; p0 < k; p0 += GEMM_DEPTH) {
+            final int depth = Math.min(k, p0 + GEMM_DEPTH) - p0;
+            for (int j0 = 0; j0 < n; j0 += GEMM_WIDTH) {
+                final int width = Math.min(n, j0 + GEMM_WIDTH) - j0;
+                // pack the B panel: contiguous, cache-resident and distinct from C (in-place updates)
+                for (int p = 0; p < depth; p++) {
+                    System.arraycopy(b, bOffset + (p0 + p) * ldb + j0, panel, p * width, width);
+                }
+                int i = rowFrom;
+                for (; i + GEMM_ROWS <= rowTo; i += GEMM_ROWS) {
+                    final int rowA = aOffset + i * lda + p0;
+                    final int rowC = cOffset + i * ldc + j0;
+                    for (int p = 0; p < depth; p++) {
+                        multiplyAdd4(c, rowC, ldc, alpha * a[rowA + p], alpha * a[rowA + lda + p],
+                                alpha * a[rowA + 2 * lda + p], alpha * a[rowA + 3 * lda + p], panel, p * width, width);
+                    }
+                }
+                for (; i < rowTo; i++) {
+                    final int rowA = aOffset + i * lda + p0;
+                    final int rowC = cOffset + i * ldc + j0;
+                    for (int p = 0; p < depth; p++) {
+                        multiplyAdd(c, rowC, alpha * a[rowA + p], panel, p * width, width);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isParallel(final long flops) {
+        return flops >= MIN_PARALLEL_FLOPS && ConcurrencyUtils.getNumberOfThreads() > 1;
+    }
+
+    private static void multiplyAdd(final double[] c, final int cOffset, final double factor, final double[] b,
+            final int bOffset, final int length) {
+        for (int j = 0; j < length; j++) {
+            c[cOffset + j] += factor * b[bOffset + j];
+        }
+    }
+
+    private static void multiplyAdd4(final double[] c, final int cOffset, final int ldc, final double f0, // NOPMD
+            final double f1, final double f2, final double f3, final double[] b, final int bOffset, final int length) {
+        final int c1 = cOffset + ldc;
+        final int c2 = c1 + ldc;
+        final int c3 = c2 + ldc;
+        for (int j = 0; j < length; j++) {
+            final double value = b[bOffset + j];
+            c[cOffset + j] += f0 * value;
+            c[c1 + j] += f1 * value;
+            c[c2 + j] += f2 * value;
+            c[c3 + j] += f3 * value;
+        }
+    }
+
+    private static void parallelFor(final int from, final int to, final int grain, final RangeTask task) {
+        ForkJoinPool.commonPool().invoke(new RangeAction(from, to, Math.max(1, grain), task));
+    }
+
+    /**
+     * lower triangle of A22 -= L21 * L21' (symmetric rank-kb update), block row by block row
+     */
+    private static void updateTrailingLower(final double[] a, final int n, final int k0, final int k1) {
+        final int kb = k1 - k0;
+        final int nTrailing = n - k1;
+        final double[] panelT = new double[kb * nTrailing];
+        for (int i = 0; i < nTrailing; i++) {
+            final int rowI = (k1 + i) * n + k0;
+            for (int p = 0; p < kb; p++) {
+                panelT[p * nTrailing + i] = a[rowI + p];
+            }
+        }
+        final int nBlocks = (nTrailing + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final RangeTask update = (from, to) -> {
+            for (int block = from; block < to; block++) {
+                final int r0 = block * BLOCK_SIZE;
+                final int r1 = Math.min(nTrailing, r0 + BLOCK_SIZE);
+                final int row = (k1 + r0) * n;
+                gemmBlocked(0, r1 - r0, r1, kb, -1.0, a, row + k0, n, panelT, 0, nTrailing, a, row + k1, n);
+            }
+        };
+        if (isParallel((long) nTrailing * nTrailing * kb / 2)) {
+            parallelFor(0, nBlocks, 1, update);
+        } else {
+            update.apply(0, nBlocks);
+        }
+    }
+
+    private static void swapRows(final double[] a, final int n, final int row1, final int row2) {
+        final int offset1 = row1 * n;
+        final int offset2 = row2 * n;
+        for (int col = 0; col < n; col++) {
+            final double tmp = a[offset1 + col];
+            a[offset1 + col] = a[offset2 + col];
+            a[offset2 + col] = tmp;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void apply(int from, int to);
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final transient RangeTask task;
+
+        protected RangeAction(final int from, final int to, final int grain, final RangeTask task) {
+            super();
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                task.apply(from, to);
+                return;
+            }
+            // split at a multiple of the grain size (keeps e.g. the GEMM row groups aligned)
+            final int middle = from + ((to - from) / grain + 1) / 2 * grain;
+            invokeAll(new RangeAction(from, middle, grain, task), new RangeAction(middle, to, grain, task));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package de.gsi.math.matrix;
 
+import java.util.Arrays;
+
 /**
  * QR Decomposition.
  * <P>
@@ -52,10 +54,17 @@ public class QRDecomposition implements java.io.Serializable {
 
     public QRDecomposition(MatrixD A) {
         // Initialize.
-        QR = A.getArrayCopy();
         m = A.getRowDimension();
         n = A.getColumnDimension();
         Rdiag = new double[n];
+        if (Math.min(m, n) >= MatrixKernels.MIN_BLOCKED_DIMENSION) {
+            // blocked Householder (compact WY) algorithm on a flat row-major copy
+            final double[] flat = A.getRowPackedCopy();
+            MatrixKernels.qrDecompose(flat, m, n, Rdiag);
+            QR = new MatrixD(flat, m).getArray();
+            return;
+        }
+        QR = A.getArrayCopy();
 
         // Main loop.
         for (int k = 0; k < n; k++) {
@@ -204,16 +213,25 @@ public class QRDecomposition implements java.io.Serializable {
         int nx = B.getColumnDimension();
         double[][] X = B.getArrayCopy();
 
-        // Compute Y = transpose(Q)*B
+        // Compute Y = transpose(Q)*B (row-wise to access X with unit stride)
+        double[] s = new double[nx];
         for (int k = 0; k < n; k++) {
-            for (int j = 0; j < nx; j++) {
-                double s = 0.0;
-                for (int i = k; i < m; i++) {
-                    s += QR[i][k] * X[i][j];
+            Arrays.fill(s, 0.0);
+            for (int i = k; i < m; i++) {
+                final double v = QR[i][k];
+                final double[] Xrowi = X[i];
+                for (int j = 0; j < nx; j++) {
+                    s[j] += v * Xrowi[j];
                 }
-                s = -s / QR[k][k];
-                for (int i = k; i < m; i++) {
-                    X[i][j] += s * QR[i][k];
+            }
+            for (int j = 0; j < nx; j++) {
+                s[j] = -s[j] / QR[k][k];
+            }
+            for (int i = k; i < m; i++) {
+                final double v = QR[i][k];
+                final double[] Xrowi = X[i];
+                for (int j = 0; j < nx; j++) {
+                    Xrowi[j] += s[j] * v;
                 }
             }
         }
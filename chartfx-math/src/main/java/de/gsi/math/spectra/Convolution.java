@@ -6,6 +6,7 @@ import java.util.Arrays;
 import org.jtransforms.fft.DoubleFFT_1D;
 
 import de.gsi.math.TMathConstants;
+import de.gsi.math.spectra.fft.FFTPlanCache;
 import de.gsi.math.utils.ConcurrencyUtils;
 
 /**
@@ -15,10 +16,12 @@ import de.gsi.math.utils.ConcurrencyUtils;
  */
 public class Convolution {
     public DoubleFFT_1D f1dFFT;
+    private int fftSize;
 
     private void init(final int size) {
-        if (f1dFFT == null) {
-            f1dFFT = new DoubleFFT_1D(size);
+        if (f1dFFT == null || fftSize != size) {
+            f1dFFT = FFTPlanCache.getDoubleFFT(size);
+            fftSize = size;
         }
     }
 
@@ -0,0 +1,182 @@
+package de.gsi.math.spectra;
+
+import java.util.Arrays;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.spectra.fft.FFTPlanCache;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Linear convolution and cross-correlation of real valued sequences (e.g. FIR filtering of a signal with a kernel).
+ * <p>
+ * The algorithm is chosen by the length of the shorter sequence (the 'kernel'): short kernels are evaluated directly in
+ * the time domain (O(N·M)), longer kernels via FFT-based overlap-add with a transform length of about four times the
+ * kernel length, i.e. O(N·log M) for long signals. FFT plans are shared via {@link FFTPlanCache}.
+ * <p>
+ * See {@link StreamingConvolution} for the block-wise (overlap-add/overlap-save) filtering of unbounded streams.
+ */
+public final class FastConvolution {
+    /**
+     * kernel length up to which the convolution is evaluated directly in the time domain
+     */
+    public static final int DIRECT_KERNEL_LIMIT = 64;
+    private static final FFTPlanCache.WorkingArrays WORKING_ARRAYS = new FFTPlanCache.WorkingArrays(2);
+
+    private FastConvolution() {
+        // utility class
+    }
+
+    /**
+     * linear (full) convolution out[k] = sum_j x[k - j] * h[j], k = 0, ..., nx + nh - 2. The direct or FFT-based
+     * algorithm is chosen depending on the length of the shorter sequence.
+     *
+     * @param x first input sequence (e.g. signal)
+     * @param h second input sequence (e.g. filter kernel)
+     * @param output optional output array (length &ge; x.length + h.length - 1, not identical to the inputs), a new
+     *        array is allocated if {@code null}
+     * @return the convolution (length x.length + h.length - 1 unless a larger output array has been supplied)
+     */
+    public static double[] convolve(final double[] x, final double[] h, final double[] output) {
+        checkInputs(x, h);
+        if (Math.min(x.length, h.length) <= DIRECT_KERNEL_LIMIT) {
+            return convolveDirect(x, h, output);
+        }
+        return convolveFFT(x, h, output);
+    }
+
+    /**
+     * linear (full) convolution evaluated directly in the time domain
+     *
+     * @param x first input sequence (e.g. signal)
+     * @param h second input sequence (e.g. filter kernel)
+     * @param output optional output array (length &ge; x.length + h.length - 1, not identical to the inputs)
+     * @return the convolution
+     * @see #convolve(double[], double[], double[])
+     */
+    public static double[] convolveDirect(final double[] x, final double[] h, final double[] output) {
+        checkInputs(x, h);
+        final int nOut = x.length + h.length - 1;
+        final double[] out = checkOutput(nOut, output, x, h);
+        for (int k = 0; k < nOut; k++) {
+            final int jMin = Math.max(0, k - x.length + 1);
+            final int jMax = Math.min(h.length - 1, k);
+            double sum = 0.0;
+            for (int j = jMin; j <= jMax; j++) {
+                sum += x[k - j] * h[j];
+            }
+            out[k] = sum;
+        }
+        return out;
+    }
+
+    /**
+     * linear (full) convolution evaluated via FFT-based overlap-add
+     *
+     * @param x first input sequence (e.g. signal)
+     * @param h second input sequence (e.g. filter kernel)
+     * @param output optional output array (length &ge; x.length + h.length - 1, not identical to the inputs)
+     * @return the convolution
+     * @see #convolve(double[], double[], double[])
+     */
+    public static double[] convolveFFT(final double[] x, final double[] h, final double[] output) {
+        checkInputs(x, h);
+        final int nOut = x.length + h.length - 1;
+        final double[] out = checkOutput(nOut, output, x, h);
+        // convolution is commutative: segment the longer, transform the shorter sequence
+        final double[] signal = x.length >= h.length ? x : h;
+        final double[] kernel = x.length >= h.length ? h : x;
+        final int nKernel = kernel.length;
+        final int nFFT = getBlockFFTLength(nKernel, nOut);
+        final int blockLength = nFFT - nKernel + 1;
+        final DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT(nFFT);
+
+        final double[] kernelSpectrum = WORKING_ARRAYS.get(0, nFFT);
+        System.arraycopy(kernel, 0, kernelSpectrum, 0, nKernel);
+        Arrays.fill(kernelSpectrum, nKernel, nFFT, 0.0);
+        fft.realForward(kernelSpectrum);
+
+        final double[] work = WORKING_ARRAYS.get(1, nFFT);
+        Arrays.fill(out, 0, nOut, 0.0);
+        for (int start = 0; start < signal.length; start += blockLength) {
+            final int length = Math.min(blockLength, signal.length - start);
+            System.arraycopy(signal, start, work, 0, length);
+            Arrays.fill(work, length, nFFT, 0.0);
+            fft.realForward(work);
+            multiplyPacked(work, kernelSpectrum);
+            fft.realInverse(work, true);
+            final int valid = Math.min(length + nKernel - 1, nOut - start);
+            for (int i = 0; i < valid; i++) {
+                out[start + i] += work[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * linear (full) cross-correlation out[k] = sum_n x[n + k - (y.length - 1)] * y[n], i.e. index k corresponds to the
+     * lag k - (y.length - 1) of x with respect to y. The direct or FFT-based algorithm is chosen depending on the
+     * length of the shorter sequence.
+     *
+     * @param x first input sequence
+     * @param y second input sequence (e.g. template to be matched)
+     * @param output optional output array (length &ge; x.length + y.length - 1, not identical to the inputs)
+     * @return the cross-correlation for lags -(y.length - 1), ..., x.length - 1
+     */
+    public static double[] correlate(final double[] x, final double[] y, final double[] output) {
+        checkInputs(x, y);
+        final double[] reversed = new double[y.length];
+        for (int i = 0; i < y.length; i++) {
+            reversed[i] = y[y.length - 1 - i];
+        }
+        return convolve(x, reversed, output);
+    }
+
+    /**
+     * @param kernelLength length of the (shorter) kernel sequence
+     * @param outputLength length of the full linear convolution
+     * @return power-of-two transform length used for the overlap-add segmentation
+     */
+    static int getBlockFFTLength(final int kernelLength, final int outputLength) {
+        return Math.max(2, Math.min(ConcurrencyUtils.nextPow2(4 * kernelLength),
+                                   ConcurrencyUtils.nextPow2(outputLength)));
+    }
+
+    /**
+     * in-place multiplication of two spectra in the packed format of {@link DoubleFFT_1D#realForward(double[])}
+     * (even transform length)
+     *
+     * @param data spectrum to be multiplied (in-place)
+     * @param filter second spectrum
+     */
+    static void multiplyPacked(final double[] data, final double[] filter) {
+        data[0] *= filter[0]; // DC (purely real)
+        data[1] *= filter[1]; // Nyquist (purely real)
+        for (int i = 2; i < data.length; i += 2) {
+            final double re = data[i] * filter[i] - data[i + 1] * filter[i + 1];
+            final double im = data[i] * filter[i + 1] + data[i + 1] * filter[i];
+            data[i] = re;
+            data[i + 1] = im;
+        }
+    }
+
+    private static void checkInputs(final double[] x, final double[] h) {
+        AssertUtils.nonEmptyArray("x", x);
+        AssertUtils.nonEmptyArray("h", h);
+    }
+
+    private static double[] checkOutput(final int length, final double[] output, final double[] x, final double[] h) {
+        if (output == null) {
+            return new double[length];
+        }
+        if (output.length < length) {
+            throw new IllegalArgumentException("output array length " + output.length
+                                               + " is smaller than the convolution length " + length);
+        }
+        if (output == x || output == h) {
+            throw new IllegalArgumentException("output array must not be identical to the input arrays");
+        }
+        return output;
+    }
+}
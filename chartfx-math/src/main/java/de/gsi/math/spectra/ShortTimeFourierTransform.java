@@ -5,6 +5,7 @@ import static de.gsi.dataset.DataSet.DIM_Y;
 import static de.gsi.dataset.DataSet.DIM_Z;
 
 import java.util.Arrays;
+import java.util.concurrent.Future;
 
 import org.jtransforms.fft.DoubleFFT_1D;
 import org.slf4j.Logger;
@@ -14,6 +15,8 @@ import de.gsi.dataset.DataSet;
 import de.gsi.dataset.DataSetMetaData;
 import de.gsi.dataset.spi.DoubleDataSet3D;
 import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.spectra.fft.FFTPlanCache;
+import de.gsi.math.utils.ConcurrencyUtils;
 
 /**
  * Static utility class providing magnitude spectrograms from complex and real valued input data.
@@ -26,6 +29,9 @@ import de.gsi.dataset.utils.AssertUtils;
  */
 public class ShortTimeFourierTransform {
     private static final Logger LOGGER = LoggerFactory.getLogger(ShortTimeFourierTransform.class);
+    private static final int BLOCK_SIZE = 32; // number of time slices that are transposed at once
+    private static final int MIN_PARALLEL_SAMPLES = 1 << 16; // minimum nT * nFFT to distribute work across cores
+    private static final FFTPlanCache.WorkingArrays WORKING_ARRAYS = new FFTPlanCache.WorkingArrays(3);
 
     /**
      * Applies the apodization function to data in "interleaved" complex array.
@@ -139,115 +145,63 @@ public class ShortTimeFourierTransform {
     public static double[][] complex(final double[] real, final double[] imag, final double[][] output, final int nFFT,
             final int step, final Apodization apodization, final Padding padding, final boolean dbScale,
             final boolean truncateDCNy) {
+        return complex(real, imag, output, nFFT, step, apodization, padding, dbScale, truncateDCNy,
+                Layout.FREQUENCY_TIME);
+    }
+
+    /**
+     * Computes the magnitude spectrogram of complex input data given as separate real and imaginary arrays. The time
+     * slices are distributed across the available cores.
+     *
+     * @param real the real part of the input data
+     * @param imag the imaginary part of the input data
+     * @param output optional output array, reused if its dimensions match the requested layout
+     * @param nFFT the number of frequency bins
+     * @param step the timestep size in samples
+     * @param apodization the apodization window function to use
+     * @param padding how to pad the slices at the end of the time axis
+     * @param dbScale {@code true} to convert the spectrum to dB scale
+     * @param truncateDCNy {@code true} to interpolate the DC- and Nyquist-bins to their respective nearest neighbours
+     * @param layout the memory layout of the returned array
+     * @return the spectrogram (layout of spectrum is fmin, ..., 0, ..., fmax)
+     */
+    public static double[][] complex(final double[] real, final double[] imag, final double[][] output, final int nFFT,
+            final int step, final Apodization apodization, final Padding padding, final boolean dbScale,
+            final boolean truncateDCNy, final Layout layout) {
         AssertUtils.equalDoubleArrays(real, imag); // check for same length
         final int nT = ceilDiv(real.length, step); // number of time steps
-        final double[][] amplitudeData = output == null || output.length != nFFT || output[0].length != nT
-                                                 ? new double[nFFT][nT]
-                                                 : output; // output array
-        // calculate spectrogram
-        final DoubleFFT_1D fastFourierTrafo = new DoubleFFT_1D(nFFT);
-        final double[] raw = new double[2 * nFFT]; // array to perform calculations in
-        for (int i = 0; i < nT; i++) {
-            // obtain input data for FFT
-            final int offset = i * step;
-            final int validLength = real.length - offset;
-        fillraw:
-            for (int j = 0; j < nFFT; j++) {
-                if (offset + j < real.length) {
-                    raw[2 * j] = real[offset + j];
-                    raw[2 * j + 1] = imag[offset + j];
-                } else { // padding
-                    switch (padding) {
-                    case MIRROR:
-                        raw[2 * j] = real[real.length - j + validLength - 1];
-                        raw[2 * j + 1] = imag[imag.length - j + validLength - 1];
-                        break;
-                    case ZERO:
-                        Arrays.fill(raw, 2 * j, raw.length, 0.0);
-                        break fillraw; // break out of loop
-                    default:
-                    case ZOH:
-                        raw[2 * j] = real[real.length - 1];
-                        raw[2 * j + 1] = imag[imag.length - 1];
-                        break;
-                    }
-                }
-            }
-            // apply apodization function
-            apodizeComplex(raw, apodization);
-            // perform Fourier transform
-            fastFourierTrafo.complexForward(raw);
-            // calculate magnitude spectrum
-            final double[] current = dbScale ? SpectrumTools.computeMagnitudeSpectrum_dB(raw, truncateDCNy)
-                                             : SpectrumTools.computeMagnitudeSpectrum(raw, truncateDCNy);
-            // copy output into result array (layout of spectrum is 0, ..., fmax, 0, ..., fmin)
-            // TODO: use more efficient copy, possibly transpose output?
-            for (int j = 0; j < nFFT; j++) {
-                if (j < nFFT / 2) {
-                    amplitudeData[j + nFFT / 2][i] = current[j];
-                } else {
-                    amplitudeData[j - nFFT / 2][i] = current[j];
-                }
-            }
-        }
-        return amplitudeData;
+        return compute(nT, nFFT, true, (i, raw) -> fillComplexSlice(real, imag, i * step, raw, padding), output,
+                apodization, dbScale, truncateDCNy, layout);
     }
 
     public static double[][] complex(final double[] complexInput, final double[][] output, final int nFFT,
             final int step, final Apodization apodization, final Padding padding, final boolean dbScale,
             final boolean truncateDCNy) {
+        return complex(complexInput, output, nFFT, step, apodization, padding, dbScale, truncateDCNy,
+                Layout.FREQUENCY_TIME);
+    }
+
+    /**
+     * Computes the magnitude spectrogram of complex input data in the "interleaved" layout used by JTransforms. The
+     * time slices are distributed across the available cores.
+     *
+     * @param complexInput an array containing [re1, im1, re2, im2 ... ]
+     * @param output optional output array, reused if its dimensions match the requested layout
+     * @param nFFT the number of frequency bins
+     * @param step the timestep size in samples
+     * @param apodization the apodization window function to use
+     * @param padding how to pad the slices at the end of the time axis
+     * @param dbScale {@code true} to convert the spectrum to dB scale
+     * @param truncateDCNy {@code true} to interpolate the DC- and Nyquist-bins to their respective nearest neighbours
+     * @param layout the memory layout of the returned array
+     * @return the spectrogram (layout of spectrum is fmin, ..., 0, ..., fmax)
+     */
+    public static double[][] complex(final double[] complexInput, final double[][] output, final int nFFT,
+            final int step, final Apodization apodization, final Padding padding, final boolean dbScale,
+            final boolean truncateDCNy, final Layout layout) {
         final int nT = ceilDiv(complexInput.length, 2 * step); // number of time steps
-        final double[][] amplitudeData = output == null || output.length != nFFT || output[0].length != nT
-                                                 ? new double[nFFT][nT]
-                                                 : output; // output array
-        // calculate spectrogram
-        final DoubleFFT_1D fastFourierTrafo = new DoubleFFT_1D(nFFT);
-        final double[] raw = new double[2 * nFFT]; // array to perform calculations in
-        for (int i = 0; i < nT; i++) {
-            // obtain input data for FFT
-            final int offset = i * 2 * step;
-            final int validLength = complexInput.length - offset;
-            if (validLength >= 2 * nFFT) {
-                System.arraycopy(complexInput, offset, raw, 0, 2 * nFFT);
-            } else { // data has to be padded
-                System.arraycopy(complexInput, offset, raw, 0, validLength);
-                switch (padding) {
-                case MIRROR:
-                    for (int j = validLength; j + 1 < raw.length; j += 2) {
-                        raw[j] = complexInput[complexInput.length - j + validLength - 1];
-                        raw[j + 1] = complexInput[complexInput.length - j + validLength];
-                    }
-                    break;
-                case ZERO:
-                    Arrays.fill(raw, validLength, raw.length, 0.0);
-                    break;
-                default:
-                case ZOH:
-                    for (int j = validLength; j + 1 < raw.length; j += 2) {
-                        raw[j] = complexInput[complexInput.length - 2];
-                        raw[j + 1] = complexInput[complexInput.length - 1];
-                    }
-                    break;
-                }
-            }
-            // apply apodization function
-            apodizeComplex(raw, apodization);
-            // perform Fourier transform
-            fastFourierTrafo.complexForward(raw);
-            // calculate magnitude spectrum
-            final double[] current = dbScale ? SpectrumTools.computeMagnitudeSpectrum_dB(raw, truncateDCNy)
-                                             : SpectrumTools.computeMagnitudeSpectrum(raw, truncateDCNy);
-            // copy output into result array (layout of spectrum is 0, ..., fmax, 0, ..., fmin)
-            // TODO: use more efficient copy, possibly transpose output?
-            for (int j = 0; j < nFFT; j++) {
-                if (j < nFFT / 2) {
-                    amplitudeData[j + nFFT / 2][i] = current[j];
-                } else {
-                    amplitudeData[j - nFFT / 2][i] = current[j];
-                }
-            }
-        }
-        return amplitudeData;
+        return compute(nT, nFFT, true, (i, raw) -> fillInterleavedSlice(complexInput, 2 * i * step, raw, padding),
+                output, apodization, dbScale, truncateDCNy, layout);
     }
 
     public static double[] getFrequencyAxisComplex(final double dt, final int nFFT, final double[] output) {
@@ -346,49 +300,226 @@ public class ShortTimeFourierTransform {
 
     public static double[][] real(final double[] input, final double[][] output, final int nFFT, final int step,
             final Apodization apodization, final Padding padding, final boolean dbScale, final boolean truncateDCNy) {
+        return real(input, output, nFFT, step, apodization, padding, dbScale, truncateDCNy, Layout.FREQUENCY_TIME);
+    }
+
+    /**
+     * Computes the magnitude spectrogram of real valued input data. The time slices are distributed across the
+     * available cores.
+     *
+     * @param input the input data
+     * @param output optional output array, reused if its dimensions match the requested layout
+     * @param nFFT the number of samples per time slice (yields nFFT/2 frequency bins)
+     * @param step the timestep size in samples
+     * @param apodization the apodization window function to use
+     * @param padding how to pad the slices at the end of the time axis
+     * @param dbScale {@code true} to convert the spectrum to dB scale
+     * @param truncateDCNy {@code true} to interpolate the DC- and Nyquist-bins to their respective nearest neighbours
+     * @param layout the memory layout of the returned array
+     * @return the spectrogram (layout of spectrum is 0, ..., fmax)
+     */
+    public static double[][] real(final double[] input, final double[][] output, final int nFFT, final int step,
+            final Apodization apodization, final Padding padding, final boolean dbScale, final boolean truncateDCNy,
+            final Layout layout) {
         final int nT = ceilDiv(input.length, step); // number of time steps
-        final double[][] amplitudeData = output == null || output.length != nFFT / 2 || output[0].length != nT
-                                                 ? new double[nFFT / 2][nT]
-                                                 : output; // output array
-        final DoubleFFT_1D fastFourierTrafo = new DoubleFFT_1D(nFFT);
-        final double[] raw = new double[nFFT]; // array to perform calculations in
-        for (int i = 0; i < nT; i++) {
-            // obtain input data for FFT
-            final int offset = i * step;
-            final int validLength = input.length - offset;
-            if (validLength >= nFFT) {
-                System.arraycopy(input, offset, raw, 0, nFFT);
-            } else { // data has to be padded
-                System.arraycopy(input, offset, raw, 0, validLength);
+        return compute(nT, nFFT, false, (i, raw) -> fillRealSlice(input, i * step, raw, padding), output, apodization,
+                dbScale, truncateDCNy, layout);
+    }
+
+    /**
+     * Computes the spectra of the time slices and distributes them across the available cores. Each worker uses its
+     * own scratch buffers and writes blocks of {@value #BLOCK_SIZE} slices, i.e. the transposition into the
+     * {@link Layout#FREQUENCY_TIME} layout is done in cache-friendly contiguous row segments.
+     */
+    private static double[][] compute(final int nT, final int nFFT, final boolean complex, final SliceFiller filler,
+            final double[][] output, final Apodization apodization, final boolean dbScale, final boolean truncateDCNy,
+            final Layout layout) {
+        AssertUtils.gtThanZero("nFFT", nFFT);
+        AssertUtils.notNull("apodization", apodization);
+        AssertUtils.notNull("layout", layout);
+        final int nBins = complex ? nFFT : nFFT / 2;
+        final double[][] amplitudeData;
+        if (layout == Layout.TIME_FREQUENCY) {
+            amplitudeData = output == null || output.length != nT || (nT > 0 && output[0].length != nBins)
+                                    ? new double[nT][nBins]
+                                    : output;
+        } else {
+            amplitudeData = output == null || output.length != nBins || (nBins > 0 && output[0].length != nT)
+                                    ? new double[nBins][nT]
+                                    : output;
+        }
+        // N.B. the window is retrieved once since the apodization window cache is not thread-safe
+        final double[] window = apodization.getWindow(nFFT);
+        final SliceRange range = (from, to) -> computeSlices(from, to, nFFT, complex, filler, window, dbScale,
+                truncateDCNy, layout, amplitudeData);
+
+        final int nThreads = Math.min(ConcurrencyUtils.getNumberOfThreads(), ceilDiv(nT, BLOCK_SIZE));
+        if (nThreads <= 1 || (long) nT * nFFT < MIN_PARALLEL_SAMPLES) {
+            range.compute(0, nT);
+            return amplitudeData;
+        }
+        final Future<?>[] futures = new Future[nThreads];
+        // split on block boundaries so that the workers never write to the same cache lines
+        final int blocksPerThread = ceilDiv(ceilDiv(nT, BLOCK_SIZE), nThreads);
+        for (int thread = 0; thread < nThreads; thread++) {
+            final int from = Math.min(nT, thread * blocksPerThread * BLOCK_SIZE);
+            final int to = Math.min(nT, from + blocksPerThread * BLOCK_SIZE);
+            futures[thread] = ConcurrencyUtils.submit(() -> range.compute(from, to));
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return amplitudeData;
+    }
+
+    static void computeSlices(final int from, final int to, final int nFFT, final boolean complex,
+            final SliceFiller filler, final double[] window, final boolean dbScale, final boolean truncateDCNy,
+            final Layout layout, final double[][] amplitudeData) {
+        if (from >= to) {
+            return;
+        }
+        final int nBins = complex ? nFFT : nFFT / 2;
+        final DoubleFFT_1D fastFourierTrafo = FFTPlanCache.getDoubleFFT(nFFT);
+        // array to perform calculations in
+        final double[] raw = WORKING_ARRAYS.get(0, complex ? 2 * nFFT : nFFT);
+        final double[] magnitude = WORKING_ARRAYS.get(1, nBins);
+        final double[] block = layout == Layout.FREQUENCY_TIME ? WORKING_ARRAYS.get(2, BLOCK_SIZE * nBins) : null;
+        for (int blockStart = from; blockStart < to; blockStart += BLOCK_SIZE) {
+            final int blockLength = Math.min(BLOCK_SIZE, to - blockStart);
+            for (int k = 0; k < blockLength; k++) {
+                final int i = blockStart + k;
+                // obtain input data for FFT
+                filler.fill(i, raw);
+                // apply apodization function and perform Fourier transform
+                if (complex) {
+                    for (int j = 0; j < nFFT; j++) {
+                        raw[2 * j] *= window[j];
+                        raw[2 * j + 1] *= window[j];
+                    }
+                    fastFourierTrafo.complexForward(raw);
+                } else {
+                    for (int j = 0; j < nFFT; j++) {
+                        raw[j] *= window[j];
+                    }
+                    fastFourierTrafo.realForward(raw);
+                }
+                // calculate magnitude spectrum
+                if (dbScale) {
+                    SpectrumTools.computeMagnitudeSpectrum_dB(raw, truncateDCNy, magnitude);
+                } else {
+                    SpectrumTools.computeMagnitudeSpectrum(raw, truncateDCNy, magnitude);
+                }
+                final double[] destination = block == null ? amplitudeData[i] : block;
+                final int offset = block == null ? 0 : k * nBins;
+                if (complex) {
+                    // reorder spectrum from 0, ..., fmax, fmin, ..., 0 to fmin, ..., 0, ..., fmax
+                    final int half = nFFT / 2;
+                    System.arraycopy(magnitude, 0, destination, offset + half, nFFT - half);
+                    System.arraycopy(magnitude, half, destination, offset, nFFT - half);
+                } else {
+                    System.arraycopy(magnitude, 0, destination, offset, nBins);
+                }
+            }
+            if (block != null) {
+                // transpose block into contiguous row segments
+                for (int j = 0; j < nBins; j++) {
+                    final double[] row = amplitudeData[j];
+                    for (int k = 0; k < blockLength; k++) {
+                        row[blockStart + k] = block[k * nBins + j];
+                    }
+                }
+            }
+        }
+    }
+
+    private static void fillComplexSlice(final double[] real, final double[] imag, final int offset,
+            final double[] raw, final Padding padding) {
+        final int nFFT = raw.length / 2;
+        final int validLength = real.length - offset;
+    fillraw:
+        for (int j = 0; j < nFFT; j++) {
+            if (offset + j < real.length) {
+                raw[2 * j] = real[offset + j];
+                raw[2 * j + 1] = imag[offset + j];
+            } else { // padding
                 switch (padding) {
                 case MIRROR:
-                    for (int j = validLength; j < raw.length; j++) {
-                        raw[j] = input[input.length - j + validLength - 1];
-                    }
+                    raw[2 * j] = real[real.length - j + validLength - 1];
+                    raw[2 * j + 1] = imag[imag.length - j + validLength - 1];
                     break;
                 case ZERO:
-                    Arrays.fill(raw, validLength, raw.length, 0.0);
-                    break;
+                    Arrays.fill(raw, 2 * j, raw.length, 0.0);
+                    break fillraw; // break out of loop
                 default:
                 case ZOH:
-                    Arrays.fill(raw, validLength, raw.length, input[input.length - 1]);
+                    raw[2 * j] = real[real.length - 1];
+                    raw[2 * j + 1] = imag[imag.length - 1];
                     break;
                 }
             }
-            // apply apodization function
-            apodization.apodize(raw);
-            // perform Fourier transform
-            fastFourierTrafo.realForward(raw);
-            // calculate magnitude spectrum
-            final double[] current = dbScale ? SpectrumTools.computeMagnitudeSpectrum_dB(raw, truncateDCNy)
-                                             : SpectrumTools.computeMagnitudeSpectrum(raw, truncateDCNy);
-            // copy output into result array (layout of spectrum is 0, ..., fmax, 0, ..., fmin)
-            // TODO: use more efficient copy, possibly transpose output?
-            for (int j = 0; j < nFFT / 2; j++) {
-                amplitudeData[j][i] = current[j];
+        }
+    }
+
+    private static void fillInterleavedSlice(final double[] complexInput, final int offset, final double[] raw,
+            final Padding padding) {
+        final int validLength = complexInput.length - offset;
+        if (validLength >= raw.length) {
+            System.arraycopy(complexInput, offset, raw, 0, raw.length);
+            return;
+        }
+        // data has to be padded
+        System.arraycopy(complexInput, offset, raw, 0, validLength);
+        switch (padding) {
+        case MIRROR:
+            for (int j = validLength; j + 1 < raw.length; j += 2) {
+                raw[j] = complexInput[complexInput.length - j + validLength - 1];
+                raw[j + 1] = complexInput[complexInput.length - j + validLength];
+            }
+            break;
+        case ZERO:
+            Arrays.fill(raw, validLength, raw.length, 0.0);
+            break;
+        default:
+        case ZOH:
+            for (int j = validLength; j + 1 < raw.length; j += 2) {
+                raw[j] = complexInput[complexInput.length - 2];
+                raw[j + 1] = complexInput[complexInput.length - 1];
             }
+            break;
         }
-        return amplitudeData;
+    }
+
+    private static void fillRealSlice(final double[] input, final int offset, final double[] raw,
+            final Padding padding) {
+        final int validLength = input.length - offset;
+        if (validLength >= raw.length) {
+            System.arraycopy(input, offset, raw, 0, raw.length);
+            return;
+        }
+        // data has to be padded
+        System.arraycopy(input, offset, raw, 0, validLength);
+        switch (padding) {
+        case MIRROR:
+            for (int j = validLength; j < raw.length; j++) {
+                raw[j] = input[input.length - j + validLength - 1];
+            }
+            break;
+        case ZERO:
+            Arrays.fill(raw, validLength, raw.length, 0.0);
+            break;
+        default:
+        case ZOH:
+            Arrays.fill(raw, validLength, raw.length, input[input.length - 1]);
+            break;
+        }
+    }
+
+    /**
+     * Memory layout of the array based spectrogram results
+     */
+    public enum Layout {
+        /** amplitudeData[frequency][time], as used by {@link DoubleDataSet3D} */
+        FREQUENCY_TIME,
+        /** amplitudeData[time][frequency], i.e. one contiguous row per spectrum */
+        TIME_FREQUENCY;
     }
 
     public enum Padding {
@@ -396,4 +527,14 @@ public class ShortTimeFourierTransform {
         ZOH,
         MIRROR;
     }
+
+    @FunctionalInterface
+    interface SliceFiller {
+        void fill(int timeIndex, double[] raw);
+    }
+
+    @FunctionalInterface
+    private interface SliceRange {
+        void compute(int from, int to);
+    }
 }
@@ -8,6 +8,7 @@ import de.gsi.math.TMath;
 import de.gsi.math.TMathConstants;
 import de.gsi.math.fitter.NonLinearRegressionFitter;
 import de.gsi.math.functions.CombFunction;
+import de.gsi.math.spectra.fft.FFTPlanCache;
 
 /**
  * Class implements frequency interpolation of spectral peaks. The main idea behind these algorithm is: The resolution
@@ -74,7 +75,22 @@ public class SpectrumTools {
      * @return computed magnitude spectrum
      */
     public static double[] computeMagnitudeSpectrum(final double[] data, final boolean truncateDCNyq) {
-        final double[] ret = new double[data.length / 2];
+        return computeMagnitudeSpectrum(data, truncateDCNyq, new double[data.length / 2]);
+    }
+
+    /**
+     * compute magnitude power spectra
+     *
+     * @see DoubleFFT_1D for the expected spectra layout
+     * @param data the input data
+     * @param truncateDCNyq true: whether to smooth spectra and to ZOH the DC and Nyquist frequencies
+     * @param output storage for the magnitude spectrum (length is data.length / 2)
+     * @return computed magnitude spectrum (i.e. output)
+     */
+    public static double[] computeMagnitudeSpectrum(final double[] data, final boolean truncateDCNyq,
+            final double[] output) {
+        checkOutputLength(data.length / 2, output);
+        final double[] ret = output;
         for (int i = 0; i < ret.length; i++) {
             final int i2 = i << 1;
             final double Re = data[i2];
@@ -148,8 +164,23 @@ public class SpectrumTools {
      * @return computed magnitude spectrum in [dB]
      */
     public static double[] computeMagnitudeSpectrum_dB(final double[] data, final boolean truncateDCNyq) {
+        return computeMagnitudeSpectrum_dB(data, truncateDCNyq, new double[data.length / 2]);
+    }
+
+    /**
+     * compute magnitude power spectra in decibel
+     *
+     * @see DoubleFFT_1D for the expected spectra layout
+     * @param data the input data
+     * @param truncateDCNyq true: whether to smooth spectra and to ZOH the DC and Nyquist frequencies
+     * @param output storage for the magnitude spectrum (length is data.length / 2)
+     * @return computed magnitude spectrum in [dB] (i.e. output)
+     */
+    public static double[] computeMagnitudeSpectrum_dB(final double[] data, final boolean truncateDCNyq,
+            final double[] output) {
         final int n2 = data.length / 2;
-        final double[] ret = new double[n2];
+        checkOutputLength(n2, output);
+        final double[] ret = output;
         for (int i = 0; i < ret.length; i++) {
             final int i2 = i << 1;
             final double Re = data[i2];
@@ -538,15 +569,13 @@ public class SpectrumTools {
     public static synchronized double[] interpolateSpectrum(final double[] data, final int noversampling) {
         final double[] val1 = Arrays.copyOf(data, data.length);
 
-        DoubleFFT_1D fft1D = new DoubleFFT_1D(data.length);
-        fft1D.realInverse(val1, true);
+        FFTPlanCache.getDoubleFFT(data.length).realInverse(val1, true);
 
         final double[] val2 = new double[noversampling * val1.length];
         System.arraycopy(val1, 0, val2, 0, val1.length - 2);
 
         final int fftLength = noversampling * data.length;
-        fft1D = new DoubleFFT_1D(fftLength);
-        fft1D.realForward(val2);
+        FFTPlanCache.getDoubleFFT(fftLength).realForward(val2);
 
         for (int i = 0; i < val2.length; i++) {
             val2[i] *= noversampling;
@@ -555,6 +584,13 @@ public class SpectrumTools {
         return val2;
     }
 
+    private static void checkOutputLength(final int length, final double[] output) {
+        if (output == null || output.length != length) {
+            throw new IllegalArgumentException("output array length " + (output == null ? "null" : output.length)
+                                               + " does not match spectrum length " + length);
+        }
+    }
+
     public static void main(final String[] args) {
         final double[] data = new double[1024];
         final double mean = 128.123456789123456789123456789; // [bins]
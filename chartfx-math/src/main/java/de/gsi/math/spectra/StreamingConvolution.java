@@ -0,0 +1,212 @@
+package de.gsi.math.spectra;
+
+import java.util.Arrays;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.spectra.fft.FFTPlanCache;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Streaming (online) FIR filter, i.e. causal convolution y[n] = sum_k h[k] * x[n - k] of an unbounded input stream
+ * with a fixed kernel h.
+ * <p>
+ * Short kernels (length &le; {@link FastConvolution#DIRECT_KERNEL_LIMIT}) are evaluated directly in the time domain
+ * without latency. Longer kernels are evaluated block-wise via FFT using either the overlap-add or overlap-save scheme
+ * with a transform length of about four times the kernel length, reducing the cost per sample from O(M) to O(log M).
+ * The block-wise evaluation implies a constant latency of {@link #getLatency()} samples, i.e. the n-th output sample
+ * corresponds to y[n - latency] (the first 'latency' output samples being zero).
+ * <p>
+ * N.B. this class is not thread-safe, samples are expected to be fed from a single (acquisition) thread.
+ */
+public class StreamingConvolution {
+    private final Method method;
+    private final double[] kernel;
+    private final int nKernel;
+    private final int blockLength; // number of new input samples per FFT block
+    private final DoubleFFT_1D fft;
+    private final double[] kernelSpectrum; // packed spectrum of the zero-padded kernel
+    private final double[] history; // DIRECT: doubled ring buffer; FFT: input block
+    private final double[] pending; // FFT: output samples of the previous block
+    private final double[] overlap; // FFT: OLA tail of the previous block or OLS last nKernel - 1 input samples
+    private final double[] work;
+    private int position;
+
+    /**
+     * convolution algorithm selection
+     */
+    public enum Method {
+        /** time-domain evaluation without latency, O(M) per sample */
+        DIRECT,
+        /** FFT-based block convolution adding the overlapping tails of consecutive blocks */
+        OVERLAP_ADD,
+        /** FFT-based block convolution discarding the circularly wrapped part of overlapping input blocks */
+        OVERLAP_SAVE
+    }
+
+    /**
+     * Streaming FIR filter choosing direct or overlap-add evaluation depending on the kernel length
+     *
+     * @param kernel the filter kernel (impulse response)
+     */
+    public StreamingConvolution(final double[] kernel) {
+        this(kernel, kernel != null && kernel.length <= FastConvolution.DIRECT_KERNEL_LIMIT ? Method.DIRECT
+                                                                                            : Method.OVERLAP_ADD);
+    }
+
+    /**
+     * @param kernel the filter kernel (impulse response)
+     * @param method convolution algorithm
+     */
+    public StreamingConvolution(final double[] kernel, final Method method) {
+        AssertUtils.nonEmptyArray("kernel", kernel);
+        AssertUtils.notNull("method", method);
+        this.method = method;
+        this.kernel = kernel.clone();
+        nKernel = kernel.length;
+        if (method == Method.DIRECT) {
+            blockLength = 0;
+            fft = null;
+            kernelSpectrum = null;
+            history = new double[2 * nKernel];
+            pending = null;
+            overlap = null;
+            work = null;
+            return;
+        }
+        final int nFFT = Math.max(2, ConcurrencyUtils.nextPow2(4 * nKernel));
+        blockLength = nFFT - nKernel + 1;
+        fft = FFTPlanCache.getDoubleFFT(nFFT);
+        kernelSpectrum = Arrays.copyOf(kernel, nFFT);
+        fft.realForward(kernelSpectrum);
+        history = new double[blockLength];
+        pending = new double[blockLength];
+        overlap = new double[nKernel - 1];
+        work = new double[nFFT];
+    }
+
+    /**
+     * @return number of samples the output is delayed with respect to the causal convolution (0 for
+     *         {@link Method#DIRECT})
+     */
+    public int getLatency() {
+        return blockLength;
+    }
+
+    /**
+     * @return the convolution algorithm used
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * filters one sample
+     *
+     * @param sample new input sample
+     * @return filtered output sample (delayed by {@link #getLatency()})
+     */
+    public double process(final double sample) {
+        if (method == Method.DIRECT) {
+            return processDirect(sample);
+        }
+        final double ret = pending[position];
+        history[position++] = sample;
+        if (position == blockLength) {
+            computeBlock();
+        }
+        return ret;
+    }
+
+    /**
+     * filters a chunk of samples
+     *
+     * @param input source array
+     * @param inputOffset first source index
+     * @param output destination array (may be identical to the input array if both offsets are equal)
+     * @param outputOffset first destination index
+     * @param length number of samples to be filtered
+     */
+    public void process(final double[] input, final int inputOffset, final double[] output, final int outputOffset,
+            final int length) {
+        AssertUtils.notNull("input", input);
+        AssertUtils.notNull("output", output);
+        AssertUtils.gtEqThanZero("length", length);
+        AssertUtils.indexInBounds(inputOffset, input.length + 1, "inputOffset");
+        AssertUtils.indexInBounds(inputOffset + length, input.length + 1, "inputOffset + length");
+        AssertUtils.indexInBounds(outputOffset, output.length + 1, "outputOffset");
+        AssertUtils.indexInBounds(outputOffset + length, output.length + 1, "outputOffset + length");
+        if (method == Method.DIRECT) {
+            for (int i = 0; i < length; i++) {
+                output[outputOffset + i] = processDirect(input[inputOffset + i]);
+            }
+            return;
+        }
+        int done = 0;
+        while (done < length) {
+            final int chunk = Math.min(blockLength - position, length - done);
+            // N.B. copy input before writing the output to support in-place operation
+            System.arraycopy(input, inputOffset + done, history, position, chunk);
+            System.arraycopy(pending, position, output, outputOffset + done, chunk);
+            position += chunk;
+            done += chunk;
+            if (position == blockLength) {
+                computeBlock();
+            }
+        }
+    }
+
+    /**
+     * clears the internal state, the following samples start a new stream
+     */
+    public void reset() {
+        position = 0;
+        Arrays.fill(history, 0.0);
+        if (method != Method.DIRECT) {
+            Arrays.fill(pending, 0.0);
+            Arrays.fill(overlap, 0.0);
+        }
+    }
+
+    private void computeBlock() {
+        position = 0;
+        final int nFFT = work.length;
+        final int nOverlap = nKernel - 1;
+        if (method == Method.OVERLAP_ADD) {
+            System.arraycopy(history, 0, work, 0, blockLength);
+            Arrays.fill(work, blockLength, nFFT, 0.0);
+            fft.realForward(work);
+            FastConvolution.multiplyPacked(work, kernelSpectrum);
+            fft.realInverse(work, true);
+            System.arraycopy(work, 0, pending, 0, blockLength);
+            for (int i = 0; i < nOverlap; i++) {
+                pending[i] += overlap[i];
+            }
+            // N.B. blockLength >= nKernel - 1, i.e. the tail overlaps only with the next block
+            System.arraycopy(work, blockLength, overlap, 0, nOverlap);
+            return;
+        }
+
+        // OVERLAP_SAVE: the first nKernel - 1 output samples are corrupted by the circular wrap-around
+        System.arraycopy(overlap, 0, work, 0, nOverlap);
+        System.arraycopy(history, 0, work, nOverlap, blockLength);
+        System.arraycopy(history, blockLength - nOverlap, overlap, 0, nOverlap);
+        fft.realForward(work);
+        FastConvolution.multiplyPacked(work, kernelSpectrum);
+        fft.realInverse(work, true);
+        System.arraycopy(work, nOverlap, pending, 0, blockLength);
+    }
+
+    private double processDirect(final double sample) {
+        // doubled ring buffer (filled backwards): history[position + k] holds x[n - k] for k = 0, ..., nKernel - 1
+        position = position == 0 ? nKernel - 1 : position - 1;
+        history[position] = sample;
+        history[position + nKernel] = sample;
+        double sum = 0.0;
+        for (int k = 0; k < nKernel; k++) {
+            sum += kernel[k] * history[position + k];
+        }
+        return sum;
+    }
+}
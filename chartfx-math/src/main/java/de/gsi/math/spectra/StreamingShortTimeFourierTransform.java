@@ -0,0 +1,225 @@
+package de.gsi.math.spectra;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+import static de.gsi.dataset.DataSet.DIM_Z;
+
+import java.util.Arrays;
+
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
+import de.gsi.dataset.utils.AssertUtils;
+import de.gsi.math.spectra.ShortTimeFourierTransform.Layout;
+import de.gsi.math.spectra.ShortTimeFourierTransform.Padding;
+
+/**
+ * Streaming (online) short-time Fourier transform for live monitoring.
+ * <p>
+ * Samples are fed one-by-one (or in chunks) into an overlap buffer holding the last nFFT samples. Each time
+ * {@code step} new samples arrived, one new magnitude spectrum is computed and pushed as a new row into a rolling
+ * waterfall {@link CircularDoubleDataSet3D} (x: frequency, y: time, z: magnitude). The cost per spectrum is thus
+ * O(nFFT log nFFT) independent of the record length. The slicing, apodization, padding and spectrum layout are the same
+ * as for the array based functions of {@link ShortTimeFourierTransform}, i.e. feeding a full record and calling
+ * {@link #flush()} yields the same spectra as the batch transform.
+ * <p>
+ * N.B. this class is not thread-safe, samples are expected to be fed from a single (acquisition) thread.
+ */
+public class StreamingShortTimeFourierTransform {
+    private final int nFFT;
+    private final int step;
+    private final boolean complex;
+    private final double dt;
+    private final Padding padding;
+    private final boolean dbScale;
+    private final boolean truncateDCNy;
+    private final double[] window;
+    private final double[] historyReal; // overlap buffer (ring) of the last nFFT samples
+    private final double[] historyImag;
+    private final double[][] spectrum; // [1][nBins]
+    private final CircularDoubleDataSet3D waterfall;
+    private long nSamples; // number of samples received since the last reset
+    private long nSpectra; // number of spectra computed since the last reset
+
+    /**
+     * @param nFFT the number of samples per time slice
+     * @param step the timestep size in samples
+     * @param dt the sampling interval (used for the time and frequency axes)
+     * @param complex {@code true}: complex input data, see {@link #add(double, double)}
+     * @param apodization the apodization window function to use
+     * @param padding how to pad the last slices on {@link #flush()}
+     * @param dbScale {@code true} to convert the spectrum to dB scale
+     * @param truncateDCNy {@code true} to interpolate the DC- and Nyquist-bins to their respective nearest neighbours
+     * @param nHistory number of spectra kept in the waterfall DataSet
+     */
+    public StreamingShortTimeFourierTransform(final int nFFT, final int step, final double dt, final boolean complex,
+            final Apodization apodization, final Padding padding, final boolean dbScale, final boolean truncateDCNy,
+            final int nHistory) {
+        AssertUtils.gtThanZero("nFFT", nFFT);
+        AssertUtils.gtThanZero("step", step);
+        AssertUtils.gtThanZero("dt", dt);
+        AssertUtils.notNull("apodization", apodization);
+        AssertUtils.notNull("padding", padding);
+        AssertUtils.gtThanZero("nHistory", nHistory);
+        this.nFFT = nFFT;
+        this.step = step;
+        this.dt = dt;
+        this.complex = complex;
+        this.padding = padding;
+        this.dbScale = dbScale;
+        this.truncateDCNy = truncateDCNy;
+        window = apodization.getWindow(nFFT);
+        historyReal = new double[nFFT];
+        historyImag = complex ? new double[nFFT] : null;
+        final double[] frequencyAxis = complex ? ShortTimeFourierTransform.getFrequencyAxisComplex(dt, nFFT, null)
+                                               : ShortTimeFourierTransform.getFrequencyAxisReal(dt, nFFT, null);
+        spectrum = new double[1][frequencyAxis.length];
+        waterfall = new CircularDoubleDataSet3D("STFT", frequencyAxis, nHistory);
+        waterfall.getAxisDescription(DIM_X).set("Frequency", "Hz");
+        waterfall.getAxisDescription(DIM_Y).set("Time", "s");
+        waterfall.getAxisDescription(DIM_Z).set("Magnitude", dbScale ? "dB" : "a.u.");
+    }
+
+    /**
+     * adds a new real valued sample
+     *
+     * @param sample the new sample
+     * @return {@code true} if a new spectrum has been computed
+     */
+    public boolean add(final double sample) {
+        if (complex) {
+            throw new IllegalStateException("transform has been configured for complex input data");
+        }
+        historyReal[(int) (nSamples % nFFT)] = sample;
+        nSamples++;
+        return update();
+    }
+
+    /**
+     * adds a new complex valued sample
+     *
+     * @param real the real part of the new sample
+     * @param imag the imaginary part of the new sample
+     * @return {@code true} if a new spectrum has been computed
+     */
+    public boolean add(final double real, final double imag) {
+        if (!complex) {
+            throw new IllegalStateException("transform has been configured for real input data");
+        }
+        final int slot = (int) (nSamples % nFFT);
+        historyReal[slot] = real;
+        historyImag[slot] = imag;
+        nSamples++;
+        return update();
+    }
+
+    /**
+     * adds a chunk of new real valued samples
+     *
+     * @param samples source array
+     * @param offset first source index
+     * @param length number of samples to be added
+     * @return number of new spectra that have been computed
+     */
+    public int add(final double[] samples, final int offset, final int length) {
+        AssertUtils.notNull("samples", samples);
+        AssertUtils.indexInBounds(offset, samples.length + 1, "offset");
+        AssertUtils.indexOrder(offset, "offset", offset + length, "offset + length");
+        AssertUtils.indexInBounds(offset + length, samples.length + 1, "offset + length");
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (add(samples[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the remaining spectra of slices that are not yet complete (using the configured padding), i.e. should
+     * be called at the end of a record. The following samples continue the present record.
+     *
+     * @return number of new spectra that have been computed
+     */
+    public int flush() {
+        int count = 0;
+        while (nSpectra * step < nSamples) {
+            computeSpectrum(nSpectra * step);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of spectra computed since the last reset
+     */
+    public long getSpectrumCount() {
+        return nSpectra;
+    }
+
+    /**
+     * @return rolling waterfall DataSet (x: frequency, y: time, z: magnitude)
+     */
+    public CircularDoubleDataSet3D getWaterfall() {
+        return waterfall;
+    }
+
+    /**
+     * clears the overlap buffer and the waterfall DataSet, the following samples start a new record at t = 0
+     */
+    public void reset() {
+        nSamples = 0;
+        nSpectra = 0;
+        Arrays.fill(historyReal, 0.0);
+        if (historyImag != null) {
+            Arrays.fill(historyImag, 0.0);
+        }
+        waterfall.clearData();
+    }
+
+    private void computeSpectrum(final long sliceStart) {
+        final int validLength = (int) Math.min(nFFT, nSamples - sliceStart);
+        ShortTimeFourierTransform.computeSlices(0, 1, nFFT, complex,
+                (index, raw) -> fillSlice(sliceStart, validLength, raw), window, dbScale, truncateDCNy,
+                Layout.TIME_FREQUENCY, spectrum);
+        nSpectra++;
+        waterfall.pushRow(sliceStart * dt, spectrum[0]);
+    }
+
+    private void fillSlice(final long sliceStart, final int validLength, final double[] raw) {
+        final int stride = complex ? 2 : 1;
+        for (int j = 0; j < nFFT; j++) {
+            final long sample;
+            if (j < validLength) {
+                sample = sliceStart + j;
+            } else {
+                switch (padding) {
+                case MIRROR:
+                    sample = Math.max(0, nSamples - 1 - (j - validLength));
+                    break;
+                case ZERO:
+                    Arrays.fill(raw, stride * j, raw.length, 0.0);
+                    return;
+                default:
+                case ZOH:
+                    sample = nSamples - 1;
+                    break;
+                }
+            }
+            final int slot = (int) (sample % nFFT);
+            if (complex) {
+                raw[2 * j] = historyReal[slot];
+                raw[2 * j + 1] = historyImag[slot];
+            } else {
+                raw[j] = historyReal[slot];
+            }
+        }
+    }
+
+    private boolean update() {
+        final long sliceStart = nSpectra * step;
+        if (nSamples != sliceStart + nFFT) {
+            return false;
+        }
+        computeSpectrum(sliceStart);
+        return true;
+    }
+}
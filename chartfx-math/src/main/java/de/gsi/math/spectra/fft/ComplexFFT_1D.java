@@ -1,39 +1,266 @@
 package de.gsi.math.spectra.fft;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.complex.Complex;
 
 /**
- * classic FFT implementation based on the Complex data object
+ * Complex FFT operating in-place on primitive 'interleaved' double arrays, i.e. [re0, im0, re1, im1, ...], as used by
+ * JTransforms.
+ * <p>
+ * Power-of-two lengths are computed using an iterative radix-2 Cooley-Tukey algorithm with pre-computed twiddle
+ * factors. All other lengths are computed via Bluestein's chirp-z algorithm, which maps the transform onto a
+ * power-of-two cyclic convolution. The plans are immutable after construction and can be shared between threads
+ * (cached instances are available via {@link FFTPlanCache#getComplexFFT(int)}). Transforms of power-of-two lengths
+ * do not allocate. The Bluestein fallback uses a scratch buffer that is allocated once per thread and plan.
+ * <p>
+ * The legacy {@code Complex[]} based static functions are kept for backward compatibility and delegate to the
+ * primitive implementation.
  *
  * @author rstein
  */
 public class ComplexFFT_1D {
-    private static Complex[][] coef; // FFT coefficients (calculated once
-    private static int coef_order = 0; // power of two till the coefficients are computed
+    private static final FFTPlanCache.WorkingArrays CONVOLUTION_ARRAYS = new FFTPlanCache.WorkingArrays(2);
+    private final int n;
+    private final boolean powerOfTwo;
+    private final double[] cosTable; // twiddle factors exp(-2 pi i k / n), k < n/2
+    private final double[] sinTable;
+    // Bluestein specific
+    private final ComplexFFT_1D convolutionFFT;
+    private final double[] chirp; // interleaved exp(-i pi k^2 / n)
+    private final double[] chirpFilter; // FFT of the conjugate chirp (convolution kernel)
+    private final ThreadLocal<double[]> scratch;
+
+    /**
+     * @param n number of complex samples
+     */
+    public ComplexFFT_1D(final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n '" + n + "' must be greater than 0");
+        }
+        this.n = n;
+        powerOfTwo = (n & (n - 1)) == 0;
+        if (powerOfTwo) {
+            cosTable = new double[n / 2];
+            sinTable = new double[n / 2];
+            for (int k = 0; k < n / 2; k++) {
+                final double phi = -2.0 * Math.PI * k / n;
+                cosTable[k] = Math.cos(phi);
+                sinTable[k] = Math.sin(phi);
+            }
+            convolutionFFT = null;
+            chirp = null;
+            chirpFilter = null;
+            scratch = null;
+            return;
+        }
+        cosTable = null;
+        sinTable = null;
+        final int m = Integer.highestOneBit(2 * n - 1) << 1;
+        convolutionFFT = new ComplexFFT_1D(m);
+        chirp = new double[2 * n];
+        for (int k = 0; k < n; k++) {
+            // N.B. k^2 mod 2n keeps the phase argument small and precise for large k
+            final double phi = -Math.PI * ((long) k * k % (2L * n)) / n;
+            chirp[2 * k] = Math.cos(phi);
+            chirp[2 * k + 1] = Math.sin(phi);
+        }
+        chirpFilter = new double[2 * m];
+        chirpFilter[0] = chirp[0];
+        chirpFilter[1] = -chirp[1];
+        for (int k = 1; k < n; k++) {
+            chirpFilter[2 * k] = chirpFilter[2 * (m - k)] = chirp[2 * k];
+            chirpFilter[2 * k + 1] = chirpFilter[2 * (m - k) + 1] = -chirp[2 * k + 1];
+        }
+        convolutionFFT.complexForward(chirpFilter);
+        scratch = ThreadLocal.withInitial(() -> new double[2 * m]);
+    }
 
-    // compute the circular convolution of x and y
-    public static Complex[] cconvolve(final Complex[] x, final Complex[] y) {
+    /**
+     * in-place forward transform
+     *
+     * @param a interleaved complex data [re0, im0, re1, im1, ...] of length 2n
+     */
+    public void complexForward(final double[] a) {
+        checkLength(a);
+        if (powerOfTwo) {
+            radix2(a, false);
+        } else {
+            bluestein(a);
+        }
+    }
 
-        // should probably pad x and y with 0s so that they have same length
-        // and are powers of 2
-        if (x.length != y.length) {
-            throw new RuntimeException("Dimensions don't agree");
+    /**
+     * in-place inverse transform
+     *
+     * @param a interleaved complex data [re0, im0, re1, im1, ...] of length 2n
+     * @param scale {@code true}: scale the result by 1/n
+     */
+    public void complexInverse(final double[] a, final boolean scale) {
+        checkLength(a);
+        if (powerOfTwo) {
+            radix2(a, true);
+        } else {
+            // inverse(a) = conj(forward(conj(a)))
+            conjugate(a, n);
+            bluestein(a);
+            conjugate(a, n);
+        }
+        if (scale) {
+            final double norm = 1.0 / n;
+            for (int i = 0; i < 2 * n; i++) {
+                a[i] *= norm;
+            }
         }
+    }
 
-        final int N = x.length;
+    /**
+     * @return number of complex samples
+     */
+    public int getLength() {
+        return n;
+    }
 
-        // compute FFT of each sequence
-        final Complex[] a = fft(x);
-        final Complex[] b = fft(y);
+    private void bluestein(final double[] a) {
+        final double[] work = scratch.get();
+        final int m = work.length / 2;
+        // pre-multiply with chirp and zero-pad
+        for (int k = 0; k < n; k++) {
+            final int k2 = 2 * k;
+            final double re = a[k2];
+            final double im = a[k2 + 1];
+            work[k2] = re * chirp[k2] - im * chirp[k2 + 1];
+            work[k2 + 1] = re * chirp[k2 + 1] + im * chirp[k2];
+        }
+        Arrays.fill(work, 2 * n, 2 * m, 0.0);
+        // cyclic convolution with the conjugate chirp
+        convolutionFFT.complexForward(work);
+        multiply(work, chirpFilter, work, m);
+        convolutionFFT.complexInverse(work, true);
+        // post-multiply with chirp
+        for (int k = 0; k < n; k++) {
+            final int k2 = 2 * k;
+            final double re = work[k2];
+            final double im = work[k2 + 1];
+            a[k2] = re * chirp[k2] - im * chirp[k2 + 1];
+            a[k2 + 1] = re * chirp[k2 + 1] + im * chirp[k2];
+        }
+    }
 
-        // point-wise multiply
-        final Complex[] c = new Complex[N];
-        for (int i = 0; i < N; i++) {
-            c[i] = a[i].multiply(b[i]);
+    private void checkLength(final double[] a) {
+        if (a == null || a.length < 2 * n) {
+            throw new IllegalArgumentException("array length " + (a == null ? "null" : a.length)
+                                               + " smaller than 2 * n = " + 2 * n);
         }
+    }
 
-        // compute inverse FFT
-        return ifft(c);
+    private void radix2(final double[] a, final boolean inverse) {
+        // bit-reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                swap(a, 2 * i, 2 * j);
+                swap(a, 2 * i + 1, 2 * j + 1);
+            }
+        }
+        final double sign = inverse ? -1.0 : 1.0;
+        // butterflies
+        for (int size = 2; size <= n; size <<= 1) {
+            final int half = size >> 1;
+            final int tableStep = n / size;
+            for (int j = 0, k = 0; j < half; j++, k += tableStep) {
+                final double wr = cosTable[k];
+                final double wi = sign * sinTable[k];
+                for (int i = j; i < n; i += size) {
+                    final int i1 = 2 * i;
+                    final int i2 = 2 * (i + half);
+                    final double tr = a[i2] * wr - a[i2 + 1] * wi;
+                    final double ti = a[i2] * wi + a[i2 + 1] * wr;
+                    a[i2] = a[i1] - tr;
+                    a[i2 + 1] = a[i1 + 1] - ti;
+                    a[i1] += tr;
+                    a[i1 + 1] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * circular convolution of two complex sequences of the same length, i.e. the primitive equivalent of
+     * {@link #cconvolve(Complex[], Complex[])}
+     * <p>
+     * N.B. the temporary buffers are per-thread working arrays that are reserved for this function, ie. x and y may
+     * also be arrays obtained via {@link FFTPlanCache#getWorkingArray(int, int)}.
+     *
+     * @param x interleaved complex input [re0, im0, re1, im1, ...]
+     * @param y interleaved complex input with the same length as x
+     * @param output interleaved complex output with the same length as x (may be identical to x or y)
+     * @return output
+     */
+    public static double[] cconvolve(final double[] x, final double[] y, final double[] output) {
+        if (x.length != y.length || output.length != x.length || (x.length & 1) != 0) {
+            throw new IllegalArgumentException("array lengths must be even and equal: x = " + x.length + " y = "
+                                               + y.length + " output = " + output.length);
+        }
+        final int n = x.length / 2;
+        final ComplexFFT_1D fft = FFTPlanCache.getComplexFFT(n);
+        final double[] work = CONVOLUTION_ARRAYS.get(0, x.length);
+        System.arraycopy(y, 0, work, 0, y.length);
+        if (output != x) {
+            System.arraycopy(x, 0, output, 0, x.length);
+        }
+        fft.complexForward(output);
+        fft.complexForward(work);
+        multiply(output, work, output, n);
+        fft.complexInverse(output, true);
+        return output;
+    }
+
+    // compute the circular convolution of x and y
+    public static Complex[] cconvolve(final Complex[] x, final Complex[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Dimensions don't agree");
+        }
+        return toComplex(cconvolve(toInterleaved(x), toInterleaved(y), new double[2 * x.length]));
+    }
+
+    /**
+     * linear convolution of two complex sequences, i.e. the primitive equivalent of
+     * {@link #convolve(Complex[], Complex[])}
+     * <p>
+     * N.B. the temporary buffers are per-thread working arrays that are reserved for this function, ie. x and y may
+     * also be arrays obtained via {@link FFTPlanCache#getWorkingArray(int, int)}.
+     *
+     * @param x interleaved complex input [re0, im0, re1, im1, ...] with nx samples
+     * @param y interleaved complex input with ny samples
+     * @param output interleaved complex output with nx + ny - 1 samples
+     * @return output
+     */
+    public static double[] convolve(final double[] x, final double[] y, final double[] output) {
+        final int nx = x.length / 2;
+        final int ny = y.length / 2;
+        if (nx == 0 || ny == 0 || output.length != 2 * (nx + ny - 1)) {
+            throw new IllegalArgumentException("output length " + output.length + " must be 2 * (" + nx + " + " + ny
+                                               + " - 1)");
+        }
+        final int m = Integer.highestOneBit(Math.max(1, nx + ny - 2)) << 1;
+        final ComplexFFT_1D fft = FFTPlanCache.getComplexFFT(m);
+        final double[] a = CONVOLUTION_ARRAYS.get(0, 2 * m);
+        final double[] b = CONVOLUTION_ARRAYS.get(1, 2 * m);
+        System.arraycopy(x, 0, a, 0, 2 * nx);
+        Arrays.fill(a, 2 * nx, 2 * m, 0.0);
+        System.arraycopy(y, 0, b, 0, 2 * ny);
+        Arrays.fill(b, 2 * ny, 2 * m, 0.0);
+        fft.complexForward(a);
+        fft.complexForward(b);
+        multiply(a, b, a, m);
+        fft.complexInverse(a, true);
+        System.arraycopy(a, 0, output, 0, output.length);
+        return output;
     }
 
     // compute the linear convolution of x and y
@@ -59,79 +286,11 @@ public class ComplexFFT_1D {
         return cconvolve(a, b);
     }
 
-    // compute the FFT of x[], assuming its length is a power of 2
+    // compute the FFT of x[] (N.B. arbitrary lengths are supported)
     public static Complex[] fft(final Complex[] x) {
-        final int N = x.length;
-
-        // base case
-        if (N == 1) {
-            return new Complex[] { x[0] };
-        }
-
-        // radix 2 Cooley-Tukey FFT
-        if (N % 2 != 0) {
-            throw new RuntimeException("N is not a power of 2");
-        }
-
-        // pre-calculate FFT coefficients - once
-        final int base = (int) (Math.log(N / 2) / Math.log(2)) + 1;
-        boolean precalculate = true;
-
-        if (base > 17) {
-            precalculate = false;
-        }
-
-        if ((coef == null || base > coef_order) && precalculate) {
-            // System.out.printf("compute FFT coefficients\n");
-            // compute usually coefficients only required up to 2^16 point FFT
-            int order = 0;
-            if (base < 16) {
-                order = 16;
-            } else {
-                order = base + 1;
-            }
-            coef = new Complex[order][];
-            for (int i = 0; i < order; i++) {
-                coef[i] = new Complex[(int) Math.pow(2, i)];
-                for (int j = 0; j < (int) Math.pow(2, i); j++) {
-                    final double kth = -2 * j * Math.PI / Math.pow(2, i);
-                    coef[i][j] = new Complex(Math.cos(kth), Math.sin(kth));
-                }
-            }
-            coef_order = order;
-            // System.out.printf("compute FFT coefficients - done\n");
-        }
-
-        // fft of even terms
-        final Complex[] even = new Complex[N / 2];
-        for (int k = 0; k < N / 2; k++) {
-            even[k] = x[2 * k];
-        }
-        final Complex[] q = fft(even);
-
-        // fft of odd terms
-        final Complex[] odd = even; // reuse the array
-        for (int k = 0; k < N / 2; k++) {
-            odd[k] = x[2 * k + 1];
-        }
-        final Complex[] r = fft(odd);
-
-        // combine
-        final Complex[] y = new Complex[N];
-
-        for (int k = 0; k < N / 2; k++) {
-            if (precalculate) {
-                y[k] = q[k].add(coef[base][k].multiply(r[k]));
-                y[k + N / 2] = q[k].subtract(coef[base][k].multiply(r[k]));
-            } else {
-                final double kth = -2 * k * Math.PI / N;
-                final Complex wk = new Complex(Math.cos(kth), Math.sin(kth));
-                y[k] = q[k].add(wk.multiply(r[k]));
-                y[k + N / 2] = q[k].subtract(wk.multiply(r[k]));
-            }
-        }
-
-        return y;
+        final double[] data = toInterleaved(x);
+        FFTPlanCache.getComplexFFT(x.length).complexForward(data);
+        return toComplex(data);
     }
 
     public static Complex[] fft_orig(final Complex[] x) {
@@ -152,14 +311,14 @@ public class ComplexFFT_1D {
         for (int k = 0; k < N / 2; k++) {
             even[k] = x[2 * k];
         }
-        final Complex[] q = fft(even);
+        final Complex[] q = fft_orig(even);
 
         // fft of odd terms
         final Complex[] odd = even; // reuse the array
         for (int k = 0; k < N / 2; k++) {
             odd[k] = x[2 * k + 1];
         }
-        final Complex[] r = fft(odd);
+        final Complex[] r = fft_orig(odd);
 
         // combine
         final Complex[] y = new Complex[N];
@@ -172,31 +331,11 @@ public class ComplexFFT_1D {
         return y;
     }
 
-    // compute the inverse FFT of x[], assuming its length is a power of 2
+    // compute the inverse FFT of x[] (N.B. arbitrary lengths are supported)
     public static Complex[] ifft(final Complex[] x) {
-        final int N = x.length;
-        Complex[] y = new Complex[N];
-
-        // take conjugate
-        for (int i = 0; i < N; i++) {
-            y[i] = x[i].conjugate();
-        }
-
-        // compute forward FFT
-        y = fft(y);
-
-        // take conjugate again
-        for (int i = 0; i < N; i++) {
-            y[i] = y[i].conjugate();
-        }
-
-        // divide by N
-        for (int i = 0; i < N; i++) {
-            y[i] = y[i].multiply(1.0 / N);
-        }
-
-        return y;
-
+        final double[] data = toInterleaved(x);
+        FFTPlanCache.getComplexFFT(x.length).complexInverse(data, true);
+        return toComplex(data);
     }
 
     // test client
@@ -255,4 +394,41 @@ public class ComplexFFT_1D {
 
     }
 
-}
\ No newline at end of file
+    private static void conjugate(final double[] a, final int n) {
+        for (int i = 1; i < 2 * n; i += 2) {
+            a[i] = -a[i];
+        }
+    }
+
+    private static void multiply(final double[] a, final double[] b, final double[] result, final int n) {
+        for (int k = 0; k < 2 * n; k += 2) {
+            final double re = a[k] * b[k] - a[k + 1] * b[k + 1];
+            final double im = a[k] * b[k + 1] + a[k + 1] * b[k];
+            result[k] = re;
+            result[k + 1] = im;
+        }
+    }
+
+    private static void swap(final double[] a, final int i, final int j) {
+        final double tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static Complex[] toComplex(final double[] data) {
+        final Complex[] ret = new Complex[data.length / 2];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = new Complex(data[2 * i], data[2 * i + 1]);
+        }
+        return ret;
+    }
+
+    private static double[] toInterleaved(final Complex[] x) {
+        final double[] ret = new double[2 * x.length];
+        for (int i = 0; i < x.length; i++) {
+            ret[2 * i] = x[i].getReal();
+            ret[2 * i + 1] = x[i].getImaginary();
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,261 @@
+package de.gsi.math.spectra.fft;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+import org.jtransforms.fft.FloatFFT_1D;
+
+/**
+ * Shared, thread-safe cache of FFT plans (i.e. pre-computed bit-reversal and twiddle factor tables) and per-thread
+ * working arrays.
+ * <p>
+ * Creating a new {@code DoubleFFT_1D(n)} recomputes the twiddle tables which, for periodic updates (e.g. spectra
+ * computed at 25 Hz), often dominates the cost of the transform itself. The plans are keyed by transform kind and
+ * length and are evicted in least-recently-used order once more than {@link #getMaxSize()} plans are cached. The
+ * plans themselves are immutable after construction and may be used by several threads concurrently.
+ * <p>
+ * The working arrays are kept per thread and are reused as long as the same length is requested for the same slot,
+ * i.e. repeated spectra of the same size neither allocate nor set up new plans. Library functions keep their scratch
+ * buffers in private {@link WorkingArrays} instances so that they never alias the arrays that user code obtained via
+ * {@link #getWorkingArray(int, int)}. Arrays longer than {@link #getMaxWorkingArrayLength()} are not retained, and
+ * {@link #clearWorkingArrays()} releases the arrays held by all threads and instances (e.g. long-lived pool threads
+ * after a one-off large transform).
+ */
+public final class FFTPlanCache {
+    /** default maximum number of cached plans */
+    public static final int DEFAULT_MAX_SIZE = 32;
+    /** number of independent per-thread working arrays */
+    public static final int N_WORKING_ARRAYS = 4;
+    /** default maximum length of working arrays that are retained per thread and slot (8 MB) */
+    public static final int DEFAULT_MAX_WORKING_ARRAY_LENGTH = 1 << 20;
+    private static int maxSize = DEFAULT_MAX_SIZE; // guarded by PLANS
+    private static volatile int maxWorkingArrayLength = DEFAULT_MAX_WORKING_ARRAY_LENGTH;
+    private static final Map<Long, Object> PLANS = new LinkedHashMap<>(2 * DEFAULT_MAX_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 7265718375245232071L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Object> eldest) {
+            return size() > maxSize;
+        }
+    };
+    // per-thread working arrays, the weak registry allows to release them for all (alive) threads
+    private static final Set<double[][]> WORKING_ARRAY_HOLDERS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final WorkingArrays WORKING_ARRAYS = new WorkingArrays(N_WORKING_ARRAYS);
+
+    private FFTPlanCache() {
+        // utility class
+    }
+
+    /**
+     * removes all cached plans (N.B. the per-thread working arrays are kept, see {@link #clearWorkingArrays()})
+     */
+    public static void clear() {
+        synchronized (PLANS) {
+            PLANS.clear();
+        }
+    }
+
+    /**
+     * releases the working arrays held by all threads. Arrays that are presently in use remain valid for their user,
+     * they are merely no longer retained and are re-allocated on the next request.
+     */
+    public static void clearWorkingArrays() {
+        synchronized (WORKING_ARRAY_HOLDERS) {
+            for (final double[][] arrays : WORKING_ARRAY_HOLDERS) {
+                // N.B. benign race with the owning thread, which at worst retains or re-allocates an array once more
+                for (int slot = 0; slot < arrays.length; slot++) {
+                    arrays[slot] = new double[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param n transform length
+     * @return cached or newly created complex FFT plan operating on interleaved double arrays
+     */
+    public static ComplexFFT_1D getComplexFFT(final int n) {
+        return getPlan(Kind.COMPLEX_1D, n);
+    }
+
+    /**
+     * @param n transform length
+     * @return cached or newly created double precision FFT plan
+     */
+    public static DoubleFFT_1D getDoubleFFT(final int n) {
+        return getPlan(Kind.DOUBLE_1D, n);
+    }
+
+    /**
+     * @param n transform length
+     * @return cached or newly created single precision FFT plan
+     */
+    public static FloatFFT_1D getFloatFFT(final int n) {
+        return getPlan(Kind.FLOAT_1D, n);
+    }
+
+    /**
+     * @return maximum number of cached plans
+     */
+    public static int getMaxSize() {
+        synchronized (PLANS) {
+            return maxSize;
+        }
+    }
+
+    /**
+     * @return maximum length of working arrays that are retained per thread and slot
+     */
+    public static int getMaxWorkingArrayLength() {
+        return maxWorkingArrayLength;
+    }
+
+    /**
+     * Returns a working array that is private to the calling thread. The content is undefined and the array is reused
+     * (and possibly overwritten) by the next call of the same thread with the same slot, thus it must not be shared
+     * with other threads or be returned to the user. Arrays longer than {@link #getMaxWorkingArrayLength()} are
+     * allocated for each request and are not retained.
+     *
+     * @param slot index of the working array within [0, {@value #N_WORKING_ARRAYS}[ (use different slots for arrays
+     *        that are needed simultaneously)
+     * @param length requested array length
+     * @return per-thread working array with exactly the requested length
+     */
+    public static double[] getWorkingArray(final int slot, final int length) {
+        return WORKING_ARRAYS.get(slot, length);
+    }
+
+    /**
+     * @param newMaxSize maximum number of cached plans (least-recently-used plans are evicted first)
+     */
+    public static void setMaxSize(final int newMaxSize) {
+        if (newMaxSize < 1) {
+            throw new IllegalArgumentException("maxSize '" + newMaxSize + "' must be > 0");
+        }
+        synchronized (PLANS) {
+            maxSize = newMaxSize;
+            // evict least-recently-used entries if necessary
+            final Iterator<Long> iterator = PLANS.keySet().iterator();
+            while (PLANS.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @param newMaxLength maximum length of working arrays that are retained per thread and slot, longer arrays are
+     *        allocated for each request (N.B. arrays that are already retained are released by
+     *        {@link #clearWorkingArrays()})
+     */
+    public static void setMaxWorkingArrayLength(final int newMaxLength) {
+        if (newMaxLength < 0) {
+            throw new IllegalArgumentException("maxWorkingArrayLength '" + newMaxLength + "' must be >= 0");
+        }
+        maxWorkingArrayLength = newMaxLength;
+    }
+
+    /**
+     * @return number of cached plans
+     */
+    public static int size() {
+        synchronized (PLANS) {
+            return PLANS.size();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getPlan(final Kind kind, final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("FFT length '" + n + "' must be > 0");
+        }
+        final Long key = ((long) kind.ordinal() << 32) | n;
+        synchronized (PLANS) {
+            final Object plan = PLANS.get(key);
+            if (plan != null) {
+                return (T) plan;
+            }
+        }
+        // N.B. plan set-up outside the lock, concurrent duplicates of the same plan are benign
+        final Object newPlan;
+        switch (kind) {
+        case COMPLEX_1D:
+            newPlan = new ComplexFFT_1D(n);
+            break;
+        case FLOAT_1D:
+            newPlan = new FloatFFT_1D(n);
+            break;
+        case DOUBLE_1D:
+        default:
+            newPlan = new DoubleFFT_1D(n);
+            break;
+        }
+        synchronized (PLANS) {
+            final Object plan = PLANS.putIfAbsent(key, newPlan);
+            return (T) (plan == null ? newPlan : plan);
+        }
+    }
+
+    /**
+     * Set of per-thread working arrays that is private to its owner, e.g. a library function that needs scratch buffers
+     * which must not alias the arrays obtained via {@link FFTPlanCache#getWorkingArray(int, int)} (possibly passed in as
+     * function arguments). The arrays follow the same retention rules as the shared working arrays.
+     */
+    public static final class WorkingArrays {
+        private final int nSlots;
+        private final ThreadLocal<double[][]> arrays;
+
+        /**
+         * @param nSlots number of independent per-thread working arrays
+         */
+        public WorkingArrays(final int nSlots) {
+            if (nSlots < 1) {
+                throw new IllegalArgumentException("nSlots '" + nSlots + "' must be > 0");
+            }
+            this.nSlots = nSlots;
+            arrays = ThreadLocal.withInitial(() -> {
+                final double[][] holder = new double[nSlots][0];
+                synchronized (WORKING_ARRAY_HOLDERS) {
+                    WORKING_ARRAY_HOLDERS.add(holder);
+                }
+                return holder;
+            });
+        }
+
+        /**
+         * Returns a working array that is private to the calling thread and this instance, see
+         * {@link FFTPlanCache#getWorkingArray(int, int)}.
+         *
+         * @param slot index of the working array within [0, nSlots[
+         * @param length requested array length
+         * @return per-thread working array with exactly the requested length
+         */
+        public double[] get(final int slot, final int length) {
+            if (slot < 0 || slot >= nSlots) {
+                throw new IllegalArgumentException("slot '" + slot + "' must be within [0, " + nSlots + "[");
+            }
+            final double[][] holder = arrays.get();
+            final double[] array = holder[slot];
+            if (array.length == length) {
+                return array;
+            }
+            final double[] newArray = new double[length];
+            // N.B. large one-off requests must not pin their buffer to the (possibly long-lived) thread
+            if (length <= maxWorkingArrayLength) {
+                holder[slot] = newArray;
+            }
+            return newArray;
+        }
+    }
+
+    private enum Kind {
+        DOUBLE_1D,
+        FLOAT_1D,
+        COMPLEX_1D
+    }
+}
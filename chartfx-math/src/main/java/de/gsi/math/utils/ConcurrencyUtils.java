@@ -224,6 +224,46 @@ public class ConcurrencyUtils {
         }
     }
 
+    /**
+     * Waits for all threads to complete computation and rethrows the first failure of any of the tasks (unlike
+     * {@link #waitForCompletion(Future[])}). Runtime exceptions and errors thrown by a task are rethrown as they are,
+     * checked ones wrapped into an {@link IllegalStateException}.
+     *
+     * @param futures handles to running threads
+     */
+    public static void waitForCompletionOrThrow(Future<?>[] futures) {
+        Throwable failure = null;
+        boolean interrupted = false;
+        // N.B. wait for all tasks, also after a failure, so that none of them is still running on return
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() == null ? e : e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("concurrent task failed", failure);
+        }
+    }
+
     private static class CustomExceptionHandler implements Thread.UncaughtExceptionHandler {
         @Override
         public void uncaughtException(Thread t, Throwable e) {
@@ -0,0 +1,118 @@
+package de.gsi.math.filter.iir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the block and multi-channel IIR filter implementations against the sample-by-sample {@link Cascade}
+ */
+public class CascadeTests {
+    private static final int N_SAMPLES = 2000;
+    private static final double SAMPLE_RATE = 1000.0;
+
+    @Test
+    public void basicTests() {
+        final Cascade identity = new Cascade();
+        final double[] input = generateSignal(10, 0);
+        final double[] output = new double[10];
+        identity.filter(input, output, 0, 10);
+        assertArrayEquals(input, output);
+
+        final Butterworth filter = new Butterworth();
+        filter.lowPass(4, SAMPLE_RATE, 50.0);
+        assertThrows(IllegalArgumentException.class, () -> filter.filter(null, output, 0, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> filter.filter(input, output, 5, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> filter.filter(input, new double[5], 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new MultiChannelCascade(filter, 0));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> new MultiChannelCascade(filter, 2).filter(input, output, 0, 6));
+        assertEquals(2, new MultiChannelCascade(filter, 2).getNumChannels());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { DirectFormAbstract.DIRECT_FORM_I, DirectFormAbstract.DIRECT_FORM_II,
+                          DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED })
+    public void blockFilterTests(final int directFormType) {
+        final double[] input = generateSignal(N_SAMPLES, 0);
+        final Butterworth reference = new Butterworth();
+        reference.bandPass(3, SAMPLE_RATE, 100.0, 20.0, directFormType);
+        final double[] expected = new double[N_SAMPLES];
+        for (int i = 0; i < N_SAMPLES; i++) {
+            expected[i] = reference.filter(input[i]);
+        }
+
+        // irregular block sizes, N.B. the state is carried over between blocks
+        final Butterworth filter = new Butterworth();
+        filter.bandPass(3, SAMPLE_RATE, 100.0, 20.0, directFormType);
+        final double[] output = new double[N_SAMPLES];
+        int from = 0;
+        for (int block = 1; from < N_SAMPLES; block = 2 * block + 1) {
+            final int to = Math.min(N_SAMPLES, from + block);
+            filter.filter(input, output, from, to);
+            from = to;
+        }
+        assertArrayEquals(expected, output, "directFormType = " + directFormType);
+
+        // in-place operation after reset
+        filter.reset();
+        final double[] inPlace = input.clone();
+        filter.filter(inPlace, inPlace, 0, N_SAMPLES);
+        assertArrayEquals(expected, inPlace);
+
+        // transposed form is equivalent within numerical precision
+        final Butterworth transposed = new Butterworth();
+        transposed.bandPass(3, SAMPLE_RATE, 100.0, 20.0, DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED);
+        final double[] transposedOutput = new double[N_SAMPLES];
+        transposed.filter(input, transposedOutput, 0, N_SAMPLES);
+        assertArrayEquals(expected, transposedOutput, 1e-9);
+    }
+
+    @Test
+    public void multiChannelTests() {
+        final int nChannels = 7;
+        final ChebyshevI reference = new ChebyshevI();
+        reference.lowPass(5, SAMPLE_RATE, 80.0, 1.0, DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED);
+        final MultiChannelCascade filter = new MultiChannelCascade(reference, nChannels);
+
+        final double[] interleaved = new double[N_SAMPLES * nChannels];
+        final double[][] expected = new double[nChannels][];
+        for (int ch = 0; ch < nChannels; ch++) {
+            final double[] channel = generateSignal(N_SAMPLES, ch);
+            for (int i = 0; i < N_SAMPLES; i++) {
+                interleaved[i * nChannels + ch] = channel[i];
+            }
+            reference.reset();
+            expected[ch] = new double[N_SAMPLES];
+            reference.filter(channel, expected[ch], 0, N_SAMPLES);
+        }
+
+        final double[] output = new double[interleaved.length];
+        filter.filter(interleaved, output, 0, 333);
+        filter.filter(interleaved, output, 333, N_SAMPLES);
+        for (int ch = 0; ch < nChannels; ch++) {
+            final double[] channel = new double[N_SAMPLES];
+            for (int i = 0; i < N_SAMPLES; i++) {
+                channel[i] = output[i * nChannels + ch];
+            }
+            assertArrayEquals(expected[ch], channel, "channel " + ch);
+        }
+
+        // in-place operation after reset
+        filter.reset();
+        filter.filter(interleaved, interleaved, 0, N_SAMPLES);
+        assertArrayEquals(output, interleaved);
+    }
+
+    private static double[] generateSignal(final int n, final int channel) {
+        final double[] signal = new double[n];
+        for (int i = 0; i < n; i++) {
+            signal[i] = Math.sin(2 * Math.PI * (90.0 + 5 * channel) * i / SAMPLE_RATE) + 0.1 * (i % 7) - 0.3;
+        }
+        return signal;
+    }
+}
@@ -0,0 +1,158 @@
+package de.gsi.math.filter.iir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Checks the zero-phase and parallel segmented filtering of {@link IIRFilterUtils} against the sequential
+ * {@link Cascade} output
+ */
+public class IIRFilterUtilsTests {
+    private static final double SAMPLE_RATE = 1000.0;
+    private static final int N_SAMPLES = 300_000;
+
+    @AfterEach
+    public void resetThreads() {
+        ConcurrencyUtils.setForceThreads(false);
+    }
+
+    @Test
+    public void basicTests() {
+        final Butterworth filter = new Butterworth();
+        filter.lowPass(4, SAMPLE_RATE, 50.0);
+        assertThrows(IllegalArgumentException.class, () -> IIRFilterUtils.filter(null, new double[4], null));
+        assertThrows(IllegalArgumentException.class, () -> IIRFilterUtils.filter(filter, new double[0], null));
+        assertThrows(IllegalArgumentException.class,
+                () -> IIRFilterUtils.filtfilt(filter, new double[4], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> IIRFilterUtils.filtfilt(filter, new double[4], null, 0));
+        assertThrows(IllegalArgumentException.class, () -> filter.getSettlingLength(0.0));
+        assertTrue(filter.getSettlingLength(1e-12) > filter.getSettlingLength(1e-6));
+
+        // copies share the coefficients but not the state
+        filter.filter(1.0);
+        final Cascade copy = new Cascade(filter);
+        assertEquals(filter.getDirectFormType(), copy.getDirectFormType());
+        assertEquals(filter.getNumBiquads(), copy.getNumBiquads());
+        filter.reset();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(filter.filter(i), copy.filter(i));
+        }
+        assertEquals(0, new Cascade(new Cascade()).getNumBiquads());
+
+        // single sample and short records
+        assertArrayEquals(new double[] { 2.0 }, IIRFilterUtils.filtfilt(filter, new double[] { 2.0 }, null), 1e-12);
+        assertEquals(3, IIRFilterUtils.filtfilt(filter, new double[] { 1.0, 2.0, 3.0 }, null).length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { DirectFormAbstract.DIRECT_FORM_I, DirectFormAbstract.DIRECT_FORM_II,
+                          DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED })
+    public void steadyStateTests(final int directFormType) {
+        final ChebyshevI filter = new ChebyshevI();
+        filter.lowPass(5, SAMPLE_RATE, 80.0, 1.0, directFormType);
+        filter.setSteadyState(3.0);
+        final double dcGain = filter.response(0.0).abs();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3.0 * dcGain, filter.filter(3.0), 1e-12);
+        }
+
+        // high-pass settles to zero
+        final Butterworth highPass = new Butterworth();
+        highPass.highPass(4, SAMPLE_RATE, 10.0, directFormType);
+        highPass.setSteadyState(3.0);
+        assertEquals(0.0, highPass.filter(3.0), 1e-12);
+    }
+
+    @Test
+    public void zeroPhaseTests() {
+        final int n = 4000;
+        final Butterworth filter = new Butterworth();
+        filter.lowPass(4, SAMPLE_RATE, 50.0);
+
+        // constant: no edge transients, linear ramp: preserved apart from a small edge transient
+        final double[] constant = new double[n];
+        final double[] ramp = new double[n];
+        for (int i = 0; i < n; i++) {
+            constant[i] = 1.5;
+            ramp[i] = 1e-3 * i;
+        }
+        assertArrayEquals(constant, IIRFilterUtils.filtfilt(filter, constant, null), 1e-9);
+        final double[] filteredRamp = IIRFilterUtils.filtfilt(filter, ramp, null);
+        for (int i = 0; i < n; i++) {
+            assertEquals(ramp[i], filteredRamp[i], i < n / 10 || i > 9 * n / 10 ? 1e-3 : 1e-9, "sample " + i);
+        }
+
+        // in-band sine: no phase shift, amplitude scaled by |H|^2
+        final double frequency = 10.0;
+        final double gain = Math.pow(filter.response(frequency / SAMPLE_RATE).abs(), 2);
+        final double[] sine = new double[n];
+        for (int i = 0; i < n; i++) {
+            sine[i] = Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE);
+        }
+        final double[] filtered = IIRFilterUtils.filtfilt(filter, sine, null);
+        for (int i = n / 4; i < 3 * n / 4; i++) {
+            assertEquals(gain * sine[i], filtered[i], 1e-6, "sample " + i);
+        }
+
+        // time-reversal symmetry (apart from the edge transients)
+        final double[] signal = generateSignal(n);
+        final double[] reversed = new double[n];
+        for (int i = 0; i < n; i++) {
+            reversed[i] = signal[n - 1 - i];
+        }
+        final double[] forward = IIRFilterUtils.filtfilt(filter, signal, null);
+        final double[] backward = IIRFilterUtils.filtfilt(filter, reversed, null);
+        for (int i = n / 10; i < 9 * n / 10; i++) {
+            assertEquals(forward[i], backward[n - 1 - i], 1e-9);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { DirectFormAbstract.DIRECT_FORM_II, DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED })
+    public void parallelTests(final int directFormType) {
+        final ChebyshevI filter = new ChebyshevI();
+        filter.bandPass(4, SAMPLE_RATE, 100.0, 20.0, 0.5, directFormType);
+        final double[] signal = generateSignal(N_SAMPLES);
+
+        // sequential references
+        ConcurrencyUtils.setNumberOfThreads(1);
+        final double[] expected = new double[N_SAMPLES];
+        new Cascade(filter).filter(signal, expected, 0, N_SAMPLES);
+        assertArrayEquals(expected, IIRFilterUtils.filter(filter, signal, null));
+        final double[] expectedZeroPhase = IIRFilterUtils.filtfilt(filter, signal, null);
+
+        ConcurrencyUtils.setNumberOfThreads(4);
+        assertArrayEquals(expected, IIRFilterUtils.filter(filter, signal, null), 1e-10);
+        assertArrayEquals(expectedZeroPhase, IIRFilterUtils.filtfilt(filter, signal, null), 1e-10);
+
+        // in-place
+        final double[] inPlace = signal.clone();
+        IIRFilterUtils.filtfilt(filter, inPlace, inPlace);
+        assertArrayEquals(expectedZeroPhase, inPlace, 1e-10);
+
+        // too short warm-up regions degrade the result
+        final double[] shortWarmUp = IIRFilterUtils.filter(filter, signal, null, 10);
+        double maxError = 0.0;
+        for (int i = 0; i < N_SAMPLES; i++) {
+            maxError = Math.max(maxError, Math.abs(shortWarmUp[i] - expected[i]));
+        }
+        assertTrue(maxError > 1e-10, "maxError = " + maxError);
+    }
+
+    private static double[] generateSignal(final int n) {
+        final double[] signal = new double[n];
+        for (int i = 0; i < n; i++) {
+            signal[i] = Math.sin(2 * Math.PI * 100.0 * i / SAMPLE_RATE) + 0.5 * Math.sin(0.37 * i) + 0.1 * (i % 7);
+        }
+        return signal;
+    }
+}
@@ -0,0 +1,140 @@
+package de.gsi.math.fitter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import de.gsi.dataset.DataSet;
+import de.gsi.dataset.spi.DoubleDataSet;
+import de.gsi.dataset.spi.MultiDimDoubleDataSet;
+import de.gsi.math.fitter.LevenbergMarquardtFitter.Status;
+import de.gsi.math.functions.GaussianFunction;
+
+/**
+ * Checks the concurrent {@link BatchFitter} on synthetic Gaussian profiles
+ */
+public class BatchFitterTests {
+    private static final int N_TRACES = 200;
+    private static final int N_SAMPLES = 101;
+    private static final double SQRT_2PI = Math.sqrt(2 * Math.PI);
+
+    @Test
+    public void basicTests() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchFitter(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchFitter(() -> new GaussianFunction("gauss"), null, null, null));
+        final BatchFitter fitter = BatchFitter.gaussian();
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(null, new double[2][2]));
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(new double[2], new double[][] { new double[3] }));
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(null));
+        assertThrows(IllegalArgumentException.class, () -> fitter.setMaxIterations(0));
+        assertThrows(IllegalArgumentException.class, () -> fitter.setTolerance(-1.0));
+
+        fitter.setMaxIterations(20);
+        assertEquals(20, fitter.getMaxIterations());
+        fitter.setTolerance(1e-8);
+        assertEquals(1e-8, fitter.getTolerance());
+        fitter.setWarmStart(false);
+        assertEquals(false, fitter.isWarmStart());
+        assertEquals(10, BatchFitter.getColumnCount(3));
+        assertEquals(0, fitter.fit(new double[2], new double[0][]).getDataCount());
+    }
+
+    @Test
+    public void gaussianBatchTests() {
+        final double[] x = new double[N_SAMPLES];
+        for (int i = 0; i < N_SAMPLES; i++) {
+            x[i] = -5.0 + 0.1 * i;
+        }
+        final double[][] truth = new double[N_TRACES][];
+        final double[][] traces = new double[N_TRACES][];
+        final Random random = new Random(42);
+        for (int trace = 0; trace < N_TRACES; trace++) {
+            truth[trace] = new double[] { random.nextDouble() - 0.5, 0.5 + random.nextDouble(), 1.0 + trace % 7 };
+            traces[trace] = generateProfile(x, truth[trace], random);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final BatchFitter fitter = new BatchFitter(() -> new GaussianFunction("gauss"), null,
+                    (xValues, yValues, parameters) -> {
+                        parameters[0] = 0.0;
+                        parameters[1] = 1.0;
+                        parameters[2] = 1.0;
+                    },
+                    pool);
+            final MultiDimDoubleDataSet table = fitter.fit(x, traces);
+            assertEquals(N_TRACES, table.getDataCount());
+            assertEquals(BatchFitter.getColumnCount(3), table.getDimension());
+            assertEquals("sigma", table.getAxisDescription(2).getName());
+            assertEquals("sigma error", table.getAxisDescription(5).getName());
+            for (int trace = 0; trace < N_TRACES; trace++) {
+                assertEquals(trace, table.get(0, trace));
+                assertEquals(Status.CONVERGED.ordinal(), table.get(9, trace), "trace " + trace);
+                assertEquals(truth[trace][0], table.get(1, trace), 0.01, "trace " + trace);
+                assertEquals(truth[trace][1], table.get(2, trace), 0.01, "trace " + trace);
+                assertEquals(truth[trace][2], table.get(3, trace), 0.01 * truth[trace][2], "trace " + trace);
+                assertTrue(table.get(4, trace) > 0.0, "mean error");
+            }
+
+            // next 'cycle' with slightly drifted profiles: warm start requires fewer iterations
+            final double coldIterations = sum(table.getValues(8), N_TRACES);
+            for (int trace = 0; trace < N_TRACES; trace++) {
+                truth[trace][0] += 0.01;
+                traces[trace] = generateProfile(x, truth[trace], random);
+            }
+            final MultiDimDoubleDataSet warmTable = fitter.fit(x, traces);
+            final double warmIterations = sum(warmTable.getValues(8), N_TRACES);
+            assertTrue(warmIterations < coldIterations, "warm: " + warmIterations + " vs. cold: " + coldIterations);
+            for (int trace = 0; trace < N_TRACES; trace++) {
+                assertEquals(truth[trace][0], warmTable.get(1, trace), 0.01, "trace " + trace);
+            }
+
+            // DataSet interface and moment-based start values yield the same results
+            final List<DataSet> dataSets = new ArrayList<>();
+            for (int trace = 0; trace < N_TRACES; trace++) {
+                dataSets.add(new DoubleDataSet("trace" + trace, x, traces[trace], N_SAMPLES, true));
+            }
+            final MultiDimDoubleDataSet dataSetTable = new BatchFitter(() -> new GaussianFunction("gauss"),
+                    null, null, pool).fit(dataSets);
+            final MultiDimDoubleDataSet gaussTable = BatchFitter.gaussian().fit(dataSets);
+            for (int column = 1; column <= 3; column++) {
+                assertArrayEquals(copy(warmTable.getValues(column)), copy(dataSetTable.getValues(column)), 1e-6);
+                assertArrayEquals(copy(warmTable.getValues(column)), copy(gaussTable.getValues(column)), 1e-6);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double[] copy(final double[] values) {
+        final double[] ret = new double[N_TRACES];
+        System.arraycopy(values, 0, ret, 0, N_TRACES);
+        return ret;
+    }
+
+    private static double[] generateProfile(final double[] x, final double[] parameters, final Random random) {
+        final double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            final double u = (x[i] - parameters[0]) / parameters[1];
+            y[i] = parameters[2] * Math.exp(-0.5 * u * u) / (SQRT_2PI * parameters[1]) + 1e-4 * random.nextGaussian();
+        }
+        return y;
+    }
+
+    private static double sum(final double[] values, final int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,177 @@
+package de.gsi.math.fitter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.gsi.math.fitter.LevenbergMarquardtFitter.Jacobian;
+import de.gsi.math.fitter.LevenbergMarquardtFitter.Status;
+import de.gsi.math.functions.GaussianFunction;
+import de.gsi.math.functions.PolynomialFunction;
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Checks the {@link LevenbergMarquardtFitter} against known solutions
+ */
+public class LevenbergMarquardtFitterTests {
+    private static final double SQRT_2PI = Math.sqrt(2 * Math.PI);
+    private static final Jacobian GAUSS_JACOBIAN = (x, p, derivatives) -> {
+        final double u = (x - p[0]) / p[1];
+        final double g = Math.exp(-0.5 * u * u) / (SQRT_2PI * p[1]);
+        derivatives[0] = p[2] * g * u / p[1];
+        derivatives[1] = p[2] * g * (u * u - 1.0) / p[1];
+        derivatives[2] = g;
+    };
+
+    @AfterEach
+    public void resetThreads() {
+        ConcurrencyUtils.setForceThreads(false);
+    }
+
+    @Test
+    public void basicTests() {
+        final LevenbergMarquardtFitter fitter = new LevenbergMarquardtFitter();
+        final GaussianFunction function = new GaussianFunction("gauss");
+        assertEquals(Status.NOT_STARTED, fitter.getStatus());
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(null, new double[4], new double[4], null));
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(function, new double[0], new double[0], null));
+        assertThrows(IllegalArgumentException.class, () -> fitter.fit(function, new double[4], new double[3], null));
+        assertThrows(IllegalArgumentException.class,
+                () -> fitter.fit(function, new double[4], new double[4], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> fitter.setMaxIterations(0));
+        assertThrows(IllegalArgumentException.class, () -> fitter.setTolerance(0.0));
+
+        fitter.setMaxIterations(10);
+        assertEquals(10, fitter.getMaxIterations());
+        fitter.setTolerance(1e-6);
+        assertEquals(1e-6, fitter.getTolerance());
+        fitter.setParallel(false);
+        assertEquals(false, fitter.isParallel());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    public void gaussianFitTests(final boolean analytic) {
+        final int n = 2001;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final GaussianFunction reference = new GaussianFunction("reference", new double[] { 0.3, 1.7, 20.0 });
+        for (int i = 0; i < n; i++) {
+            x[i] = -10.0 + 0.01 * i;
+            y[i] = reference.getValue(x[i]);
+        }
+
+        final GaussianFunction function = new GaussianFunction("fit", new double[] { -1.0, 3.0, 5.0 });
+        final LevenbergMarquardtFitter fitter = new LevenbergMarquardtFitter();
+        fitter.setJacobian(analytic ? GAUSS_JACOBIAN : null);
+        assertEquals(Status.CONVERGED, fitter.fit(function, x, y, null));
+        assertArrayEquals(new double[] { 0.3, 1.7, 20.0 }, fitter.getParameters(), 1e-6);
+        for (int j = 0; j < function.getParameterCount(); j++) {
+            // the function must hold exactly the best-fit values, not those of the last finite-difference step
+            assertEquals(fitter.getParameters()[j], function.getParameterValue(j), "parameter " + j);
+        }
+        assertEquals(0.0, fitter.getChiSquare(), 1e-12);
+        assertTrue(fitter.getIterations() > 1 && fitter.getIterations() < 50, "iterations " + fitter.getIterations());
+
+        // fixed parameter
+        function.setParameterValues(new double[] { -1.0, 1.5, 5.0 });
+        function.fixParameter(1, true);
+        assertEquals(Status.CONVERGED, fitter.fit(function, x, y, null));
+        assertEquals(1.5, fitter.getParameters()[1]);
+        assertEquals(0.0, fitter.getParameterErrors()[1]);
+        assertEquals(0.3, fitter.getParameters()[0], 1e-3);
+        for (int j = 0; j < function.getParameterCount(); j++) {
+            assertEquals(fitter.getParameters()[j], function.getParameterValue(j), "parameter " + j);
+        }
+    }
+
+    @Test
+    public void linearErrorTests() {
+        // straight line: covariance must match the analytic (X^T W X)^-1
+        final int n = 50;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final double[] ey = new double[n];
+        double s = 0;
+        double sx = 0;
+        double sxx = 0;
+        for (int i = 0; i < n; i++) {
+            x[i] = 0.1 * i;
+            y[i] = 1.0 + 2.0 * x[i] + (i % 2 == 0 ? 0.05 : -0.05);
+            ey[i] = 0.1 + 0.01 * i;
+            final double w = 1.0 / (ey[i] * ey[i]);
+            s += w;
+            sx += w * x[i];
+            sxx += w * x[i] * x[i];
+        }
+        final double det = s * sxx - sx * sx;
+
+        final PolynomialFunction function = new PolynomialFunction("line", new double[] { 0.0, 0.0 });
+        final LevenbergMarquardtFitter fitter = new LevenbergMarquardtFitter();
+        assertEquals(Status.CONVERGED, fitter.fit(function, x, y, ey));
+        assertArrayEquals(new double[] { 1.0, 2.0 }, fitter.getParameters(), 0.05);
+        assertEquals(Math.sqrt(sxx / det), fitter.getParameterErrors()[0], 1e-6);
+        assertEquals(Math.sqrt(s / det), fitter.getParameterErrors()[1], 1e-6);
+        assertEquals(-sx / det, fitter.getCovarianceMatrix()[0][1], 1e-6);
+        assertEquals(fitter.getChiSquare() / (n - 2), fitter.getReducedChiSquare(), 1e-12);
+    }
+
+    @Test
+    public void parallelAndCancellationTests() {
+        final int n = 200_000;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final GaussianFunction reference = new GaussianFunction("reference", new double[] { 1.0, 2.0, 100.0 });
+        for (int i = 0; i < n; i++) {
+            x[i] = -10.0 + 20.0 * i / n;
+            y[i] = reference.getValue(x[i]) + 0.01 * Math.sin(1.3 * i); // deterministic 'noise'
+        }
+        final double[] start = { 0.0, 3.0, 50.0 };
+
+        final LevenbergMarquardtFitter fitter = new LevenbergMarquardtFitter();
+        fitter.setJacobian(GAUSS_JACOBIAN);
+        fitter.setParallel(false);
+        fitter.fit(new GaussianFunction("seq", start), x, y, null);
+        final double[] sequential = fitter.getParameters().clone();
+        final double[] sequentialErrors = fitter.getParameterErrors().clone();
+
+        ConcurrencyUtils.setNumberOfThreads(4);
+        fitter.setParallel(true);
+        for (final Jacobian jacobian : new Jacobian[] { GAUSS_JACOBIAN, null }) {
+            fitter.setJacobian(jacobian);
+            assertEquals(Status.CONVERGED, fitter.fit(new GaussianFunction("par", start), x, y, null));
+            assertArrayEquals(sequential, fitter.getParameters(), 1e-6);
+            assertArrayEquals(sequentialErrors, fitter.getParameterErrors(), 1e-6);
+        }
+
+        // failures of the parallel chunk tasks are propagated
+        fitter.setJacobian((xValue, parameters, derivatives) -> {
+            throw new IllegalStateException("test");
+        });
+        assertThrows(IllegalStateException.class, () -> fitter.fit(new GaussianFunction("fail", start), x, y, null));
+        fitter.setJacobian(GAUSS_JACOBIAN);
+
+        // progress reporting and cancellation after the second iteration
+        final int[] calls = new int[1];
+        fitter.setProgressListener((iteration, chiSquare, parameters) -> {
+            calls[0]++;
+            assertEquals(calls[0], iteration);
+            if (iteration == 2) {
+                fitter.cancel();
+            }
+        });
+        assertEquals(Status.CANCELLED, fitter.fit(new GaussianFunction("cancel", start), x, y, null));
+        assertEquals(2, fitter.getIterations());
+        assertEquals(2, calls[0]);
+
+        // next fit is not affected by the previous cancellation
+        fitter.setProgressListener(null);
+        assertEquals(Status.CONVERGED, fitter.fit(new GaussianFunction("restart", start), x, y, null));
+    }
+}
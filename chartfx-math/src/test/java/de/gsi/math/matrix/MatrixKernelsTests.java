@@ -0,0 +1,179 @@
+package de.gsi.math.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.gsi.math.utils.ConcurrencyUtils;
+
+/**
+ * Checks the blocked {@link MatrixKernels} and their use by {@link MatrixD} and the JAMA-style decompositions against
+ * direct reference evaluations
+ */
+public class MatrixKernelsTests {
+    private static final double NUMERIC_LIMITS = 1e-10;
+
+    @AfterEach
+    public void resetThreads() {
+        ConcurrencyUtils.setForceThreads(false);
+    }
+
+    @Test
+    public void basicTests() {
+        final double[] a = new double[6];
+        assertThrows(IllegalArgumentException.class,
+                () -> MatrixKernels.gemm(-1, 2, 3, 1.0, a, 0, 3, a, 0, 2, a, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.gemm(2, 2, 3, 1.0, a, 0, 2, a, 0, 2, a, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.gemm(2, 2, 3, 1.0, a, 1, 3, a, 0, 2, a, 0, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> MatrixKernels.gemm(2, 2, 2, 1.0, null, 0, 2, a, 0, 2, a, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.luDecompose(a, 2, 2, new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.luDecompose(a, 2, 3, new int[3]));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.qrDecompose(a, 3, 2, new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> MatrixKernels.choleskyDecompose(a, 3));
+
+        // empty products are no-ops
+        MatrixKernels.gemm(0, 2, 3, 1.0, a, 0, 3, a, 0, 2, a, 0, 2);
+        MatrixKernels.gemm(2, 2, 0, 1.0, a, 0, 0, a, 0, 2, a, 0, 2);
+        assertArrayEquals(new double[6], a);
+
+        // symmetric, non positive-definite and non-symmetric matrices
+        assertFalse(MatrixKernels.choleskyDecompose(new double[] { 1, 2, 2, 1 }, 2));
+        assertFalse(MatrixKernels.choleskyDecompose(new double[] { 2, 1, 0, 2 }, 2));
+        assertTrue(MatrixKernels.choleskyDecompose(new double[] { 4, 2, 2, 3 }, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "1, 1, 1", "3, 5, 7", "67, 131, 45", "130, 70, 200", "257, 300, 129" })
+    public void gemmTests(final int m, final int n, final int k) {
+        final double[] a = random(m * k, 1);
+        final double[] b = random(k * n, 2);
+        final double[] expected = random(m * n, 3);
+        final double[] c = expected.clone();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int p = 0; p < k; p++) {
+                    sum += a[i * k + p] * b[p * n + j];
+                }
+                expected[i * n + j] -= 0.5 * sum;
+            }
+        }
+        for (final int nThreads : new int[] { 1, 4 }) {
+            ConcurrencyUtils.setNumberOfThreads(nThreads);
+            final double[] result = c.clone();
+            MatrixKernels.gemm(m, n, k, -0.5, a, 0, k, b, 0, n, result, 0, n);
+            assertArrayEquals(expected, result, k * NUMERIC_LIMITS, "nThreads = " + nThreads);
+        }
+
+        // sub-matrix addressing: embed C in a larger array with row stride n + 3
+        final double[] embedded = new double[2 + (m - 1) * (n + 3) + n];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(c, i * n, embedded, 2 + i * (n + 3), n);
+        }
+        MatrixKernels.gemm(m, n, k, -0.5, a, 0, k, b, 0, n, embedded, 2, n + 3);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(expected[i * n + j], embedded[2 + i * (n + 3) + j], k * NUMERIC_LIMITS);
+            }
+        }
+
+        final MatrixD product = new MatrixD(a, m).times(new MatrixD(b, k));
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(2.0 * (c[i * n + j] - expected[i * n + j]), product.get(i, j), k * NUMERIC_LIMITS);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 4 })
+    public void decompositionTests(final int nThreads) {
+        ConcurrencyUtils.setNumberOfThreads(nThreads);
+        for (final int[] size : new int[][] { { 150, 150 }, { 201, 130 }, { 97, 160 } }) {
+            final int m = size[0];
+            final int n = size[1];
+            final double[] a = random(m * n, m + n);
+
+            // LU: A(piv, :) = L * U
+            final double[] lu = a.clone();
+            final int[] pivot = new int[m];
+            final int pivotSign = MatrixKernels.luDecompose(lu, m, n, pivot);
+            final int nMin = Math.min(m, n);
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < n; j++) {
+                    double sum = 0.0;
+                    for (int p = 0; p <= Math.min(i, Math.min(j, nMin - 1)); p++) {
+                        sum += (p == i ? 1.0 : lu[i * n + p]) * lu[p * n + j];
+                    }
+                    assertEquals(a[pivot[i] * n + j], sum, NUMERIC_LIMITS, "LU(" + i + ", " + j + ")");
+                }
+            }
+            int sign = 1;
+            final int[] permutation = pivot.clone();
+            for (int i = 0; i < m; i++) {
+                while (permutation[i] != i) {
+                    final int tmp = permutation[permutation[i]];
+                    permutation[permutation[i]] = permutation[i];
+                    permutation[i] = tmp;
+                    sign = -sign;
+                }
+            }
+            assertEquals(sign, pivotSign);
+
+            if (m < n) {
+                continue;
+            }
+            // QR via the JAMA-style class (blocked path): A = Q * R and Q orthonormal
+            final MatrixD matrix = new MatrixD(a, m);
+            final QRDecomposition qr = matrix.qr();
+            final MatrixD q = qr.getQ();
+            assertMatrixEquals(matrix, q.times(qr.getR()), NUMERIC_LIMITS);
+            assertMatrixEquals(MatrixFactory.identity(n, n), q.transpose().times(q), NUMERIC_LIMITS);
+            // least-squares solution agrees with the normal equations (Cholesky)
+            final MatrixD rhs = new MatrixD(random(m * 3, 7), m);
+            final MatrixD normal = matrix.transpose().times(matrix);
+            final CholeskyDecomposition cholesky = normal.chol();
+            assertTrue(cholesky.isSPD());
+            assertMatrixEquals(normal, cholesky.getL().times(cholesky.getL().transpose()), n * NUMERIC_LIMITS);
+            assertMatrixEquals(cholesky.solve(matrix.transpose().times(rhs)), qr.solve(rhs), 1e-8);
+            if (m == n) {
+                double det = pivotSign;
+                for (int i = 0; i < n; i++) {
+                    det *= lu[i * n + i];
+                }
+                assertEquals(det, matrix.det(), Math.abs(det) * NUMERIC_LIMITS);
+                assertMatrixEquals(MatrixFactory.identity(n, n), matrix.times(matrix.inverse()), 1e-8);
+            }
+        }
+    }
+
+    private static void assertMatrixEquals(final MatrixD expected, final MatrixD actual, final double tolerance) {
+        assertEquals(expected.getRowDimension(), actual.getRowDimension());
+        assertEquals(expected.getColumnDimension(), actual.getColumnDimension());
+        for (int i = 0; i < expected.getRowDimension(); i++) {
+            for (int j = 0; j < expected.getColumnDimension(); j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), tolerance, "element (" + i + ", " + j + ")");
+            }
+        }
+    }
+
+    private static double[] random(final int length, final long seed) {
+        final Random random = new Random(seed);
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble() - 0.5;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,149 @@
+package de.gsi.math.spectra;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import de.gsi.math.spectra.StreamingConvolution.Method;
+import de.gsi.math.spectra.fft.FFTPlanCache;
+
+/**
+ * Checks the direct and FFT-based {@link FastConvolution} and the {@link StreamingConvolution} against a direct
+ * reference evaluation
+ */
+public class FastConvolutionTests {
+    private static final double NUMERIC_LIMITS = 1e-9;
+
+    @Test
+    public void basicTests() {
+        assertThrows(IllegalArgumentException.class, () -> FastConvolution.convolve(null, new double[2], null));
+        assertThrows(IllegalArgumentException.class,
+                () -> FastConvolution.convolve(new double[2], new double[0], null));
+        assertThrows(IllegalArgumentException.class,
+                () -> FastConvolution.convolve(new double[4], new double[3], new double[5]));
+        final double[] x = new double[10];
+        assertThrows(IllegalArgumentException.class, () -> FastConvolution.convolveFFT(x, new double[1], x));
+
+        final double[] output = new double[20];
+        assertSame(output, FastConvolution.convolve(new double[4], new double[3], output));
+        assertEquals(6, FastConvolution.correlate(new double[4], new double[3], null).length);
+
+        assertThrows(IllegalArgumentException.class, () -> new StreamingConvolution(null));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingConvolution(new double[4], null));
+        final int limit = FastConvolution.DIRECT_KERNEL_LIMIT;
+        assertEquals(Method.DIRECT, new StreamingConvolution(new double[limit]).getMethod());
+        final StreamingConvolution stream = new StreamingConvolution(new double[limit + 1]);
+        assertEquals(Method.OVERLAP_ADD, stream.getMethod());
+        assertEquals(4 * 128 - limit, stream.getLatency());
+        assertThrows(IndexOutOfBoundsException.class, () -> stream.process(new double[4], 2, new double[4], 0, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> stream.process(new double[4], 0, new double[4], 2, 3));
+    }
+
+    @Test
+    public void workingArrayInputTests() {
+        // inputs obtained from the shared FFT working arrays must not be overwritten by the internal scratch buffers
+        final int nx = 512; // matches the internal block FFT length for a kernel of 100 samples
+        final double[] x = FFTPlanCache.getWorkingArray(1, nx);
+        System.arraycopy(generateSignal(nx, 0.37), 0, x, 0, nx);
+        final double[] h = FFTPlanCache.getWorkingArray(0, 100);
+        System.arraycopy(generateSignal(h.length, 0.11), 0, h, 0, h.length);
+        final double[] xCopy = x.clone();
+        final double[] hCopy = h.clone();
+        final double[] expected = referenceConvolution(xCopy, hCopy);
+
+        assertArrayEquals(expected, FastConvolution.convolve(x, h, null), nx * NUMERIC_LIMITS);
+        assertArrayEquals(xCopy, x);
+        assertArrayEquals(hCopy, h);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "1, 1", "7, 3", "3, 7", "100, 65", "1000, 1", "1000, 100", "4097, 300", "200, 200" })
+    public void convolutionTests(final int nx, final int nh) {
+        final double[] x = generateSignal(nx, 0.37);
+        final double[] h = generateSignal(nh, 0.11);
+        final double[] expected = referenceConvolution(x, h);
+
+        assertArrayEquals(expected, FastConvolution.convolveDirect(x, h, null), NUMERIC_LIMITS);
+        assertArrayEquals(expected, FastConvolution.convolveFFT(x, h, null), nx * NUMERIC_LIMITS);
+        assertArrayEquals(expected, FastConvolution.convolve(x, h, null), nx * NUMERIC_LIMITS);
+
+        // cross-correlation: index k <-> lag k - (nh - 1)
+        final double[] correlation = FastConvolution.correlate(x, h, null);
+        assertEquals(nx + nh - 1, correlation.length);
+        for (final int lag : new int[] { -(nh - 1), 0, nx / 2, nx - 1 }) {
+            double sum = 0.0;
+            for (int n = 0; n < nh; n++) {
+                final int index = n + lag;
+                sum += index >= 0 && index < nx ? x[index] * h[n] : 0.0;
+            }
+            assertEquals(sum, correlation[lag + nh - 1], nx * NUMERIC_LIMITS, "lag = " + lag);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Method.class)
+    public void streamingTests(final Method method) {
+        final int nSamples = 5000;
+        final double[] x = generateSignal(nSamples, 0.37);
+        final double[] h = generateSignal(257, 0.05);
+        final double[] expected = referenceConvolution(x, h);
+
+        final StreamingConvolution stream = new StreamingConvolution(h, method);
+        final int latency = stream.getLatency();
+        assertEquals(method == Method.DIRECT ? 0 : 2048 - 257 + 1, latency);
+
+        // feed irregular chunks, partially sample-by-sample and in-place
+        final double[] output = new double[nSamples];
+        int offset = 0;
+        int chunk = 1;
+        while (offset < nSamples) {
+            final int length = Math.min(chunk, nSamples - offset);
+            if (chunk % 3 == 0) {
+                for (int i = offset; i < offset + length; i++) {
+                    output[i] = stream.process(x[i]);
+                }
+            } else if (chunk % 3 == 1) {
+                System.arraycopy(x, offset, output, offset, length);
+                stream.process(output, offset, output, offset, length);
+            } else {
+                stream.process(x, offset, output, offset, length);
+            }
+            offset += length;
+            chunk = 2 * chunk + 1;
+        }
+
+        for (int i = 0; i < nSamples; i++) {
+            final double reference = i < latency ? 0.0 : expected[i - latency];
+            assertEquals(reference, output[i], 1e-9, "sample " + i);
+        }
+
+        stream.reset();
+        final double[] restarted = new double[nSamples];
+        stream.process(x, 0, restarted, 0, nSamples);
+        assertArrayEquals(output, restarted, 1e-9);
+    }
+
+    private static double[] generateSignal(final int n, final double frequency) {
+        final double[] signal = new double[n];
+        for (int i = 0; i < n; i++) {
+            signal[i] = Math.sin(frequency * i) + 0.1 * (i % 5) - 0.2;
+        }
+        return signal;
+    }
+
+    private static double[] referenceConvolution(final double[] x, final double[] h) {
+        final double[] result = new double[x.length + h.length - 1];
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < h.length; j++) {
+                result[i + j] += x[i] * h[j];
+            }
+        }
+        return result;
+    }
+}
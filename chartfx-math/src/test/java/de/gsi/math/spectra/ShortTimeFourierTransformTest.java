@@ -2,6 +2,7 @@ package de.gsi.math.spectra;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static de.gsi.dataset.DataSet.DIM_X;
@@ -18,7 +19,9 @@ import de.gsi.dataset.spi.DoubleDataSet;
 import de.gsi.dataset.spi.DoubleDataSet3D;
 import de.gsi.dataset.spi.DoubleErrorDataSet;
 import de.gsi.dataset.spi.MultiDimDoubleDataSet;
+import de.gsi.math.spectra.ShortTimeFourierTransform.Layout;
 import de.gsi.math.spectra.ShortTimeFourierTransform.Padding;
+import de.gsi.math.utils.ConcurrencyUtils;
 
 /**
  * Test the short-time Fourier transform.
@@ -147,6 +150,60 @@ class ShortTimeFourierTransformTest {
                 () -> ShortTimeFourierTransform.real(new DoubleDataSet3D("illegal data set", new double[] { 1, 2 }, new double[] { 1, 2, 3 }, new double[][] { { 1, 2 }, { 3, 4 }, { 5, 6 } }), null, 8, 8, Apodization.Hann, Padding.ZERO, true, false));
     }
 
+    @Test
+    public void testParallelSTFT() {
+        final int nFft = 256;
+        final int step = 100;
+        final int nSamples = 1 << 17;
+        final double[] real = new double[nSamples];
+        final double[] imag = new double[nSamples];
+        final double[] interleaved = new double[2 * nSamples];
+        for (int i = 0; i < nSamples; i++) {
+            real[i] = Math.sin(0.05 * i) + 0.3 * Math.sin(0.71 * i) + 1e-3 * (i % 17);
+            imag[i] = Math.cos(0.05 * i) + 1e-3 * (i % 13);
+            interleaved[2 * i] = real[i];
+            interleaved[2 * i + 1] = imag[i];
+        }
+
+        // sequential reference
+        final double[][] refReal;
+        final double[][] refComplex;
+        ConcurrencyUtils.setNumberOfThreads(1);
+        try {
+            refReal = ShortTimeFourierTransform.real(real, null, nFft, step, Apodization.Hann, Padding.MIRROR, false,
+                    true);
+            refComplex = ShortTimeFourierTransform.complex(real, imag, null, nFft, step, Apodization.Hann, Padding.ZOH,
+                    true, false);
+        } finally {
+            ConcurrencyUtils.setForceThreads(false);
+        }
+        ConcurrencyUtils.setNumberOfThreads(4);
+        try {
+            final double[][] parReal = ShortTimeFourierTransform.real(real, null, nFft, step, Apodization.Hann,
+                    Padding.MIRROR, false, true);
+            assertEquals(nFft / 2, parReal.length);
+            assertEquals((nSamples + step - 1) / step, parReal[0].length);
+            assertArrayEquals(refReal, parReal);
+
+            final double[][] parComplex = ShortTimeFourierTransform.complex(interleaved, null, nFft, step,
+                    Apodization.Hann, Padding.ZOH, true, false);
+            assertArrayEquals(refComplex, parComplex);
+
+            // transposed (time-major) layout
+            final double[][] rows = ShortTimeFourierTransform.real(real, null, nFft, step, Apodization.Hann,
+                    Padding.MIRROR, false, true, Layout.TIME_FREQUENCY);
+            assertArrayEquals(refReal, transpose(rows));
+            final double[][] complexRows = ShortTimeFourierTransform.complex(real, imag, null, nFft, step,
+                    Apodization.Hann, Padding.ZOH, true, false, Layout.TIME_FREQUENCY);
+            assertArrayEquals(refComplex, transpose(complexRows));
+            // output array is reused if the dimensions match
+            assertSame(rows, ShortTimeFourierTransform.real(real, rows, nFft, step, Apodization.Hann, Padding.MIRROR,
+                                     false, true, Layout.TIME_FREQUENCY));
+        } finally {
+            ConcurrencyUtils.setForceThreads(false);
+        }
+    }
+
     /**
      * Utility Function to transpose a 2D array
      * 
@@ -0,0 +1,113 @@
+package de.gsi.math.spectra;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static de.gsi.dataset.DataSet.DIM_X;
+import static de.gsi.dataset.DataSet.DIM_Y;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import de.gsi.dataset.spi.CircularDoubleDataSet3D;
+import de.gsi.math.spectra.ShortTimeFourierTransform.Padding;
+
+/**
+ * Checks the streaming STFT against the batch {@link ShortTimeFourierTransform}
+ */
+public class StreamingShortTimeFourierTransformTests {
+    private static final int N_FFT = 64;
+    private static final int STEP = 24;
+    private static final int N_SAMPLES = 1000;
+    private static final double DT = 1e-3;
+
+    @ParameterizedTest
+    @EnumSource(Padding.class)
+    public void complexStreamingTests(final Padding padding) {
+        final double[] real = new double[N_SAMPLES];
+        final double[] imag = new double[N_SAMPLES];
+        for (int i = 0; i < N_SAMPLES; i++) {
+            real[i] = Math.cos(0.3 * i) + 0.01 * (i % 7);
+            imag[i] = Math.sin(0.3 * i);
+        }
+        final double[][] reference = ShortTimeFourierTransform.complex(real, imag, null, N_FFT, STEP,
+                Apodization.Hamming, padding, true, false);
+        final int nT = reference[0].length;
+
+        final StreamingShortTimeFourierTransform stft = new StreamingShortTimeFourierTransform(N_FFT, STEP, DT, true,
+                Apodization.Hamming, padding, true, false, nT);
+        assertThrows(IllegalStateException.class, () -> stft.add(1.0));
+        for (int i = 0; i < N_SAMPLES; i++) {
+            stft.add(real[i], imag[i]);
+        }
+        stft.flush();
+        assertEquals(nT, stft.getSpectrumCount());
+        assertSpectrogram(reference, stft.getWaterfall());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Padding.class)
+    public void realStreamingTests(final Padding padding) {
+        final double[] input = new double[N_SAMPLES];
+        for (int i = 0; i < N_SAMPLES; i++) {
+            input[i] = Math.sin(0.2 * i) + 0.5 * Math.sin(1.1 * i);
+        }
+        final double[][] reference = ShortTimeFourierTransform.real(input, null, N_FFT, STEP, Apodization.Hann,
+                padding, false, true);
+        final int nT = reference[0].length;
+
+        final StreamingShortTimeFourierTransform stft = new StreamingShortTimeFourierTransform(N_FFT, STEP, DT, false,
+                Apodization.Hann, padding, false, true, 10);
+        assertThrows(IllegalStateException.class, () -> stft.add(1.0, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> stft.add(input, 10, N_SAMPLES));
+
+        // first spectrum once nFFT samples arrived, then every 'step' samples
+        for (int i = 0; i < N_FFT - 1; i++) {
+            assertFalse(stft.add(input[i]));
+        }
+        assertTrue(stft.add(input[N_FFT - 1]));
+        assertEquals(1, stft.getSpectrumCount());
+        assertEquals(0, stft.add(input, N_FFT, STEP - 1));
+        assertEquals(1, stft.add(input, N_FFT + STEP - 1, 1));
+        stft.add(input, N_FFT + STEP, N_SAMPLES - N_FFT - STEP);
+        assertTrue(stft.flush() > 0);
+        assertEquals(nT, stft.getSpectrumCount());
+
+        // rolling waterfall keeps only the last 10 spectra
+        final CircularDoubleDataSet3D waterfall = stft.getWaterfall();
+        assertEquals(10, waterfall.getDataCount(DIM_Y));
+        assertEquals(N_FFT / 2, waterfall.getDataCount(DIM_X));
+        assertEquals((nT - 1) * STEP * DT, waterfall.get(DIM_Y, 9), 1e-12);
+        for (int t = 0; t < 10; t++) {
+            for (int f = 0; f < N_FFT / 2; f++) {
+                assertEquals(reference[f][nT - 10 + t], waterfall.getZ(f, t), 1e-12);
+            }
+        }
+
+        stft.reset();
+        assertEquals(0, stft.getSpectrumCount());
+        assertEquals(0, waterfall.getDataCount(DIM_Y));
+        stft.add(input, 0, N_SAMPLES);
+        stft.flush();
+        assertEquals(nT, stft.getSpectrumCount());
+    }
+
+    private static void assertSpectrogram(final double[][] reference, final CircularDoubleDataSet3D waterfall) {
+        final int nT = reference[0].length;
+        assertEquals(nT, waterfall.getDataCount(DIM_Y));
+        assertEquals(reference.length, waterfall.getDataCount(DIM_X));
+        for (int t = 0; t < nT; t++) {
+            assertEquals(t * STEP * DT, waterfall.get(DIM_Y, t), 1e-12);
+            final double[] column = new double[reference.length];
+            final double[] expected = new double[reference.length];
+            for (int f = 0; f < reference.length; f++) {
+                column[f] = waterfall.getZ(f, t);
+                expected[f] = reference[f][t];
+            }
+            assertArrayEquals(expected, column, 1e-12, "time slice " + t);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.gsi.math.spectra.fft;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.commons.math3.complex.Complex;
+import org.jtransforms.fft.DoubleFFT_1D;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the primitive radix-2/Bluestein {@link ComplexFFT_1D} against JTransforms
+ */
+public class ComplexFFT1DTests {
+    private static final double NUMERIC_LIMITS = 1e-9;
+
+    @Test
+    public void basicTests() {
+        assertThrows(IllegalArgumentException.class, () -> new ComplexFFT_1D(0));
+        assertThrows(IllegalArgumentException.class, () -> new ComplexFFT_1D(4).complexForward(new double[6]));
+        assertEquals(12, FFTPlanCache.getComplexFFT(12).getLength());
+        assertThrows(IllegalArgumentException.class,
+                () -> ComplexFFT_1D.cconvolve(new double[4], new double[6], new double[4]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ComplexFFT_1D.convolve(new double[4], new double[6], new double[4]));
+    }
+
+    @Test
+    public void convolutionTests() {
+        // linear convolution against direct evaluation
+        final double[] x = generateSignal(7);
+        final double[] y = generateSignal(4);
+        final double[] expected = new double[2 * (7 + 4 - 1)];
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 4; j++) {
+                expected[2 * (i + j)] += x[2 * i] * y[2 * j] - x[2 * i + 1] * y[2 * j + 1];
+                expected[2 * (i + j) + 1] += x[2 * i] * y[2 * j + 1] + x[2 * i + 1] * y[2 * j];
+            }
+        }
+        assertArrayEquals(expected, ComplexFFT_1D.convolve(x, y, new double[expected.length]), NUMERIC_LIMITS);
+
+        // circular convolution against direct evaluation (non power-of-two length)
+        final int n = 6;
+        final double[] a = generateSignal(n);
+        final double[] b = generateSignal(n);
+        final double[] expectedCyclic = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                final int k = (i + j) % n;
+                expectedCyclic[2 * k] += a[2 * i] * b[2 * j] - a[2 * i + 1] * b[2 * j + 1];
+                expectedCyclic[2 * k + 1] += a[2 * i] * b[2 * j + 1] + a[2 * i + 1] * b[2 * j];
+            }
+        }
+        assertArrayEquals(expectedCyclic, ComplexFFT_1D.cconvolve(a, b, new double[2 * n]), NUMERIC_LIMITS);
+        // in-place
+        final double[] aCopy = a.clone();
+        assertArrayEquals(expectedCyclic, ComplexFFT_1D.cconvolve(aCopy, b, aCopy), NUMERIC_LIMITS);
+        // inputs may be the caller's per-thread working arrays
+        final double[] aWork = FFTPlanCache.getWorkingArray(0, 2 * n);
+        final double[] bWork = FFTPlanCache.getWorkingArray(1, 2 * n);
+        System.arraycopy(a, 0, aWork, 0, 2 * n);
+        System.arraycopy(b, 0, bWork, 0, 2 * n);
+        assertArrayEquals(expectedCyclic, ComplexFFT_1D.cconvolve(aWork, bWork, new double[2 * n]), NUMERIC_LIMITS);
+        assertArrayEquals(b, bWork);
+        final double[] xWork = FFTPlanCache.getWorkingArray(0, x.length);
+        final double[] yWork = FFTPlanCache.getWorkingArray(1, y.length);
+        System.arraycopy(x, 0, xWork, 0, x.length);
+        System.arraycopy(y, 0, yWork, 0, y.length);
+        assertArrayEquals(expected, ComplexFFT_1D.convolve(xWork, yWork, new double[expected.length]),
+                NUMERIC_LIMITS);
+
+        // legacy Complex[] API
+        final Complex[] cx = new Complex[n];
+        final Complex[] cy = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            cx[i] = new Complex(a[2 * i], a[2 * i + 1]);
+            cy[i] = new Complex(b[2 * i], b[2 * i + 1]);
+        }
+        final Complex[] cc = ComplexFFT_1D.cconvolve(cx, cy);
+        for (int i = 0; i < n; i++) {
+            assertEquals(expectedCyclic[2 * i], cc[i].getReal(), NUMERIC_LIMITS);
+            assertEquals(expectedCyclic[2 * i + 1], cc[i].getImaginary(), NUMERIC_LIMITS);
+        }
+        assertEquals(2 * n, ComplexFFT_1D.convolve(cx, cy).length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 5, 7, 12, 64, 100, 1000, 1024, 4093, 4096 })
+    public void transformTests(final int n) {
+        final double[] signal = generateSignal(n);
+        final double[] reference = signal.clone();
+        new DoubleFFT_1D(n).complexForward(reference);
+
+        final ComplexFFT_1D fft = new ComplexFFT_1D(n);
+        final double[] data = signal.clone();
+        fft.complexForward(data);
+        assertArrayEquals(reference, data, n * NUMERIC_LIMITS, "forward n = " + n);
+
+        fft.complexInverse(data, true);
+        assertArrayEquals(signal, data, n * NUMERIC_LIMITS, "identity n = " + n);
+
+        final double[] unscaled = reference.clone();
+        new DoubleFFT_1D(n).complexInverse(unscaled, false);
+        final double[] inverse = reference.clone();
+        fft.complexInverse(inverse, false);
+        assertArrayEquals(unscaled, inverse, n * NUMERIC_LIMITS, "inverse n = " + n);
+
+        // legacy Complex[] API
+        final Complex[] complex = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            complex[i] = new Complex(signal[2 * i], signal[2 * i + 1]);
+        }
+        final Complex[] spectrum = ComplexFFT_1D.fft(complex);
+        for (int i = 0; i < n; i++) {
+            assertEquals(reference[2 * i], spectrum[i].getReal(), n * NUMERIC_LIMITS);
+            assertEquals(reference[2 * i + 1], spectrum[i].getImaginary(), n * NUMERIC_LIMITS);
+        }
+    }
+
+    private static double[] generateSignal(final int n) {
+        final double[] signal = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            signal[2 * i] = Math.sin(0.37 * i) + 0.1 * (i % 5);
+            signal[2 * i + 1] = Math.cos(0.11 * i) - 0.05 * (i % 3);
+        }
+        return signal;
+    }
+}
@@ -0,0 +1,107 @@
+package de.gsi.math.spectra.fft;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+import org.junit.jupiter.api.Test;
+
+public class FFTPlanCacheTests {
+    @Test
+    public void planCacheTests() {
+        assertThrows(IllegalArgumentException.class, () -> FFTPlanCache.getDoubleFFT(0));
+        assertThrows(IllegalArgumentException.class, () -> FFTPlanCache.setMaxSize(0));
+        final int oldMaxSize = FFTPlanCache.getMaxSize();
+        try {
+            FFTPlanCache.clear();
+            final DoubleFFT_1D fft1024 = FFTPlanCache.getDoubleFFT(1024);
+            assertSame(fft1024, FFTPlanCache.getDoubleFFT(1024));
+            assertNotSame(fft1024, FFTPlanCache.getFloatFFT(1024));
+            assertEquals(2, FFTPlanCache.size());
+
+            // LRU eviction
+            FFTPlanCache.setMaxSize(2);
+            FFTPlanCache.getDoubleFFT(1024); // touch -> float plan becomes eldest
+            FFTPlanCache.getDoubleFFT(512);
+            assertEquals(2, FFTPlanCache.size());
+            assertSame(fft1024, FFTPlanCache.getDoubleFFT(1024));
+            FFTPlanCache.setMaxSize(1);
+            assertEquals(1, FFTPlanCache.size());
+            assertSame(fft1024, FFTPlanCache.getDoubleFFT(1024));
+
+            // cached plans yield the same result as new plans
+            final double[] signal = new double[1000];
+            for (int i = 0; i < signal.length; i++) {
+                signal[i] = Math.sin(0.1 * i) + 0.01 * i;
+            }
+            final double[] reference = signal.clone();
+            new DoubleFFT_1D(signal.length).realForward(reference);
+            final double[] cached = signal.clone();
+            FFTPlanCache.getDoubleFFT(signal.length).realForward(cached);
+            assertArrayEquals(reference, cached);
+        } finally {
+            FFTPlanCache.setMaxSize(oldMaxSize);
+            FFTPlanCache.clear();
+        }
+    }
+
+    @Test
+    public void workingArrayTests() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> FFTPlanCache.getWorkingArray(-1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> FFTPlanCache.getWorkingArray(FFTPlanCache.N_WORKING_ARRAYS, 10));
+        final double[] array = FFTPlanCache.getWorkingArray(0, 128);
+        assertEquals(128, array.length);
+        assertSame(array, FFTPlanCache.getWorkingArray(0, 128));
+        assertNotSame(array, FFTPlanCache.getWorkingArray(1, 128));
+        assertEquals(64, FFTPlanCache.getWorkingArray(0, 64).length);
+
+        // working arrays are private to each thread
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<double[]> other = executor.submit(() -> FFTPlanCache.getWorkingArray(0, 64));
+            final double[] otherArray = other.get();
+            assertNotSame(FFTPlanCache.getWorkingArray(0, 64), otherArray);
+
+            // release of the arrays held by all threads
+            final double[] local = FFTPlanCache.getWorkingArray(0, 64);
+            FFTPlanCache.clearWorkingArrays();
+            assertNotSame(local, FFTPlanCache.getWorkingArray(0, 64));
+            assertNotSame(otherArray, executor.submit(() -> FFTPlanCache.getWorkingArray(0, 64)).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        // private working arrays never alias the shared ones
+        assertThrows(IllegalArgumentException.class, () -> new FFTPlanCache.WorkingArrays(0));
+        final FFTPlanCache.WorkingArrays privateArrays = new FFTPlanCache.WorkingArrays(1);
+        assertThrows(IllegalArgumentException.class, () -> privateArrays.get(1, 10));
+        final double[] privateArray = privateArrays.get(0, 64);
+        assertSame(privateArray, privateArrays.get(0, 64));
+        assertNotSame(FFTPlanCache.getWorkingArray(0, 64), privateArray);
+        FFTPlanCache.clearWorkingArrays();
+        assertNotSame(privateArray, privateArrays.get(0, 64));
+
+        // large arrays are not retained
+        assertThrows(IllegalArgumentException.class, () -> FFTPlanCache.setMaxWorkingArrayLength(-1));
+        final int oldMaxLength = FFTPlanCache.getMaxWorkingArrayLength();
+        try {
+            FFTPlanCache.setMaxWorkingArrayLength(100);
+            assertEquals(100, FFTPlanCache.getMaxWorkingArrayLength());
+            final double[] small = FFTPlanCache.getWorkingArray(2, 100);
+            final double[] large = FFTPlanCache.getWorkingArray(2, 101);
+            assertEquals(101, large.length);
+            assertNotSame(large, FFTPlanCache.getWorkingArray(2, 101));
+            assertSame(small, FFTPlanCache.getWorkingArray(2, 100));
+        } finally {
+            FFTPlanCache.setMaxWorkingArrayLength(oldMaxLength);
+        }
+    }
+}
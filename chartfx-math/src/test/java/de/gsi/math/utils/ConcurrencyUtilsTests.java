@@ -0,0 +1,53 @@
+package de.gsi.math.utils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link ConcurrencyUtils#waitForCompletionOrThrow(Future[])} propagates task failures
+ */
+public class ConcurrencyUtilsTests {
+    @Test
+    public void waitForCompletionOrThrowTests() {
+        final AtomicInteger completed = new AtomicInteger();
+        final Future<?>[] futures = new Future[4];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = ConcurrencyUtils.submit(completed::incrementAndGet);
+        }
+        assertDoesNotThrow(() -> ConcurrencyUtils.waitForCompletionOrThrow(futures));
+        assertEquals(futures.length, completed.get());
+
+        // runtime exceptions are rethrown as they are, after all other tasks have completed
+        final IllegalArgumentException exception = new IllegalArgumentException("test");
+        completed.set(0);
+        futures[0] = ConcurrencyUtils.submit(() -> {
+            throw exception;
+        });
+        for (int i = 1; i < futures.length; i++) {
+            futures[i] = ConcurrencyUtils.submit(completed::incrementAndGet);
+        }
+        assertSame(exception, assertThrows(IllegalArgumentException.class,
+                                      () -> ConcurrencyUtils.waitForCompletionOrThrow(futures)));
+        assertEquals(futures.length - 1, completed.get());
+        for (final Future<?> future : futures) {
+            assertTrue(future.isDone());
+        }
+
+        // checked exceptions are wrapped
+        futures[0] = ConcurrencyUtils.submit(() -> {
+            throw new IOException("test");
+        });
+        final IllegalStateException wrapped = assertThrows(IllegalStateException.class,
+                () -> ConcurrencyUtils.waitForCompletionOrThrow(futures));
+        assertTrue(wrapped.getCause() instanceof IOException);
+    }
+}
@@ -0,0 +1,97 @@
+package de.gsi.math.samples;
+
+import org.apache.commons.math3.complex.Complex;
+import org.jtransforms.fft.DoubleFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gsi.dataset.utils.ProcessingProfiler;
+import de.gsi.math.spectra.fft.ComplexFFT_1D;
+import de.gsi.math.spectra.fft.FFTPlanCache;
+
+/**
+ * Compares the performance of the legacy recursive {@code Complex[]} FFT, the primitive in-place radix-2/Bluestein
+ * {@link ComplexFFT_1D} and the JTransforms reference implementation for power-of-two and non-power-of-two lengths.
+ */
+@SuppressWarnings("PMD") // this class tests possible performance bottle-necks
+                         // not code style/readability
+public class ComplexFFTBenchmarkSample {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComplexFFTBenchmarkSample.class);
+    private final int n;
+    private final Complex[] complexData;
+    private final double[] interleavedData;
+    private final double[] work;
+
+    public ComplexFFTBenchmarkSample(final int n) {
+        this.n = n;
+        complexData = new Complex[n];
+        interleavedData = new double[2 * n];
+        work = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            final double re = Math.sin(2 * Math.PI * 0.31 * i) + 1e-3 * (i % 17);
+            complexData[i] = new Complex(re, 0.0);
+            interleavedData[2 * i] = re;
+        }
+    }
+
+    public void testComplexLegacy(final int nIterations) {
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int iter = 0; iter < nIterations; iter++) {
+            sum += ComplexFFT_1D.fft_orig(complexData)[1].getReal();
+        }
+        // printout result to avoid JIT optimisation
+        ProcessingProfiler.getTimeDiff(start, "Complex[] recursive n = " + n + " result = " + sum);
+    }
+
+    public void testComplexPrimitive(final int nIterations) {
+        final ComplexFFT_1D fft = FFTPlanCache.getComplexFFT(n);
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int iter = 0; iter < nIterations; iter++) {
+            System.arraycopy(interleavedData, 0, work, 0, work.length);
+            fft.complexForward(work);
+            sum += work[2];
+        }
+        ProcessingProfiler.getTimeDiff(start, "double[] in-place     n = " + n + " result = " + sum);
+    }
+
+    public void testJTransforms(final int nIterations) {
+        final DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT(n);
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int iter = 0; iter < nIterations; iter++) {
+            System.arraycopy(interleavedData, 0, work, 0, work.length);
+            fft.complexForward(work);
+            sum += work[2];
+        }
+        ProcessingProfiler.getTimeDiff(start, "JTransforms           n = " + n + " result = " + sum);
+    }
+
+    public static void main(String[] args) {
+        ProcessingProfiler.setVerboseOutputState(true);
+        ProcessingProfiler.setDebugState(true);
+
+        final int nIterations = 2000;
+        for (final int n : new int[] { 1024, 4096, 65536 }) {
+            final ComplexFFTBenchmarkSample benchmark = new ComplexFFTBenchmarkSample(n);
+            final int nIter = Math.max(10, nIterations * 1024 / n);
+            for (int repeat = 0; repeat < 3; repeat++) { // N.B. first iteration includes JIT warm-up
+                benchmark.testComplexLegacy(nIter);
+                benchmark.testComplexPrimitive(nIter);
+                benchmark.testJTransforms(nIter);
+                LOGGER.atInfo().log("");
+            }
+        }
+
+        // non-power-of-two lengths (Bluestein fallback), not supported by the legacy implementation
+        for (final int n : new int[] { 1000, 4093 }) {
+            final ComplexFFTBenchmarkSample benchmark = new ComplexFFTBenchmarkSample(n);
+            for (int repeat = 0; repeat < 3; repeat++) {
+                benchmark.testComplexPrimitive(nIterations);
+                benchmark.testJTransforms(nIterations);
+                LOGGER.atInfo().log("");
+            }
+        }
+    }
+}
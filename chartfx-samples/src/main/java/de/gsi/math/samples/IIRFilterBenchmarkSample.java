@@ -0,0 +1,95 @@
+package de.gsi.math.samples;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gsi.dataset.utils.ProcessingProfiler;
+import de.gsi.math.filter.iir.Butterworth;
+import de.gsi.math.filter.iir.DirectFormAbstract;
+import de.gsi.math.filter.iir.MultiChannelCascade;
+
+/**
+ * Compares the sample-by-sample, block-wise and multi-channel (interleaved structure-of-arrays) IIR filtering of 64
+ * channels with one second of data sampled at 1 MS/s each.
+ */
+@SuppressWarnings("PMD") // this class tests possible performance bottle-necks
+                         // not code style/readability
+public class IIRFilterBenchmarkSample {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IIRFilterBenchmarkSample.class);
+    private static final int N_CHANNELS = 64;
+    private static final int N_SAMPLES = 1_000_000;
+    private static final int BLOCK_SIZE = 4096;
+    private static final double SAMPLE_RATE = 1e6;
+    private final double[][] channels = new double[N_CHANNELS][N_SAMPLES];
+    private final double[] interleaved = new double[N_CHANNELS * BLOCK_SIZE];
+    private final double[] block = new double[BLOCK_SIZE];
+    private final Butterworth[] filters = new Butterworth[N_CHANNELS];
+
+    public IIRFilterBenchmarkSample() {
+        for (int ch = 0; ch < N_CHANNELS; ch++) {
+            for (int i = 0; i < N_SAMPLES; i++) {
+                channels[ch][i] = Math.sin(2 * Math.PI * (1000.0 + 10 * ch) * i / SAMPLE_RATE);
+            }
+            filters[ch] = new Butterworth();
+            filters[ch].lowPass(4, SAMPLE_RATE, 20e3, DirectFormAbstract.DIRECT_FORM_II_TRANSPOSED);
+        }
+    }
+
+    public void testBlock() {
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int ch = 0; ch < N_CHANNELS; ch++) {
+            for (int offset = 0; offset < N_SAMPLES; offset += BLOCK_SIZE) {
+                final int length = Math.min(BLOCK_SIZE, N_SAMPLES - offset);
+                System.arraycopy(channels[ch], offset, block, 0, length);
+                filters[ch].filter(block, block, 0, length);
+                sum += block[0];
+            }
+        }
+        // printout result to avoid JIT optimisation
+        ProcessingProfiler.getTimeDiff(start, "block-wise      result = " + sum);
+    }
+
+    public void testMultiChannel() {
+        final MultiChannelCascade filter = new MultiChannelCascade(filters[0], N_CHANNELS);
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int offset = 0; offset < N_SAMPLES; offset += BLOCK_SIZE) {
+            final int length = Math.min(BLOCK_SIZE, N_SAMPLES - offset);
+            for (int i = 0; i < length; i++) {
+                for (int ch = 0; ch < N_CHANNELS; ch++) {
+                    interleaved[i * N_CHANNELS + ch] = channels[ch][offset + i];
+                }
+            }
+            filter.filter(interleaved, interleaved, 0, length);
+            sum += interleaved[0];
+        }
+        ProcessingProfiler.getTimeDiff(start, "multi-channel   result = " + sum);
+    }
+
+    public void testSampleBySample() {
+        final long start = ProcessingProfiler.getTimeStamp();
+        double sum = 0.0;
+        for (int ch = 0; ch < N_CHANNELS; ch++) {
+            final double[] channel = channels[ch];
+            for (int i = 0; i < N_SAMPLES; i++) {
+                sum += filters[ch].filter(channel[i]);
+            }
+        }
+        ProcessingProfiler.getTimeDiff(start, "sample-by-sample result = " + sum);
+    }
+
+    public static void main(String[] args) {
+        ProcessingProfiler.setVerboseOutputState(true);
+        ProcessingProfiler.setDebugState(true);
+
+        final IIRFilterBenchmarkSample benchmark = new IIRFilterBenchmarkSample();
+        LOGGER.atInfo().addArgument(N_CHANNELS).addArgument(N_SAMPLES).log("filter {} channels x {} samples");
+        for (int repeat = 0; repeat < 5; repeat++) { // N.B. first iteration includes JIT warm-up
+            benchmark.testSampleBySample();
+            benchmark.testBlock();
+            benchmark.testMultiChannel();
+            LOGGER.atInfo().log("");
+        }
+    }
+}